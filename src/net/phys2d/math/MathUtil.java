@@ -103,6 +103,20 @@ public final strictfp class MathUtil {
 		return new Vector2f(A.col1.x * v.getX() + A.col2.x * v.getY(), A.col1.y * v.getX() + A.col2.y * v.getY());
 	}
 	
+	/**
+	 * Multiply a matrix by a vector, without creating a vector
+	 * 
+	 * @param A The matrix to be multiplied
+	 * @param v The vector to multiple by
+	 * @param result The vector to store the result in, may be v
+	 */
+	public static void mul(Matrix2f A, ROVector2f v, Vector2f result)
+	{
+		float x = v.getX();
+		float y = v.getY();
+		result.set(A.col1.x * x + A.col2.x * y, A.col1.y * x + A.col2.y * y);
+	}
+	
 	/**
 	 * Multiple two matricies
 	 * 
@@ -115,6 +129,19 @@ public final strictfp class MathUtil {
 		return new Matrix2f(mul(A,B.col1), mul(A,B.col2));
 	}
 	
+	/**
+	 * Multiply two matricies, without creating a matrix
+	 * 
+	 * @param A The first matrix
+	 * @param B The second matrix
+	 * @param result The matrix to store the result in, must not be A
+	 */
+	public static void mul(Matrix2f A, Matrix2f B, Matrix2f result) 
+	{
+		mul(A,B.col1,result.col1);
+		mul(A,B.col2,result.col2);
+	}
+	
 	/**
 	 * Create the absolute version of a matrix
 	 * 
@@ -125,6 +152,17 @@ public final strictfp class MathUtil {
 		return new Matrix2f(abs(A.col1), abs(A.col2));
 	}
 
+	/**
+	 * Make a matrix absolute, without creating a matrix
+	 * 
+	 * @param A The matrix to make absolute
+	 * @param result The matrix to store the result in, may be A
+	 */
+	public static void abs(Matrix2f A, Matrix2f result) {
+		abs(A.col1,result.col1);
+		abs(A.col2,result.col2);
+	}
+
 	/**
 	 * Make a vector absolute
 	 * 
@@ -136,6 +174,17 @@ public final strictfp class MathUtil {
 		return new Vector2f(Math.abs(a.x), Math.abs(a.y));
 	}
 
+	/**
+	 * Make a vector absolute, without creating a vector
+	 * 
+	 * @param a The vector to make absolute
+	 * @param result The vector to store the result in, may be a
+	 */
+	public static void abs(ROVector2f a, Vector2f result)
+	{
+		result.set(Math.abs(a.getX()), Math.abs(a.getY()));
+	}
+
 	/**
 	 * Add two matricies
 	 * 
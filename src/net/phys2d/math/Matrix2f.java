@@ -72,6 +72,19 @@ public strictfp class Matrix2f {
 		col1.y = s; col2.y = c;
 	}
 
+	/**
+	 * Set this matrix to a rotation
+	 * 
+	 * @param angle The angle of the rotation decribed by the matrix
+	 */
+	public void setRotation(float angle)
+	{
+		float c = (float) Math.cos(angle);
+		float s = (float) Math.sin(angle);
+		col1.x = c; col2.x = -s;
+		col1.y = s; col2.y = c;
+	}
+
 	/**
 	 * Create a matrix
 	 * 
@@ -94,6 +107,18 @@ public strictfp class Matrix2f {
 							new Vector2f(col1.y, col2.y));
 	}
 
+	/**
+	 * Transpose the matrix, without creating a matrix
+	 * 
+	 * @param result The matrix to store the transpose in, may be this one
+	 */
+	public void transpose(Matrix2f result) 
+	{
+		float c1y = col1.y;
+		result.col1.set(col1.x, col2.x);
+		result.col2.set(c1y, col2.y);
+	}
+
 	/**
 	 * Transpose the invert
 	 * 
@@ -42,6 +42,7 @@ package net.phys2d.raw;
 
 import net.phys2d.math.MathUtil;
 import net.phys2d.math.Vector2f;
+import net.phys2d.raw.collide.Collider;
 
 /**
  * A arbiter resolving contacts between a pair of bodies
@@ -62,6 +63,18 @@ public strictfp class Arbiter {
 	private Body body2;
 	/** Combined friction between two bodies */
 	private float friction;
+	/** The collider of the two bodies, resolved on the first collision */
+	private Collider collider;
+	/** True if the collider has been resolved, it's null if there is none */
+	private boolean colliderResolved;
+	
+	/** Scratch vectors of the solver, so that stepping allocates nothing */
+	private final Vector2f r1 = new Vector2f();
+	private final Vector2f r2 = new Vector2f();
+	private final Vector2f relativeVelocity = new Vector2f();
+	private final Vector2f tangent = new Vector2f();
+	private final Vector2f impulse = new Vector2f();
+	private final Vector2f tmp = new Vector2f();
 	
 	/**
 	 * Create a new arbiter - this should only be done by the 
@@ -75,6 +88,35 @@ public strictfp class Arbiter {
 			contacts[i] = new Contact();
 		}
 		
+		setBodies(b1, b2);
+	}
+	
+	/**
+	 * Clear this arbiter so that it is like one newly created for a 
+	 * pair of bodies - this should only be done by the engine
+	 * 
+	 * @param b1 The first body in contact
+	 * @param b2 The second body in contact
+	 */
+	void reset(Body b1, Body b2) {
+		for (int i=0;i<MAX_POINTS;i++) {
+			contacts[i].reset();
+		}
+		numContacts = 0;
+		friction = 0;
+		clearCollider();
+		
+		setBodies(b1, b2);
+	}
+	
+	/**
+	 * Set the bodies of this arbiter, in the order the engine resolves
+	 * them in
+	 * 
+	 * @param b1 The first body in contact
+	 * @param b2 The second body in contact
+	 */
+	private void setBodies(Body b1, Body b2) {
 		if (!(b2 instanceof StaticBody) && b1.hashCode() < b2.hashCode())
 		{
 			body1 = b1;
@@ -100,12 +142,38 @@ public strictfp class Arbiter {
 	 * Perform the collision analysis between the two bodies 
 	 * arbitrated
 	 * 
+	 * @param collide The utility that provides the collider on the
+	 * first collision
 	 * @param dt The amount of time passed since last collision check
 	 */
-	public void collide(float dt) {
-		numContacts = Collide.collide(contacts, body1, body2, dt);
+	public void collide(Collide collide, float dt) {
+		if (!colliderResolved) {
+			collider = collide.getCollider(body1, body2);
+			colliderResolved = true;
+		}
+		numContacts = (collider == null) ? 0 : collider.collide(contacts, body1, body2);
 	} 
 	
+	/**
+	 * Use the collider already resolved by another arbiter of the 
+	 * same two bodies
+	 * 
+	 * @param other The other arbiter
+	 */
+	void useColliderOf(Arbiter other) {
+		collider = other.collider;
+		colliderResolved = other.colliderResolved;
+	}
+	
+	/**
+	 * Forget the collider, so that it is resolved again on the next
+	 * collision
+	 */
+	void clearCollider() {
+		collider = null;
+		colliderResolved = false;
+	}
+	
 	/**
 	 * Get one of the two contacts handled being handled by this
 	 * arbiter
@@ -167,47 +235,31 @@ public strictfp class Arbiter {
 	
 	/**
 	 * Update this arbiter from a second set of data determined
-	 * as the simulation continues
+	 * as the simulation continues. The new contacts are merged in 
+	 * place, so they get the impulses accumulated at the old contacts 
+	 * with the same features.
 	 * 
 	 * @param newContacts The new contacts that have been found
 	 * @param numNewContacts The number of new contacts discovered
 	 */
 	void update(Contact[] newContacts, int numNewContacts) {
-		Contact[] mergedContacts = new Contact[MAX_POINTS];
-		for (int i=0;i<mergedContacts.length;i++) {
-			mergedContacts[i] = new Contact();
-		}
-		
 		for (int i = 0; i < numNewContacts; ++i)
 		{
 			Contact cNew = newContacts[i];
-			int k = -1;
 			for (int j = 0; j < numContacts; ++j)
 			{
 				Contact cOld = contacts[j];
 				if (cNew.feature.equals(cOld.feature))
 				{
-					k = j;
+					cNew.accumulatedNormalImpulse = cOld.accumulatedNormalImpulse;
+					cNew.accumulatedTangentImpulse = cOld.accumulatedTangentImpulse;
 					break;
 				}
 			}
-
-			if (k > -1)
-			{
-				Contact c = mergedContacts[i];
-				Contact cOld = contacts[k];
-				c.set(cNew);
-				c.accumulatedNormalImpulse = cOld.accumulatedNormalImpulse;
-				c.accumulatedTangentImpulse = cOld.accumulatedTangentImpulse;
-			}
-			else
-			{
-				mergedContacts[i].set(newContacts[i]);
-			}
 		}
 
 		for (int i = 0; i < numNewContacts; ++i) {
-			contacts[i].set(mergedContacts[i]);
+			contacts[i].set(newContacts[i]);
 		}
 
 		numContacts = numNewContacts;
@@ -242,9 +294,9 @@ public strictfp class Arbiter {
 			Contact c = contacts[i];
 			c.normal.normalise();
 			
-			Vector2f r1 = new Vector2f(c.position);
+			r1.set(c.position);
 			r1.sub(body1.getPosition());
-			Vector2f r2 = new Vector2f(c.position);
+			r2.set(c.position);
 			r2.sub(body2.getPosition());
 
 			// Precompute normal mass, tangent mass, and bias.
@@ -254,7 +306,7 @@ public strictfp class Arbiter {
 			kNormal += body1.getInvI() * (r1.dot(r1) - rn1 * rn1) + body2.getInvI() * (r2.dot(r2) - rn2 * rn2);
 			c.massNormal = damping / kNormal;
 			
-			Vector2f tangent = MathUtil.cross(c.normal, 1.0f);
+			setCross(tangent, c.normal, 1.0f);
 			float rt1 = r1.dot(tangent);
 			float rt2 = r2.dot(tangent);
 			float kTangent = body1.getInvMass() + body2.getInvMass();
@@ -263,10 +315,10 @@ public strictfp class Arbiter {
 
 			// Compute restitution
 			// Relative velocity at contact 
-			Vector2f relativeVelocity =  new Vector2f(body2.getVelocity());
-			relativeVelocity.add(MathUtil.cross(r2, body2.getAngularVelocity()));
+			relativeVelocity.set(body2.getVelocity());
+			addCross(relativeVelocity, r2, body2.getAngularVelocity());
 			relativeVelocity.sub(body1.getVelocity());
-			relativeVelocity.sub(MathUtil.cross(r1, body1.getAngularVelocity()));
+			subCross(relativeVelocity, r1, body1.getAngularVelocity());
 			
 			float combinedRestitution = (body1.getRestitution() * body2.getRestitution());
 			float relVel = c.normal.dot(relativeVelocity);
@@ -284,13 +336,16 @@ public strictfp class Arbiter {
 			c.accumulatedNormalImpulse *= damping;
 			
 			// Apply normal + friction impulse
-			Vector2f impulse = MathUtil.scale(c.normal, c.accumulatedNormalImpulse);
-			impulse.add(MathUtil.scale(tangent, c.accumulatedTangentImpulse));
+			impulse.set(c.normal);
+			impulse.scale(c.accumulatedNormalImpulse);
+			tmp.set(tangent);
+			tmp.scale(c.accumulatedTangentImpulse);
+			impulse.add(tmp);
 			
-			body1.adjustVelocity(MathUtil.scale(impulse, -body1.getInvMass()));
+			adjustVelocity(body1, impulse, -body1.getInvMass(), false);
 			body1.adjustAngularVelocity(-body1.getInvI() * MathUtil.cross(r1, impulse));
 
-			body2.adjustVelocity(MathUtil.scale(impulse, body2.getInvMass()));
+			adjustVelocity(body2, impulse, body2.getInvMass(), false);
 			body2.adjustAngularVelocity(body2.getInvI() * MathUtil.cross(r2, impulse));
 			
 			// rest bias
@@ -435,16 +490,16 @@ public strictfp class Arbiter {
 		{
 			Contact c = contacts[i];
 			
-			Vector2f r1 = new Vector2f(c.position);
+			r1.set(c.position);
 			r1.sub(b1.getPosition());
-			Vector2f r2 = new Vector2f(c.position);
+			r2.set(c.position);
 			r2.sub(b2.getPosition());
 
 			// Relative velocity at contact
-			Vector2f relativeVelocity =  new Vector2f(b2.getVelocity());
-			relativeVelocity.add(MathUtil.cross(b2.getAngularVelocity(), r2));
+			relativeVelocity.set(b2.getVelocity());
+			addCross(relativeVelocity, b2.getAngularVelocity(), r2);
 			relativeVelocity.sub(b1.getVelocity());
-			relativeVelocity.sub(MathUtil.cross(b1.getAngularVelocity(), r1));
+			subCross(relativeVelocity, b1.getAngularVelocity(), r1);
 			
 			// Compute normal impulse with bias.
 			float vn = relativeVelocity.dot(c.normal);
@@ -460,20 +515,21 @@ public strictfp class Arbiter {
 			normalImpulse = c.accumulatedNormalImpulse - oldNormalImpulse;
 			
 			// Apply contact impulse
-			Vector2f impulse = MathUtil.scale(c.normal, normalImpulse);
+			impulse.set(c.normal);
+			impulse.scale(normalImpulse);
 			
-			b1.adjustVelocity(MathUtil.scale(impulse, -b1.getInvMass()));
+			adjustVelocity(b1, impulse, -b1.getInvMass(), false);
 			b1.adjustAngularVelocity(-(b1.getInvI() * MathUtil.cross(r1, impulse)));
 
-			b2.adjustVelocity(MathUtil.scale(impulse, b2.getInvMass()));
+			adjustVelocity(b2, impulse, b2.getInvMass(), false);
 			b2.adjustAngularVelocity(b2.getInvI() * MathUtil.cross(r2, impulse));
 
 			// Compute bias impulse
 			// NEW STUFF FOR SEPERATING BIAS
 			relativeVelocity.set(b2.getBiasedVelocity());
-			relativeVelocity.add(MathUtil.cross(b2.getBiasedAngularVelocity(), r2));
+			addCross(relativeVelocity, b2.getBiasedAngularVelocity(), r2);
 			relativeVelocity.sub(b1.getBiasedVelocity());
-			relativeVelocity.sub(MathUtil.cross(b1.getBiasedAngularVelocity(), r1));
+			subCross(relativeVelocity, b1.getBiasedAngularVelocity(), r1);
 			float vnb = relativeVelocity.dot(c.normal);
 
 			float biasImpulse = c.massNormal * (-vnb + c.bias);
@@ -481,13 +537,14 @@ public strictfp class Arbiter {
 			c.biasImpulse = Math.max(oldBiasImpulse + biasImpulse, 0.0f);
 			biasImpulse = c.biasImpulse - oldBiasImpulse;
 
-			Vector2f Pb = MathUtil.scale(c.normal, biasImpulse);
+			impulse.set(c.normal);
+			impulse.scale(biasImpulse);
 			
-			b1.adjustBiasedVelocity(MathUtil.scale(Pb, -b1.getInvMass()));
-			b1.adjustBiasedAngularVelocity(-(b1.getInvI() * MathUtil.cross(r1, Pb)));
+			adjustVelocity(b1, impulse, -b1.getInvMass(), true);
+			b1.adjustBiasedAngularVelocity(-(b1.getInvI() * MathUtil.cross(r1, impulse)));
 
-			b2.adjustBiasedVelocity(MathUtil.scale(Pb, b2.getInvMass()));
-			b2.adjustBiasedAngularVelocity((b2.getInvI() * MathUtil.cross(r2, Pb)));
+			adjustVelocity(b2, impulse, b2.getInvMass(), true);
+			b2.adjustBiasedAngularVelocity((b2.getInvI() * MathUtil.cross(r2, impulse)));
 
 			// END NEW STUFF
 			
@@ -498,11 +555,11 @@ public strictfp class Arbiter {
 
 			// Relative velocity at contact
 			relativeVelocity.set(b2.getVelocity());
-			relativeVelocity.add(MathUtil.cross(b2.getAngularVelocity(), r2));
+			addCross(relativeVelocity, b2.getAngularVelocity(), r2);
 			relativeVelocity.sub(b1.getVelocity());
-			relativeVelocity.sub(MathUtil.cross(b1.getAngularVelocity(), r1));
+			subCross(relativeVelocity, b1.getAngularVelocity(), r1);
 			
-			Vector2f tangent = MathUtil.cross(c.normal, 1.0f);
+			setCross(tangent, c.normal, 1.0f);
 			float vt = relativeVelocity.dot(tangent);
 			float tangentImpulse = c.massTangent * (-vt);
 
@@ -512,16 +569,95 @@ public strictfp class Arbiter {
 			tangentImpulse = c.accumulatedTangentImpulse - oldTangentImpulse;
 
 			// Apply contact impulse
-			impulse = MathUtil.scale(tangent, tangentImpulse);
+			impulse.set(tangent);
+			impulse.scale(tangentImpulse);
 			
-			b1.adjustVelocity(MathUtil.scale(impulse, -b1.getInvMass()));
+			adjustVelocity(b1, impulse, -b1.getInvMass(), false);
 			b1.adjustAngularVelocity(-b1.getInvI() * MathUtil.cross(r1, impulse));
 
-			b2.adjustVelocity(MathUtil.scale(impulse, b2.getInvMass()));
+			adjustVelocity(b2, impulse, b2.getInvMass(), false);
 			b2.adjustAngularVelocity(b2.getInvI() * MathUtil.cross(r2, impulse));
 		}
 	}
 	
+	/**
+	 * Adjust the velocity of a body by a scaled impulse, as
+	 * adjustVelocity(MathUtil.scale(impulse, scale)) without the garbage
+	 * 
+	 * @param body The body to adjust
+	 * @param impulse The impulse to apply
+	 * @param scale The amount to scale the impulse by
+	 * @param biased True if the biased velocity should be adjusted
+	 */
+	private void adjustVelocity(Body body, Vector2f impulse, float scale, boolean biased) {
+		tmp.set(impulse);
+		tmp.scale(scale);
+		if (biased) {
+			body.adjustBiasedVelocity(tmp);
+		} else {
+			body.adjustVelocity(tmp);
+		}
+	}
+	
+	/**
+	 * Set a vector to MathUtil.cross(a, s)
+	 * 
+	 * @param v The vector to set
+	 * @param a The vector of the cross product
+	 * @param s The scalar of the cross product
+	 */
+	private static void setCross(Vector2f v, Vector2f a, float s) {
+		v.set(s * a.y, -s * a.x);
+	}
+	
+	/**
+	 * Add MathUtil.cross(a, s) to a vector
+	 * 
+	 * @param v The vector to add to
+	 * @param a The vector of the cross product
+	 * @param s The scalar of the cross product
+	 */
+	private static void addCross(Vector2f v, Vector2f a, float s) {
+		v.x += s * a.y;
+		v.y += -s * a.x;
+	}
+	
+	/**
+	 * Subtract MathUtil.cross(a, s) from a vector
+	 * 
+	 * @param v The vector to subtract from
+	 * @param a The vector of the cross product
+	 * @param s The scalar of the cross product
+	 */
+	private static void subCross(Vector2f v, Vector2f a, float s) {
+		v.x -= s * a.y;
+		v.y -= -s * a.x;
+	}
+	
+	/**
+	 * Add MathUtil.cross(s, a) to a vector
+	 * 
+	 * @param v The vector to add to
+	 * @param s The scalar of the cross product
+	 * @param a The vector of the cross product
+	 */
+	private static void addCross(Vector2f v, float s, Vector2f a) {
+		v.x += -s * a.y;
+		v.y += s * a.x;
+	}
+	
+	/**
+	 * Subtract MathUtil.cross(s, a) from a vector
+	 * 
+	 * @param v The vector to subtract from
+	 * @param s The scalar of the cross product
+	 * @param a The vector of the cross product
+	 */
+	private static void subCross(Vector2f v, float s, Vector2f a) {
+		v.x -= -s * a.y;
+		v.y -= s * a.x;
+	}
+	
 	/**
 	 * Get the energy contained within 2 bodies
 	 * 
@@ -40,31 +40,59 @@
  */
 package net.phys2d.raw;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * A typed list of <code>Arbiter</code>
+ * A typed list of <code>Arbiter</code>, indexed by the pair of bodies each
+ * arbiter resolves. Lookup, add and remove take constant time. The arbiters
+ * are kept in the order they were added, except that removing one moves the
+ * last arbiter into its place.
  * 
  * @author Kevin Glass
  */
 public class ArbiterList {
+	/** The key of an empty slot, no pair of two different bodies has it */
+	private static final long EMPTY = -1L;
+	
 	/** The elements in the list */
-	private ArrayList elements = new ArrayList();
+	private Arbiter[] elements = new Arbiter[16];
+	/** The number of elements in the list */
+	private int size;
+	/** The pair keys of the open addressed table, EMPTY if a slot is free */
+	private long[] keys = new long[32];
+	/** The index into elements of the arbiter of each slot */
+	private int[] indices = new int[32];
 	
 	/**
 	 * Create an empty list 
 	 */
 	ArbiterList() {
-		
+		Arrays.fill(keys, EMPTY);
 	}
 	
 	/**
-	 * Add an arbiter to the list
+	 * Add an arbiter to the list. There must not be an arbiter for
+	 * the same pair of bodies in the list already.
 	 * 
 	 * @param arbiter The arbiter to add
 	 */
 	void add(Arbiter arbiter) {
-		elements.add(arbiter);
+		if (size == elements.length) {
+			Arbiter[] grown = new Arbiter[size * 2];
+			System.arraycopy(elements, 0, grown, 0, size);
+			elements = grown;
+		}
+		if ((size + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		long key = keyOf(arbiter.getBody1(), arbiter.getBody2());
+		int slot = slotOf(key);
+		while (keys[slot] != EMPTY) {
+			slot = (slot + 1) & (keys.length - 1);
+		}
+		keys[slot] = key;
+		indices[slot] = size;
+		elements[size++] = arbiter;
 	}
 	
 	/**
@@ -73,7 +101,7 @@ public class ArbiterList {
 	 * @return The number of elements in the list
 	 */
 	public int size() {
-		return elements.size();
+		return size;
 	}
 	
 	/**
@@ -83,7 +111,20 @@ public class ArbiterList {
 	 * @return The index of -1 if not found
 	 */
 	public int indexOf(Arbiter arbiter) {
-		return elements.indexOf(arbiter);
+		int slot = find(keyOf(arbiter.getBody1(), arbiter.getBody2()));
+		return (slot < 0) ? -1 : indices[slot];
+	}
+	
+	/**
+	 * Get the arbiter between two bodies, in either order
+	 * 
+	 * @param body1 The first body
+	 * @param body2 The second body
+	 * @return The arbiter or null if there is none in the list
+	 */
+	public Arbiter get(Body body1, Body body2) {
+		int slot = find(keyOf(body1, body2));
+		return (slot < 0) ? null : elements[indices[slot]];
 	}
 	
 	/**
@@ -92,11 +133,33 @@ public class ArbiterList {
 	 * @param arbiter The arbiter ot remove from the list
 	 */
 	void remove(Arbiter arbiter) {
-		if (!elements.contains(arbiter)) {
-			return;
+		remove(arbiter.getBody1(), arbiter.getBody2());
+	}
+	
+	/**
+	 * Remove the arbiter between two bodies from the list
+	 * 
+	 * @param body1 The first body
+	 * @param body2 The second body
+	 * @return The arbiter removed or null if there was none in the list
+	 */
+	Arbiter remove(Body body1, Body body2) {
+		int slot = find(keyOf(body1, body2));
+		if (slot < 0) {
+			return null;
 		}
-		elements.set(elements.indexOf(arbiter), elements.get(elements.size()-1));
-		elements.remove(elements.size()-1);
+		int index = indices[slot];
+		Arbiter removed = elements[index];
+		deleteSlot(slot);
+		
+		size--;
+		if (index != size) {
+			Arbiter last = elements[size];
+			elements[index] = last;
+			indices[find(keyOf(last.getBody1(), last.getBody2()))] = index;
+		}
+		elements[size] = null;
+		return removed;
 	}
 	
 	/**
@@ -106,14 +169,19 @@ public class ArbiterList {
 	 * @return The arbiter at the specified index
 	 */
 	public Arbiter get(int i) {
-		return (Arbiter) elements.get(i);
+		if (i >= size) {
+			throw new IndexOutOfBoundsException("Index: "+i+", Size: "+size);
+		}
+		return elements[i];
 	}
 	
 	/**
 	 * Remove all the elements from the list
 	 */
 	public void clear() {
-		elements.clear();
+		Arrays.fill(elements, 0, size, null);
+		Arrays.fill(keys, EMPTY);
+		size = 0;
 	}
 
 	/**
@@ -123,6 +191,95 @@ public class ArbiterList {
 	 * @return True if the arbiter is in the list
 	 */
 	public boolean contains(Arbiter arb) {
-		return elements.contains(arb);
+		return find(keyOf(arb.getBody1(), arb.getBody2())) >= 0;
+	}
+	
+	/**
+	 * Get the key of a pair of bodies, the lower ID in the high half
+	 * 
+	 * @param body1 The first body
+	 * @param body2 The second body
+	 * @return The key, the same in either order
+	 */
+	private static long keyOf(Body body1, Body body2) {
+		int id1 = body1.getID();
+		int id2 = body2.getID();
+		if (id1 > id2) {
+			int tmp = id1;
+			id1 = id2;
+			id2 = tmp;
+		}
+		return ((long) id1 << 32) | (id2 & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Get the slot a key is looked for from
+	 * 
+	 * @param key The key of a pair
+	 * @return The first slot to probe
+	 */
+	private int slotOf(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 40) & (keys.length - 1);
+	}
+	
+	/**
+	 * Find the slot of a key
+	 * 
+	 * @param key The key of a pair
+	 * @return The slot or -1 if the key is not in the table
+	 */
+	private int find(long key) {
+		int mask = keys.length - 1;
+		for (int slot = slotOf(key); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Free a slot, moving later keys of the same probe run back so that
+	 * no tombstones are needed
+	 * 
+	 * @param slot The slot to free
+	 */
+	private void deleteSlot(int slot) {
+		int mask = keys.length - 1;
+		int free = slot;
+		int next = (free + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = slotOf(keys[next]);
+			// Move the key if its home isn't cyclically in (free, next]
+			if (((next - home) & mask) >= ((next - free) & mask)) {
+				keys[free] = keys[next];
+				indices[free] = indices[next];
+				free = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[free] = EMPTY;
+	}
+	
+	/**
+	 * Rebuild the table with a new number of slots
+	 * 
+	 * @param capacity The new number of slots, a power of two
+	 */
+	private void rehash(int capacity) {
+		keys = new long[capacity];
+		indices = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		int mask = capacity - 1;
+		for (int i = 0; i < size; i++) {
+			long key = keyOf(elements[i].getBody1(), elements[i].getBody2());
+			int slot = slotOf(key);
+			while (keys[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			indices[slot] = i;
+		}
 	}
 }
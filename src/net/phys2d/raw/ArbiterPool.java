@@ -0,0 +1,65 @@
+package net.phys2d.raw;
+
+/**
+ * A pool of arbiters, and with them their contacts, that have been freed
+ * when their pair of bodies separated. A space draws the arbiters of new
+ * pairs from its pool, so that a space in a steady state creates none.
+ */
+class ArbiterPool {
+	/** The free arbiters */
+	private Arbiter[] free = new Arbiter[16];
+	/** The number of free arbiters */
+	private int size;
+	/** The number of arbiters created by this pool */
+	private int created;
+	
+	/**
+	 * Get an arbiter for a pair of bodies, like a newly created one
+	 * 
+	 * @param b1 The first body in contact
+	 * @param b2 The second body in contact
+	 * @return A free arbiter, or a new one if there is none
+	 */
+	Arbiter obtain(Body b1, Body b2) {
+		if (size == 0) {
+			created++;
+			return new Arbiter(b1, b2);
+		}
+		Arbiter arbiter = free[--size];
+		free[size] = null;
+		arbiter.reset(b1, b2);
+		return arbiter;
+	}
+	
+	/**
+	 * Give an arbiter back to the pool. It must not be used after that.
+	 * 
+	 * @param arbiter The arbiter to free
+	 */
+	void free(Arbiter arbiter) {
+		if (size == free.length) {
+			Arbiter[] grown = new Arbiter[size * 2];
+			System.arraycopy(free, 0, grown, 0, size);
+			free = grown;
+		}
+		free[size++] = arbiter;
+	}
+	
+	/**
+	 * Get the number of arbiters created by this pool
+	 * 
+	 * @return The number of arbiters created
+	 */
+	int getCreated() {
+		return created;
+	}
+	
+	/**
+	 * Get the number of free arbiters
+	 * 
+	 * @return The number of arbiters in the pool
+	 */
+	int getFree() {
+		return size;
+	}
+}
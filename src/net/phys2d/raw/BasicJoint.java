@@ -40,6 +40,8 @@
  */
 package net.phys2d.raw;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.phys2d.math.MathUtil;
 import net.phys2d.math.Matrix2f;
 import net.phys2d.math.ROVector2f;
@@ -52,8 +54,8 @@ import net.phys2d.math.Vector2f;
  * @author Kevin Glass
  */
 public strictfp class BasicJoint implements Joint {
-	/** The next ID to be used */
-	private static int NEXT_ID = 0;
+	/** The next ID to be used, shared by worlds stepped on different threads */
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
 	
 	/** The first body attached to the joint */
 	private Body body1;
@@ -89,7 +91,7 @@ public strictfp class BasicJoint implements Joint {
 	 * arround.
 	 */
 	public BasicJoint(Body b1, Body b2, Vector2f anchor) {
-		id = NEXT_ID++;
+		id = NEXT_ID.getAndIncrement();
 		accumulatedImpulse.set(0.0f, 0.0f);
 		relaxation = 1.0f;
 		
@@ -41,6 +41,7 @@
 package net.phys2d.raw;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.phys2d.math.ROVector2f;
 import net.phys2d.math.Vector2f;
@@ -53,8 +54,8 @@ import net.phys2d.raw.shapes.Shape;
  * @author Kevin Glass
  */
 public strictfp class Body {
-	/** The next ID to be assigned */
-	private static int NEXT_ID = 0;
+	/** The next ID to be assigned, shared by worlds stepped on different threads */
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
 	/** The maximum value indicating that body won't move */
 	public static final float INFINITE_MASS = Float.MAX_VALUE;
 	
@@ -221,7 +222,7 @@ public strictfp class Body {
 	protected Body(String name,Shape shape, float m) {
 		this.name = name;
 
-		id = NEXT_ID++;
+		id = NEXT_ID.getAndIncrement();
 		position.set(0.0f, 0.0f);
 		lastPosition.set(0.0f, 0.0f);
 		rotation = 0.0f;
@@ -45,16 +45,59 @@ import net.phys2d.raw.collide.ColliderFactory;
 import net.phys2d.raw.collide.ColliderUnavailableException;
 
 /**
- * A static utility for resolve the collision between shapes
- * 
- * TODO: make this nonstatic to allow a user to provide his/her own factory
+ * A utility for resolve the collision between shapes, with the colliders 
+ * of a factory. Every space has its own, as the colliders of a factory 
+ * may only be used by one thread at a time.
  * 
  * @author Kevin Glass
  */
 public strictfp class Collide {
 
 	/** The factory that provides us with colliders */
-	private static ColliderFactory collFactory = new ColliderFactory();
+	private ColliderFactory collFactory;
+
+	/**
+	 * Create a utility that uses the default colliders
+	 */
+	public Collide() {
+		this(new ColliderFactory());
+	}
+	
+	/**
+	 * Create a utility that uses the colliders of a factory
+	 * 
+	 * @param factory The factory that provides the colliders
+	 */
+	public Collide(ColliderFactory factory) {
+		this.collFactory = factory;
+	}
+	
+	/**
+	 * Get the factory that provides the colliders
+	 * 
+	 * @return The factory that provides the colliders
+	 */
+	public ColliderFactory getColliderFactory() {
+		return collFactory;
+	}
+	
+	/**
+	 * Get the collider for two bodies. It may be kept for as long as
+	 * the shapes of the bodies don't change.
+	 * 
+	 * @param bodyA The first body
+	 * @param bodyB The second body
+	 * @return The collider or null if there is none, which is reported
+	 */
+	public Collider getCollider(Body bodyA, Body bodyB) {
+		try {
+			return collFactory.createCollider(bodyA, bodyB);
+		} catch (ColliderUnavailableException e) {
+			System.out.println(e.getMessage()
+					+ "\n Ignoring any possible collision between the bodies in question");
+			return null;
+		}
+	}
 
 	/**
 	 * Perform the collision between two bodies
@@ -65,14 +108,10 @@ public strictfp class Collide {
 	 * @param dt The amount of time that's passed since we last checked collision
 	 * @return The number of points at which the two bodies contact
 	 */
-	public static int collide(Contact[] contacts, Body bodyA, Body bodyB, float dt)
+	public int collide(Contact[] contacts, Body bodyA, Body bodyB, float dt)
 	{
-		Collider collider;
-		try {
-			collider = collFactory.createCollider(bodyA, bodyB);
-		} catch (ColliderUnavailableException e) {
-			System.out.println(e.getMessage()
-					+ "\n Ignoring any possible collision between the bodies in question");
+		Collider collider = getCollider(bodyA, bodyB);
+		if (collider == null) {
 			return 0;
 		}
 		
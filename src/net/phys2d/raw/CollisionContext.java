@@ -52,4 +52,15 @@ public interface CollisionContext {
 	 * @param dt The time thats passed since last collision check
 	 */
 	public void resolve(BodyList bodies, float dt);
+	
+	/**
+	 * Resolve and store the collision between a single pair of bodies. This
+	 * lets a strategy that has already found the pairs that may touch report
+	 * each of them once, rather than handing over lists of bodies.
+	 * 
+	 * @param bodyA The first body of the pair
+	 * @param bodyB The second body of the pair
+	 * @param dt The time thats passed since last collision check
+	 */
+	public void resolve(Body bodyA, Body bodyB, float dt);
 }
@@ -3,6 +3,7 @@ package net.phys2d.raw;
 import java.util.ArrayList;
 
 import net.phys2d.math.ROVector2f;
+import net.phys2d.raw.collide.ColliderFactory;
 
 /**
  * A space that will resolve collisions and report them to registered 
@@ -15,6 +16,10 @@ public class CollisionSpace implements CollisionContext {
 	protected BodyList bodies = new BodyList(); 
 	/** The arbiters that have been required in the world */
 	protected ArbiterList arbiters = new ArbiterList(); 
+	/** The arbiters of pairs that have separated, reused for new pairs */
+	ArbiterPool arbiterPool = new ArbiterPool();
+	/** The narrow phase, that provides the colliders of pairs of bodies */
+	protected Collide narrowPhase = new Collide();
 	/** The broad phase collision strategy we're using */
 	protected BroadCollisionStrategy collisionStrategy;
 	/** The list of listeners that should be notified of collisions */
@@ -68,9 +73,26 @@ public class CollisionSpace implements CollisionContext {
 	 */
 	public void clear() {
 		bodies.clear();
+		for (int i=0;i<arbiters.size();i++) {
+			arbiterPool.free(arbiters.get(i));
+		}
 		arbiters.clear();
 	}
 	
+	/**
+	 * Remove the arbiter between two bodies, if any, and give it back to 
+	 * the pool
+	 * 
+	 * @param b1 The first body
+	 * @param b2 The second body
+	 */
+	void freeArbiter(Body b1, Body b2) {
+		Arbiter arbiter = arbiters.remove(b1, b2);
+		if (arbiter != null) {
+			arbiterPool.free(arbiter);
+		}
+	}
+	
 	/**
 	 * Add a body to the simulation
 	 * 
@@ -111,6 +133,29 @@ public class CollisionSpace implements CollisionContext {
 		this.collisionStrategy = strategy;
 	}
 	
+	/**
+	 * Set the factory of the colliders that determine the contacts 
+	 * between pairs of bodies in the narrow phase.
+	 * 
+	 * @param factory The factory that provides the colliders, used only
+	 * by this space
+	 */
+	public void setColliderFactory(ColliderFactory factory) {
+		this.narrowPhase = new Collide(factory);
+		for (int i=0;i<arbiters.size();i++) {
+			arbiters.get(i).clearCollider();
+		}
+	}
+	
+	/**
+	 * Get the factory of the colliders used in the narrow phase
+	 * 
+	 * @return The factory that provides the colliders
+	 */
+	public ColliderFactory getColliderFactory() {
+		return narrowPhase.getColliderFactory();
+	}
+	
 	/**
 	 * Notify listeners of a collision
 	 * 
@@ -145,55 +190,65 @@ public class CollisionSpace implements CollisionContext {
 			
 			for (int j = i+1; j < bodyList.size(); ++j)
 			{
-				Body bj = bodyList.get(j);
-				if (bj.disabled()) {
-					continue;
-				}
-				if ((bi.getBitmask() & bj.getBitmask()) != 0) {
-					continue;
-				}
-				if (bi.getExcludedList().contains(bj)) {
-					continue;
-				}
-				if (bi.getInvMass() == 0.0f && bj.getInvMass() == 0.0f) {
-					continue;
-				}
-				if (!bi.getShape().getBounds().touches(bi.getPosition().getX(), 
-													   bi.getPosition().getY(), 
-													   bj.getShape().getBounds(), 
-													   bj.getPosition().getX(), 
-													   bj.getPosition().getY())) {
+				resolve(bi, bodyList.get(j), dt);
+			}
+		}
+	}
+	
+	/**
+	 * @see net.phys2d.raw.CollisionContext#resolve(net.phys2d.raw.Body, net.phys2d.raw.Body, float)
+	 */
+	public void resolve(Body bi, Body bj, float dt) {
+		if (bi.disabled() || bj.disabled()) {
+			return;
+		}
+		if ((bi.getBitmask() & bj.getBitmask()) != 0) {
+			return;
+		}
+		if (bi.getExcludedList().contains(bj)) {
+			return;
+		}
+		if (bi.getInvMass() == 0.0f && bj.getInvMass() == 0.0f) {
+			return;
+		}
+		if (!bi.getShape().getBounds().touches(bi.getPosition().getX(), 
+											   bi.getPosition().getY(), 
+											   bj.getShape().getBounds(), 
+											   bj.getPosition().getX(), 
+											   bj.getPosition().getY())) {
 
-					arbiters.remove(new Arbiter(bi,bj));
-					continue;
-				}
-				
-				Arbiter newArb = new Arbiter(bi, bj);
-				newArb.collide(dt);
+			freeArbiter(bi,bj);
+			return;
+		}
+		
+		Arbiter arb = arbiters.get(bi,bj);
+		Arbiter newArb = arbiterPool.obtain(bi, bj);
+		if (arb != null) {
+			newArb.useColliderOf(arb);
+		}
+		newArb.collide(narrowPhase, dt);
+		
+		if (newArb.getNumContacts() > 0)
+		{
+			bi.collided(bj);
+			bj.collided(bi);
+			
+			if (arb != null) {
+				arb.update(newArb.getContacts(), newArb.getNumContacts());
+				arbiterPool.free(newArb);
+			} else {
+				Contact c = newArb.getContact(0);
 				
-				if (newArb.getNumContacts() > 0)
-				{
-					bi.collided(bj);
-					bj.collided(bi);
-					
-					if (arbiters.contains(newArb)) {
-						int index = arbiters.indexOf(newArb);
-						Arbiter arb = arbiters.get(index);
-						arb.update(newArb.getContacts(), newArb.getNumContacts());
-					} else {
-						Contact c = newArb.getContact(0);
-						
-						notifyCollision(bi,bj,c.getPosition(),c.getNormal(),c.getSeparation());
-						arbiters.add(newArb);
-						newArb.init();
-					}
-				}
-				else
-				{
-					arbiters.remove(newArb);
-				}
+				notifyCollision(bi,bj,c.getPosition(),c.getNormal(),c.getSeparation());
+				arbiters.add(newArb);
+				newArb.init();
 			}
 		}
+		else
+		{
+			arbiterPool.free(newArb);
+			freeArbiter(bi,bj);
+		}
 	}
 
 	/**
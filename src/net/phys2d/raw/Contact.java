@@ -75,6 +75,9 @@ public strictfp class Contact {
 	/** The bias impulse accumulated */
 	float biasImpulse;
 	
+	/** The feature of a newly created contact */
+	private static final FeaturePair EMPTY_FEATURE = new FeaturePair();
+	
 	/**
 	 * Create a new contact point
 	 */
@@ -110,6 +113,23 @@ public strictfp class Contact {
 		feature.set(contact.feature);
 	}
 	
+	/**
+	 * Clear this contact so that it is like a newly created one
+	 */
+	void reset() {
+		position.set(0, 0);
+		normal.set(0, 0);
+		separation = 0;
+		accumulatedNormalImpulse = 0;
+		accumulatedTangentImpulse = 0;
+		massNormal = 0;
+		massTangent = 0;
+		bias = 0;
+		restitution = 0;
+		biasImpulse = 0;
+		feature.set(EMPTY_FEATURE);
+	}
+	
 	/**
 	 * Get the seperation between bodies
 	 * 
@@ -156,12 +176,13 @@ public strictfp class Contact {
 	}
 	
 	/**
-	 * Set the feature identifying the location of the contact
+	 * Set the feature identifying the location of the contact. The pair
+	 * is copied, so the collider may reuse it.
 	 * 
 	 * @param pair The pair identifying the location of the contact
 	 */
 	public void setFeature(FeaturePair pair) {
-		this.feature = pair;
+		this.feature.set(pair);
 	}
 
 	/**
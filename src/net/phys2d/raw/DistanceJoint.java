@@ -65,15 +65,21 @@ public class DistanceJoint implements Joint {
 	/** The distance between the bodies */
 	private float distant;
 	/** Distance Vector*/
-	protected Vector2f dp;
+	protected Vector2f dp = new Vector2f();
 	/** The matrix for applying impulse */
 	protected Matrix2f M;
 	/** The rotation of the first body */
-	protected Vector2f r1;
+	protected Vector2f r1 = new Vector2f();
 	/** The rotation of the second body */
-	protected Vector2f r2;
+	protected Vector2f r2 = new Vector2f();
 	/** The scalar */
 	protected float sc;
+	/** The rotation matrix of a body, kept so a step creates no objects */
+	private Matrix2f rot = new Matrix2f();
+	/** Temp vector */
+	private Vector2f temp = new Vector2f();
+	/** The impulse applied to the bodies */
+	private Vector2f impulse = new Vector2f();
 
 	/**
 	 * @param body1	The first body to be attached on constraint
@@ -95,19 +101,35 @@ public class DistanceJoint implements Joint {
 	 * @see net.phys2d.raw.Joint#applyImpulse()
 	 */
 	public void applyImpulse() {
-		Vector2f dv = new Vector2f(body2.getVelocity());
-		dv.add(MathUtil.cross(body2.getAngularVelocity(), r2));
+		Vector2f dv = temp;
+		dv.set(body2.getVelocity());
+		float w2 = body2.getAngularVelocity();
+		dv.x += -w2 * r2.y;
+		dv.y += w2 * r2.x;
 		dv.sub(body1.getVelocity());
-		dv.sub(MathUtil.cross(body1.getAngularVelocity(), r1));
+		float w1 = body1.getAngularVelocity();
+		dv.x -= -w1 * r1.y;
+		dv.y -= w1 * r1.x;
 
 		float ju = -dv.dot(dp) + bias;
 		float p = ju / sc;
 
-		Vector2f impulse = new Vector2f(dp);
+		impulse.set(dp);
 		impulse.scale(p);
+		applyImpulse(impulse);
 
+		accumulatedImpulse += p;
+	}
+
+	/**
+	 * Apply an impulse along dp to the bodies, negated for the first one
+	 * 
+	 * @param impulse The impulse to apply
+	 */
+	private void applyImpulse(Vector2f impulse) {
 		if (!body1.isStatic()) {
-			Vector2f accum1 = new Vector2f(impulse);
+			Vector2f accum1 = temp;
+			accum1.set(impulse);
 			accum1.scale(-body1.getInvMass());
 			body1.adjustVelocity(accum1);
 			body1.adjustAngularVelocity(-(body1.getInvI() * MathUtil.cross(r1,
@@ -115,14 +137,13 @@ public class DistanceJoint implements Joint {
 		}
 
 		if (!body2.isStatic()) {
-			Vector2f accum2 = new Vector2f(impulse);
+			Vector2f accum2 = temp;
+			accum2.set(impulse);
 			accum2.scale(body2.getInvMass());
 			body2.adjustVelocity(accum2);
 			body2.adjustAngularVelocity(body2.getInvI()
 					* MathUtil.cross(r2, impulse));
 		}
-
-		accumulatedImpulse += p;
 	}
 
 	/**
@@ -161,63 +182,36 @@ public class DistanceJoint implements Joint {
 	 * @see net.phys2d.raw.Joint#preStep(float)
 	 */
 	public void preStep(float invDT) {
-		Matrix2f rot1 = new Matrix2f(body1.getRotation());
-		Matrix2f rot2 = new Matrix2f(body2.getRotation());
-		r1 = MathUtil.mul(rot1, anchor1);
-		r2 = MathUtil.mul(rot2, anchor2);
-
-		Matrix2f K1 = new Matrix2f();
-		K1.col1.x = body1.getInvMass() + body2.getInvMass();
-		K1.col2.x = 0.0f;
-		K1.col1.y = 0.0f;
-		K1.col2.y = body1.getInvMass() + body2.getInvMass();
-
-		Matrix2f K2 = new Matrix2f();
-		K2.col1.x = body1.getInvI() * r1.y * r1.y;
-		K2.col2.x = -body1.getInvI() * r1.x * r1.y;
-		K2.col1.y = -body1.getInvI() * r1.x * r1.y;
-		K2.col2.y = body1.getInvI() * r1.x * r1.x;
-
-		Matrix2f K3 = new Matrix2f();
-		K3.col1.x = body2.getInvI() * r2.y * r2.y;
-		K3.col2.x = -body2.getInvI() * r2.x * r2.y;
-		K3.col1.y = -body2.getInvI() * r2.x * r2.y;
-		K3.col2.y = body2.getInvI() * r2.x * r2.x;
-
-		Matrix2f K = MathUtil.add(MathUtil.add(K1, K2), K3);
-
-		Vector2f p1 = new Vector2f(body1.getPosition());
-		p1.add(r1);
-		Vector2f p2 = new Vector2f(body2.getPosition());
-		p2.add(r2);
-		dp = new Vector2f(p2);
-		dp.sub(p1);
+		rot.setRotation(body1.getRotation());
+		MathUtil.mul(rot, anchor1, r1);
+		rot.setRotation(body2.getRotation());
+		MathUtil.mul(rot, anchor2, r2);
+
+		// K = K1 + K2 + K3, the mass, the inertia of body1 and that of body2
+		float invMass = body1.getInvMass() + body2.getInvMass();
+		float invI1 = body1.getInvI();
+		float invI2 = body2.getInvI();
+		float k11 = (invMass + invI1 * r1.y * r1.y) + invI2 * r2.y * r2.y;
+		float k21 = (0.0f + -invI1 * r1.x * r1.y) + -invI2 * r2.x * r2.y;
+		float k12 = (0.0f + -invI1 * r1.x * r1.y) + -invI2 * r2.x * r2.y;
+		float k22 = (invMass + invI1 * r1.x * r1.x) + invI2 * r2.x * r2.x;
+
+		dp.set(body2.getPosition());
+		dp.add(r2);
+		temp.set(body1.getPosition());
+		temp.add(r1);
+		dp.sub(temp);
 
 		float biasFactor = 0.3f;
 		bias = biasFactor * (-dp.lengthSquared() + distant);
 
 		dp.normalise();
 
-		sc = MathUtil.mul(K, dp).dot(dp);
+		sc = (k11 * dp.x + k12 * dp.y) * dp.x + (k21 * dp.x + k22 * dp.y) * dp.y;
 
-		Vector2f impulse = new Vector2f(dp);
+		impulse.set(dp);
 		impulse.scale(accumulatedImpulse);
-
-		if (!body1.isStatic()) {
-			Vector2f accum1 = new Vector2f(impulse);
-			accum1.scale(-body1.getInvMass());
-			body1.adjustVelocity(accum1);
-			body1.adjustAngularVelocity(-(body1.getInvI() * MathUtil.cross(r1,
-					impulse)));
-		}
-
-		if (!body2.isStatic()) {
-			Vector2f accum2 = new Vector2f(impulse);
-			accum2.scale(body2.getInvMass());
-			body2.adjustVelocity(accum2);
-			body2.adjustAngularVelocity(body2.getInvI()
-					* MathUtil.cross(r2, impulse));
-		}
+		applyImpulse(impulse);
 	}
 
 	/**
@@ -40,6 +40,8 @@
  */
 package net.phys2d.raw;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.phys2d.math.MathUtil;
 import net.phys2d.math.Matrix2f;
 import net.phys2d.math.ROVector2f;
@@ -55,8 +57,8 @@ import net.phys2d.math.Vector2f;
  * @author Kevin Glass
  */
 public strictfp class ElasticJoint implements Joint {
-	/** The next ID to be used */
-	public static int NEXT_ID = 0;
+	/** The next ID to be used, shared by worlds stepped on different threads */
+	public static final AtomicInteger NEXT_ID = new AtomicInteger();
 	
 	/** The first body attached to the joint */
 	private Body body1;
@@ -90,7 +92,7 @@ public strictfp class ElasticJoint implements Joint {
 	 * @param b2 The second body attached to the joint
 	 */
 	public ElasticJoint(Body b1, Body b2) {
-		id = NEXT_ID++;
+		id = NEXT_ID.getAndIncrement();
 		accumulatedImpulse.set(0.0f, 0.0f);
 		relaxation = 1.0f;
 		
@@ -40,6 +40,8 @@
  */
 package net.phys2d.raw;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.phys2d.math.Vector2f;
 
 
@@ -51,8 +53,8 @@ import net.phys2d.math.Vector2f;
  * @author Kevin Glass
  */
 public strictfp class FixedJoint implements Joint {
-	/** The next ID to be used */
-	public static int NEXT_ID = 0;
+	/** The next ID to be used, shared by worlds stepped on different threads */
+	public static final AtomicInteger NEXT_ID = new AtomicInteger();
 	
 	/** The first body attached to the joint */
 	private Body body1;
@@ -74,7 +76,7 @@ public strictfp class FixedJoint implements Joint {
 	 * @param b2 The second body attached to the joint
 	 */
 	public FixedJoint(Body b1, Body b2) {
-		id = NEXT_ID++;
+		id = NEXT_ID.getAndIncrement();
 		
 		set(b1,b2);
 	}
@@ -40,6 +40,8 @@
  */
 package net.phys2d.raw;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import net.phys2d.math.MathUtil;
 import net.phys2d.math.Matrix2f;
 import net.phys2d.math.ROVector2f;
@@ -54,8 +56,8 @@ import net.phys2d.math.Vector2f;
  * @author Gideon Smeding
  */
 public strictfp class SpringJoint implements Joint {
-	/** The next ID to be used */
-	public static int NEXT_ID = 0;
+	/** The next ID to be used, shared by worlds stepped on different threads */
+	public static final AtomicInteger NEXT_ID = new AtomicInteger();
 	
 	/** The first body attached to the joint */
 	private Body body1;
@@ -97,7 +99,7 @@ public strictfp class SpringJoint implements Joint {
 	 * @param anchor2 The location of the attachment to the second body, in absolute coordinates.
 	 */
 	public SpringJoint(Body b1, Body b2, ROVector2f anchor1, ROVector2f anchor2) {
-		id = NEXT_ID++;
+		id = NEXT_ID.getAndIncrement();
 		
 		stretchedSpringConst = 100;
 		compressedSpringConst = 100;
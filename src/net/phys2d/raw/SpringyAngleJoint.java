@@ -67,6 +67,19 @@ public class SpringyAngleJoint implements Joint {
 	/** the original angle to attempt to maintain between the bodies - this may be varied by the spring */
 	private float originalAngle;
 
+	/** The rotation matrix of a body, kept so a step creates no objects */
+	private Matrix2f rot = new Matrix2f();
+	/** The anchor of the first body in world space, relative to it */
+	private Vector2f r1 = new Vector2f();
+	/** The anchor of the second body in world space, relative to it */
+	private Vector2f r2 = new Vector2f();
+	/** The vector between the anchors */
+	private Vector2f dp = new Vector2f();
+	/** Temp vector */
+	private Vector2f temp = new Vector2f();
+	/** The impulse applied to the bodies */
+	private Vector2f impulse = new Vector2f();
+
 	/**
 	 * Create a new joint
 	 * 
@@ -119,39 +132,39 @@ public class SpringyAngleJoint implements Joint {
 	 * @see net.phys2d.raw.Joint#preStep(float)
 	 */
 	public void preStep(float invDT) {
-		Matrix2f rot1 = new Matrix2f(body1.getRotation());
-		Matrix2f rot2 = new Matrix2f(body2.getRotation());
-		Vector2f r1 = MathUtil.mul(rot1, anchor1);
-		Vector2f r2 = MathUtil.mul(rot2, anchor2);
+		rot.setRotation(body1.getRotation());
+		MathUtil.mul(rot, anchor1, r1);
+		rot.setRotation(body2.getRotation());
+		MathUtil.mul(rot, anchor2, r2);
 
-		Vector2f p1 = new Vector2f(body1.getPosition());
-		p1.add(r1);
-		Vector2f p2 = new Vector2f(body2.getPosition());
-		p2.add(r2);
-		Vector2f dp = new Vector2f(p2);
-		dp.sub(p1);
+		dp.set(body2.getPosition());
+		dp.add(r2);
+		temp.set(body1.getPosition());
+		temp.add(r1);
+		dp.sub(temp);
 		float length = dp.length();
 		// dp.scale(1.0f/length);
-		Vector2f V = new Vector2f((float) Math.cos(originalAngle
-				+ body1.getRotation()), (float) Math.sin(originalAngle
-				+ body1.getRotation()));
-		Vector2f ndp = new Vector2f(dp);
+		float vx = (float) Math.cos(originalAngle + body1.getRotation());
+		float vy = (float) Math.sin(originalAngle + body1.getRotation());
+		Vector2f ndp = temp;
+		ndp.set(dp);
 		ndp.normalise();
-		float torq = (float) Math.asin(MathUtil.cross(ndp, V))
+		float torq = (float) Math.asin(ndp.x * vy - ndp.y * vx)
 				* compressConstant / invDT;
 		float P = torq / length;
-		Vector2f n = new Vector2f(ndp.y, -ndp.x);
-		Vector2f impulse = new Vector2f(n);
+		impulse.set(ndp.y, -ndp.x);
 		impulse.scale(P);
 		if (!body1.isStatic()) {
-			Vector2f accum1 = new Vector2f(impulse);
+			Vector2f accum1 = temp;
+			accum1.set(impulse);
 			accum1.scale(body1.getInvMass());
 			body1.adjustVelocity(accum1);
 			body1.adjustAngularVelocity((body1.getInvI() * MathUtil.cross(dp,
 					impulse)));
 		}
 		if (!body2.isStatic()) {
-			Vector2f accum2 = new Vector2f(impulse);
+			Vector2f accum2 = temp;
+			accum2.set(impulse);
 			accum2.scale(-body2.getInvMass());
 			body2.adjustVelocity(accum2);
 			body2.adjustAngularVelocity(-(body2.getInvI() * MathUtil.cross(r2,
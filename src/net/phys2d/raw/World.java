@@ -71,6 +71,9 @@ public strictfp class World extends CollisionSpace {
 	private float positionTolerance; 
 	/** The force sources in the world */
 	private ArrayList sources = new ArrayList();
+	/** Scratch vectors of step, so that stepping allocates no vectors */
+	private Vector2f temp = new Vector2f();
+	private Vector2f velocityDamping = new Vector2f();
 	
 	/**
 	 * Create a new physics model World
@@ -197,8 +200,10 @@ public strictfp class World extends CollisionSpace {
 	 */
 	public void clearArbiters(Body b) {
 		for (int i=0;i<arbiters.size();i++) {
-			if (arbiters.get(i).concerns(b)) {
-				arbiters.remove(arbiters.get(i));
+			Arbiter arbiter = arbiters.get(i);
+			if (arbiter.concerns(b)) {
+				arbiters.remove(arbiter);
+				arbiterPool.free(arbiter);
 				i--;
 			}
 		}
@@ -306,7 +311,7 @@ public strictfp class World extends CollisionSpace {
 				continue;
 			}
 
-			Vector2f temp = new Vector2f(b.getForce());
+			temp.set(b.getForce());
 			temp.scale(b.getInvMass());
 			if (b.getGravityEffected()) {
 				temp.add(gravity);
@@ -315,9 +320,9 @@ public strictfp class World extends CollisionSpace {
 			
 			b.adjustVelocity(temp);
 			
-			Vector2f damping = new Vector2f(b.getVelocity());
-			damping.scale(-b.getDamping() * b.getInvMass());
-			b.adjustVelocity(damping);
+			velocityDamping.set(b.getVelocity());
+			velocityDamping.scale(-b.getDamping() * b.getInvMass());
+			b.adjustVelocity(velocityDamping);
 			
 			b.adjustAngularVelocity(dt * b.getInvI() * b.getTorque());
 			b.adjustAngularVelocity(-b.getAngularVelocity() * b.getInvI() * b.getRotDamping());
@@ -398,6 +403,7 @@ public strictfp class World extends CollisionSpace {
 			
 			if (!arbiter.getBody1().added() || !arbiter.getBody2().added()) {
 				arbiters.remove(arbiter);
+				arbiterPool.free(arbiter);
 				i--;
 			}
 		}
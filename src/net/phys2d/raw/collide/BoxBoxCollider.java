@@ -52,8 +52,10 @@ import net.phys2d.raw.shapes.Box;
  * The implementation of box to box collision. The create() method is
  * used as a factory to produce the collider instance.
  * 
- * Currently the collider is stateless so a single instance is 
- * returned each time.
+ * The collider keeps the vectors and matrices it works with between
+ * calls, so a collision creates no objects. An instance must therefore
+ * only be used by one thread at a time, which holds for the colliders of
+ * a ColliderFactory that belongs to a single World.
  * 
  * @author Kevin Glass
  */
@@ -92,9 +94,51 @@ public strictfp class BoxBoxCollider implements Collider {
 	public static final int EDGE4 = 4;
 
 	/** Temp vector */
-	private static Vector2f hA = new Vector2f();
+	private Vector2f hA = new Vector2f();
 	/** Temp vector */
-	private static Vector2f hB = new Vector2f();
+	private Vector2f hB = new Vector2f();
+	/** The rotation of the first box */
+	private Matrix2f rotA = new Matrix2f();
+	/** The rotation of the second box */
+	private Matrix2f rotB = new Matrix2f();
+	/** The transposed rotation of the first box */
+	private Matrix2f rotAT = new Matrix2f();
+	/** The transposed rotation of the second box */
+	private Matrix2f rotBT = new Matrix2f();
+	/** The rotation of the second box relative to the first */
+	private Matrix2f c = new Matrix2f();
+	/** The absolute of c */
+	private Matrix2f absC = new Matrix2f();
+	/** The transposed absolute of c */
+	private Matrix2f absCT = new Matrix2f();
+	/** Temp matrix */
+	private Matrix2f rotT = new Matrix2f();
+	/** The vector from the first box to the second */
+	private Vector2f dp = new Vector2f();
+	/** dp in the frame of the first box */
+	private Vector2f dA = new Vector2f();
+	/** dp in the frame of the second box */
+	private Vector2f dB = new Vector2f();
+	/** The separation of the faces of the first box */
+	private Vector2f faceA = new Vector2f();
+	/** The separation of the faces of the second box */
+	private Vector2f faceB = new Vector2f();
+	/** The normal of the collision */
+	private Vector2f normal = new Vector2f();
+	/** The normal of the reference face */
+	private Vector2f frontNormal = new Vector2f();
+	/** The negated normal of the side faces */
+	private Vector2f negSideNormal = new Vector2f();
+	/** The position of a contact */
+	private Vector2f position = new Vector2f();
+	/** Temp vector */
+	private Vector2f temp = new Vector2f();
+	/** The incident edge before clipping */
+	private ClipVertex[] incidentEdge = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
+	/** The incident edge clipped to the first side */
+	private ClipVertex[] clipPoints1 = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
+	/** The incident edge clipped to both sides */
+	private ClipVertex[] clipPoints2 = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
 	
 	/**
 	 * A simple structure describe a vertex against which the
@@ -113,6 +157,16 @@ public strictfp class BoxBoxCollider implements Collider {
 		 */
 		public ClipVertex() { 
 		}
+		
+		/**
+		 * Copy the vertex and pair of another structure into this one
+		 * 
+		 * @param other The structure to copy
+		 */
+		void set(ClipVertex other) {
+			v.set(other.v);
+			fp.set(other.fp);
+		}
 	};
 
 	/** 
@@ -133,7 +187,7 @@ public strictfp class BoxBoxCollider implements Collider {
 	/**
 	 * Clip a line segment against a line
 	 * 
-	 * @param vOut The segment to be clipped
+	 * @param vOut The segment to be clipped, gets a copy of the points
 	 * @param vIn The line to be clipped against
 	 * @param normal The normal of the line
 	 * @param offset The offset from segment to line 
@@ -150,26 +204,29 @@ public strictfp class BoxBoxCollider implements Collider {
 		float distance1 = normal.dot(vIn[1].v) - offset;
 
 		// If the points are behind the plane
-		if (distance0 <= 0.0f) vOut[numOut++] = vIn[0];
-		if (distance1 <= 0.0f) vOut[numOut++] = vIn[1];
+		if (distance0 <= 0.0f) vOut[numOut++].set(vIn[0]);
+		if (distance1 <= 0.0f) vOut[numOut++].set(vIn[1]);
 
 		// If the points are on different sides of the plane
 		if (distance0 * distance1 < 0.0f)
 		{
 			// Find intersection point of edge and plane
 			float interp = distance0 / (distance0 - distance1);
-			vOut[numOut].v = MathUtil.scale(MathUtil.sub(vIn[1].v, vIn[0].v),interp);
-			vOut[numOut].v.add(vIn[0].v);
+			temp.set(vIn[1].v);
+			temp.sub(vIn[0].v);
+			temp.scale(interp);
+			temp.add(vIn[0].v);
+			vOut[numOut].v.set(temp);
 			
 			if (distance0 > 0.0f)
 			{
-				vOut[numOut].fp = vIn[0].fp;
+				vOut[numOut].fp.set(vIn[0].fp);
 				vOut[numOut].fp.inEdge1 = clipEdge;
 				vOut[numOut].fp.inEdge2 = NO_EDGE;
 			}
 			else
 			{
-				vOut[numOut].fp = vIn[1].fp;
+				vOut[numOut].fp.set(vIn[1].fp);
 				vOut[numOut].fp.outEdge1 = clipEdge;
 				vOut[numOut].fp.outEdge2 = NO_EDGE;
 			}
@@ -180,13 +237,13 @@ public strictfp class BoxBoxCollider implements Collider {
 	}
 
 	/**
-	 * ??
+	 * Find the edge of the incident box that faces the reference face
 	 * 
-	 * @param c
-	 * @param h
-	 * @param pos
-	 * @param rot
-	 * @param normal
+	 * @param c The two vertices of the edge, in world coordinates
+	 * @param h The half size of the incident box
+	 * @param pos The position of the incident box
+	 * @param rot The rotation of the incident box
+	 * @param normal The normal of the reference face
 	 */
 	private void computeIncidentEdge(ClipVertex[] c, 
 									ROVector2f h, 
@@ -194,11 +251,20 @@ public strictfp class BoxBoxCollider implements Collider {
 									Matrix2f rot, Vector2f normal) {
 		// The normal is from the reference box. Convert it
 		// to the incident boxe's frame and flip sign.
-		Matrix2f rotT = rot.transpose();
-		Vector2f n = MathUtil.scale(MathUtil.mul(rotT,normal),-1);
-		Vector2f nAbs = MathUtil.abs(n);
-
-		if (nAbs.x > nAbs.y)
+		rot.transpose(rotT);
+		Vector2f n = temp;
+		MathUtil.mul(rotT,normal,n);
+		n.scale(-1);
+		float nAbsX = Math.abs(n.x);
+		float nAbsY = Math.abs(n.y);
+
+		// The clipping only sets the edges it clips
+		c[0].fp.inEdge1 = NO_EDGE;
+		c[0].fp.outEdge1 = NO_EDGE;
+		c[1].fp.inEdge1 = NO_EDGE;
+		c[1].fp.outEdge1 = NO_EDGE;
+
+		if (nAbsX > nAbsY)
 		{
 			if (MathUtil.sign(n.x) > 0.0f)
 			{
@@ -245,10 +311,10 @@ public strictfp class BoxBoxCollider implements Collider {
 			}
 		}
 
-		c[0].v = MathUtil.mul(rot,c[0].v);
+		MathUtil.mul(rot,c[0].v,c[0].v);
 		c[0].v.add(pos);
 		
-		c[1].v = MathUtil.mul(rot,c[1].v);
+		MathUtil.mul(rot,c[1].v,c[1].v);
 		c[1].v.add(pos);
 	}
 	
@@ -279,11 +345,11 @@ public strictfp class BoxBoxCollider implements Collider {
 		ROVector2f posA = bodyA.getPosition();
 		ROVector2f posB = bodyB.getPosition();
 
-		Matrix2f rotA = new Matrix2f(bodyA.getRotation());
-		Matrix2f rotB = new Matrix2f(bodyB.getRotation());
+		rotA.setRotation(bodyA.getRotation());
+		rotB.setRotation(bodyB.getRotation());
 
-		Matrix2f RotAT = rotA.transpose();
-		Matrix2f RotBT = rotB.transpose();
+		rotA.transpose(rotAT);
+		rotB.transpose(rotBT);
 
 		// unused?
 //		Vector2f a1 = rotA.col1;
@@ -291,26 +357,29 @@ public strictfp class BoxBoxCollider implements Collider {
 //		Vector2f b1 = rotB.col1;
 //		Vector2f b2 = rotB.col2;
 
-		Vector2f dp = MathUtil.sub(posB,posA);
-		Vector2f dA = MathUtil.mul(RotAT,dp);
-		Vector2f dB = MathUtil.mul(RotBT,dp);
+		dp.set(posB);
+		dp.sub(posA);
+		MathUtil.mul(rotAT,dp,dA);
+		MathUtil.mul(rotBT,dp,dB);
 
-		Matrix2f C = MathUtil.mul(RotAT,rotB);
-		Matrix2f absC = MathUtil.abs(C);
-		Matrix2f absCT = absC.transpose();
+		MathUtil.mul(rotAT,rotB,c);
+		MathUtil.abs(c,absC);
+		absC.transpose(absCT);
 
 		// Box A faces
-		Vector2f faceA = MathUtil.abs(dA);
+		MathUtil.abs(dA,faceA);
 		faceA.sub(hA);
-		faceA.sub(MathUtil.mul(absC,hB));
+		MathUtil.mul(absC,hB,temp);
+		faceA.sub(temp);
 		
 		if (faceA.x > 0.0f || faceA.y > 0.0f) {
 			return 0;
 		}
 
 		// Box B faces
-		Vector2f faceB = MathUtil.abs(dB);
-		faceB.sub(MathUtil.mul(absCT,hA));
+		MathUtil.abs(dB,faceB);
+		MathUtil.mul(absCT,hA,temp);
+		faceB.sub(temp);
 		faceB.sub(hB);
 		//MathUtil.sub(MathUtil.sub(MathUtil.abs(dB),MathUtil.mul(absCT,hA)),hB);
 		if (faceB.x > 0.0f || faceB.y > 0.0f) {
@@ -320,18 +389,17 @@ public strictfp class BoxBoxCollider implements Collider {
 		// Find best axis
 		int axis;
 		float separation;
-		Vector2f normal;
 
 		// Box A faces
 		axis = FACE_A_X;
 		separation = faceA.x;
-		normal = dA.x > 0.0f ? rotA.col1 : MathUtil.scale(rotA.col1,-1);
+		setNormal(rotA.col1, dA.x > 0.0f);
 
 		if (faceA.y > 1.05f * separation + 0.01f * hA.y)
 		{
 			axis = FACE_A_Y;
 			separation = faceA.y;
-			normal = dA.y > 0.0f ? rotA.col2 : MathUtil.scale(rotA.col2,-1);
+			setNormal(rotA.col2, dA.y > 0.0f);
 		}
 
 		// Box B faces
@@ -339,19 +407,18 @@ public strictfp class BoxBoxCollider implements Collider {
 		{
 			axis = FACE_B_X;
 			separation = faceB.x;
-			normal = dB.x > 0.0f ? rotB.col1 : MathUtil.scale(rotB.col1,-1);
+			setNormal(rotB.col1, dB.x > 0.0f);
 		}
 
 		if (faceB.y > 1.05f * separation + 0.01f * hB.y)
 		{
 			axis = FACE_B_Y;
 			separation = faceB.y;
-			normal = dB.y > 0.0f ? rotB.col2 : MathUtil.scale(rotB.col2,-1);
+			setNormal(rotB.col2, dB.y > 0.0f);
 		}
 
 		// Setup clipping plane data based on the separating axis
-		Vector2f frontNormal, sideNormal;
-		ClipVertex[] incidentEdge = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
+		Vector2f sideNormal;
 		float front, negSide, posSide;
 		char negEdge, posEdge;
 
@@ -360,7 +427,7 @@ public strictfp class BoxBoxCollider implements Collider {
 		{
 		case FACE_A_X:
 			{
-				frontNormal = normal;
+				frontNormal.set(normal);
 				front = posA.dot(frontNormal) + hA.x;
 				sideNormal = rotA.col2;
 				float side = posA.dot(sideNormal);
@@ -374,7 +441,7 @@ public strictfp class BoxBoxCollider implements Collider {
 
 		case FACE_A_Y:
 			{
-				frontNormal = normal;
+				frontNormal.set(normal);
 				front = posA.dot(frontNormal) + hA.y;
 				sideNormal = rotA.col1;
 				float side = posA.dot(sideNormal);
@@ -388,7 +455,8 @@ public strictfp class BoxBoxCollider implements Collider {
 
 		case FACE_B_X:
 			{
-				frontNormal = MathUtil.scale(normal,-1);
+				frontNormal.set(normal);
+				frontNormal.scale(-1);
 				front = posB.dot(frontNormal) + hB.x;
 				sideNormal = rotB.col2;
 				float side = posB.dot(sideNormal);
@@ -402,7 +470,8 @@ public strictfp class BoxBoxCollider implements Collider {
 
 		case FACE_B_Y:
 			{
-				frontNormal = MathUtil.scale(normal,-1);
+				frontNormal.set(normal);
+				frontNormal.scale(-1);
 				front = posB.dot(frontNormal) + hB.y;
 				sideNormal = rotB.col1;
 				float side = posB.dot(sideNormal);
@@ -419,12 +488,12 @@ public strictfp class BoxBoxCollider implements Collider {
 
 		// clip other face with 5 box planes (1 face plane, 4 edge planes)
 
-		ClipVertex[] clipPoints1 = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
-		ClipVertex[] clipPoints2 = new ClipVertex[] {new ClipVertex(), new ClipVertex()};
 		int np;
 
 		// Clip to box side 1
-		np = clipSegmentToLine(clipPoints1, incidentEdge, MathUtil.scale(sideNormal,-1), negSide, negEdge);
+		negSideNormal.set(sideNormal);
+		negSideNormal.scale(-1);
+		np = clipSegmentToLine(clipPoints1, incidentEdge, negSideNormal, negSide, negEdge);
 
 		if (np < 2)
 			return 0;
@@ -448,7 +517,11 @@ public strictfp class BoxBoxCollider implements Collider {
 				contacts[numContacts].setSeparation(separation2);
 				contacts[numContacts].setNormal(normal);
 				// slide contact point onto reference face (easy to cull)
-				contacts[numContacts].setPosition(MathUtil.sub(clipPoints2[i].v,MathUtil.scale(frontNormal,separation2)));
+				temp.set(frontNormal);
+				temp.scale(separation2);
+				position.set(clipPoints2[i].v);
+				position.sub(temp);
+				contacts[numContacts].setPosition(position);
 				contacts[numContacts].setFeature(clipPoints2[i].fp);
 				if (axis == FACE_B_X || axis == FACE_B_Y)
 					flip(contacts[numContacts].getFeature());
@@ -458,4 +531,17 @@ public strictfp class BoxBoxCollider implements Collider {
 
 		return numContacts;
 	}
+	
+	/**
+	 * Set the normal of the collision to an axis of a box
+	 * 
+	 * @param axis The axis of the box
+	 * @param positive True to use the axis as it is, false to negate it
+	 */
+	private void setNormal(Vector2f axis, boolean positive) {
+		normal.set(axis);
+		if (!positive) {
+			normal.scale(-1);
+		}
+	}
 }
@@ -47,14 +47,63 @@ import net.phys2d.raw.shapes.*;
  * that required many files to be edited to add a new shape.
  * Furthermore this factory can handle singleton colliders if needed.
  * 
+ * The colliders are created once, in a table indexed by the types of the
+ * two shapes, and every call returns the same ones. Some colliders keep
+ * scratch data, so a factory must only be used by one thread at a time.
+ * 
  * @author Gideon Smeding
  *
  */
 public class ColliderFactory {
+	/** The index of circles in the table */
+	private static final int CIRCLE = 0;
+	/** The index of boxes in the table */
+	private static final int BOX = 1;
+	/** The index of lines in the table */
+	private static final int LINE = 2;
+	/** The index of polygons in the table */
+	private static final int POLYGON = 3;
+	
+	/** The colliders indexed by the types of the first and second shape */
+	private final Collider[][] colliders = new Collider[4][4];
+	
+	/**
+	 * Create a factory and the colliders for every pair of shape types
+	 */
+	public ColliderFactory() {
+		Collider boxCircle = new BoxCircleCollider();
+		Collider lineCircle = new LineCircleCollider();
+		Collider polygonCircle = new PolygonCircleCollider();
+		Collider lineBox = new LineBoxCollider();
+		Collider polygonBox = new PolygonBoxCollider();
+		Collider linePolygon = new LinePolygonCollider();
+		
+		colliders[CIRCLE][CIRCLE] = new CircleCircleCollider();
+		colliders[CIRCLE][BOX] = new SwapCollider(boxCircle);
+		colliders[CIRCLE][LINE] = new SwapCollider(lineCircle);
+		colliders[CIRCLE][POLYGON] = new SwapCollider(polygonCircle);
+		
+		colliders[BOX][CIRCLE] = boxCircle;
+		colliders[BOX][BOX] = new BoxBoxCollider();
+		colliders[BOX][LINE] = new SwapCollider(lineBox);
+		colliders[BOX][POLYGON] = new SwapCollider(polygonBox);
+		
+		colliders[LINE][CIRCLE] = lineCircle;
+		colliders[LINE][BOX] = lineBox;
+		colliders[LINE][LINE] = new LineLineCollider();
+		colliders[LINE][POLYGON] = linePolygon;
+		
+		colliders[POLYGON][CIRCLE] = polygonCircle;
+		colliders[POLYGON][BOX] = polygonBox;
+		colliders[POLYGON][LINE] = new SwapCollider(linePolygon);
+		colliders[POLYGON][POLYGON] = new PolygonPolygonCollider();
+	}
 	
 	/**
 	 * Create a collider for two bodies. The decision depends on
-	 * the body's shapes.
+	 * the body's shapes. The collider is shared with every other 
+	 * pair of shapes of the same types, so it can be kept for as long
+	 * as the shapes of the bodies don't change.
 	 * 
 	 * @param bodyA First body in the collision test
 	 * @param bodyB Second body in the collision test
@@ -67,17 +116,7 @@ public class ColliderFactory {
 		Shape shapeA = bodyA.getShape();
 		Shape shapeB = bodyB.getShape();
 		
-		if ( shapeA instanceof Circle ) {
-			return createColliderFor((Circle) shapeA, shapeB);
-		} else if ( shapeA instanceof Box ) {
-			return createColliderFor((Box) shapeA, shapeB);
-		} else if ( shapeA instanceof Line ) {
-			return createColliderFor((Line) shapeA, shapeB);
-		} else if ( shapeA instanceof Polygon ) {
-			return createColliderFor((Polygon) shapeA, shapeB);
-		}
-		
-		throw new ColliderUnavailableException(shapeA, shapeB);
+		return getCollider(shapeA, typeOf(shapeA), shapeB);
 	}
 	
 	/**
@@ -92,18 +131,7 @@ public class ColliderFactory {
 	 */
 	public Collider createColliderFor(Circle shapeA, Shape shapeB) 
 	throws ColliderUnavailableException {
-
-		if ( shapeB instanceof Circle ) {
-			return new CircleCircleCollider();
-		} else if ( shapeB instanceof Box ) {
-			return new SwapCollider(new BoxCircleCollider());
-		} else if ( shapeB instanceof Line ) {
-			return new SwapCollider(new LineCircleCollider());
-		} else if ( shapeB instanceof Polygon ) {
-			return new SwapCollider(new PolygonCircleCollider());
-		}
-		
-		throw new ColliderUnavailableException(shapeA, shapeB);
+		return getCollider(shapeA, CIRCLE, shapeB);
 	}
 	
 	/**
@@ -118,18 +146,7 @@ public class ColliderFactory {
 	 */
 	public Collider createColliderFor(Box shapeA, Shape shapeB) 
 	throws ColliderUnavailableException {
-
-		if ( shapeB instanceof Circle ) {
-			return new BoxCircleCollider();
-		} else if ( shapeB instanceof Box ) {
-			return new BoxBoxCollider();
-		} else if ( shapeB instanceof Line ) {
-			return new SwapCollider(new LineBoxCollider());
-		} else if ( shapeB instanceof Polygon ) {
-			return new SwapCollider(new PolygonBoxCollider());
-		}
-		
-		throw new ColliderUnavailableException(shapeA, shapeB);
+		return getCollider(shapeA, BOX, shapeB);
 	}
 	
 	/**
@@ -144,18 +161,7 @@ public class ColliderFactory {
 	 */
 	public Collider createColliderFor(Line shapeA, Shape shapeB) 
 	throws ColliderUnavailableException {
-
-		if ( shapeB instanceof Circle ) {
-			return new LineCircleCollider();
-		} else if ( shapeB instanceof Box ) {
-			return new LineBoxCollider();
-		} else if ( shapeB instanceof Line ) {
-			return new LineLineCollider();
-		} else if ( shapeB instanceof Polygon ) {
-			return new LinePolygonCollider();
-		}
-		
-		throw new ColliderUnavailableException(shapeA, shapeB);
+		return getCollider(shapeA, LINE, shapeB);
 	}
 	
 	/**
@@ -170,17 +176,44 @@ public class ColliderFactory {
 	 */
 	public Collider createColliderFor(Polygon shapeA, Shape shapeB) 
 	throws ColliderUnavailableException {
-
-		if ( shapeB instanceof Circle ) {
-			return new PolygonCircleCollider();
-		} else if ( shapeB instanceof Box ) {
-			return new PolygonBoxCollider();
-		} else if ( shapeB instanceof Line ) {
-			return new SwapCollider(new LinePolygonCollider());
-		} else if ( shapeB instanceof Polygon ) {
-			return new PolygonPolygonCollider();
+		return getCollider(shapeA, POLYGON, shapeB);
+	}
+	
+	/**
+	 * Look up the collider for two shapes in the table
+	 * 
+	 * @param shapeA The first shape
+	 * @param typeA The index of the type of the first shape
+	 * @param shapeB The second shape
+	 * @return The collider
+	 * @throws ColliderUnavailableException
+	 * 	       This exception will be thrown if either shape is of an unknown type.
+	 */
+	private Collider getCollider(Shape shapeA, int typeA, Shape shapeB) 
+	throws ColliderUnavailableException {
+		int typeB = typeOf(shapeB);
+		if (typeA < 0 || typeB < 0) {
+			throw new ColliderUnavailableException(shapeA, shapeB);
 		}
-		
-		throw new ColliderUnavailableException(shapeA, shapeB);
+		return colliders[typeA][typeB];
+	}
+	
+	/**
+	 * Get the index of the type of a shape in the table
+	 * 
+	 * @param shape The shape to get the index of
+	 * @return The index or -1 if there are no colliders for the shape
+	 */
+	private static int typeOf(Shape shape) {
+		if ( shape instanceof Circle ) {
+			return CIRCLE;
+		} else if ( shape instanceof Box ) {
+			return BOX;
+		} else if ( shape instanceof Line ) {
+			return LINE;
+		} else if ( shape instanceof Polygon ) {
+			return POLYGON;
+		}
+		return -1;
 	}
 }
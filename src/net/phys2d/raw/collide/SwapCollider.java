@@ -37,7 +37,6 @@
  */
 package net.phys2d.raw.collide;
 
-import net.phys2d.math.MathUtil;
 import net.phys2d.math.Vector2f;
 import net.phys2d.raw.Body;
 import net.phys2d.raw.Contact;
@@ -54,6 +53,8 @@ public class SwapCollider implements Collider {
 	
 	/** The wrapped collider of which the result will be swapped */
 	private Collider collider;
+	/** Temp vector */
+	private Vector2f normal = new Vector2f();
 	
 	/**
 	 * Create a collider that swaps the result of the wrapped
@@ -73,8 +74,9 @@ public class SwapCollider implements Collider {
 		
 		// reverse the collision results by inverting normals
 		for ( int i = 0; i < count; i++ ) {
-			Vector2f vec = MathUtil.scale(contacts[i].getNormal(),-1);
-			contacts[i].setNormal(vec);
+			normal.set(contacts[i].getNormal());
+			normal.scale(-1);
+			contacts[i].setNormal(normal);
 		}
 		
 		return count;
@@ -0,0 +1,696 @@
+package net.phys2d.raw.strategies;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import net.phys2d.raw.Body;
+import net.phys2d.raw.BodyList;
+import net.phys2d.raw.BroadCollisionStrategy;
+import net.phys2d.raw.CollisionContext;
+import net.phys2d.raw.shapes.AABox;
+
+/**
+ * A strategy that keeps the bodies in a dynamic bounding volume tree. Each
+ * body is held in a leaf with a box fattened by a margin, and is only moved
+ * in the tree when it leaves that box. The pairs of bodies whose fat boxes
+ * overlap are kept between steps and are only looked for again around the
+ * bodies that moved, so the cost of a step follows the motion in the scene
+ * rather than its size. Each pair is reported to the context once per step.
+ *
+ * The nodes of the tree are kept in arrays and reused, and the index of the
+ * leaf of a body does not change while the body stays in the list.
+ */
+public class DynamicTreeStrategy implements BroadCollisionStrategy {
+	/** The default margin the boxes of the bodies are fattened by */
+	public static final float DEFAULT_MARGIN = 5.0f;
+	/** The index of no node */
+	private static final int NULL = -1;
+
+	/** The margin the boxes of the bodies are fattened by */
+	private float margin;
+
+	/** The number of nodes there is room for */
+	private int capacity = 16;
+	/** The number of nodes that have been used */
+	private int nodeCount;
+	/** The lower x bound of each node */
+	private float[] minX = new float[capacity];
+	/** The lower y bound of each node */
+	private float[] minY = new float[capacity];
+	/** The upper x bound of each node */
+	private float[] maxX = new float[capacity];
+	/** The upper y bound of each node */
+	private float[] maxY = new float[capacity];
+	/** The parent of each node, or the next free node of a free node */
+	private int[] parent = new int[capacity];
+	/** The first child of each node */
+	private int[] child1 = new int[capacity];
+	/** The second child of each node */
+	private int[] child2 = new int[capacity];
+	/** The height of each node, 0 for leaves and -1 for free nodes */
+	private int[] height = new int[capacity];
+	/** The body of each leaf */
+	private Body[] bodyOf = new Body[capacity];
+	/** The last step each leaf was found in the list of bodies */
+	private int[] seen = new int[capacity];
+	/** The last step each leaf was moved in the tree */
+	private int[] moved = new int[capacity];
+	/** The root of the tree */
+	private int root = NULL;
+	/** The first free node */
+	private int freeList = NULL;
+	/** The number of leaves in the tree */
+	private int leafCount;
+	/** The number of steps taken */
+	private int step;
+
+	/** The bodies of the last step, in the order of the list */
+	private Body[] known = new Body[16];
+	/** The leaf of each known body */
+	private int[] knownLeaf = new int[16];
+	/** The number of known bodies */
+	private int knownCount;
+	/** The leaf of each body in the tree */
+	private IdentityHashMap<Body, Integer> leaves = new IdentityHashMap<Body, Integer>();
+	/** The places in the list of the bodies that are not in the tree yet */
+	private int[] added = new int[16];
+	/** The leaves moved in this step */
+	private int[] movedLeaves = new int[16];
+	/** The number of leaves moved in this step */
+	private int movedCount;
+
+	/** The pairs of leaves whose fat boxes overlap, as sorted keys */
+	private long[] pairs = new long[16];
+	/** The number of pairs */
+	private int pairCount;
+	/** The new pairs found around the moved leaves */
+	private long[] found = new long[16];
+	/** The number of new pairs */
+	private int foundCount;
+	/** The pairs kept for the next step */
+	private long[] kept = new long[16];
+	/** The stack used to walk the tree */
+	private int[] stack = new int[64];
+
+	/**
+	 * Create a new strategy with the default margin
+	 */
+	public DynamicTreeStrategy() {
+		this(DEFAULT_MARGIN);
+	}
+
+	/**
+	 * Create a new strategy
+	 *
+	 * @param margin The margin the boxes of the bodies are fattened by. A
+	 * larger margin moves fewer bodies in the tree but reports more pairs
+	 */
+	public DynamicTreeStrategy(float margin) {
+		if (margin < 0) {
+			throw new IllegalArgumentException("Negative margin: " + margin);
+		}
+		this.margin = margin;
+	}
+
+	/**
+	 * @see net.phys2d.raw.BroadCollisionStrategy#collideBodies(net.phys2d.raw.CollisionContext, net.phys2d.raw.BodyList, float)
+	 */
+	public void collideBodies(CollisionContext context, BodyList bodies, float dt) {
+		step++;
+		movedCount = 0;
+		updateLeaves(bodies);
+		findPairs();
+
+		int i = 0;
+		int j = 0;
+		int keptCount = 0;
+		while (i < pairCount || j < foundCount) {
+			long key;
+			if (j == foundCount || (i < pairCount && pairs[i] < found[j])) {
+				key = pairs[i++];
+			} else if (i == pairCount || found[j] < pairs[i]) {
+				key = found[j++];
+			} else {
+				key = pairs[i++];
+				j++;
+			}
+
+			int a = (int) (key >>> 32);
+			int b = (int) key;
+			context.resolve(bodyOf[a], bodyOf[b], dt);
+
+			// A pair that has just separated is reported a last time, so
+			// that the context can drop what it kept for it
+			if ((moved[a] != step && moved[b] != step) || overlaps(a, b)) {
+				kept[keptCount++] = key;
+			}
+		}
+
+		long[] temp = pairs;
+		pairs = kept;
+		kept = temp;
+		pairCount = keptCount;
+	}
+
+	/**
+	 * Get the number of bodies that were added or moved in the tree in the
+	 * last step
+	 *
+	 * @return The number of bodies moved in the tree
+	 */
+	public int getMoved() {
+		return movedCount;
+	}
+
+	/**
+	 * Get the number of pairs of bodies whose fattened boxes overlap
+	 *
+	 * @return The number of pairs kept between steps
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * Get the height of the tree
+	 *
+	 * @return The height of the tree, 0 for a single body and -1 for none
+	 */
+	public int getHeight() {
+		return root == NULL ? -1 : height[root];
+	}
+
+	/**
+	 * Bring the tree up to date with a list of bodies, adding the new ones,
+	 * removing the ones no longer in the list and moving the ones that have
+	 * left their fat boxes.
+	 *
+	 * @param bodies The bodies of this step
+	 */
+	private void updateLeaves(BodyList bodies) {
+		int size = bodies.size();
+		if (known.length < size) {
+			known = grow(known, size);
+			knownLeaf = grow(knownLeaf, size);
+			added = new int[known.length];
+		}
+
+		int addedCount = 0;
+		int matched = 0;
+		for (int i=0;i<size;i++) {
+			Body body = bodies.get(i);
+			int leaf = NULL;
+			if (i < knownCount && known[i] == body) {
+				leaf = knownLeaf[i];
+			} else {
+				Integer index = leaves.get(body);
+				if (index != null) {
+					leaf = index.intValue();
+				}
+			}
+
+			if (leaf == NULL || seen[leaf] == step) {
+				added[addedCount++] = i;
+			} else {
+				seen[leaf] = step;
+				matched++;
+				updateLeaf(leaf, body);
+			}
+			known[i] = body;
+			knownLeaf[i] = leaf;
+		}
+		for (int i=size;i<knownCount;i++) {
+			known[i] = null;
+		}
+		knownCount = size;
+
+		if (matched < leafCount) {
+			removeUnseen();
+		}
+		for (int i=0;i<addedCount;i++) {
+			Body body = known[added[i]];
+			if (leaves.containsKey(body)) {
+				// The same body twice in the list
+				continue;
+			}
+			int leaf = allocateNode();
+			bodyOf[leaf] = body;
+			seen[leaf] = step;
+			leaves.put(body, Integer.valueOf(leaf));
+			leafCount++;
+			knownLeaf[added[i]] = leaf;
+
+			fatten(leaf, body);
+			insertLeaf(leaf);
+			markMoved(leaf);
+		}
+	}
+
+	/**
+	 * Move a leaf in the tree if its body has left its fat box
+	 *
+	 * @param leaf The leaf of the body
+	 * @param body The body to check
+	 */
+	private void updateLeaf(int leaf, Body body) {
+		AABox bounds = body.getShape().getBounds();
+		float x = body.getPosition().getX() + bounds.getOffsetX();
+		float y = body.getPosition().getY() + bounds.getOffsetY();
+		float halfWidth = bounds.getWidth() / 2;
+		float halfHeight = bounds.getHeight() / 2;
+
+		if (!isFinite(x, y)) {
+			// A body that has blown up keeps its last box, rather than
+			// spoiling the boxes of the nodes above it
+			return;
+		}
+		if (x - halfWidth >= minX[leaf] && x + halfWidth <= maxX[leaf] &&
+			y - halfHeight >= minY[leaf] && y + halfHeight <= maxY[leaf]) {
+			return;
+		}
+
+		removeLeaf(leaf);
+		fatten(leaf, body);
+		insertLeaf(leaf);
+		markMoved(leaf);
+	}
+
+	/**
+	 * Set the box of a leaf to the box of its body, fattened by the margin
+	 *
+	 * @param leaf The leaf to set
+	 * @param body The body of the leaf
+	 */
+	private void fatten(int leaf, Body body) {
+		AABox bounds = body.getShape().getBounds();
+		float x = body.getPosition().getX() + bounds.getOffsetX();
+		float y = body.getPosition().getY() + bounds.getOffsetY();
+		float halfWidth = bounds.getWidth() / 2 + margin;
+		float halfHeight = bounds.getHeight() / 2 + margin;
+		if (!isFinite(x, y)) {
+			x = 0;
+			y = 0;
+		}
+
+		minX[leaf] = x - halfWidth;
+		minY[leaf] = y - halfHeight;
+		maxX[leaf] = x + halfWidth;
+		maxY[leaf] = y + halfHeight;
+	}
+
+	/**
+	 * Check if a position is a finite number
+	 *
+	 * @param x The x coordinate of the position
+	 * @param y The y coordinate of the position
+	 * @return True if neither coordinate is infinite or not a number
+	 */
+	private static boolean isFinite(float x, float y) {
+		return Math.abs(x) <= Float.MAX_VALUE && Math.abs(y) <= Float.MAX_VALUE;
+	}
+
+	/**
+	 * Remove the leaves whose bodies were not found in this step, and the
+	 * pairs they were part of
+	 */
+	private void removeUnseen() {
+		for (int i=0;i<nodeCount;i++) {
+			if (height[i] == 0 && seen[i] != step) {
+				leaves.remove(bodyOf[i]);
+				leafCount--;
+				removeLeaf(i);
+				freeNode(i);
+			}
+		}
+
+		int count = 0;
+		for (int i=0;i<pairCount;i++) {
+			int a = (int) (pairs[i] >>> 32);
+			int b = (int) pairs[i];
+			if (height[a] == 0 && height[b] == 0) {
+				pairs[count++] = pairs[i];
+			}
+		}
+		pairCount = count;
+	}
+
+	/**
+	 * Note that a leaf has moved in this step
+	 *
+	 * @param leaf The leaf that moved
+	 */
+	private void markMoved(int leaf) {
+		if (movedCount == movedLeaves.length) {
+			movedLeaves = grow(movedLeaves, movedCount + 1);
+		}
+		moved[leaf] = step;
+		movedLeaves[movedCount++] = leaf;
+	}
+
+	/**
+	 * Find the pairs of leaves that overlap one of the moved leaves. A pair
+	 * of two moved leaves is only found from the higher of them.
+	 */
+	private void findPairs() {
+		foundCount = 0;
+		for (int i=0;i<movedCount;i++) {
+			int leaf = movedLeaves[i];
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int node = stack[--top];
+				if (!overlaps(node, leaf)) {
+					continue;
+				}
+				if (height[node] == 0) {
+					if (node == leaf || (moved[node] == step && node < leaf)) {
+						continue;
+					}
+					if (foundCount == found.length) {
+						found = grow(found, foundCount + 1);
+					}
+					found[foundCount++] = node < leaf ?
+							((long) node << 32) | leaf : ((long) leaf << 32) | node;
+				} else {
+					if (top + 2 > stack.length) {
+						stack = grow(stack, top + 2);
+					}
+					stack[top++] = child1[node];
+					stack[top++] = child2[node];
+				}
+			}
+		}
+		Arrays.sort(found, 0, foundCount);
+
+		if (kept.length < pairCount + foundCount) {
+			kept = new long[Math.max(pairCount + foundCount, kept.length * 2)];
+		}
+	}
+
+	/**
+	 * Check if the boxes of two nodes overlap
+	 *
+	 * @param a The first node
+	 * @param b The second node
+	 * @return True if the boxes overlap
+	 */
+	private boolean overlaps(int a, int b) {
+		return minX[a] <= maxX[b] && minX[b] <= maxX[a] &&
+			   minY[a] <= maxY[b] && minY[b] <= maxY[a];
+	}
+
+	/**
+	 * Get a node that is not in use
+	 *
+	 * @return The index of the node
+	 */
+	private int allocateNode() {
+		int node;
+		if (freeList == NULL) {
+			if (nodeCount == capacity) {
+				capacity *= 2;
+				minX = grow(minX, capacity);
+				minY = grow(minY, capacity);
+				maxX = grow(maxX, capacity);
+				maxY = grow(maxY, capacity);
+				parent = grow(parent, capacity);
+				child1 = grow(child1, capacity);
+				child2 = grow(child2, capacity);
+				height = grow(height, capacity);
+				bodyOf = grow(bodyOf, capacity);
+				seen = grow(seen, capacity);
+				moved = grow(moved, capacity);
+			}
+			node = nodeCount++;
+		} else {
+			node = freeList;
+			freeList = parent[node];
+		}
+		parent[node] = NULL;
+		child1[node] = NULL;
+		child2[node] = NULL;
+		height[node] = 0;
+		seen[node] = 0;
+		moved[node] = 0;
+		return node;
+	}
+
+	/**
+	 * Return a node to the free list
+	 *
+	 * @param node The node to free
+	 */
+	private void freeNode(int node) {
+		parent[node] = freeList;
+		height[node] = -1;
+		bodyOf[node] = null;
+		freeList = node;
+	}
+
+	/**
+	 * Insert a leaf next to the node that makes the perimeters of the tree
+	 * grow the least
+	 *
+	 * @param leaf The leaf to insert
+	 */
+	private void insertLeaf(int leaf) {
+		if (root == NULL) {
+			root = leaf;
+			parent[leaf] = NULL;
+			return;
+		}
+
+		int index = root;
+		while (height[index] > 0) {
+			float area = perimeter(index);
+			float combined = unionPerimeter(index, leaf);
+			float cost = 2 * combined;
+			float inheritance = 2 * (combined - area);
+			float cost1 = descendCost(child1[index], leaf) + inheritance;
+			float cost2 = descendCost(child2[index], leaf) + inheritance;
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+			index = cost1 < cost2 ? child1[index] : child2[index];
+		}
+
+		int sibling = index;
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		height[newParent] = height[sibling] + 1;
+		setUnion(newParent, sibling, leaf);
+		if (oldParent == NULL) {
+			root = newParent;
+		} else if (child1[oldParent] == sibling) {
+			child1[oldParent] = newParent;
+		} else {
+			child2[oldParent] = newParent;
+		}
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+
+		refit(parent[leaf]);
+	}
+
+	/**
+	 * Remove a leaf from the tree, keeping the node of the leaf
+	 *
+	 * @param leaf The leaf to remove
+	 */
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			root = NULL;
+			return;
+		}
+
+		int oldParent = parent[leaf];
+		int grandParent = parent[oldParent];
+		int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+		freeNode(oldParent);
+		if (grandParent == NULL) {
+			root = sibling;
+			parent[sibling] = NULL;
+		} else {
+			if (child1[grandParent] == oldParent) {
+				child1[grandParent] = sibling;
+			} else {
+				child2[grandParent] = sibling;
+			}
+			parent[sibling] = grandParent;
+			refit(grandParent);
+		}
+	}
+
+	/**
+	 * Balance and update the boxes and heights of a node and its ancestors
+	 *
+	 * @param node The lowest node to update
+	 */
+	private void refit(int node) {
+		while (node != NULL) {
+			node = balance(node);
+			height[node] = 1 + Math.max(height[child1[node]], height[child2[node]]);
+			setUnion(node, child1[node], child2[node]);
+			node = parent[node];
+		}
+	}
+
+	/**
+	 * Rotate a node if one of its children is more than one level higher
+	 * than the other
+	 *
+	 * @param a The node to balance
+	 * @return The node that took the place of the given one
+	 */
+	private int balance(int a) {
+		if (height[a] < 2) {
+			return a;
+		}
+
+		int b = child1[a];
+		int c = child2[a];
+		int difference = height[c] - height[b];
+		if (difference > 1) {
+			rotate(a, c, b, false);
+			return c;
+		}
+		if (difference < -1) {
+			rotate(a, b, c, true);
+			return b;
+		}
+		return a;
+	}
+
+	/**
+	 * Move the higher child of a node up in its place
+	 *
+	 * @param a The node to rotate
+	 * @param up The higher child of the node
+	 * @param other The other child of the node
+	 * @param first True if the higher child is the first child of the node
+	 */
+	private void rotate(int a, int up, int other, boolean first) {
+		int f = child1[up];
+		int g = child2[up];
+
+		child1[up] = a;
+		parent[up] = parent[a];
+		parent[a] = up;
+		if (parent[up] == NULL) {
+			root = up;
+		} else if (child1[parent[up]] == a) {
+			child1[parent[up]] = up;
+		} else {
+			child2[parent[up]] = up;
+		}
+
+		// The higher grandchild stays with the moved up node
+		int stays = height[f] > height[g] ? f : g;
+		int goes = stays == f ? g : f;
+		child2[up] = stays;
+		if (first) {
+			child1[a] = goes;
+		} else {
+			child2[a] = goes;
+		}
+		parent[goes] = a;
+
+		setUnion(a, other, goes);
+		height[a] = 1 + Math.max(height[other], height[goes]);
+		setUnion(up, a, stays);
+		height[up] = 1 + Math.max(height[a], height[stays]);
+	}
+
+	/**
+	 * Get the cost of inserting a leaf below a node
+	 *
+	 * @param node The node to descend into
+	 * @param leaf The leaf to insert
+	 * @return The growth of the perimeters from inserting below the node
+	 */
+	private float descendCost(int node, int leaf) {
+		if (height[node] == 0) {
+			return unionPerimeter(node, leaf);
+		}
+		return unionPerimeter(node, leaf) - perimeter(node);
+	}
+
+	/**
+	 * Set the box of a node to the union of the boxes of two others
+	 *
+	 * @param node The node to set
+	 * @param a The first node of the union
+	 * @param b The second node of the union
+	 */
+	private void setUnion(int node, int a, int b) {
+		minX[node] = Math.min(minX[a], minX[b]);
+		minY[node] = Math.min(minY[a], minY[b]);
+		maxX[node] = Math.max(maxX[a], maxX[b]);
+		maxY[node] = Math.max(maxY[a], maxY[b]);
+	}
+
+	/**
+	 * Get the perimeter of the box of a node
+	 *
+	 * @param node The node
+	 * @return The perimeter of its box
+	 */
+	private float perimeter(int node) {
+		return 2 * (maxX[node] - minX[node] + maxY[node] - minY[node]);
+	}
+
+	/**
+	 * Get the perimeter of the union of the boxes of two nodes
+	 *
+	 * @param a The first node
+	 * @param b The second node
+	 * @return The perimeter of the box holding both
+	 */
+	private float unionPerimeter(int a, int b) {
+		return 2 * (Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]) +
+					Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]));
+	}
+
+	/**
+	 * Grow an array, keeping its contents
+	 *
+	 * @param array The array to grow
+	 * @param size The size needed
+	 * @return An array at least as large as the size
+	 */
+	private static float[] grow(float[] array, int size) {
+		float[] grown = new float[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static int[] grow(int[] array, int size) {
+		int[] grown = new int[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static long[] grow(long[] array, int size) {
+		long[] grown = new long[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static Body[] grow(Body[] array, int size) {
+		Body[] grown = new Body[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
@@ -50,11 +50,18 @@ import net.phys2d.raw.shapes.AABox;
  * the target number of bodies is reached or the a given level of
  * subdivisions is reached.
  * 
+ * The spaces are kept between steps and reused, so a step creates no
+ * objects once the tree has been as large as it gets.
+ * 
  * @author Kevin Glass
  */
 public class QuadSpaceStrategy implements BroadCollisionStrategy {
 	/** The spaces dervied */
 	private ArrayList spaces = new ArrayList();
+	/** Every space created, reused in later steps */
+	private ArrayList<Space> pool = new ArrayList<Space>();
+	/** The number of spaces of the pool used in this step */
+	private int used;
 	/** The number of sub divisions allows */
 	private int maxLevels;
 	/** The maximum number of bodies in a given space acceptable */
@@ -76,8 +83,9 @@ public class QuadSpaceStrategy implements BroadCollisionStrategy {
 	 */
 	public void collideBodies(CollisionContext context, BodyList bodies, float dt) {
 		spaces.clear();
+		used = 0;
 		
-		Space space = new Space(0,0,0,0);
+		Space space = obtain(0,0,0,0);
 		
 		for (int i=0;i<bodies.size();i++) {
 			Body body = bodies.get(i);
@@ -104,6 +112,25 @@ public class QuadSpaceStrategy implements BroadCollisionStrategy {
 		return spaces;
 	}
 	
+	/**
+	 * Get an empty space from the pool, creating one if all are used
+	 * 
+	 * @param x The x position of the space
+	 * @param y The y position of the space
+	 * @param width The width of the space
+	 * @param height The height of the space
+	 * @return The space
+	 */
+	private Space obtain(float x, float y, float width, float height) {
+		if (used == pool.size()) {
+			pool.add(new Space(x,y,width,height));
+			return pool.get(used++);
+		}
+		Space space = pool.get(used++);
+		space.set(x,y,width,height);
+		return space;
+	}
+	
 	/**
 	 * Considering splitting a space into 4 sub-spaces
 	 * 
@@ -123,9 +150,16 @@ public class QuadSpaceStrategy implements BroadCollisionStrategy {
 			return true;
 		}
 		
-		Space[] spaces = space.getQuadSpaces();
+		// The four sub-spaces are next to each other in the pool
+		float width = (space.x2 - space.x1) / 2;
+		float height = (space.y2 - space.y1) / 2;
+		int first = used;
+		obtain(space.x1,space.y1,width,height).addTouching(space);
+		obtain(space.x1,space.y1+height,width,height).addTouching(space);
+		obtain(space.x1+width,space.y1,width,height).addTouching(space);
+		obtain(space.x1+width,space.y1+height,width,height).addTouching(space);
 		for (int j=0;j<4;j++) {
-			splitSpace(spaces[j], level+1, target, spaceList);
+			splitSpace(pool.get(first+j), level+1, target, spaceList);
 		}
 
 		return false;
@@ -155,10 +189,23 @@ public class QuadSpaceStrategy implements BroadCollisionStrategy {
 		 * @param height The height of the space
 		 */
 		public Space(float x, float y, float width, float height) {
+			set(x,y,width,height);
+		}
+		
+		/**
+		 * Move this space and empty it
+		 * 
+		 * @param x The x position of the space
+		 * @param y The y position of the space
+		 * @param width The width of the space
+		 * @param height The height of the space
+		 */
+		void set(float x, float y, float width, float height) {
 			this.x1 = x;
 			this.y1 = y;
 			this.x2 = x + width;
 			this.y2 = y + height;
+			clear();
 		}
 		
 		/**
@@ -186,20 +233,30 @@ public class QuadSpaceStrategy implements BroadCollisionStrategy {
 			spaces[2] = new Space(x1+width,y1,width,height);
 			spaces[3] = new Space(x1+width,y1+height,width,height);
 			
-			for (int i=0;i<size();i++) {
-				Body body = get(i);
-				for (int j=0;j<4;j++) {
-					if (spaces[j].touches(body.getShape().getBounds(),
-										  body.getPosition().getX(),
-										  body.getPosition().getY())) {
-						spaces[j].add(body);
-					}
-				}
+			for (int j=0;j<4;j++) {
+				spaces[j].addTouching(this);
 			}
 
 			return spaces;
 		}
 		
+		/**
+		 * Add the bodies of another space that touch this space, in the
+		 * order of the other space
+		 * 
+		 * @param space The space to take the bodies from
+		 */
+		void addTouching(Space space) {
+			for (int i=0;i<space.size();i++) {
+				Body body = space.get(i);
+				if (touches(body.getShape().getBounds(),
+							body.getPosition().getX(),
+							body.getPosition().getY())) {
+					add(body);
+				}
+			}
+		}
+		
 		/**
 		 * Combine this space with another box
 		 * 
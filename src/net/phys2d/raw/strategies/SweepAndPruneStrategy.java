@@ -0,0 +1,373 @@
+package net.phys2d.raw.strategies;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import net.phys2d.raw.Body;
+import net.phys2d.raw.BodyList;
+import net.phys2d.raw.BroadCollisionStrategy;
+import net.phys2d.raw.CollisionContext;
+import net.phys2d.raw.shapes.AABox;
+
+/**
+ * A strategy that sorts the bodies along the x axis and sweeps over them,
+ * only testing the bodies whose x ranges overlap. It suits scenes that are
+ * spread out along x, like a long track.
+ *
+ * The bounds of the bodies are kept in arrays of floats in the order of
+ * their lower x bound. The order is kept between steps and brought up to
+ * date with an insertion sort, which takes close to linear time when the
+ * bodies have only moved a little. The pairs found are sorted into a list
+ * without duplicates and reported to the context once each, together with
+ * the pairs that stopped overlapping since the last step, so that the
+ * context can drop what it kept for them.
+ */
+public class SweepAndPruneStrategy implements BroadCollisionStrategy {
+	/** The bodies, in the order of their lower x bound */
+	private Body[] bodyOf = new Body[16];
+	/** The lower x bound of each body */
+	private float[] minX = new float[16];
+	/** The upper x bound of each body */
+	private float[] maxX = new float[16];
+	/** The lower y bound of each body */
+	private float[] minY = new float[16];
+	/** The upper y bound of each body */
+	private float[] maxY = new float[16];
+	/** The id of each body, that does not change while it is in the list */
+	private int[] id = new int[16];
+	/** The number of bodies */
+	private int count;
+
+	/** The body of each id */
+	private Body[] byId = new Body[16];
+	/** The ids that are free to reuse */
+	private int[] freeIds = new int[16];
+	/** The number of free ids */
+	private int freeCount;
+	/** The number of ids that have been used */
+	private int idCount;
+
+	/** The bodies of the last step, in the order of the list */
+	private Body[] known = new Body[16];
+	/** The number of known bodies */
+	private int knownCount;
+	/** The bodies of the list, used when it has changed */
+	private IdentityHashMap<Body, Boolean> present = new IdentityHashMap<Body, Boolean>();
+
+	/** The pairs that overlap in this step, as sorted keys of two ids */
+	private long[] pairs = new long[16];
+	/** The number of pairs that overlap in this step */
+	private int pairCount;
+	/** The pairs that overlapped in the last step */
+	private long[] previous = new long[16];
+	/** The number of pairs that overlapped in the last step */
+	private int previousCount;
+	/** The number of places bodies moved in the last sort */
+	private int swaps;
+
+	/**
+	 * @see net.phys2d.raw.BroadCollisionStrategy#collideBodies(net.phys2d.raw.CollisionContext, net.phys2d.raw.BodyList, float)
+	 */
+	public void collideBodies(CollisionContext context, BodyList bodies, float dt) {
+		updateBodies(bodies);
+		for (int i=0;i<count;i++) {
+			updateBounds(i);
+		}
+		sort();
+
+		pairCount = 0;
+		for (int i=0;i<count;i++) {
+			float upper = maxX[i];
+			for (int j=i+1;j<count && minX[j] <= upper;j++) {
+				if (minY[i] <= maxY[j] && minY[j] <= maxY[i]) {
+					addPair(id[i], id[j]);
+				}
+			}
+		}
+		Arrays.sort(pairs, 0, pairCount);
+
+		int i = 0;
+		int j = 0;
+		while (i < previousCount || j < pairCount) {
+			long key;
+			if (j == pairCount || (i < previousCount && previous[i] < pairs[j])) {
+				key = previous[i++];
+			} else if (i == previousCount || pairs[j] < previous[i]) {
+				key = pairs[j++];
+			} else {
+				key = pairs[j++];
+				i++;
+			}
+			context.resolve(byId[(int) (key >>> 32)], byId[(int) key], dt);
+		}
+
+		long[] temp = previous;
+		previous = pairs;
+		pairs = temp;
+		previousCount = pairCount;
+	}
+
+	/**
+	 * Get the number of pairs of bodies that overlapped in the last step
+	 *
+	 * @return The number of pairs found in the last step
+	 */
+	public int getPairCount() {
+		return previousCount;
+	}
+
+	/**
+	 * Get the number of places the bodies were moved by the sort in the last
+	 * step. It stays low while the bodies move little between steps.
+	 *
+	 * @return The number of places moved
+	 */
+	public int getSwaps() {
+		return swaps;
+	}
+
+	/**
+	 * Bring the arrays up to date with the list of bodies, if it has changed
+	 * since the last step. Removed bodies are taken out and new bodies are
+	 * put last, to be sorted into place.
+	 *
+	 * @param bodies The bodies of this step
+	 */
+	private void updateBodies(BodyList bodies) {
+		int size = bodies.size();
+		boolean same = size == knownCount;
+		for (int i=0;i<size && same;i++) {
+			same = known[i] == bodies.get(i);
+		}
+		if (same) {
+			return;
+		}
+
+		present.clear();
+		for (int i=0;i<size;i++) {
+			present.put(bodies.get(i), Boolean.TRUE);
+		}
+
+		int kept = 0;
+		boolean removed = false;
+		for (int i=0;i<count;i++) {
+			if (present.remove(bodyOf[i]) == null) {
+				byId[id[i]] = null;
+				freeIds[freeCount++] = id[i];
+				removed = true;
+			} else {
+				move(i, kept++);
+			}
+		}
+		for (int i=kept;i<count;i++) {
+			bodyOf[i] = null;
+		}
+		count = kept;
+		if (removed) {
+			removePairsOfRemoved();
+		}
+
+		for (int i=0;i<size;i++) {
+			Body body = bodies.get(i);
+			if (present.remove(body) != null) {
+				add(body);
+			}
+		}
+
+		if (known.length < size) {
+			known = new Body[Math.max(size, known.length * 2)];
+		}
+		for (int i=0;i<size;i++) {
+			known[i] = bodies.get(i);
+		}
+		for (int i=size;i<knownCount;i++) {
+			known[i] = null;
+		}
+		knownCount = size;
+	}
+
+	/**
+	 * Add a body after the others, with a free id
+	 *
+	 * @param body The body to add
+	 */
+	private void add(Body body) {
+		if (count == bodyOf.length) {
+			int length = count * 2;
+			bodyOf = grow(bodyOf, length);
+			minX = grow(minX, length);
+			maxX = grow(maxX, length);
+			minY = grow(minY, length);
+			maxY = grow(maxY, length);
+			id = grow(id, length);
+			freeIds = grow(freeIds, length);
+		}
+		int newId;
+		if (freeCount > 0) {
+			newId = freeIds[--freeCount];
+		} else {
+			if (idCount == byId.length) {
+				byId = grow(byId, idCount * 2);
+			}
+			newId = idCount++;
+		}
+		byId[newId] = body;
+		bodyOf[count] = body;
+		id[count] = newId;
+		count++;
+	}
+
+	/**
+	 * Drop the pairs of the last step whose bodies have been removed, since
+	 * their ids may be reused
+	 */
+	private void removePairsOfRemoved() {
+		int kept = 0;
+		for (int i=0;i<previousCount;i++) {
+			long key = previous[i];
+			if (byId[(int) (key >>> 32)] != null && byId[(int) key] != null) {
+				previous[kept++] = key;
+			}
+		}
+		previousCount = kept;
+	}
+
+	/**
+	 * Set the bounds of a body from its current position
+	 *
+	 * @param i The place of the body
+	 */
+	private void updateBounds(int i) {
+		Body body = bodyOf[i];
+		AABox bounds = body.getShape().getBounds();
+		float x = body.getPosition().getX() + bounds.getOffsetX();
+		float y = body.getPosition().getY() + bounds.getOffsetY();
+		float halfWidth = bounds.getWidth() / 2;
+		float halfHeight = bounds.getHeight() / 2;
+
+		if (!isFinite(x, y)) {
+			// A body that has blown up goes last, where it can't stop the
+			// sweep of the others
+			minX[i] = Float.POSITIVE_INFINITY;
+			maxX[i] = Float.POSITIVE_INFINITY;
+			minY[i] = Float.POSITIVE_INFINITY;
+			maxY[i] = Float.POSITIVE_INFINITY;
+			return;
+		}
+		minX[i] = x - halfWidth;
+		maxX[i] = x + halfWidth;
+		minY[i] = y - halfHeight;
+		maxY[i] = y + halfHeight;
+	}
+
+	/**
+	 * Check if a position is a finite number
+	 *
+	 * @param x The x coordinate of the position
+	 * @param y The y coordinate of the position
+	 * @return True if neither coordinate is infinite or not a number
+	 */
+	private static boolean isFinite(float x, float y) {
+		return Math.abs(x) <= Float.MAX_VALUE && Math.abs(y) <= Float.MAX_VALUE;
+	}
+
+	/**
+	 * Sort the bodies on their lower x bound with an insertion sort
+	 */
+	private void sort() {
+		swaps = 0;
+		for (int i=1;i<count;i++) {
+			float lower = minX[i];
+			if (minX[i-1] <= lower) {
+				continue;
+			}
+
+			Body body = bodyOf[i];
+			float upper = maxX[i];
+			float top = minY[i];
+			float bottom = maxY[i];
+			int bodyId = id[i];
+			int j = i - 1;
+			do {
+				move(j, j+1);
+				j--;
+				swaps++;
+			} while (j >= 0 && minX[j] > lower);
+
+			bodyOf[j+1] = body;
+			minX[j+1] = lower;
+			maxX[j+1] = upper;
+			minY[j+1] = top;
+			maxY[j+1] = bottom;
+			id[j+1] = bodyId;
+		}
+	}
+
+	/**
+	 * Copy a body and its bounds from one place to another
+	 *
+	 * @param from The place to copy from
+	 * @param to The place to copy to
+	 */
+	private void move(int from, int to) {
+		bodyOf[to] = bodyOf[from];
+		minX[to] = minX[from];
+		maxX[to] = maxX[from];
+		minY[to] = minY[from];
+		maxY[to] = maxY[from];
+		id[to] = id[from];
+	}
+
+	/**
+	 * Add a pair of ids to the pairs of this step
+	 *
+	 * @param a The id of the first body
+	 * @param b The id of the second body
+	 */
+	private void addPair(int a, int b) {
+		if (pairCount == pairs.length) {
+			pairs = grow(pairs, pairCount + 1);
+		}
+		pairs[pairCount++] = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+	}
+
+	/**
+	 * Grow an array, keeping its contents
+	 *
+	 * @param array The array to grow
+	 * @param size The size needed
+	 * @return An array at least as large as the size
+	 */
+	private static float[] grow(float[] array, int size) {
+		float[] grown = new float[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static int[] grow(int[] array, int size) {
+		int[] grown = new int[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static long[] grow(long[] array, int size) {
+		long[] grown = new long[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @see #grow(float[], int)
+	 */
+	private static Body[] grow(Body[] array, int size) {
+		Body[] grown = new Body[Math.max(size, array.length * 2)];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
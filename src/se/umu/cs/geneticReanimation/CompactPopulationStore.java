@@ -0,0 +1,242 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+
+/**
+ * The genotypes and fitness of a population like PopulationStore, but with
+ * the genes stored in a Precision. A FLOAT store needs half and an INT8
+ * store an eighth of the memory of the genes of a PopulationStore, which is
+ * what counts for huge populations. Genotypes are converted to and from
+ * double[] when they are set and read, and read back rounded.
+ */
+public class CompactPopulationStore {
+    private final Precision precision;
+    private final int genotypeSize;
+    private final int size;
+    private final double[] fitness;
+    // Only the array of the precision is used. Row i starts at
+    // i * genotypeSize
+    private double[] doubles;
+    private float[] floats;
+    private short[] shorts;
+    private byte[] bytes;
+    // Scale of every row of a quantized precision
+    private double[] scales;
+
+    /**
+     * @param size Number of individuals
+     * @param genotypeSize Length of every genotype
+     * @param precision How the genes are stored
+     */
+    public CompactPopulationStore(int size, int genotypeSize, Precision precision) {
+        this.precision = precision;
+        this.genotypeSize = genotypeSize;
+        this.size = size;
+        this.fitness = new double[size];
+        int genes = size * genotypeSize;
+        switch (precision) {
+        case DOUBLE:
+            this.doubles = new double[genes];
+            break;
+        case FLOAT:
+            this.floats = new float[genes];
+            break;
+        case INT16:
+            this.shorts = new short[genes];
+            this.scales = new double[size];
+            break;
+        case INT8:
+            this.bytes = new byte[genes];
+            this.scales = new double[size];
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown precision " + precision);
+        }
+    }
+
+    /**
+     * @param population Creatures, all with genotypes of the same length
+     * @param precision How the genes are stored
+     * @return A store with their rounded genotypes and fitness
+     */
+    public static CompactPopulationStore of(List<Creature> population, Precision precision) {
+        int genotypeSize = population.get(0).getGenotype().length;
+        CompactPopulationStore store =
+            new CompactPopulationStore(population.size(), genotypeSize, precision);
+        for (int i = 0, size = population.size(); i < size; i++) {
+            Creature creature = population.get(i);
+            store.setGenotype(i, creature.getGenotype());
+            store.setFitness(i, creature.getFitness());
+        }
+        return store;
+    }
+
+    /**
+     * @return A store with the rounded genotypes and fitness of a
+     * PopulationStore
+     */
+    public static CompactPopulationStore of(PopulationStore from, Precision precision) {
+        CompactPopulationStore store =
+            new CompactPopulationStore(from.size(), from.getGenotypeSize(), precision);
+        for (int i = 0, size = from.size(); i < size; i++) {
+            store.setGenotype(i, from.getGenotype(i));
+            store.setFitness(i, from.getFitness(i));
+        }
+        return store;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getGenotypeSize() {
+        return this.genotypeSize;
+    }
+
+    public Precision getPrecision() {
+        return this.precision;
+    }
+
+    /**
+     * @return Number of bytes used by the genes and scales
+     */
+    public long getGeneBytes() {
+        long genes = (long) size * genotypeSize * precision.getBits() / 8;
+        return (scales == null) ? genes : genes + 8L * size;
+    }
+
+    public double getFitness(int index) {
+        return fitness[index];
+    }
+
+    public void setFitness(int index, double fitness) {
+        this.fitness[index] = fitness;
+    }
+
+    /**
+     * @return The genotype of an individual, as rounded by the precision
+     */
+    public double[] getGenotype(int index) {
+        double[] genotype = new double[genotypeSize];
+        load(index, genotype, 0);
+        return genotype;
+    }
+
+    public void setGenotype(int index, double[] genotype) {
+        if (genotype.length != genotypeSize) {
+            throw new IllegalArgumentException("Genotype must have length " + genotypeSize);
+        }
+        store(index, genotype, 0);
+    }
+
+    /**
+     * Rounds the genotypes of a PopulationStore in place, the way the brains
+     * of the precision round their weights. Every row is stored in this
+     * store and read back, so no genotype is allocated.
+     *
+     * @param population A store with at most as many individuals as this
+     * one, with genotypes of the same length
+     */
+    public void round(PopulationStore population) {
+        if (population.size() > size || population.getGenotypeSize() != genotypeSize) {
+            throw new IllegalArgumentException("Population does not fit in the store");
+        }
+        for (int i = 0, n = population.size(); i < n; i++) {
+            store(i, population.getGenes(), population.offset(i));
+            load(i, population.getGenes(), population.offset(i));
+        }
+    }
+
+    /**
+     * Stores the genotype of an individual
+     *
+     * @param genes An array with the genotype in it
+     * @param from Index in genes of the first weight
+     */
+    private void store(int index, double[] genes, int from) {
+        int offset = index * genotypeSize;
+        switch (precision) {
+        case DOUBLE:
+            System.arraycopy(genes, from, doubles, offset, genotypeSize);
+            break;
+        case FLOAT:
+            for (int k = 0; k < genotypeSize; k++) {
+                floats[offset + k] = (float) genes[from + k];
+            }
+            break;
+        case INT16:
+            scales[index] = precision.scaleOf(genes, from, genotypeSize);
+            for (int k = 0; k < genotypeSize; k++) {
+                shorts[offset + k] = (short) precision.quantize(genes[from + k], scales[index]);
+            }
+            break;
+        default:
+            scales[index] = precision.scaleOf(genes, from, genotypeSize);
+            for (int k = 0; k < genotypeSize; k++) {
+                bytes[offset + k] = (byte) precision.quantize(genes[from + k], scales[index]);
+            }
+        }
+    }
+
+    /**
+     * Reads the rounded genotype of an individual
+     *
+     * @param genes The array to write the genotype into
+     * @param to Index in genes of the first weight
+     */
+    private void load(int index, double[] genes, int to) {
+        int offset = index * genotypeSize;
+        switch (precision) {
+        case DOUBLE:
+            System.arraycopy(doubles, offset, genes, to, genotypeSize);
+            break;
+        case FLOAT:
+            for (int k = 0; k < genotypeSize; k++) {
+                genes[to + k] = floats[offset + k];
+            }
+            break;
+        case INT16:
+            for (int k = 0; k < genotypeSize; k++) {
+                genes[to + k] = shorts[offset + k] * scales[index];
+            }
+            break;
+        default:
+            for (int k = 0; k < genotypeSize; k++) {
+                genes[to + k] = bytes[offset + k] * scales[index];
+            }
+        }
+    }
+
+    /**
+     * @return A PopulationStore with the rounded genotypes and the fitness
+     */
+    public PopulationStore toPopulationStore() {
+        PopulationStore store = new PopulationStore(size, genotypeSize);
+        store.setSize(size);
+        for (int i = 0; i < size; i++) {
+            store.setGenotype(i, getGenotype(i));
+            store.setFitness(i, fitness[i]);
+        }
+        return store;
+    }
+
+    /**
+     * @param config The brain and control settings of the creatures
+     * @return New WormCreatures with the rounded genotypes and the fitness
+     */
+    public List<Creature> toCreatures(WormConfig config) {
+        List<Creature> population = new ArrayList<Creature>(size);
+        for (int i = 0; i < size; i++) {
+            Creature creature = new WormCreature(getGenotype(i), config);
+            creature.setFitness(fitness[i]);
+            population.add(creature);
+        }
+        return population;
+    }
+}
@@ -0,0 +1,21 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Told every time a generation has been evaluated, ex: to exchange creatures
+ * with other islands.
+ */
+public interface GenerationListener {
+    /**
+     * Called before the next generation is bred. The listener may replace
+     * creatures in the population, as long as the replacements have a
+     * fitness.
+     *
+     * @param generation The index of the generation
+     * @param population The evaluated population
+     */
+    public void generationDone(int generation, List<Creature> population);
+}
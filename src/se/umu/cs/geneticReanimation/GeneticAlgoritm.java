@@ -2,18 +2,73 @@ package se.umu.cs.geneticReanimation;
 
 import java.util.*;
 import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
 import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
 
 public class GeneticAlgoritm {
     // private static int populationSize;
-    private static double crossoverRate;
-    private static double mutationRate;
+    private double crossoverRate;
+    private double mutationRate;
+    private SplitRandom random;
+    private final WormConfig config;
     //private List<Creature> population;
     
     public GeneticAlgoritm (double crossoverRate,
                             double mutationRate) {
-        GeneticAlgoritm.crossoverRate = crossoverRate;
-        GeneticAlgoritm.mutationRate = mutationRate;
+        this(crossoverRate, mutationRate, new SplitRandom());
+    }
+
+    /**
+     * @param random Generator for selection, crossover and mutation, new
+     * creatures get streams split from it
+     */
+    public GeneticAlgoritm (double crossoverRate,
+                            double mutationRate,
+                            SplitRandom random) {
+        this(crossoverRate, mutationRate, random, WormConfig.DEFAULT);
+    }
+
+    /**
+     * @param random Generator for selection, crossover and mutation, new
+     * creatures get streams split from it
+     * @param config The brain and control settings of new creatures
+     */
+    public GeneticAlgoritm (double crossoverRate,
+                            double mutationRate,
+                            SplitRandom random,
+                            WormConfig config) {
+        this.crossoverRate = crossoverRate;
+        this.mutationRate = mutationRate;
+        this.random = random;
+        this.config = config;
+    }
+
+    public double getCrossoverRate() {
+        return crossoverRate;
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * @return The generator used for selection, crossover and mutation. Its
+     * state is saved in checkpoints.
+     */
+    public SplitRandom getRandom() {
+        return random;
+    }
+
+    public void setRandom(SplitRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @return The brain and control settings of new creatures
+     */
+    public WormConfig getConfig() {
+        return config;
     }
 
     /**
@@ -24,7 +79,7 @@ public class GeneticAlgoritm {
     public List<Creature> createPopulation(final int populationSize) {
         List<Creature> population = new ArrayList<Creature>();
         for (int i = 1; i<=populationSize; i++) {
-            population.add(createNewCreature());
+            population.add(new WormCreature(random.split(), config));
         }
         return population;
     }
@@ -36,78 +91,165 @@ public class GeneticAlgoritm {
      * @return
      */
     public final List<Creature> createNextGeneration(final List<Creature> oldPopulation) {
-        int populationSize = oldPopulation.size();
-        ArrayList<Creature> newPopulation = new ArrayList<Creature>();
-        
-        Creature bestCreature = oldPopulation.get(0);
-        double bestFitness = bestCreature.getFitness();
-        for (Creature creature : oldPopulation) {
-            if (bestFitness < creature.getFitness()) {
-                bestCreature = creature;
-                bestFitness = bestCreature.getFitness();
-            }
+        PopulationStore parents = PopulationStore.of(oldPopulation);
+        PopulationStore children = new PopulationStore(parents.size() + 1,
+                                                       parents.getGenotypeSize());
+        createNextGeneration(parents, children);
+
+        // The best creature gets a new body and brain, the old ones are left
+        // as its last evaluation ended. A resumed run, whose creatures come
+        // from a checkpoint, then evaluates it the same way.
+        ArrayList<Creature> newPopulation = new ArrayList<Creature>(children.size());
+        for (int i = 0, size = children.size(); i < size; i++) {
+            newPopulation.add(new WormCreature(children.getGenotype(i), config));
         }
-        newPopulation.add(bestCreature);
-        
+        newPopulation.get(0).setFitness(children.getFitness(0));
+        return newPopulation;
+    }
 
-        Creature parent1;
-        Creature parent2;
+    /**
+     * Creates a new generation in place. Row 0 of the children is the best
+     * parent, then come the children of crossover and then copies of
+     * tournament winners. Every child but the best parent is mutated. Nothing
+     * is allocated if the children store has room for one more individual
+     * than the parents.
+     *
+     * Note that when populationSize * crossoverRate rounds up to the whole
+     * population, the best parent and the crossover children together are
+     * one more than the parents.
+     *
+     * @param parents The evaluated population
+     * @param children Store to breed into, its old content is replaced
+     * @return The index of the best parent
+     */
+    public int createNextGeneration(final PopulationStore parents,
+                                    final PopulationStore children) {
+        int populationSize = parents.size();
+        int pairs = 0;
         for (int i = 1; i <= (populationSize * crossoverRate); i += 2) {
-            parent1 = tournamentSelection(oldPopulation);
-            parent2 = tournamentSelection(oldPopulation);
-            newPopulation.add(crossover(parent1, parent2));
-            newPopulation.add(crossover(parent2, parent1));
+            pairs++;
         }
+        children.setSize(Math.max(populationSize, 1 + 2 * pairs));
 
-        for (int i = newPopulation.size(); i < populationSize; i++) {
-            parent1 = tournamentSelection(oldPopulation);
-            Creature newParent = new WormCreature(parent1.getGenotype());
-            newPopulation.add(newParent);
+        int best = 0;
+        for (int i = 1; i < populationSize; i++) {
+            if (parents.getFitness(best) < parents.getFitness(i)) {
+                best = i;
+            }
+        }
+        children.copy(parents, best, 0);
+
+        int child = 1;
+        for (int i = 0; i < pairs; i++) {
+            int parent1 = tournamentSelection(parents, random);
+            int parent2 = tournamentSelection(parents, random);
+            crossover(parents, parent1, parent2, children, child++, random);
+            crossover(parents, parent2, parent1, children, child++, random);
+        }
+
+        for (; child < populationSize; child++) {
+            children.copy(parents, tournamentSelection(parents, random), child);
+            children.setFitness(child, 0);
         }
 
         for (int i = 1; i < populationSize; i++) {
-            mutate(newPopulation.get(i));
+            mutate(children, i, random);
         }
+        return best;
+    }
 
-        return newPopulation;
+    /**
+     * Picks the parents of one offspring by tournament selection, two of
+     * them at the crossover rate. Used by SteadyStateGeneticAlgoritm while it
+     * holds the population, every worker with a generator of its own.
+     *
+     * @param population The population to pick parents from
+     * @param random The generator of the calling worker
+     * @return Copies of the genotypes of the one or two parents
+     */
+    double[][] selectParents(final List<Creature> population, final SplitRandom random) {
+        if (crossoverRate > random.nextDouble()) {
+            return new double[][] {
+                tournamentSelection(population, random).getGenotype(),
+                tournamentSelection(population, random).getGenotype()
+            };
+        }
+        return new double[][] {tournamentSelection(population, random).getGenotype()};
     }
 
-    private static Creature mutate(Creature creature) {
-        double[] genotype = creature.getGenotype();
+    /**
+     * Creates one mutated offspring from the parents picked by
+     * selectParents. It needs no access to the population, so the brain of
+     * the offspring can be built while other workers pick their parents.
+     *
+     * @param parents Genotypes from selectParents, the first is overwritten
+     * @param random The generator of the calling worker
+     * @return The new creature, not evaluated
+     */
+    Creature createOffspring(final double[][] parents, final SplitRandom random) {
+        double[] genotype = parents[0];
+        if (parents.length > 1) {
+            for (int i = (int)(random.nextDouble()*genotype.length); i<genotype.length; i++) {
+                genotype[i] = parents[1][i];
+            }
+        }
         for (int i = 0, length = genotype.length; i < length; i++) {
-            if (mutationRate > Math.random()) {
-                genotype[i] = (Math.random() * 2 - 1);
+            if (mutationRate > random.nextDouble()) {
+                genotype[i] = (random.nextDouble() * 2 - 1);
+            }
+        }
+        return new WormCreature(genotype, config);
+    }
+
+    private void mutate(PopulationStore store, int index, SplitRandom random) {
+        double[] genes = store.getGenes();
+        for (int i = store.offset(index), end = i + store.getGenotypeSize(); i < end; i++) {
+            if (mutationRate > random.nextDouble()) {
+                genes[i] = (random.nextDouble() * 2 - 1);
             }
         }
-        creature.setGenotype(genotype);
-        return creature;
     }
 
-    private static Creature crossover(Creature parent1, Creature parent2) {
-        double[] parent2Genotype = parent2.getGenotype();
-        int genotypeSize = parent2Genotype.length;
+    /**
+     * Writes a child of parent1 and parent2 into a row of the children, the
+     * genes of parent2 from a random point and on.
+     */
+    private void crossover(PopulationStore parents, int parent1, int parent2,
+                           PopulationStore children, int child, SplitRandom random) {
+        int genotypeSize = parents.getGenotypeSize();
+        int point = (int)(random.nextDouble()*genotypeSize);
+        double[] from = parents.getGenes();
+        double[] to = children.getGenes();
+        System.arraycopy(from, parents.offset(parent1), to, children.offset(child), point);
+        System.arraycopy(from, parents.offset(parent2) + point,
+                         to, children.offset(child) + point, genotypeSize - point);
+        children.setFitness(child, 0);
+    }
 
-        double[] childGenotype = parent1.getGenotype();
-        for (int i = (int)(Math.random()*genotypeSize); i<genotypeSize; i++) {
-            childGenotype[i]=parent2Genotype[i];
+    private int tournamentSelection(final PopulationStore population,
+                                    final SplitRandom random) {
+        int populationSize = population.size();
+        int bestParent = -1;
+        for (int i = 0; i<3; i++) {
+            int parent = (int) (random.nextDouble() * populationSize);
+            if (bestParent == -1
+                || population.getFitness(parent) >= population.getFitness(bestParent)) {
+                bestParent = parent;
+            }
         }
-        Creature child = new WormCreature(childGenotype);
-        return child;
+        return bestParent;
     }
 
-    private static Creature tournamentSelection(final List<Creature> population) {
+    private Creature tournamentSelection(final List<Creature> population,
+                                         final SplitRandom random) {
         int populationSize = population.size();
         Creature bestParent = null;
         for (int i = 0; i<3; i++) {
-            Creature parent = population.get((int) (Math.random() * populationSize));
+            Creature parent = population.get((int) (random.nextDouble() * populationSize));
             if (bestParent == null || parent.getFitness() >= bestParent.getFitness()) {
                 bestParent = parent;
             }
         }
         return bestParent;
     }
-
-    private static Creature createNewCreature() {
-        return new WormCreature();
-    }
 }
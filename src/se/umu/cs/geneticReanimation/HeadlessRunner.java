@@ -0,0 +1,26 @@
+package se.umu.cs.geneticReanimation;
+
+import java.io.IOException;
+
+import se.umu.cs.geneticReanimation.snapshot.Checkpoint;
+
+/**
+ * Runs the genetic algorithm without Processing. Creatures are simulated as
+ * fast as possible, nothing is drawn and best creatures are never recorded.
+ * Takes the same parameters as ProcessingView.
+ */
+public class HeadlessRunner {
+
+    public static void main(String args[]) throws IOException {
+        Parameters.parse(args);
+        Simulation simulation;
+        if (Parameters.RESUMEFILE != null) {
+            simulation = new Simulation(null, Checkpoint.read(Parameters.RESUMEFILE));
+        } else if (Parameters.GENERATIONFILE != null) {
+            simulation = new Simulation(null, Parameters.GENERATIONFILE);
+        } else {
+            simulation = new Simulation(null);
+        }
+        simulation.run();
+    }
+}
@@ -0,0 +1,243 @@
+package se.umu.cs.geneticReanimation;
+
+import java.io.File;
+
+import se.umu.cs.geneticReanimation.creature.ControlMode;
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Run parameters shared by the Processing view and the headless runner. Kept
+ * apart from ProcessingView so that reading them doesn't load a PApplet.
+ */
+public class Parameters {
+
+    // Default values
+    public static int NROFGENERATIONS = 50;
+    public static int POPULATIONSIZE = 10;
+    public static double CROSSOVERRATE = 0.7;
+    public static double MUTATIONRATE = 0.01;
+    public static int LIFESPAN = 4000;
+    public static boolean RECORDBEST = false;
+    public static String MOVIEPATH = "";
+    public static boolean SAVE_POP_TO_FILE = true;
+    public static boolean BINARYSNAPSHOT = false;
+    // Checkpoints, off when the interval is 0
+    public static int CHECKPOINTINTERVAL = 0;
+    public static File RESUMEFILE = null;
+    public static int WORKERS = 1;
+    // Replay a run by giving the seed it printed
+    public static long SEED = new SplitRandom().nextLong();
+    public static int CACHESIZE = 4096;
+    // Early stop, a rule is off when its value is 0
+    public static int STOPWINDOW = 0;
+    public static double MINPROGRESS = 1.0;
+    public static double MAXSPEED = 0.0;
+    public static double STOPQUANTILE = 0.5;
+    // Successive halving, off when there is only one rung
+    public static int HALVINGRUNGS = 1;
+    public static double HALVINGKEEP = 0.5;
+    public static boolean STEADYSTATE = false;
+    // Worms whose brains are stepped together, off when it is 1
+    public static int BRAINBATCH = 1;
+    // Activation of the brains, POW gives the fitness of earlier runs
+    public static Activation ACTIVATION = Activation.POW;
+    // Precision of the brain weights, and the one to measure the fitness
+    // drift of, off when it is null
+    public static Precision PRECISION = Precision.DOUBLE;
+    public static Precision DRIFTPRECISION = null;
+    // Compile every brain to bytecode, pruning weights up to the epsilon
+    public static boolean COMPILEBRAINS = false;
+    public static double PRUNEEPSILON = 0.0;
+    // Use sparse brains when this fraction of weights is pruned, off when 0
+    public static double SPARSETHRESHOLD = 0.0;
+    // Physics steps between two runs of a brain, and what the joints aim for
+    // in between
+    public static int CONTROLINTERVAL = 1;
+    public static ControlMode CONTROLMODE = ControlMode.HOLD;
+    // Step brains until no node changes more than the tolerance, at most
+    // this many times per run, off when it is 0
+    public static int SETTLEMAXSTEPS = 0;
+    public static double SETTLETOLERANCE = 1e-3;
+    // Island model, used by the IslandCoordinator
+    public static int ISLANDS = 4;
+    public static int MIGRATIONINTERVAL = 5;
+    public static int MIGRANTS = 2;
+    // Remote evaluation, off when there are no workers
+    public static String REMOTEWORKERS = "";
+    public static int LOOPBACKWORKERS = 0;
+    public static int BATCHSIZE = 4;
+    public static int INFLIGHT = 2;
+    public static File GENERATIONFILE = null;
+
+    public static void parse(String[] args) {
+        for(String arg : args) {
+            if(arg.charAt(0) == '-') {
+                // By catching the NumberFormatExceptions we make it possible to
+                // check the value of a parameter by just giving the parameter
+                // name, ex: -p
+                switch(arg.charAt(1)) {
+                case 'f':
+                    GENERATIONFILE = new File(arg.substring(2));
+                    break;
+                case 'n':
+                    try { NROFGENERATIONS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Number of generations: " + NROFGENERATIONS);
+                    break;
+                case 'p':
+                    try { POPULATIONSIZE = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Population size: " + POPULATIONSIZE);
+                    break;
+                case 'c':
+                    try { CROSSOVERRATE = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Crossover rate: " + CROSSOVERRATE);
+                    break;
+                case 'm':
+                    try { MUTATIONRATE = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Mutation rate: " + MUTATIONRATE);
+                    break;
+                case 'l':
+                    try { LIFESPAN = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Lifespan: " + LIFESPAN);
+                    break;
+                case 'w':
+                    try { WORKERS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Workers: " + WORKERS);
+                    break;
+                case 'k':
+                    try { CACHESIZE = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Fitness cache size: " + CACHESIZE);
+                    break;
+                case 'e':
+                    try { STOPWINDOW = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Stop after steps without progress: " + STOPWINDOW);
+                    break;
+                case 'b':
+                    try { MAXSPEED = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Max speed for fitness bound: " + MAXSPEED);
+                    break;
+                case 'h':
+                    try { HALVINGRUNGS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Successive halving rungs: " + HALVINGRUNGS);
+                    break;
+                case 'H':
+                    try { HALVINGKEEP = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Successive halving keep fraction: " + HALVINGKEEP);
+                    break;
+                case 'a':
+                    try { STEADYSTATE = argBooleanVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Steady state: " + STEADYSTATE);
+                    break;
+                case 'L':
+                    try { BRAINBATCH = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Brain batch: " + BRAINBATCH);
+                    break;
+                case 'A':
+                    try { ACTIVATION = Activation.forName(arg.substring(2)); } catch(IllegalArgumentException e) {}
+                    System.out.println("Activation: " + ACTIVATION);
+                    break;
+                case 'Q':
+                    try { PRECISION = Precision.forName(arg.substring(2)); } catch(IllegalArgumentException e) {}
+                    System.out.println("Precision: " + PRECISION);
+                    break;
+                case 'q':
+                    try { DRIFTPRECISION = Precision.forName(arg.substring(2)); } catch(IllegalArgumentException e) {}
+                    System.out.println("Measure fitness drift of: " + DRIFTPRECISION);
+                    break;
+                case 'j':
+                    try { COMPILEBRAINS = argBooleanVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Compile brains: " + COMPILEBRAINS);
+                    break;
+                case 'P':
+                    try { PRUNEEPSILON = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Prune weights up to: " + PRUNEEPSILON);
+                    break;
+                case 'T':
+                    try { SPARSETHRESHOLD = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Sparse brains from pruned fraction: " + SPARSETHRESHOLD);
+                    break;
+                case 'K':
+                    try { CONTROLINTERVAL = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Physics steps per brain run: " + CONTROLINTERVAL);
+                    break;
+                case 'Y':
+                    try { CONTROLMODE = ControlMode.forName(arg.substring(2)); } catch(IllegalArgumentException e) {}
+                    System.out.println("Control between brain runs: " + CONTROLMODE);
+                    break;
+                case 'N':
+                    try { SETTLEMAXSTEPS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Max brain steps to settle: " + SETTLEMAXSTEPS);
+                    break;
+                case 'E':
+                    try { SETTLETOLERANCE = argDoubleVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Settle tolerance: " + SETTLETOLERANCE);
+                    break;
+                case 'i':
+                    try { ISLANDS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Islands: " + ISLANDS);
+                    break;
+                case 'g':
+                    try { MIGRATIONINTERVAL = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Generations between migrations: " + MIGRATIONINTERVAL);
+                    break;
+                case 'M':
+                    try { MIGRANTS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Migrants: " + MIGRANTS);
+                    break;
+                case 'd':
+                    REMOTEWORKERS = arg.substring(2);
+                    System.out.println("Remote workers: " + REMOTEWORKERS);
+                    break;
+                case 'D':
+                    try { LOOPBACKWORKERS = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Loopback workers: " + LOOPBACKWORKERS);
+                    break;
+                case 'B':
+                    try { BATCHSIZE = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Batch size: " + BATCHSIZE);
+                    break;
+                case 'I':
+                    try { INFLIGHT = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Batches in flight per worker: " + INFLIGHT);
+                    break;
+                case 's':
+                    try { BINARYSNAPSHOT = argBooleanVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Binary population snapshots: " + BINARYSNAPSHOT);
+                    break;
+                case 'C':
+                    try { CHECKPOINTINTERVAL = argIntVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Generations between checkpoints: " + CHECKPOINTINTERVAL);
+                    break;
+                case 'R':
+                    RESUMEFILE = new File(arg.substring(2));
+                    System.out.println("Resume from: " + RESUMEFILE);
+                    break;
+                case 'S':
+                    try { SEED = Long.parseLong(arg.substring(2)); } catch(NumberFormatException e) {}
+                    System.out.println("Seed: " + SEED);
+                    break;
+                case 'r':
+                    try { RECORDBEST = argBooleanVal(arg); } catch(NumberFormatException e) {}
+                    System.out.println("Record best: " + RECORDBEST);
+                case 'v':
+                    MOVIEPATH = arg.substring(2);
+                    System.out.println("Movie path: " + MOVIEPATH);
+                default:
+                }
+            }
+        }
+    }
+
+    private static int argIntVal(String arg) throws NumberFormatException {
+        return Integer.parseInt(arg.substring(2));
+    }
+
+    private static boolean argBooleanVal(String arg) throws NumberFormatException {
+        return (argIntVal(arg) > 0);
+    }
+
+    private static double argDoubleVal(String arg) throws NumberFormatException {
+        return Double.parseDouble(arg.substring(2));
+    }
+}
@@ -0,0 +1,138 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+/**
+ * The genotypes and fitness of a population in flat primitive arrays. The
+ * genotype of individual i is the row genes[i * genotypeSize] to
+ * genes[(i + 1) * genotypeSize - 1], so the whole population is one
+ * contiguous double[]. GeneticAlgoritm breeds one store into another in
+ * place, which allocates nothing once the stores are big enough.
+ */
+public class PopulationStore {
+    private final int genotypeSize;
+    private int size;
+    private double[] genes;
+    private double[] fitness;
+
+    /**
+     * @param capacity Number of individuals that fit without growing
+     * @param genotypeSize Length of every genotype
+     */
+    public PopulationStore(int capacity, int genotypeSize) {
+        this.genotypeSize = genotypeSize;
+        this.genes = new double[capacity * genotypeSize];
+        this.fitness = new double[capacity];
+    }
+
+    /**
+     * @param population Creatures, all with genotypes of the same length
+     * @return A store with a copy of their genotypes and fitness
+     */
+    public static PopulationStore of(List<Creature> population) {
+        int genotypeSize = population.get(0).getGenotype().length;
+        PopulationStore store = new PopulationStore(population.size(), genotypeSize);
+        store.setSize(population.size());
+        for (int i = 0, size = population.size(); i < size; i++) {
+            Creature creature = population.get(i);
+            store.setGenotype(i, creature.getGenotype());
+            store.setFitness(i, creature.getFitness());
+        }
+        return store;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Changes the number of individuals. The arrays only grow, and only when
+     * the new size is beyond the capacity.
+     */
+    public void setSize(int size) {
+        if (size > fitness.length) {
+            double[] newGenes = new double[size * genotypeSize];
+            System.arraycopy(genes, 0, newGenes, 0, this.size * genotypeSize);
+            double[] newFitness = new double[size];
+            System.arraycopy(fitness, 0, newFitness, 0, this.size);
+            this.genes = newGenes;
+            this.fitness = newFitness;
+        }
+        this.size = size;
+    }
+
+    public int getCapacity() {
+        return fitness.length;
+    }
+
+    public int getGenotypeSize() {
+        return this.genotypeSize;
+    }
+
+    /**
+     * @return The backing array of all genotypes, row by row. It is
+     * replaced when the store grows.
+     */
+    public double[] getGenes() {
+        return this.genes;
+    }
+
+    /**
+     * @return Index of the first gene of an individual in getGenes()
+     */
+    public int offset(int index) {
+        return index * genotypeSize;
+    }
+
+    public double getFitness(int index) {
+        return fitness[index];
+    }
+
+    public void setFitness(int index, double fitness) {
+        this.fitness[index] = fitness;
+    }
+
+    /**
+     * @return A copy of the genotype of an individual
+     */
+    public double[] getGenotype(int index) {
+        double[] genotype = new double[genotypeSize];
+        System.arraycopy(genes, offset(index), genotype, 0, genotypeSize);
+        return genotype;
+    }
+
+    public void setGenotype(int index, double[] genotype) {
+        if (genotype.length != genotypeSize) {
+            throw new IllegalArgumentException("Genotype must have length " + genotypeSize);
+        }
+        System.arraycopy(genotype, 0, genes, offset(index), genotypeSize);
+    }
+
+    /**
+     * Copies genotype and fitness of an individual of another store.
+     */
+    public void copy(PopulationStore from, int fromIndex, int toIndex) {
+        System.arraycopy(from.genes, from.offset(fromIndex), genes, offset(toIndex),
+                         genotypeSize);
+        fitness[toIndex] = from.fitness[fromIndex];
+    }
+
+    /**
+     * @param config The brain and control settings of the creatures
+     * @return New WormCreatures with the genotypes and fitness of the store
+     */
+    public List<Creature> toCreatures(WormConfig config) {
+        List<Creature> population = new ArrayList<Creature>(size);
+        for (int i = 0; i < size; i++) {
+            Creature creature = new WormCreature(getGenotype(i), config);
+            creature.setFitness(fitness[i]);
+            population.add(creature);
+        }
+        return population;
+    }
+}
@@ -1,6 +1,7 @@
 package se.umu.cs.geneticReanimation;
 
 import java.io.File;
+import java.io.IOException;
 import net.phys2d.math.MathUtil;
 import net.phys2d.math.Matrix2f;
 import net.phys2d.math.ROVector2f;
@@ -20,36 +21,36 @@ import net.phys2d.raw.shapes.Box;
 import net.phys2d.raw.shapes.Circle;
 import net.phys2d.raw.shapes.Line;
 import processing.core.*;
+import processing.video.MovieMaker;
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.snapshot.Checkpoint;
 
-public class ProcessingView extends PApplet {
+public class ProcessingView extends PApplet implements SimulationObserver {
 
     private Simulation s;
+    private MovieMaker movie;
     private boolean recording = false;
     public double fitness_roevare = 0.0;
 
-    private static File generationFile;
-
-    // Default values
-    public static int NROFGENERATIONS = 50;
-    public static int POPULATIONSIZE = 10;
-    public static double CROSSOVERRATE = 0.7;
-    public static double MUTATIONRATE = 0.01;
-    public static int LIFESPAN = 4000;
-    public static boolean RECORDBEST = false;
-    public static String MOVIEPATH = "";
-    public static boolean SAVE_POP_TO_FILE = true;
-
     public static void main(String args[]) {
-        parseParameters(args);
+        Parameters.parse(args);
         PApplet.main(new String[] {"se.umu.cs.geneticReanimation.ProcessingView"});
     }
 
     @Override
     public void setup() {
         println("Processing starts...");
+        size(Arena.WIDTH, Arena.HEIGHT);
         smooth();
-        if (generationFile != null) {
-            this.s = new Simulation(this, generationFile);
+        if (Parameters.RESUMEFILE != null) {
+            try {
+                this.s = new Simulation(this, Checkpoint.read(Parameters.RESUMEFILE));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not resume from " + Parameters.RESUMEFILE, e);
+            }
+        } else if (Parameters.GENERATIONFILE != null) {
+            this.s = new Simulation(this, Parameters.GENERATIONFILE);
         } else {
             this.s = new Simulation(this);
         }
@@ -61,62 +62,35 @@ public class ProcessingView extends PApplet {
         textFont(font);
     }
 
-    private static void parseParameters(String[] args) {
-        for(String arg : args) {
-            if(arg.charAt(0) == '-') {
-                // By catching the NumberFormatExceptions we make it possible to
-                // check the value of a parameter by just giving the parameter
-                // name, ex: -p
-                switch(arg.charAt(1)) {
-                case 'f':
-                    generationFile = new File(arg.substring(2));
-                    break;
-                case 'n':
-                    try { NROFGENERATIONS = argIntVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Number of generations: " + NROFGENERATIONS);
-                    break;
-                case 'p':
-                    try { POPULATIONSIZE = argIntVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Population size: " + POPULATIONSIZE);
-                    break;
-                case 'c':
-                    try { CROSSOVERRATE = argDoubleVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Crossover rate: " + CROSSOVERRATE);
-                    break;
-                case 'm':
-                    try { MUTATIONRATE = argDoubleVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Mutation rate: " + MUTATIONRATE);
-                    break;
-                case 'l':
-                    try { LIFESPAN = argIntVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Lifespan: " + LIFESPAN);
-                    break;
-                case 'r':
-                    try { RECORDBEST = argBooleanVal(arg); } catch(NumberFormatException e) {}
-                    System.out.println("Record best: " + RECORDBEST);
-                case 'v':
-                    MOVIEPATH = arg.substring(2);
-                    System.out.println("Movie path: " + MOVIEPATH);
-                default:
-                }
-            }
-        }
+    public void frameSimulated(Creature creature) {
+        this.fitness_roevare = Arena.fitnessOf(creature);
+        redraw();
     }
 
-    private static int argIntVal(String arg) throws NumberFormatException {
-        return Integer.parseInt(arg.substring(2));
-    }
+    public void startRecording(String filename) {
+        String fullname = Parameters.MOVIEPATH + filename + ".mov";
 
-    private static boolean argBooleanVal(String arg) throws NumberFormatException {
-        return (argIntVal(arg) > 0);
-    }
+        // Check if file exists
+        File file = new File(fullname);
+        if (file.exists()) {
+            file.delete();
+        }
+
+        //     this.movie = new MovieMaker(this, width, height, fullname, 20);
+
+        // Or, set specific compression and frame rate options
+        int movieFps = 30;
+        this.movie = new MovieMaker(this, width, height, fullname, movieFps,
+                                    MovieMaker.ANIMATION, MovieMaker.HIGH);
 
-    private static double argDoubleVal(String arg) throws NumberFormatException {
-        return Double.parseDouble(arg.substring(2));
+        this.recording = true;
+        System.out.println("Recording movie: >" + filename + ".mov<...");
     }
 
-    public void setRecording(boolean b) {
-        this.recording  = b;
+    public void stopRecording() {
+        this.recording = false;
+        this.movie.finish();
+        System.out.println("Recording ended.");
     }
 
 
@@ -154,7 +128,7 @@ public class ProcessingView extends PApplet {
 
             popMatrix();
             if (recording) {
-                s.getMovie().addFrame();
+                movie.addFrame();
             }
         } catch (IndexOutOfBoundsException e) {
 
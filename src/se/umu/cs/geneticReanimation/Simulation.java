@@ -1,140 +1,449 @@
 package se.umu.cs.geneticReanimation;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 
-import net.phys2d.math.Vector2f;
-import net.phys2d.raw.Body;
-import net.phys2d.raw.StaticBody;
 import net.phys2d.raw.World;
-import net.phys2d.raw.shapes.Box;
-import net.phys2d.raw.strategies.QuadSpaceStrategy;
-
-import processing.video.MovieMaker;
 
 import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
 import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.evaluation.BatchEvaluator;
+import se.umu.cs.geneticReanimation.evaluation.CachingEvaluator;
+import se.umu.cs.geneticReanimation.evaluation.EvaluationStats;
+import se.umu.cs.geneticReanimation.evaluation.Evaluator;
+import se.umu.cs.geneticReanimation.evaluation.FitnessBoundRule;
+import se.umu.cs.geneticReanimation.evaluation.FitnessCache;
+import se.umu.cs.geneticReanimation.evaluation.FitnessDrift;
+import se.umu.cs.geneticReanimation.evaluation.NoProgressRule;
+import se.umu.cs.geneticReanimation.evaluation.ParallelEvaluator;
+import se.umu.cs.geneticReanimation.evaluation.SequentialEvaluator;
+import se.umu.cs.geneticReanimation.evaluation.StopRule;
+import se.umu.cs.geneticReanimation.evaluation.SuccessiveHalvingEvaluator;
+import se.umu.cs.geneticReanimation.neuralnet.BrainCompiler;
+import se.umu.cs.geneticReanimation.neuralnet.Brain;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+import se.umu.cs.geneticReanimation.neuralnet.SettlingBrain;
+import se.umu.cs.geneticReanimation.neuralnet.SettlingStats;
+import se.umu.cs.geneticReanimation.neuralnet.SparseHopfieldNeuralNet;
+import se.umu.cs.geneticReanimation.neuralnet.SparseStats;
+import se.umu.cs.geneticReanimation.remote.LoopbackWorkers;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+import se.umu.cs.geneticReanimation.remote.RemoteEvaluator;
+import se.umu.cs.geneticReanimation.snapshot.Checkpoint;
+import se.umu.cs.geneticReanimation.snapshot.PopulationSnapshot;
 
 public class Simulation implements Runnable {
 
     private final boolean DRAW_GUI = true;
     private final int FPS = 60;
 
-    private ProcessingView view;
-    private World world;
+    private SimulationObserver observer;
+    private Arena arena;
+    private Evaluator evaluator;
+    private FitnessCache cache;
+    private FitnessDrift drift;
+    private SparseStats sparseStats = new SparseStats();
+    private SettlingStats settlingStats = new SettlingStats();
+    private List<StopRule> stopRules = new ArrayList<StopRule>();
+    private EvaluationStats stats = new EvaluationStats();
+    private List<GenerationListener> listeners = new ArrayList<GenerationListener>();
     private GeneticAlgoritm ga;
+    private WormConfig config;
     private List<Creature> population;
-    private MovieMaker movie;
+    // The genotypes and fitness of the population, and the store the next
+    // generation is bred into. They are swapped every generation.
+    private PopulationStore current;
+    private PopulationStore next;
+    // The creatures made from the rows of current, to notice the ones a
+    // listener replaced
+    private List<Creature> fromStore;
+    // Rounds the bred genotypes when the brains are of lower precision
+    private CompactPopulationStore rounding;
+    private int firstGeneration = 0;
 
-    public Simulation(ProcessingView view, File generationFile) {
+    /**
+     * @param observer Shows the simulation, or null to run headless
+     * @param generationFile A population saved by a previous run
+     */
+    public Simulation(SimulationObserver observer, File generationFile) {
         try {
+            this.config = createConfig();
             this.population = createPopulationFromFile(generationFile);
-            this.view = view;
+            this.observer = observer;
             initWorld();
 
             // Setup simulation
-            this.ga = new GeneticAlgoritm(ProcessingView.CROSSOVERRATE,
-                                          ProcessingView.MUTATIONRATE);
-        } catch (FileNotFoundException e) {
+            System.out.println("Seed: " + Parameters.SEED);
+            this.ga = new GeneticAlgoritm(Parameters.CROSSOVERRATE,
+                                          Parameters.MUTATIONRATE,
+                                          new SplitRandom(Parameters.SEED), config);
+        } catch (IOException e) {
             // TODO - fix error message
             e.printStackTrace();
         }
     }
 
-    public Simulation(ProcessingView view) {
-        this.view = view;
+    /**
+     * Continues a run from a checkpoint. The next generation is bred as the
+     * interrupted run would have, so the resumed run gives the same
+     * populations as one that was never stopped.
+     *
+     * @param observer Shows the simulation, or null to run headless
+     * @param checkpoint Written after a generation of an earlier run
+     */
+    public Simulation(SimulationObserver observer, Checkpoint checkpoint)
+        throws IOException {
+        this.config = createConfig();
+        this.observer = observer;
+        initWorld();
+        this.ga = new GeneticAlgoritm(checkpoint.getCrossoverRate(),
+                                      checkpoint.getMutationRate(),
+                                      checkpoint.getRandom(), config);
+        if (cache != null) {
+            for (Map.Entry<double[], Double> entry
+                     : checkpoint.getCacheEntries().entrySet()) {
+                cache.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        this.population = checkpoint.getPopulation().toCreatures(config);
+        for (StopRule rule : stopRules) {
+            rule.generationEvaluated(population);
+        }
+        breed();
+        this.firstGeneration = checkpoint.getGeneration() + 1;
+    }
+
+    /**
+     * @param observer Shows the simulation, or null to run headless
+     */
+    public Simulation(SimulationObserver observer) {
+        this.config = createConfig();
+        this.observer = observer;
         initWorld();
 
         // Setup simulation
-        this.ga = new GeneticAlgoritm(ProcessingView.CROSSOVERRATE,
-                                      ProcessingView.MUTATIONRATE);
-        this.population = this.ga.createPopulation(ProcessingView.POPULATIONSIZE);
+        System.out.println("Seed: " + Parameters.SEED);
+        this.ga = new GeneticAlgoritm(Parameters.CROSSOVERRATE,
+                                      Parameters.MUTATIONRATE,
+                                      new SplitRandom(Parameters.SEED), config);
+        this.population = this.ga.createPopulation(Parameters.POPULATIONSIZE);
     }
 
     /**
-     * Initializes the world, sets size of frame and creates a Phys2d World.
+     * @return The brains and control of the worms of this run. Only brains
+     * of Precision.DOUBLE are compiled or sparse.
+     */
+    private static WormConfig createConfig() {
+        WormConfig config = WormConfig.DEFAULT
+            .withActivation(Parameters.ACTIVATION)
+            .withPrecision(Parameters.PRECISION)
+            .withSparse(Parameters.SPARSETHRESHOLD, Parameters.PRUNEEPSILON)
+            .withControl(Parameters.CONTROLINTERVAL, Parameters.CONTROLMODE)
+            .withSettling(Parameters.SETTLEMAXSTEPS, Parameters.SETTLETOLERANCE);
+        if (Parameters.COMPILEBRAINS && Parameters.PRECISION == Precision.DOUBLE) {
+            config = config.withCompiler(new BrainCompiler(Parameters.ACTIVATION,
+                                                           Parameters.PRUNEEPSILON));
+        }
+        return config;
+    }
+
+    /**
+     * @return The brain and control settings of the worms of this run
+     */
+    public WormConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Creates the Arena that is shown to the observer and the evaluator. With
+     * more than one worker, remote workers, batched brains or successive
+     * halving, creatures are evaluated without drawing and only recordings
+     * are shown.
      */
     private void initWorld() {
-        this.world = new World(new Vector2f(0.0f, 10.0f),
-                               20, new QuadSpaceStrategy(20,5));
-        view.size(1600 / 2, 1000 / 4);
-        resetWorld();
+        if (Parameters.STOPWINDOW > 0) {
+            stopRules.add(new NoProgressRule(Parameters.STOPWINDOW,
+                                             Parameters.MINPROGRESS));
+        }
+        if (Parameters.MAXSPEED > 0) {
+            stopRules.add(new FitnessBoundRule(Parameters.LIFESPAN, Parameters.MAXSPEED,
+                                               Parameters.STOPQUANTILE));
+        }
+
+        this.arena = new Arena(Parameters.LIFESPAN, stopRules, stats);
+        if (Parameters.REMOTEWORKERS.length() > 0 || Parameters.LOOPBACKWORKERS > 0) {
+            this.evaluator = createRemoteEvaluator();
+        } else if (Parameters.HALVINGRUNGS > 1) {
+            this.evaluator = new SuccessiveHalvingEvaluator(Parameters.WORKERS,
+                                                            Parameters.LIFESPAN,
+                                                            Parameters.HALVINGRUNGS,
+                                                            Parameters.HALVINGKEEP,
+                                                            stopRules, stats);
+        } else if (Parameters.BRAINBATCH > 1 && Parameters.PRECISION == Precision.DOUBLE
+                   && Parameters.SETTLEMAXSTEPS == 0) {
+            // The batched net only has double weights, and steps all of its
+            // brains the same number of times
+            this.evaluator = new BatchEvaluator(Parameters.BRAINBATCH, Parameters.WORKERS,
+                                                Parameters.LIFESPAN, stopRules, stats);
+        } else if (Parameters.WORKERS > 1) {
+            this.evaluator = new ParallelEvaluator(Parameters.WORKERS, Parameters.LIFESPAN,
+                                                   stopRules, stats);
+        } else if (observer == null) {
+            this.evaluator = new SequentialEvaluator(Parameters.LIFESPAN,
+                                                     stopRules, stats);
+        } else {
+            this.evaluator = new DrawnEvaluator();
+        }
+        if (Parameters.DRIFTPRECISION != null) {
+            this.drift = new FitnessDrift(Parameters.LIFESPAN, Parameters.DRIFTPRECISION,
+                                          config);
+        }
+        if (Parameters.CACHESIZE > 0) {
+            this.cache = new FitnessCache(Parameters.CACHESIZE);
+            this.evaluator = new CachingEvaluator(evaluator, cache);
+        }
     }
 
     /**
-     * Resets the world to a starting state. Clear world, adds a ground and a
-     * wall.
+     * Connects to the remote workers, after starting the loopback ones.
+     * Remote workers don't use stop rules.
      */
-    private void resetWorld() {
-        this.world.clear();
-
-        //Add ground
-        Body body;
-        body = new StaticBody("Ground", new Box(view.width * 10, 100));
-        body.setPosition(view.width / 2, view.height - 10);
-        this.world.add(body);
-
-        // Add left wall
-        body = new StaticBody("Wall", new Box(20, 300));
-        body.setPosition(-view.width/2, view.height-210);
-        this.world.add(body);
+    private Evaluator createRemoteEvaluator() {
+        try {
+            List<InetSocketAddress> workers =
+                RemoteEvaluator.parseAddresses(Parameters.REMOTEWORKERS);
+            if (Parameters.LOOPBACKWORKERS > 0) {
+                workers.addAll(new LoopbackWorkers(Parameters.LOOPBACKWORKERS, config)
+                               .getAddresses());
+            }
+            return new RemoteEvaluator(workers, Parameters.LIFESPAN,
+                                       Parameters.BATCHSIZE, Parameters.INFLIGHT, config);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start remote evaluation", e);
+        }
     }
 
     /**
      * Start the Simulation Thread. Runs a loop for every Generation, specified
-     * by ProcessingView.NROFGENERATIONS, which creates a population for every
+     * by Parameters.NROFGENERATIONS, which creates a population for every
      * generation and simulates every individual in that population.
      *
      * TODO: implements
      */
     public void run() {
-        for (int i = 0; i < ProcessingView.NROFGENERATIONS; i++) {
+        if (Parameters.STEADYSTATE) {
+            runSteadyState();
+            return;
+        }
+        for (int i = firstGeneration; i < Parameters.NROFGENERATIONS; i++) {
             //System.out.println("Generation " + (i+1) + " is starting...");
-            for (Creature creature : population) {
-                creature.connectToWorld(world);
-                simulate(creature);
-                calculateFitness(creature);
-
-                resetWorld();
+            evaluator.evaluate(population);
+            generationDone(i, population, true);
+            if (Parameters.CHECKPOINTINTERVAL > 0
+                && (i + 1) % Parameters.CHECKPOINTINTERVAL == 0) {
+                checkpoint(i);
             }
 
-            // Record the best one
-            if (ProcessingView.RECORDBEST) { recordBest(i); }
-            if (ProcessingView.SAVE_POP_TO_FILE) { savePopulation(population, i); }
-
-            Creature bestCreature = population.get(0);
-            double bestFitness = bestCreature.getFitness();
-            double minFitness = bestFitness;
-            double sum = 0;
-            int amount = 0;
-            for (Creature creature : population) {
-                if(!Double.valueOf(creature.getFitness()).isNaN()) {
-                    sum += creature.getFitness();
-                    amount++;
-                }
-                if(minFitness > creature.getFitness()) {
-                    minFitness = creature.getFitness();
-                }
-                if (bestFitness < creature.getFitness()) {
-                    bestCreature = creature;
-                    bestFitness = bestCreature.getFitness();
-                }
+            //System.out.println("Generation " + (i+1) + " is done.");
+            breed();
+        }
+        evaluator.shutdown();
+        printBrainStats();
+        //System.out.println("Simulation ended.");
+    }
+
+    /**
+     * Breeds the next generation from the evaluated population. The stores
+     * are kept for the whole run, so after the first generation no store is
+     * allocated and only the genotypes of creatures a listener replaced,
+     * ex: with immigrants, are read back from the creatures. The
+     * creatures are new, since every evaluation needs fresh bodies, and the
+     * best one gets a new brain too so that a resumed run, whose creatures
+     * come from a checkpoint, evaluates it the same way.
+     */
+    private void breed() {
+        if (current == null) {
+            current = PopulationStore.of(population);
+            next = new PopulationStore(current.size() + 1, current.getGenotypeSize());
+            if (config.getPrecision() != Precision.DOUBLE) {
+                rounding = new CompactPopulationStore(next.getCapacity(), next.getGenotypeSize(),
+                                                      config.getPrecision());
             }
+        }
+        for (int i = 0, size = population.size(); i < size; i++) {
+            Creature creature = population.get(i);
+            if (fromStore != null && creature != fromStore.get(i)) {
+                current.setGenotype(i, creature.getGenotype());
+            }
+            current.setFitness(i, creature.getFitness());
+        }
+        ga.createNextGeneration(current, next);
+        PopulationStore bred = next;
+        next = current;
+        current = bred;
+
+        if (rounding != null) {
+            // Brains of lower precision round their weights, the next
+            // generation is bred from the genotypes the creatures have
+            rounding.round(current);
+        }
+        population = current.toCreatures(config);
+        fromStore = new ArrayList<Creature>(population);
+    }
 
-            System.out.println("Medel:" + sum/amount);
-            System.out.println("Max:" + bestFitness);
-            System.out.println("Min:" + minFitness);
+    /**
+     * Saves the state of the run to checkpoint.bin in the movie path, before
+     * the next generation is bred.
+     *
+     * @param generation The index of the evaluated generation
+     */
+    private void checkpoint(int generation) {
+        Map<double[], Double> cacheEntries = (cache == null)
+            ? Collections.<double[], Double>emptyMap()
+            : cache.getEntries();
+        try {
+            new Checkpoint(generation, ga.getCrossoverRate(), ga.getMutationRate(),
+                           ga.getRandom(), population, cacheEntries)
+                .write(new File(Parameters.MOVIEPATH + "checkpoint.bin"));
+        } catch (IOException e) {
+            // A failed checkpoint must not stop the run
+            e.printStackTrace();
+        }
+    }
 
+    /**
+     * Runs the steady state GA. The first population is evaluated as a whole,
+     * after that worker threads replace creatures one at a time and every
+     * population size replacements count as a generation. Best creatures are
+     * not recorded since that would stall all workers, and no checkpoints
+     * are written since the order of replacements isn't repeatable. The
+     * configured evaluator only evaluates the first population, the workers
+     * simulate the offspring in Arenas of their own.
+     */
+    private void runSteadyState() {
+        if (Parameters.REMOTEWORKERS.length() > 0 || Parameters.LOOPBACKWORKERS > 0
+            || Parameters.HALVINGRUNGS > 1 || Parameters.BRAINBATCH > 1) {
+            System.out.println("Steady state offspring are evaluated locally,"
+                               + " only the first population uses the evaluator");
+        }
+        evaluator.evaluate(population);
+        evaluator.shutdown();
+        generationDone(0, population, false);
+
+        SteadyStateGeneticAlgoritm steadyState =
+            new SteadyStateGeneticAlgoritm(ga, Parameters.WORKERS, Parameters.LIFESPAN,
+                                           stopRules, stats, cache);
+        steadyState.run(population, Parameters.NROFGENERATIONS - 1,
+                        new GenerationListener() {
+                            public void generationDone(int generation,
+                                                       List<Creature> population) {
+                                Simulation.this.generationDone(generation + 1,
+                                                               population, false);
+                            }
+                        });
+        printBrainStats();
+    }
 
-            //System.out.println("Generation " + (i+1) + " is done.");
-            this.population = ga.createNextGeneration(this.population);
+    /**
+     * Prints the brain work that sparse brains saved, and the steps that
+     * settling brains took, during the run. Only the creatures that made it
+     * into a population are counted, and only if they were simulated in this
+     * JVM.
+     */
+    private void printBrainStats() {
+        if (Parameters.SPARSETHRESHOLD > 0) {
+            System.out.println(sparseStats);
+        }
+        if (Parameters.SETTLEMAXSTEPS > 0) {
+            System.out.println(settlingStats);
+        }
+    }
+
+    /**
+     * @param listener Told about every evaluated generation, before the next
+     * one is bred
+     */
+    public void addGenerationListener(GenerationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records, saves and prints statistics for an evaluated generation, then
+     * tells the generation listeners.
+     *
+     * @param generation The index of the generation
+     * @param population The evaluated population, or a copy of it
+     * @param record False if the best creature must not be recorded
+     */
+    private void generationDone(int generation, List<Creature> population,
+                                boolean record) {
+        for (StopRule rule : stopRules) {
+            rule.generationEvaluated(population);
+        }
+
+        // Record the best one, recordings need an observer to draw them
+        if (record && Parameters.RECORDBEST && observer != null) { recordBest(generation); }
+        if (Parameters.SAVE_POP_TO_FILE) { savePopulation(population, generation); }
+
+        Creature bestCreature = population.get(0);
+        double bestFitness = bestCreature.getFitness();
+        double minFitness = bestFitness;
+        double sum = 0;
+        int amount = 0;
+        for (Creature creature : population) {
+            if(!Double.valueOf(creature.getFitness()).isNaN()) {
+                sum += creature.getFitness();
+                amount++;
+            }
+            if(minFitness > creature.getFitness()) {
+                minFitness = creature.getFitness();
+            }
+            if (bestFitness < creature.getFitness()) {
+                bestCreature = creature;
+                bestFitness = bestCreature.getFitness();
+            }
+        }
+
+        System.out.println("Medel:" + sum/amount);
+        System.out.println("Max:" + bestFitness);
+        System.out.println("Min:" + minFitness);
+        if (cache != null) {
+            System.out.println("Cache hits:" + cache.getHits()
+                               + " misses:" + cache.getMisses());
+        }
+        EvaluationStats generationStats = stats.drain();
+        if (!stopRules.isEmpty() || Parameters.HALVINGRUNGS > 1) {
+            System.out.println(generationStats);
+        }
+        for (Creature creature : population) {
+            if (!(creature instanceof WormCreature)) {
+                continue;
+            }
+            Brain brain = ((WormCreature) creature).getBrain();
+            if (brain instanceof SettlingBrain) {
+                ((SettlingBrain) brain).drainSteps(settlingStats);
+                brain = ((SettlingBrain) brain).getBrain();
+            }
+            if (brain instanceof SparseHopfieldNeuralNet) {
+                ((SparseHopfieldNeuralNet) brain).drainWork(sparseStats);
+            }
+        }
+        if (drift != null) {
+            drift.measure(population);
+            System.out.println(drift);
+        }
+
+        for (GenerationListener listener : listeners) {
+            listener.generationDone(generation, population);
         }
-        //System.out.println("Simulation ended.");
     }
 
     /**
@@ -156,53 +465,68 @@ public class Simulation implements Runnable {
 
         String filename = "gen(" + generation + ")_fit(" + (int) bestCreature.getFitness() + ")";
 
-        Creature newBestCreature = new WormCreature(bestCreature.getGenotype());
-        newBestCreature.connectToWorld(world);
-        recordMovie(filename);
+        Creature newBestCreature = new WormCreature(bestCreature.getGenotype(), config);
+        arena.connect(newBestCreature);
+        observer.startRecording(filename);
         simulate(newBestCreature, true);
-        stopMovie();
-        resetWorld();
+        observer.stopRecording();
     }
 
     private void savePopulation(List<Creature> population) {
         savePopulation(population, -1);
     }
 
+    /**
+     * Saves the population as generation-N.pop, a binary snapshot, or
+     * generation-N.txt.
+     */
     private void savePopulation(List<Creature> population, int generation) {
+        // Requires: Fitness to be calculated
+        PopulationSnapshot snapshot = PopulationSnapshot.of(population);
+        String name = Parameters.MOVIEPATH + "generation-" + generation;
         try {
-            File outFile = new File(ProcessingView.MOVIEPATH + "generation-"
-                                    + generation + ".txt");
-            FileOutputStream out = new FileOutputStream(outFile);
-            PrintStream p = new PrintStream(out);
-            // TODO: print stuff to p
-            p.println("#   populationeSize");
-            p.println("#   genotypeSize");
-            p.println("# * fitness genotype");
-            p.println(population.size());
-            p.println(population.get(0).getGenotype().length);
-
-            for (Creature creature : population) {
-                // Requires: Fitness to be calculated
-                p.print(creature.getFitness() + " ");
-                for (double val : creature.getGenotype()) {
-                    p.print(val + " ");
-                }
-                p.println();
+            if (Parameters.BINARYSNAPSHOT) {
+                snapshot.write(new File(name + ".pop"));
+            } else {
+                snapshot.writeText(new File(name + ".txt"));
             }
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             // TODO - fix error message
             e.printStackTrace();
         }
     }
 
     public World getWorld() {
-        return this.world;
+        return this.arena.getWorld();
     }
 
-    private void calculateFitness(Creature creature) {
-        double fitness = creature.getXPosition()-120+360; // -worm length + worm startpos
-        //System.out.println("Fitness: " + fitness);
-        creature.setFitness(fitness);
+    /**
+     * Evaluates the creatures one after another in the arena that is shown
+     * to the observer.
+     */
+    private class DrawnEvaluator implements Evaluator {
+        private boolean[] complete = new boolean[0];
+
+        public void evaluate(List<Creature> population) {
+            int size = population.size();
+            if (complete.length < size) {
+                complete = new boolean[size];
+            }
+            for (int i = 0; i < size; i++) {
+                Creature creature = population.get(i);
+                arena.connect(creature);
+                simulate(creature);
+                creature.setFitness(arena.finish());
+                complete[i] = arena.isComplete();
+            }
+        }
+
+        public boolean isComplete(int index) {
+            return complete[index];
+        }
+
+        public void shutdown() {
+        }
     }
 
     private void simulate(Creature creature) {
@@ -211,24 +535,20 @@ public class Simulation implements Runnable {
 
     private void simulate(Creature creature, boolean force_gui) {
         //System.out.println("Simulating: " + encode(creature.getGenotype()));
-        for (int step = 0; step < ProcessingView.LIFESPAN / 8; step++) {
+        while (!arena.isFinished()) {
 
             // Simulate world and createure more times than framerate, to avoid
             // totaly slow-mo
-            for (int i = 0; i < 8; i++) {
-                world.step();
-                creature.act();
-            }
-            view.fitness_roevare = (creature.getXPosition()-120.0+360.0);
+            arena.simulateFrame();
 
-            if (DRAW_GUI || force_gui) {
+            if (observer != null && (DRAW_GUI || force_gui)) {
                 try {
                     long waitTime = 1000 / FPS;
                     Thread.sleep(waitTime);
                 } catch (InterruptedException e) {
                     System.err.println("Simulate sleep interrupted");
                 }
-                view.redraw();
+                observer.frameSimulated(creature);
             }
         }
     }
@@ -241,65 +561,12 @@ public class Simulation implements Runnable {
         return s;
     }
 
-    private void recordMovie(String filename) {
-        String fullname = view.MOVIEPATH + filename + ".mov";
-
-        // Check if file exists
-        File file = new File(fullname);
-        if (file.exists()) {
-            file.delete();
-        }
-
-        //     this.movie = new MovieMaker(view, view.width, view.height, fullname, 20);
-
-        // Or, set specific compression and frame rate options
-        int movieFps = 30;
-        this.movie = new MovieMaker(view, view.width, view.height, fullname, movieFps,
-                                    MovieMaker.ANIMATION, MovieMaker.HIGH);
-
-
-        view.setRecording(true);
-        System.out.println("Recording movie: >" + filename + ".mov<...");
-    }
-
-    private void stopMovie() {
-        view.setRecording(false);
-        this.movie.finish();
-        System.out.println("Recording ended.");
-    }
-
-    public MovieMaker getMovie() {
-        return this.movie;
-    }
-
+    /**
+     * @param generationFile A binary or text snapshot
+     * @return The saved creatures, with the fitness they had
+     */
     public List<Creature> createPopulationFromFile(File generationFile)
-                throws FileNotFoundException {
-        System.err.println("TODO: implement");
-        System.out.println("File: " + generationFile.getPath());
-        Scanner s = new Scanner(generationFile);
-        s.nextLine(); // Comments
-        s.nextLine(); // Comments
-        s.nextLine(); // Comments
-        int populationSize = s.nextInt();
-        int genSize = s.nextInt();
-
-        System.out.println("size " + genSize);
-        List<Creature> result = new ArrayList<Creature>(populationSize);
-
-        while (s.hasNextDouble()) {
-            double fitness = s.nextDouble();
-            double[] genotype = new double[genSize];
-
-            for (int i = 0; i < genSize; i++) {
-                double val = s.nextDouble();
-                genotype[i] = val;
-                System.out.print(val + " ");
-            }
-            // One genome is fetched
-            result.add(new WormCreature(genotype));
-            System.out.println("done");
-        }
-        System.out.println("Population: " + result);
-        return result;
+                throws IOException {
+        return PopulationSnapshot.read(generationFile).toCreatures(config);
     }
 }
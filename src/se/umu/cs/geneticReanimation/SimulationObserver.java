@@ -0,0 +1,26 @@
+package se.umu.cs.geneticReanimation;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Something that shows a running Simulation, ex: the ProcessingView. A
+ * Simulation without an observer runs headless, without any sleeps or
+ * redraws.
+ */
+public interface SimulationObserver {
+    /**
+     * Called after every simulated frame of a creature that is shown.
+     *
+     * @param creature The creature being simulated
+     */
+    public void frameSimulated(Creature creature);
+
+    /**
+     * Start recording the frames that are shown.
+     *
+     * @param filename Name of the recording, without path and suffix
+     */
+    public void startRecording(String filename);
+
+    public void stopRecording();
+}
@@ -0,0 +1,270 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.evaluation.EvaluationStats;
+import se.umu.cs.geneticReanimation.evaluation.FitnessCache;
+import se.umu.cs.geneticReanimation.evaluation.StopRule;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * A steady state alternative to the generations of GeneticAlgoritm. Worker
+ * threads continuously breed one offspring, evaluate it in an Arena of their
+ * own and put it into the population by tournament replacement. There is no
+ * generation barrier, so no worker waits for a slow evaluation of another.
+ *
+ * The population is only locked while parents are picked and while a child
+ * replaces a creature. Brains are built, creatures simulated and listeners
+ * told outside the lock. Listeners get a copy of the population, and the
+ * creatures they replace in it are put back into the population afterwards,
+ * so that ex: an Island can still migrate.
+ *
+ * Offspring are always simulated in the Arenas of the workers, with the
+ * stop rules and the fitness cache. Other evaluators, like remote, batched
+ * or successive halving evaluation, are not used.
+ */
+public class SteadyStateGeneticAlgoritm {
+    private static final int TOURNAMENTSIZE = 3;
+
+    private final GeneticAlgoritm ga;
+    private final int workers;
+    private final int lifespan;
+    private final List<StopRule> stopRules;
+    private final EvaluationStats stats;
+    private final FitnessCache cache;
+
+    // Guarded by this
+    private List<Creature> population;
+    private GenerationListener listener;
+    private int started;
+    private int finished;
+    private int budget;
+    private RuntimeException failure;
+    private LinkedList<List<Creature>> pending;
+
+    // Guarded by reporting
+    private final ReentrantLock reporting = new ReentrantLock();
+    private int reported;
+
+    /**
+     * @param ga Breeds the offspring
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Max number of physics steps a creature is simulated
+     * @param stopRules Rules that may end an evaluation early
+     * @param stats Collects the number of simulated and saved steps
+     * @param cache Fitness of evaluated genotypes, or null
+     */
+    public SteadyStateGeneticAlgoritm(GeneticAlgoritm ga, int workers, int lifespan,
+                                      List<StopRule> stopRules, EvaluationStats stats,
+                                      FitnessCache cache) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be at least 1");
+        }
+        this.ga = ga;
+        this.workers = workers;
+        this.lifespan = lifespan;
+        this.stopRules = stopRules;
+        this.stats = stats;
+        this.cache = cache;
+    }
+
+    /**
+     * Evolves the population in place until generations times population
+     * size offspring have been evaluated.
+     *
+     * @param population An evaluated population
+     * @param generations Number of population sizes to replace
+     * @param listener Told about every replaced population size, in order,
+     * with a copy of the population while the other workers go on. A
+     * creature the listener replaces in the copy replaces the same creature
+     * in the population, or competes in a tournament replacement if that
+     * creature has been replaced meanwhile.
+     */
+    public void run(List<Creature> population, int generations,
+                    GenerationListener listener) {
+        synchronized (this) {
+            this.population = population;
+            this.listener = listener;
+            this.started = 0;
+            this.finished = 0;
+            this.budget = generations * population.size();
+            this.failure = null;
+            this.pending = new LinkedList<List<Creature>>();
+        }
+        reporting.lock();
+        try {
+            this.reported = 0;
+        } finally {
+            reporting.unlock();
+        }
+
+        Thread[] threads = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            threads[i] = new Thread(new Worker(ga.getRandom().split()),
+                                    "steady-state-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Steady state GA interrupted", e);
+            }
+        }
+
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @param random The generator of the calling worker
+     * @return The parents of a new offspring, or null when the budget is
+     * used up
+     */
+    private synchronized double[][] selectParents(SplitRandom random) {
+        if (started >= budget || failure != null) {
+            return null;
+        }
+        started++;
+        return ga.selectParents(population, random);
+    }
+
+    /**
+     * Puts an offspring into the population by tournament replacement.
+     * Every population size of replacements a copy of the population is
+     * queued for the listener.
+     *
+     * @param child An evaluated offspring
+     * @param random The generator of the calling worker
+     */
+    private synchronized void insert(Creature child, SplitRandom random) {
+        replace(child, random);
+
+        finished++;
+        if (finished % population.size() == 0) {
+            pending.add(new ArrayList<Creature>(population));
+        }
+    }
+
+    /**
+     * Tournament replacement. The worst of TOURNAMENTSIZE random creatures is
+     * replaced by the child, unless the child is worse. The best creature can
+     * therefore never be lost. The caller holds the lock.
+     */
+    private void replace(Creature child, SplitRandom random) {
+        int populationSize = population.size();
+        int worst = -1;
+        for (int i = 0; i < TOURNAMENTSIZE; i++) {
+            int index = random.nextInt(populationSize);
+            if (worst == -1
+                || population.get(index).getFitness() < population.get(worst).getFitness()) {
+                worst = index;
+            }
+        }
+        if (child.getFitness() >= population.get(worst).getFitness()) {
+            population.set(worst, child);
+        }
+    }
+
+    /**
+     * Puts the creatures a listener replaced in a copy of the population
+     * into the population.
+     *
+     * @param seen The copy as the listener got it
+     * @param copy The copy after the listener
+     * @param random The generator of the calling worker
+     */
+    private synchronized void applyReplacements(List<Creature> seen, List<Creature> copy,
+                                                SplitRandom random) {
+        for (int i = 0, size = seen.size(); i < size; i++) {
+            Creature replacement = copy.get(i);
+            if (replacement == seen.get(i)) {
+                continue;
+            }
+            if (population.get(i) == seen.get(i)) {
+                population.set(i, replacement);
+            } else {
+                replace(replacement, random);
+            }
+        }
+    }
+
+    /**
+     * @return The oldest queued copy of the population, or null
+     */
+    private synchronized List<Creature> nextPending() {
+        return pending.poll();
+    }
+
+    private synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Tells the listener about the queued copies of the population, in the
+     * order they were queued. Only one worker at a time does this, the
+     * others leave what they queued to it and go on breeding.
+     *
+     * @param random The generator of the calling worker
+     */
+    private void report(SplitRandom random) {
+        while (hasPending() && reporting.tryLock()) {
+            try {
+                List<Creature> snapshot;
+                while ((snapshot = nextPending()) != null) {
+                    List<Creature> seen = new ArrayList<Creature>(snapshot);
+                    listener.generationDone(reported++, snapshot);
+                    applyReplacements(seen, snapshot, random);
+                }
+            } finally {
+                reporting.unlock();
+            }
+        }
+    }
+
+    private synchronized void fail(RuntimeException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private Arena arena = new Arena(lifespan, stopRules, stats);
+        private SplitRandom random;
+
+        public Worker(SplitRandom random) {
+            this.random = random;
+        }
+
+        public void run() {
+            try {
+                double[][] parents;
+                while ((parents = selectParents(random)) != null) {
+                    Creature child = ga.createOffspring(parents, random);
+                    double[] genotype = child.getGenotype();
+                    Double fitness = (cache == null) ? null : cache.get(genotype);
+                    if (fitness == null) {
+                        fitness = arena.evaluate(child);
+                        if (cache != null && arena.isComplete()) {
+                            cache.put(genotype, fitness);
+                        }
+                    }
+                    child.setFitness(fitness);
+                    insert(child, random);
+                    report(random);
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package se.umu.cs.geneticReanimation.creature;
+
+import java.util.Locale;
+
+/**
+ * What the actuators of a creature aim for between two runs of its brain,
+ * when the brain runs only every few physics steps.
+ */
+public enum ControlMode {
+    /** Aim for the last outputs of the brain until it runs again */
+    HOLD,
+
+    /**
+     * Move the aim linearly from the previous outputs of the brain to the
+     * last ones, reaching them just before the brain runs again
+     */
+    INTERPOLATE;
+
+    /**
+     * @param name Name of a mode, in any case
+     * @return The mode with the name
+     * @throws IllegalArgumentException If there is no mode with the name
+     */
+    public static ControlMode forName(String name) {
+        return valueOf(name.toUpperCase(Locale.US));
+    }
+}
@@ -5,7 +5,13 @@ import net.phys2d.raw.World;
 // Extend Clonable?
 public interface Creature extends Cloneable {
     public void connectToWorld(World world);
+
+    /**
+     * Called after every physics step. A creature may sense and think less
+     * often than it acts, as a WormCreature with a control interval does.
+     */
     public void act();
+
     public double getFitness();
     public void setFitness(double fitness);
     public double getXPosition();
@@ -0,0 +1,212 @@
+package se.umu.cs.geneticReanimation.creature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+import se.umu.cs.geneticReanimation.neuralnet.Brain;
+import se.umu.cs.geneticReanimation.neuralnet.BrainCompiler;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+import se.umu.cs.geneticReanimation.neuralnet.SettlingBrain;
+import se.umu.cs.geneticReanimation.neuralnet.SparseHopfieldNeuralNet;
+
+/**
+ * The brain and control settings of the WormCreatures of a run. A config
+ * can't be changed, the with methods return a changed copy, so a worm and
+ * every thread that simulates it see the same settings. A worm keeps the
+ * config it was created with and gives it to new brains it gets.
+ */
+public final class WormConfig {
+    /** POW brains of Precision.DOUBLE that run after every physics step */
+    public static final WormConfig DEFAULT =
+        new WormConfig(Activation.POW, Precision.DOUBLE, null, 0.0, 0.0,
+                       1, ControlMode.HOLD, 0, 0.0);
+
+    private final Activation activation;
+    private final Precision precision;
+    private final BrainCompiler compiler;
+    private final double sparseThreshold;
+    private final double pruneEpsilon;
+    private final int controlInterval;
+    private final ControlMode controlMode;
+    private final int settleMaxSteps;
+    private final double settleTolerance;
+
+    private WormConfig(Activation activation, Precision precision, BrainCompiler compiler,
+                       double sparseThreshold, double pruneEpsilon,
+                       int controlInterval, ControlMode controlMode,
+                       int settleMaxSteps, double settleTolerance) {
+        this.activation = activation;
+        this.precision = precision;
+        this.compiler = compiler;
+        this.sparseThreshold = sparseThreshold;
+        this.pruneEpsilon = pruneEpsilon;
+        this.controlInterval = controlInterval;
+        this.controlMode = controlMode;
+        this.settleMaxSteps = settleMaxSteps;
+        this.settleTolerance = settleTolerance;
+    }
+
+    /**
+     * @param activation Activation of the brains
+     */
+    public WormConfig withActivation(Activation activation) {
+        return new WormConfig(activation, precision, compiler, sparseThreshold,
+                              pruneEpsilon, controlInterval, controlMode,
+                              settleMaxSteps, settleTolerance);
+    }
+
+    /**
+     * @param precision Precision of the weights of the brains
+     */
+    public WormConfig withPrecision(Precision precision) {
+        return new WormConfig(activation, precision, compiler, sparseThreshold,
+                              pruneEpsilon, controlInterval, controlMode,
+                              settleMaxSteps, settleTolerance);
+    }
+
+    /**
+     * @param compiler Compiles the brains of Precision.DOUBLE, or null to
+     * use brains of the precision
+     */
+    public WormConfig withCompiler(BrainCompiler compiler) {
+        return new WormConfig(activation, precision, compiler, sparseThreshold,
+                              pruneEpsilon, controlInterval, controlMode,
+                              settleMaxSteps, settleTolerance);
+    }
+
+    /**
+     * Makes brains of Precision.DOUBLE sparse when enough of their weights
+     * can be pruned.
+     *
+     * @param threshold Fraction of the weights that must be pruned for a
+     * sparse brain, 0 for never
+     * @param epsilon Weights with an absolute value of at most epsilon are
+     * pruned
+     */
+    public WormConfig withSparse(double threshold, double epsilon) {
+        return new WormConfig(activation, precision, compiler, threshold, epsilon,
+                              controlInterval, controlMode, settleMaxSteps,
+                              settleTolerance);
+    }
+
+    /**
+     * Lets the brains run only every interval physics steps. An interval of
+     * 1 runs them after every step.
+     *
+     * @param interval Physics steps between two runs of the brain, at least
+     * 1
+     * @param mode What the joints aim for in between
+     */
+    public WormConfig withControl(int interval, ControlMode mode) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Control interval must be at least 1");
+        }
+        return new WormConfig(activation, precision, compiler, sparseThreshold,
+                              pruneEpsilon, interval, mode, settleMaxSteps,
+                              settleTolerance);
+    }
+
+    /**
+     * Lets the brains settle on every control step, instead of being
+     * stepped WormCreature.BRAIN_STEPS_PER_ACT times.
+     *
+     * @param maxSteps Max number of brain steps per control step, 0 to
+     * step BRAIN_STEPS_PER_ACT times
+     * @param tolerance Largest change of a node value that counts as
+     * settled
+     */
+    public WormConfig withSettling(int maxSteps, double tolerance) {
+        if (maxSteps < 0) {
+            throw new IllegalArgumentException("Max settle steps can't be negative");
+        }
+        return new WormConfig(activation, precision, compiler, sparseThreshold,
+                              pruneEpsilon, controlInterval, controlMode,
+                              maxSteps, tolerance);
+    }
+
+    public Activation getActivation() {
+        return activation;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public BrainCompiler getCompiler() {
+        return compiler;
+    }
+
+    public double getSparseThreshold() {
+        return sparseThreshold;
+    }
+
+    public double getPruneEpsilon() {
+        return pruneEpsilon;
+    }
+
+    public int getControlInterval() {
+        return controlInterval;
+    }
+
+    public ControlMode getControlMode() {
+        return controlMode;
+    }
+
+    public int getSettleMaxSteps() {
+        return settleMaxSteps;
+    }
+
+    public double getSettleTolerance() {
+        return settleTolerance;
+    }
+
+    /**
+     * @param genotype The weights of the brain
+     * @return A new brain with the settings of this config
+     */
+    public Brain createBrain(double[] genotype) {
+        Brain brain = createPlainBrain(genotype);
+        if (settleMaxSteps > 0) {
+            return new SettlingBrain(brain, settleTolerance, settleMaxSteps);
+        }
+        return brain;
+    }
+
+    private Brain createPlainBrain(double[] genotype) {
+        if (compiler != null && precision == Precision.DOUBLE) {
+            return compiler.compile(genotype);
+        }
+        if (sparseThreshold > 0.0 && precision == Precision.DOUBLE
+            && SparseHopfieldNeuralNet.sparsityOf(genotype, pruneEpsilon)
+               >= sparseThreshold) {
+            return new SparseHopfieldNeuralNet(genotype, pruneEpsilon, activation);
+        }
+        return precision.createBrain(genotype, activation);
+    }
+
+    /**
+     * Settings that are switched off leave out the values they don't use.
+     *
+     * @return The settings as name=value pairs in a fixed order, equal for
+     * configs that give worms the same fitness
+     */
+    public List<String> describe() {
+        List<String> pairs = new ArrayList<String>();
+        pairs.add("activation=" + activation);
+        pairs.add("precision=" + precision);
+        pairs.add("compile=" + ((compiler == null) ? "off" : "" + compiler.getEpsilon()));
+        pairs.add("sparse=" + ((sparseThreshold > 0)
+                               ? sparseThreshold + "," + pruneEpsilon : "off"));
+        pairs.add("control=" + ((controlInterval > 1)
+                                ? controlInterval + "," + controlMode : "1"));
+        pairs.add("settle=" + ((settleMaxSteps > 0)
+                               ? settleMaxSteps + "," + settleTolerance : "off"));
+        return pairs;
+    }
+
+    @Override
+    public String toString() {
+        return describe().toString();
+    }
+}
@@ -10,33 +10,101 @@ import net.phys2d.raw.SpringyAngleJoint;
 import net.phys2d.raw.World;
 import net.phys2d.raw.shapes.Box;
 import se.umu.cs.geneticReanimation.neuralnet.Brain;
-import se.umu.cs.geneticReanimation.neuralnet.HopfieldNeuralNet;
+import se.umu.cs.geneticReanimation.neuralnet.SettlingBrain;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
 
 public class WormCreature implements Creature {
     private final float MAX_ANGLE_STEP = (float)(Math.PI/10);
 
+    /**
+     * Number of brain steps between sensing and actuating, unless the brain
+     * is settled
+     */
+    public static final int BRAIN_STEPS_PER_ACT = 2;
+
     private double fitness;
+    private final WormConfig config;
     private Brain brain;
     private List<Body> bodyList;
     private List<Joint> jointList;
+    private final int interval;
+    private final ControlMode mode;
+    // Number of acts so far, and the joint angles aimed for since the brain
+    // last ran and before that
+    private int tick;
+    private float[] goals;
+    private float[] previousGoals;
 
     // Effectors
     private SpringyAngleJoint[] saj;
 
+    /**
+     * Creates a worm with a brain of WormConfig.DEFAULT.
+     */
     public WormCreature(double[] genotype) {
-        this.brain = new HopfieldNeuralNet(genotype);
+        this(genotype, WormConfig.DEFAULT);
+    }
+
+    /**
+     * @param genotype The weights of the brain
+     * @param config The brain and control settings of the worm
+     */
+    public WormCreature(double[] genotype, WormConfig config) {
+        this.config = config;
+        this.interval = config.getControlInterval();
+        this.mode = config.getControlMode();
+        this.brain = config.createBrain(genotype);
+        initBody();
+    }
+
+    /**
+     * Creates a worm that thinks with the given brain, which gets the
+     * genotype.
+     *
+     * @param genotype The weights of the brain
+     * @param brain A brain of the right size, for example a member of a
+     * BatchedHopfieldNet
+     * @param config The control settings of the worm, and of new brains it
+     * gets
+     */
+    public WormCreature(double[] genotype, Brain brain, WormConfig config) {
+        this.config = config;
+        this.interval = config.getControlInterval();
+        this.mode = config.getControlMode();
+        brain.setGenotype(genotype);
+        this.brain = brain;
         initBody();
     }
 
     public WormCreature() {
+        this(new SplitRandom(), WormConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a worm with a random genotype.
+     *
+     * @param random The stream of this creature
+     * @param config The brain and control settings of the worm
+     */
+    public WormCreature(SplitRandom random, WormConfig config) {
+        this.config = config;
+        this.interval = config.getControlInterval();
+        this.mode = config.getControlMode();
         initBody();
 
         int genotypeSize = (int) Math.pow(bodyList.size(), 2); //saj.length * saj.length;
         double[] newGenotype = new double[genotypeSize];
         for (int i = 0; i<genotypeSize; i++) {
-            newGenotype[i] = ((Math.random()*2)-1);
+            newGenotype[i] = ((random.nextDouble()*2)-1);
         }
-        this.brain = new HopfieldNeuralNet(newGenotype);
+        this.brain = config.createBrain(newGenotype);
+    }
+
+    /**
+     * @return The brain and control settings of this worm
+     */
+    public WormConfig getConfig() {
+        return this.config;
     }
 
     public void connectToWorld(World world) {
@@ -59,6 +127,9 @@ public class WormCreature implements Creature {
         int sections = 5;
 
         saj = new SpringyAngleJoint[sections-1];
+        goals = new float[sections-1];
+        previousGoals = new float[sections-1];
+        tick = 0;
 
         Body segment = null;
         Body prev_segment;
@@ -83,7 +154,46 @@ public class WormCreature implements Creature {
         segment.adjustAngularVelocity(0.5f);
     }
 
+    /**
+     * Senses and runs the brain if this is a control step, then turns the
+     * joints toward their goals. A SettlingBrain is stepped once, which
+     * steps it until it has settled.
+     */
     public void act() {
+        if (isControlStep()) {
+            sense();
+            int steps = (brain instanceof SettlingBrain) ? 1 : BRAIN_STEPS_PER_ACT;
+            for (int i = 0; i < steps; i++) {
+                brain.step();
+            }
+        }
+        actuate();
+    }
+
+    /**
+     * @return True if the next act runs the brain, which is every
+     * getInterval() acts starting with the first
+     */
+    public boolean isControlStep() {
+        return tick % interval == 0;
+    }
+
+    /**
+     * @return Physics steps between two runs of the brain of this worm
+     */
+    public int getInterval() {
+        return this.interval;
+    }
+
+    public ControlMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * First part of act, gives the brain the height differences of adjacent
+     * segments.
+     */
+    public void sense() {
         double[] inputs = new double[bodyList.size()-1];
         for (int i = 0, length = inputs.length; i < length; i++) {
             float b1 = bodyList.get(i).getPosition().getY();
@@ -92,14 +202,31 @@ public class WormCreature implements Creature {
         }
 
         brain.setInputs(inputs);
-        brain.step();
-        brain.step();
-        double[] outputs = brain.getOutputs();
+    }
+
+    /**
+     * Last part of act, turns the joints toward the outputs of the brain.
+     * The outputs are only read on a control step, in between the joints
+     * turn toward the goals of the ControlMode.
+     */
+    public void actuate() {
+        if (isControlStep()) {
+            double[] outputs = brain.getOutputs();
+            for (int i = 0, length = outputs.length; i < length && i < saj.length; i++) {
+                previousGoals[i] = goals[i];
+                goals[i] = (float)(outputs[i] * Math.PI);
+            }
+        }
+        int phase = tick % interval + 1;
+        tick++;
 
         // Affect worm
-        for (int i = 0, length = outputs.length; i < length && i < saj.length; i++) {
+        for (int i = 0; i < saj.length; i++) {
             float angle = saj[i].getOriginalAngle();
-            float goal = (float)(outputs[i] * Math.PI);
+            float goal = goals[i];
+            if (mode == ControlMode.INTERPOLATE && phase < interval) {
+                goal = previousGoals[i] + (goals[i] - previousGoals[i]) * phase / interval;
+            }
             if(goal > angle) {
                 angle += Math.min(MAX_ANGLE_STEP, goal-angle);
             } else if (goal < angle) {
@@ -109,6 +236,10 @@ public class WormCreature implements Creature {
         }
     }
 
+    public Brain getBrain() {
+        return this.brain;
+    }
+
     public double getFitness() {
         return this.fitness;
     }
@@ -123,7 +254,7 @@ public class WormCreature implements Creature {
 
     public void setGenotype(double[] genotype) {
         // REPLACE BRAIN! MUAWHAHA
-        this.brain = new HopfieldNeuralNet(genotype);
+        this.brain = config.createBrain(genotype);
     }
 
     public double getXPosition() {
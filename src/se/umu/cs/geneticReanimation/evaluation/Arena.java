@@ -0,0 +1,228 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.Body;
+import net.phys2d.raw.StaticBody;
+import net.phys2d.raw.World;
+import net.phys2d.raw.shapes.Box;
+import net.phys2d.raw.strategies.QuadSpaceStrategy;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * A Phys2d World with a ground and a left wall in which one creature at a
+ * time is simulated. A World is not thread safe, so every thread that
+ * evaluates creatures must own its own Arena.
+ */
+public class Arena {
+    public static final int WIDTH = 1600 / 2;
+    public static final int HEIGHT = 1000 / 4;
+
+    /** Number of physics steps between two frames */
+    public static final int STEPS_PER_FRAME = 8;
+
+    private World world;
+    private int lifespan;
+    private List<StopRule> stopRules;
+    private EvaluationStats stats;
+
+    // State of the evaluation in progress
+    private Creature creature;
+    private List<StopRule.Check> checks = new ArrayList<StopRule.Check>();
+    private int frame;
+    private boolean stopped;
+
+    /**
+     * @param lifespan Number of physics steps in a full evaluation
+     */
+    public Arena(final int lifespan) {
+        this(lifespan, Collections.<StopRule>emptyList(), new EvaluationStats());
+    }
+
+    /**
+     * @param lifespan Number of physics steps in a full evaluation
+     * @param stopRules Rules that may end an evaluation early, shared
+     * between arenas
+     * @param stats Collects the number of simulated and saved steps
+     */
+    public Arena(final int lifespan, final List<StopRule> stopRules,
+                 final EvaluationStats stats) {
+        this.lifespan = lifespan;
+        this.stopRules = stopRules;
+        this.stats = stats;
+        this.world = new World(new Vector2f(0.0f, 10.0f),
+                               20, new QuadSpaceStrategy(20,5));
+        reset();
+    }
+
+    /**
+     * Resets the world to a starting state. Clear world, adds a ground and a
+     * wall.
+     */
+    public void reset() {
+        this.world.clear();
+
+        //Add ground
+        Body body;
+        body = new StaticBody("Ground", new Box(WIDTH * 10, 100));
+        body.setPosition(WIDTH / 2, HEIGHT - 10);
+        this.world.add(body);
+
+        // Add left wall
+        body = new StaticBody("Wall", new Box(20, 300));
+        body.setPosition(-WIDTH/2, HEIGHT-210);
+        this.world.add(body);
+    }
+
+    /**
+     * Resets the world and puts the creature in it. The ground and wall are
+     * always created after the creature's bodies, which keeps the body id
+     * order, and thereby the arbiter order, the same for every evaluation.
+     *
+     * @param creature The creature to simulate next
+     */
+    public void connect(Creature creature) {
+        reset();
+        creature.connectToWorld(world);
+        this.creature = creature;
+        this.frame = 0;
+        this.stopped = false;
+        checks.clear();
+        for (StopRule rule : stopRules) {
+            checks.add(rule.start(creature));
+        }
+    }
+
+    /**
+     * Steps the world and lets the connected creature act STEPS_PER_FRAME
+     * times, then asks the stop rules if the evaluation is hopeless.
+     */
+    public void simulateFrame() {
+        for (int i = 0; i < STEPS_PER_FRAME; i++) {
+            stepWorld();
+            creature.act();
+        }
+        endFrame();
+    }
+
+    /**
+     * Steps the world once without letting the creature act. Used by
+     * evaluators that let the creature act themselves.
+     */
+    void stepWorld() {
+        world.step();
+    }
+
+    /**
+     * Ends a frame of STEPS_PER_FRAME calls to stepWorld and asks the stop
+     * rules if the evaluation is hopeless.
+     */
+    void endFrame() {
+        frame++;
+        for (int i = 0, size = checks.size(); i < size && !stopped; i++) {
+            stopped = checks.get(i).shouldStop(creature, frame * STEPS_PER_FRAME);
+        }
+    }
+
+    /**
+     * Simulates the connected creature until it has lived the given number
+     * of frames or is finished. A later call continues from the current
+     * state of the world.
+     *
+     * @param frames Frame to simulate until, counted from connect
+     */
+    public void simulateUntil(final int frames) {
+        while (frame < frames && !isFinished()) {
+            simulateFrame();
+        }
+    }
+
+    /**
+     * @return True if a stop rule ended the evaluation
+     */
+    public boolean isStopped() {
+        return this.stopped;
+    }
+
+    /**
+     * @return True if the connected creature has lived its lifespan or a
+     * stop rule ended the evaluation
+     */
+    public boolean isFinished() {
+        return stopped || frame >= getFramesPerLife();
+    }
+
+    /**
+     * @return True if the connected creature has lived its whole lifespan
+     * without being stopped
+     */
+    public boolean isComplete() {
+        return !stopped && frame >= getFramesPerLife();
+    }
+
+    /**
+     * Ends the evaluation of the connected creature and counts its steps. The
+     * evaluation may end before the creature is finished.
+     *
+     * @return The fitness of the creature, it is not stored in the creature
+     */
+    public double finish() {
+        int steps = frame * STEPS_PER_FRAME;
+        int saved = getFramesPerLife() * STEPS_PER_FRAME - steps;
+        stats.evaluated(steps, saved, saved > 0);
+        return fitnessOf(creature);
+    }
+
+    /**
+     * Connects and simulates the creature until it has lived its lifespan or
+     * a stop rule ends it, without any drawing.
+     *
+     * @param creature The creature to evaluate
+     * @return The fitness of the creature, it is not stored in the creature
+     */
+    public double evaluate(Creature creature) {
+        connect(creature);
+        while (!isFinished()) {
+            simulateFrame();
+        }
+        return finish();
+    }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public Creature getCreature() {
+        return this.creature;
+    }
+
+    /**
+     * @return Number of frames simulated since the creature was connected
+     */
+    public int getFrame() {
+        return this.frame;
+    }
+
+    public int getLifespan() {
+        return this.lifespan;
+    }
+
+    /**
+     * @return Number of whole frames in the lifespan
+     */
+    public int getFramesPerLife() {
+        return lifespan / STEPS_PER_FRAME;
+    }
+
+    /**
+     * @param creature A simulated creature
+     * @return The distance the creature has travelled from its start position
+     */
+    public static double fitnessOf(Creature creature) {
+        return creature.getXPosition()-120+360; // -worm length + worm startpos
+    }
+}
@@ -0,0 +1,201 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.BatchedHopfieldNet;
+
+/**
+ * Evaluates worms in batches that are simulated in lockstep, one Arena per
+ * worm. After every physics step all worms of a batch sense, then the brains
+ * of the whole batch are stepped together by a BatchedHopfieldNet, then all
+ * worms actuate. A worm acts exactly as it does in an Arena of its own, so
+ * the fitness is the same as with the SequentialEvaluator. The brains are
+ * always of Precision.DOUBLE, with the activation and control of the
+ * WormConfig of the worm.
+ *
+ * Batches are spread over a pool of worker threads, every worker owns its
+ * arenas and its net.
+ */
+public class BatchEvaluator implements Evaluator {
+    private final int batch;
+    private final WorkerPool pool;
+    private final ThreadLocal<Lockstep> lockstep;
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param batch Number of worms stepped together, must be at least 1
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Number of physics steps every creature is simulated
+     */
+    public BatchEvaluator(final int batch, final int workers, final int lifespan) {
+        this(batch, workers, lifespan, Collections.<StopRule>emptyList(),
+             new EvaluationStats());
+    }
+
+    /**
+     * @param batch Number of worms stepped together, must be at least 1
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Max number of physics steps a creature is simulated
+     * @param stopRules Rules that may end an evaluation early
+     * @param stats Collects the number of simulated and saved steps
+     */
+    public BatchEvaluator(final int batch, final int workers, final int lifespan,
+                          final List<StopRule> stopRules,
+                          final EvaluationStats stats) {
+        if (batch < 1) {
+            throw new IllegalArgumentException("Batch must be at least 1");
+        }
+        this.batch = batch;
+        this.pool = new WorkerPool(workers);
+        this.lockstep = new ThreadLocal<Lockstep>() {
+            @Override
+            protected Lockstep initialValue() {
+                return new Lockstep(batch, lifespan, stopRules, stats);
+            }
+        };
+    }
+
+    /**
+     * Simulates every creature in the population and sets its fitness. Only
+     * the genotypes are used, the creatures are simulated as new worms.
+     *
+     * @param population The creatures to evaluate
+     */
+    public void evaluate(final List<Creature> population) {
+        // Every task writes the indices of its chunk, read after invokeAll
+        final boolean[] complete = new boolean[population.size()];
+        List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+        for (int from = 0, size = population.size(); from < size; from += batch) {
+            final List<Creature> chunk =
+                population.subList(from, Math.min(size, from + batch));
+            final int offset = from;
+            tasks.add(new Callable<double[]>() {
+                    public double[] call() {
+                        return lockstep.get().evaluate(chunk, complete, offset);
+                    }
+                });
+        }
+
+        // Write back in population order once every creature is simulated
+        List<double[]> fitness = pool.invokeAll(tasks);
+        for (int i = 0, size = population.size(); i < size; i++) {
+            population.get(i).setFitness(fitness.get(i / batch)[i % batch]);
+        }
+        this.complete = complete;
+    }
+
+    public boolean isComplete(final int index) {
+        return complete[index];
+    }
+
+    public int getBatch() {
+        return this.batch;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * The arenas and brains of one worker thread.
+     */
+    private static class Lockstep {
+        private final Arena[] arenas;
+        private final WormCreature[] worms;
+        private BatchedHopfieldNet net;
+
+        public Lockstep(int batch, int lifespan, List<StopRule> stopRules,
+                        EvaluationStats stats) {
+            this.arenas = new Arena[batch];
+            this.worms = new WormCreature[batch];
+            for (int b = 0; b < batch; b++) {
+                arenas[b] = new Arena(lifespan, stopRules, stats);
+            }
+        }
+
+        /**
+         * @param chunk At most batch creatures
+         * @param complete Gets for every creature if it lived its whole
+         * lifespan
+         * @param offset Index in complete of the first creature
+         * @return The fitness of every creature, in chunk order
+         */
+        public double[] evaluate(List<Creature> chunk, boolean[] complete, int offset) {
+            int count = chunk.size();
+            for (int b = 0; b < count; b++) {
+                Creature creature = chunk.get(b);
+                WormConfig config = (creature instanceof WormCreature)
+                    ? ((WormCreature) creature).getConfig() : WormConfig.DEFAULT;
+                double[] genotype = creature.getGenotype();
+                int size = (int) Math.round(Math.sqrt(genotype.length));
+                if (net == null || net.getSize() != size
+                    || net.getActivation() != config.getActivation()) {
+                    net = new BatchedHopfieldNet(arenas.length, size,
+                                                 config.getActivation());
+                }
+                worms[b] = new WormCreature(genotype, net.getMember(b), config);
+                arenas[b].connect(worms[b]);
+            }
+
+            boolean running = false;
+            for (int b = 0; b < count; b++) {
+                running |= !arenas[b].isFinished();
+            }
+            while (running) {
+                for (int i = 0; i < Arena.STEPS_PER_FRAME; i++) {
+                    step(count);
+                }
+                running = false;
+                for (int b = 0; b < count; b++) {
+                    if (!arenas[b].isFinished()) {
+                        arenas[b].endFrame();
+                        running |= !arenas[b].isFinished();
+                    }
+                }
+            }
+
+            double[] fitness = new double[count];
+            for (int b = 0; b < count; b++) {
+                fitness[b] = arenas[b].finish();
+                complete[offset + b] = arenas[b].isComplete();
+                worms[b] = null;
+            }
+            return fitness;
+        }
+
+        /**
+         * One physics step of every unfinished arena, with a single act of
+         * its worm. The worms of a batch start together and act after every
+         * step, so they all have control steps at the same time and the net
+         * is only stepped then.
+         */
+        private void step(int count) {
+            boolean control = false;
+            for (int b = 0; b < count; b++) {
+                if (!arenas[b].isFinished()) {
+                    arenas[b].stepWorld();
+                    if (worms[b].isControlStep()) {
+                        worms[b].sense();
+                        control = true;
+                    }
+                }
+            }
+            if (control) {
+                for (int i = 0; i < WormCreature.BRAIN_STEPS_PER_ACT; i++) {
+                    net.step();
+                }
+            }
+            for (int b = 0; b < count; b++) {
+                if (!arenas[b].isFinished()) {
+                    worms[b].actuate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.Body;
+import net.phys2d.raw.BroadCollisionStrategy;
+import net.phys2d.raw.StaticBody;
+import net.phys2d.raw.World;
+import net.phys2d.raw.shapes.Box;
+import net.phys2d.raw.strategies.BruteCollisionStrategy;
+import net.phys2d.raw.strategies.DynamicTreeStrategy;
+import net.phys2d.raw.strategies.QuadSpaceStrategy;
+import net.phys2d.raw.strategies.SweepAndPruneStrategy;
+
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Times the broad phase strategies on a track like the one of an Arena,
+ * with 1, 10, 40 and 160 random worms spaced out along x on a ground long
+ * enough for all of them. Far from the origin the physics loses precision,
+ * so only worms that do not blow up alone in their place on the track are
+ * used. For every number of worms and strategy it prints the microseconds
+ * per physics step of the fastest of a few runs, the speedup over
+ * BruteCollisionStrategy, the number of arbiters at the end, the mean x
+ * position of the worms and the number of worms that blew up anyway when
+ * they ran into each other. The strategies report the pairs in different
+ * orders, so the last three drift apart a little but should stay close.
+ * Every measurement is preceded by a warm up run of the same scene.
+ *
+ * Arguments: [steps]
+ */
+public class BroadPhaseBenchmark {
+    private static final int[] WORMS = {1, 10, 40, 160};
+    private static final String[] NAMES = {"brute", "quad", "sweep", "tree"};
+    private static final int ROUNDS = 3;
+
+    /** Distance along x between two worms */
+    private static final float SPACING = 150f;
+
+    public static void main(String args[]) {
+        int steps = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+
+        // Worms whose physics blow up would poison the others
+        SplitRandom random = new SplitRandom(42);
+        double[][] stable = new double[WORMS[WORMS.length - 1]][];
+        double[] result = new double[3];
+        for (int found = 0; found < stable.length; ) {
+            double[] genotype = new double[25];
+            for (int i = 0; i < genotype.length; i++) {
+                genotype[i] = random.nextDouble() * 2 - 1;
+            }
+            simulate(0, new double[][] {genotype}, found, steps, result);
+            if (result[2] == 0) {
+                stable[found++] = genotype;
+            }
+        }
+
+        for (int worms : WORMS) {
+            double[][] genotypes = new double[worms][];
+            System.arraycopy(stable, 0, genotypes, 0, worms);
+
+            double bruteSeconds = 0.0;
+            for (int s = 0; s < NAMES.length; s++) {
+                simulate(s, genotypes, 0, steps, result);
+                double seconds = Double.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    simulate(s, genotypes, 0, steps, result);
+                    seconds = Math.min(seconds, (System.nanoTime() - start) / 1e9);
+                }
+                if (s == 0) {
+                    bruteSeconds = seconds;
+                }
+                System.out.printf("%d worms %s: %.1f us/step, speedup %.2f,"
+                                  + " arbiters %d, mean x %.1f, blown up %d%n",
+                                  worms, NAMES[s], seconds * 1e6 / steps,
+                                  bruteSeconds / seconds, (int) result[0],
+                                  result[1], (int) result[2]);
+            }
+        }
+    }
+
+    private static BroadCollisionStrategy createStrategy(int index) {
+        switch (index) {
+        case 0:
+            return new BruteCollisionStrategy();
+        case 1:
+            return new QuadSpaceStrategy(20, 5);
+        case 2:
+            return new SweepAndPruneStrategy();
+        default:
+            return new DynamicTreeStrategy();
+        }
+    }
+
+    /**
+     * Builds the track with the worms and steps it
+     *
+     * @param first Place on the track of the first worm
+     * @param result Gets the number of arbiters at the end, the mean x
+     * position of the worms that did not blow up and the number that did
+     */
+    private static void simulate(int strategy, double[][] genotypes, int first,
+                                 int steps, double[] result) {
+        World world = new World(new Vector2f(0.0f, 10.0f), 20,
+                                createStrategy(strategy));
+        WormCreature[] worms = new WormCreature[genotypes.length];
+        for (int i = 0; i < worms.length; i++) {
+            worms[i] = new WormCreature(genotypes[i]);
+            int added = world.getBodies().size();
+            worms[i].connectToWorld(world);
+            for (; added < world.getBodies().size(); added++) {
+                Body body = world.getBodies().get(added);
+                body.setPosition(body.getPosition().getX() + (first + i) * SPACING,
+                                 body.getPosition().getY());
+            }
+        }
+
+        // The ground of an Arena, repeated along the track, and its wall
+        float width = Arena.WIDTH * 10;
+        for (float x = Arena.WIDTH / 2; x - width < (first + worms.length) * SPACING;
+             x += width) {
+            Body ground = new StaticBody("Ground", new Box(width, 100));
+            ground.setPosition(x, Arena.HEIGHT - 10);
+            world.add(ground);
+        }
+        Body wall = new StaticBody("Wall", new Box(20, 300));
+        wall.setPosition(-Arena.WIDTH / 2, Arena.HEIGHT - 210);
+        world.add(wall);
+
+        for (int t = 0; t < steps; t++) {
+            world.step();
+            for (WormCreature worm : worms) {
+                worm.act();
+            }
+        }
+
+        double x = 0.0;
+        int blownUp = 0;
+        for (WormCreature worm : worms) {
+            if (Double.isNaN(worm.getXPosition())) {
+                blownUp++;
+            } else {
+                x += worm.getXPosition();
+            }
+        }
+        result[0] = world.getArbiters().size();
+        result[1] = x / (worms.length - blownUp);
+        result[2] = blownUp;
+    }
+}
@@ -0,0 +1,96 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Skips the simulation of every creature whose genotype is already in a
+ * FitnessCache, ex: the elite and the unmutated copies made by
+ * GeneticAlgoritm. Creatures sharing a genotype within one population are
+ * simulated once. Only fitness from evaluations that ran the whole lifespan
+ * is cached, a creature ended early by a stop rule or successive halving
+ * is simulated again the next time its genotype comes up.
+ */
+public class CachingEvaluator implements Evaluator {
+    private Evaluator evaluator;
+    private FitnessCache cache;
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param evaluator Evaluates the creatures that aren't cached
+     * @param cache Remembers the fitness of evaluated genotypes
+     */
+    public CachingEvaluator(Evaluator evaluator, FitnessCache cache) {
+        this.evaluator = evaluator;
+        this.cache = cache;
+    }
+
+    public void evaluate(final List<Creature> population) {
+        int size = population.size();
+        if (complete.length < size) {
+            complete = new boolean[size];
+        }
+
+        // Indices of the creatures to simulate, grouped by genotype in
+        // population order
+        Map<FitnessCache.Key, List<Integer>> misses =
+            new LinkedHashMap<FitnessCache.Key, List<Integer>>();
+        int clones = 0;
+        for (int i = 0; i < size; i++) {
+            Creature creature = population.get(i);
+            FitnessCache.Key key = new FitnessCache.Key(creature.getGenotype());
+            List<Integer> same = misses.get(key);
+            if (same != null) {
+                same.add(i);
+                clones++;
+                continue;
+            }
+            Double fitness = cache.get(key);
+            if (fitness != null) {
+                creature.setFitness(fitness);
+                complete[i] = true;
+                continue;
+            }
+            same = new ArrayList<Integer>(1);
+            same.add(i);
+            misses.put(key, same);
+        }
+        cache.addHits(clones);
+
+        List<Creature> unique = new ArrayList<Creature>(misses.size());
+        for (List<Integer> same : misses.values()) {
+            unique.add(population.get(same.get(0)));
+        }
+        evaluator.evaluate(unique);
+
+        int index = 0;
+        for (Map.Entry<FitnessCache.Key, List<Integer>> entry : misses.entrySet()) {
+            List<Integer> same = entry.getValue();
+            double fitness = population.get(same.get(0)).getFitness();
+            boolean whole = evaluator.isComplete(index++);
+            if (whole) {
+                cache.put(entry.getKey(), fitness);
+            }
+            for (int i : same) {
+                population.get(i).setFitness(fitness);
+                complete[i] = whole;
+            }
+        }
+    }
+
+    public boolean isComplete(final int index) {
+        return complete[index];
+    }
+
+    public FitnessCache getCache() {
+        return this.cache;
+    }
+
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import se.umu.cs.geneticReanimation.creature.ControlMode;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Evaluates the same random worms with their brains run every 1, 2, 4 and 8
+ * physics steps, with both ControlModes. For every interval it prints the
+ * worms evaluated per second and how far the fitness is from the fitness
+ * when the brain runs after every step: the mean and max absolute
+ * difference, and whether the best worm is still the best. Worms whose
+ * physics blow up are left out of the fitness figures.
+ *
+ * Arguments: [worms] [lifespan] [activation]
+ */
+public class ControlRateBenchmark {
+    private static final int[] INTERVALS = {1, 2, 4, 8};
+
+    public static void main(String args[]) {
+        int worms = (args.length > 0) ? Integer.parseInt(args[0]) : 40;
+        int lifespan = (args.length > 1) ? Integer.parseInt(args[1]) : 4000;
+        WormConfig config = WormConfig.DEFAULT;
+        if (args.length > 2) {
+            config = config.withActivation(Activation.forName(args[2]));
+        }
+
+        SplitRandom random = new SplitRandom(42);
+        double[][] genotypes = new double[worms][25];
+        for (double[] genotype : genotypes) {
+            for (int i = 0; i < genotype.length; i++) {
+                genotype[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+
+        Arena arena = new Arena(lifespan);
+        // Warm up, then the reference fitness
+        evaluate(arena, genotypes, config);
+        long start = System.nanoTime();
+        double[] reference = evaluate(arena, genotypes, config);
+        double referenceSeconds = (System.nanoTime() - start) / 1e9;
+        int best = indexOfBest(reference);
+        System.out.printf("interval 1: %.1f worms/s, best %.1f%n",
+                          worms / referenceSeconds, reference[best]);
+
+        for (ControlMode mode : ControlMode.values()) {
+            for (int interval : INTERVALS) {
+                if (interval == 1) {
+                    continue;
+                }
+                WormConfig control = config.withControl(interval, mode);
+                evaluate(arena, genotypes, control);
+                start = System.nanoTime();
+                double[] fitness = evaluate(arena, genotypes, control);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double sum = 0.0;
+                double max = 0.0;
+                int count = 0;
+                for (int i = 0; i < worms; i++) {
+                    double drift = Math.abs(fitness[i] - reference[i]);
+                    if (!Double.isNaN(drift)) {
+                        sum += drift;
+                        max = Math.max(max, drift);
+                        count++;
+                    }
+                }
+                System.out.printf("interval %d %s: %.1f worms/s, speedup %.2f,"
+                                  + " fitness drift mean %.1f max %.1f,"
+                                  + " best %.1f, same best %b%n",
+                                  interval, mode, worms / seconds,
+                                  referenceSeconds / seconds, sum / count, max,
+                                  fitness[indexOfBest(fitness)],
+                                  indexOfBest(fitness) == best);
+            }
+        }
+    }
+
+    private static double[] evaluate(Arena arena, double[][] genotypes, WormConfig config) {
+        double[] fitness = new double[genotypes.length];
+        for (int i = 0; i < genotypes.length; i++) {
+            fitness[i] = arena.evaluate(new WormCreature(genotypes[i], config));
+        }
+        return fitness;
+    }
+
+    /**
+     * @return Index of the highest fitness that is not NaN
+     */
+    private static int indexOfBest(double[] fitness) {
+        int best = 0;
+        for (int i = 1; i < fitness.length; i++) {
+            if (Double.isNaN(fitness[best]) || fitness[i] > fitness[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
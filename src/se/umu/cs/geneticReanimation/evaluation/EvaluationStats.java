@@ -0,0 +1,74 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+/**
+ * Counts how many physics steps evaluations used and how many were saved by
+ * ending them early. Shared by every Arena of a run.
+ */
+public class EvaluationStats {
+    private long evaluations;
+    private long stopped;
+    private long stepsSimulated;
+    private long stepsSaved;
+
+    /**
+     * @param steps Physics steps the creature was simulated
+     * @param saved Physics steps left of its lifespan
+     * @param stoppedEarly True if the evaluation ended before the lifespan
+     */
+    public synchronized void evaluated(long steps, long saved, boolean stoppedEarly) {
+        evaluations++;
+        if (stoppedEarly) {
+            stopped++;
+        }
+        stepsSimulated += steps;
+        stepsSaved += saved;
+    }
+
+    public synchronized long getEvaluations() {
+        return this.evaluations;
+    }
+
+    public synchronized long getStopped() {
+        return this.stopped;
+    }
+
+    public synchronized long getStepsSimulated() {
+        return this.stepsSimulated;
+    }
+
+    public synchronized long getStepsSaved() {
+        return this.stepsSaved;
+    }
+
+    /**
+     * Starts counting from zero, ex: when a new generation starts.
+     */
+    public synchronized void reset() {
+        evaluations = 0;
+        stopped = 0;
+        stepsSimulated = 0;
+        stepsSaved = 0;
+    }
+
+    /**
+     * Takes the counts and starts counting from zero in one go, so that no
+     * evaluation that finishes meanwhile is lost or counted twice.
+     *
+     * @return The counts since the last drain or reset
+     */
+    public synchronized EvaluationStats drain() {
+        EvaluationStats drained = new EvaluationStats();
+        drained.evaluations = evaluations;
+        drained.stopped = stopped;
+        drained.stepsSimulated = stepsSimulated;
+        drained.stepsSaved = stepsSaved;
+        reset();
+        return drained;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Evaluations:" + evaluations + " stopped:" + stopped
+            + " steps:" + stepsSimulated + " saved:" + stepsSaved;
+    }
+}
@@ -0,0 +1,34 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Decides the fitness of every creature in a population, usually by
+ * simulating them in an Arena.
+ */
+public interface Evaluator {
+    /**
+     * Sets the fitness of every creature in the population.
+     *
+     * @param population The creatures to evaluate
+     */
+    public void evaluate(List<Creature> population);
+
+    /**
+     * Tells if a creature of the last evaluated population lived its whole
+     * lifespan. The fitness of a creature ended by a stop rule, or culled by
+     * successive halving, depends on the others it was evaluated with and
+     * must not be reused for its genotype.
+     *
+     * @param index Index of the creature in the last evaluated population
+     * @return True if the fitness is that of a full evaluation
+     */
+    public boolean isComplete(int index);
+
+    /**
+     * Releases any threads held by the evaluator. It can't be used afterwards.
+     */
+    public void shutdown();
+}
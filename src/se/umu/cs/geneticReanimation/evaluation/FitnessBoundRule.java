@@ -0,0 +1,64 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Stops a creature that can't reach the selection threshold even if it moves
+ * forward at maxSpeed for the rest of its lifespan. The threshold is the
+ * fitness at a quantile of the previous generation, ex: 0.5 for the median,
+ * since tournament selection rarely picks creatures below it.
+ */
+public class FitnessBoundRule implements StopRule {
+    private final int lifespan;
+    private final double maxSpeed;
+    private final double quantile;
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param lifespan Number of physics steps in a full evaluation
+     * @param maxSpeed Max distance a creature moves in one physics step
+     * @param quantile Quantile of the previous generation's fitness that a
+     * creature must be able to reach, between 0 and 1
+     */
+    public FitnessBoundRule(final int lifespan, final double maxSpeed,
+                            final double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        this.lifespan = lifespan;
+        this.maxSpeed = maxSpeed;
+        this.quantile = quantile;
+    }
+
+    public Check start(Creature creature) {
+        final double bound = this.threshold;
+        return new Check() {
+            public boolean shouldStop(Creature creature, int step) {
+                double best = Arena.fitnessOf(creature) + (lifespan - step) * maxSpeed;
+                return best < bound;
+            }
+        };
+    }
+
+    public void generationEvaluated(List<Creature> population) {
+        List<Double> fitness = new ArrayList<Double>(population.size());
+        for (Creature creature : population) {
+            if (!Double.isNaN(creature.getFitness())) {
+                fitness.add(creature.getFitness());
+            }
+        }
+        if (fitness.isEmpty()) {
+            return;
+        }
+        Collections.sort(fitness);
+        this.threshold = fitness.get((int) (quantile * (fitness.size() - 1)));
+    }
+
+    public double getThreshold() {
+        return this.threshold;
+    }
+}
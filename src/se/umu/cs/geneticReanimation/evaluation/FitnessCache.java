@@ -0,0 +1,151 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded map from genotype to fitness. Evaluation is deterministic, so a
+ * genotype that has been simulated once never needs to be simulated again.
+ * The least recently used genotype is evicted when the cache is full.
+ */
+public class FitnessCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, Double> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity Max number of genotypes to remember, must be positive
+     */
+    public FitnessCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        // Access ordered, the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > FitnessCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up the fitness of a genotype and counts a hit or a miss.
+     *
+     * @param genotype The genotype to look up
+     * @return The cached fitness, or null if the genotype isn't cached
+     */
+    public Double get(final double[] genotype) {
+        return get(new Key(genotype));
+    }
+
+    synchronized Double get(final Key key) {
+        Double fitness = entries.get(key);
+        if (fitness == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return fitness;
+    }
+
+    /**
+     * @param genotype A simulated genotype, it must not be changed afterwards
+     * @param fitness The fitness the genotype got
+     */
+    public void put(final double[] genotype, final double fitness) {
+        put(new Key(genotype), fitness);
+    }
+
+    synchronized void put(final Key key, final double fitness) {
+        entries.put(key, fitness);
+    }
+
+    /**
+     * Counts lookups that were answered without looking in the cache, ex:
+     * clones of a genotype that is simulated in the same generation.
+     *
+     * @param count Number of extra hits
+     */
+    public synchronized void addHits(final int count) {
+        hits += count;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Lookups are not counted and don't change the order of the entries.
+     *
+     * @return Every cached genotype and its fitness, least recently used
+     * first. Putting them in that order into an empty cache gives the same
+     * cache.
+     */
+    public synchronized Map<double[], Double> getEntries() {
+        Map<double[], Double> result = new LinkedHashMap<double[], Double>();
+        for (Map.Entry<Key, Double> entry : entries.entrySet()) {
+            result.put(entry.getKey().genotype, entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * A genotype compared by its exact bytes. The 64 bit hash of the bytes is
+     * computed once, equal hashes are confirmed against the bytes so a hash
+     * collision never returns the wrong fitness.
+     */
+    static final class Key {
+        private final double[] genotype;
+        private final long hash;
+
+        Key(final double[] genotype) {
+            this.genotype = genotype;
+            this.hash = hash(genotype);
+        }
+
+        /**
+         * FNV-1a over the bits of every value
+         */
+        static long hash(final double[] genotype) {
+            long hash = 0xcbf29ce484222325L;
+            for (double value : genotype) {
+                long bits = Double.doubleToLongBits(value);
+                for (int i = 0; i < 8; i++) {
+                    hash ^= (bits >>> (i * 8)) & 0xff;
+                    hash *= 0x100000001b3L;
+                }
+            }
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return key.hash == hash && Arrays.equals(key.genotype, genotype);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+
+/**
+ * Measures how much the fitness of a population changes when its brains use
+ * a lower Precision. Every genotype is simulated twice for the full
+ * lifespan, with a DOUBLE brain and with a brain of the precision, in an
+ * Arena of its own. Both brains are built from the WormConfig of the run,
+ * so they are compiled, sparse or settling like the brains of the run and
+ * only differ in precision. The fitness of the creatures is not changed.
+ *
+ * The physics can blow up and give a NaN fitness. Creatures with a NaN
+ * fitness in either precision are left out of the drift and counted.
+ */
+public class FitnessDrift {
+    private final Arena arena;
+    private final Precision precision;
+    private final WormConfig baseline;
+    private final WormConfig reduced;
+
+    private double meanDrift;
+    private double maxDrift;
+    private boolean sameBest;
+    private int nanCount;
+
+    /**
+     * @param lifespan Number of physics steps every creature is simulated
+     * @param precision The precision to compare with DOUBLE
+     * @param config The brain and control settings of the run, its
+     * precision is replaced
+     */
+    public FitnessDrift(int lifespan, Precision precision, WormConfig config) {
+        this.arena = new Arena(lifespan);
+        this.precision = precision;
+        this.baseline = config.withPrecision(Precision.DOUBLE);
+        this.reduced = config.withPrecision(precision);
+    }
+
+    /**
+     * Simulates the population with both precisions.
+     *
+     * @param population Creatures with genotypes
+     */
+    public void measure(List<Creature> population) {
+        double sum = 0.0;
+        double max = 0.0;
+        int count = 0;
+        int nan = 0;
+        int best = 0;
+        int bestRounded = 0;
+        double bestFitness = Double.NEGATIVE_INFINITY;
+        double bestRoundedFitness = Double.NEGATIVE_INFINITY;
+        for (int i = 0, size = population.size(); i < size; i++) {
+            double[] genotype = population.get(i).getGenotype();
+            double fitness = arena.evaluate(new WormCreature(genotype, baseline));
+            double rounded = arena.evaluate(new WormCreature(genotype, reduced));
+            if (Double.isNaN(fitness) || Double.isNaN(rounded)) {
+                nan++;
+            } else {
+                double drift = Math.abs(rounded - fitness);
+                sum += drift;
+                max = Math.max(max, drift);
+                count++;
+            }
+            if (fitness > bestFitness) {
+                best = i;
+                bestFitness = fitness;
+            }
+            if (rounded > bestRoundedFitness) {
+                bestRounded = i;
+                bestRoundedFitness = rounded;
+            }
+        }
+        this.meanDrift = (count > 0) ? sum / count : 0.0;
+        this.maxDrift = max;
+        this.sameBest = (best == bestRounded);
+        this.nanCount = nan;
+    }
+
+    /**
+     * @return Mean absolute fitness difference of the last measure
+     */
+    public double getMeanDrift() {
+        return this.meanDrift;
+    }
+
+    /**
+     * @return Largest absolute fitness difference of the last measure
+     */
+    public double getMaxDrift() {
+        return this.maxDrift;
+    }
+
+    /**
+     * @return True if both precisions had the same best creature in the
+     * last measure
+     */
+    public boolean isSameBest() {
+        return this.sameBest;
+    }
+
+    /**
+     * @return Number of creatures with a NaN fitness in the last measure
+     */
+    public int getNanCount() {
+        return this.nanCount;
+    }
+
+    public Precision getPrecision() {
+        return this.precision;
+    }
+
+    @Override
+    public String toString() {
+        return "Fitness drift " + precision + " mean:" + meanDrift + " max:" + maxDrift
+            + " same best:" + sameBest + " NaN:" + nanCount;
+    }
+}
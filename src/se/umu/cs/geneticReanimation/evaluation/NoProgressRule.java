@@ -0,0 +1,47 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Stops a creature that hasn't moved forward, ex: a worm that flipped over.
+ * The evaluation ends when the x position hasn't passed its best value by
+ * at least minProgress during the last window steps.
+ */
+public class NoProgressRule implements StopRule {
+    private final int window;
+    private final double minProgress;
+
+    /**
+     * @param window Number of physics steps a creature gets to make progress
+     * @param minProgress Distance that counts as progress
+     */
+    public NoProgressRule(final int window, final double minProgress) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least one step");
+        }
+        this.window = window;
+        this.minProgress = minProgress;
+    }
+
+    public Check start(final Creature creature) {
+        final double startX = creature.getXPosition();
+        return new Check() {
+            private double bestX = startX;
+            private int bestStep = 0;
+
+            public boolean shouldStop(Creature creature, int step) {
+                double x = creature.getXPosition();
+                if (x >= bestX + minProgress) {
+                    bestX = x;
+                    bestStep = step;
+                }
+                return step - bestStep >= window;
+            }
+        };
+    }
+
+    public void generationEvaluated(List<Creature> population) {
+    }
+}
@@ -0,0 +1,94 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Evaluates a population on a pool of worker threads. Every worker owns an
+ * Arena of its own, so no World is shared between threads. Fitness values are
+ * collected per population index and written back to the creatures in
+ * population order once all of them are simulated, which gives the same
+ * result as evaluating the creatures one after another.
+ */
+public class ParallelEvaluator implements Evaluator {
+    private final WorkerPool pool;
+    private final ThreadLocal<Arena> arenas;
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Number of physics steps every creature is simulated
+     */
+    public ParallelEvaluator(final int workers, final int lifespan) {
+        this(workers, lifespan, Collections.<StopRule>emptyList(),
+             new EvaluationStats());
+    }
+
+    /**
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Max number of physics steps a creature is simulated
+     * @param stopRules Rules that may end an evaluation early
+     * @param stats Collects the number of simulated and saved steps
+     */
+    public ParallelEvaluator(final int workers, final int lifespan,
+                             final List<StopRule> stopRules,
+                             final EvaluationStats stats) {
+        this.pool = new WorkerPool(workers);
+        this.arenas = new ThreadLocal<Arena>() {
+            @Override
+            protected Arena initialValue() {
+                return new Arena(lifespan, stopRules, stats);
+            }
+        };
+    }
+
+    /**
+     * Simulates every creature in the population and sets its fitness.
+     *
+     * @param population The creatures to evaluate, none of them may have
+     * been simulated before
+     */
+    public void evaluate(final List<Creature> population) {
+        // Every task writes its own index, read after invokeAll
+        final boolean[] complete = new boolean[population.size()];
+        List<Callable<Double>> tasks = new ArrayList<Callable<Double>>(population.size());
+        for (int i = 0, size = population.size(); i < size; i++) {
+            final Creature creature = population.get(i);
+            final int index = i;
+            tasks.add(new Callable<Double>() {
+                    public Double call() {
+                        Arena arena = arenas.get();
+                        double fitness = arena.evaluate(creature);
+                        complete[index] = arena.isComplete();
+                        return fitness;
+                    }
+                });
+        }
+
+        // Write back in population order once every creature is simulated
+        List<Double> fitness = pool.invokeAll(tasks);
+        for (int i = 0, size = fitness.size(); i < size; i++) {
+            population.get(i).setFitness(fitness.get(i));
+        }
+        this.complete = complete;
+    }
+
+    public boolean isComplete(final int index) {
+        return complete[index];
+    }
+
+    public int getWorkers() {
+        return pool.getWorkers();
+    }
+
+    /**
+     * Stops the worker threads. The evaluator can't be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,50 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.Collections;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Evaluates the creatures one after another in a single Arena on the calling
+ * thread.
+ */
+public class SequentialEvaluator implements Evaluator {
+    private Arena arena;
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param lifespan Number of physics steps every creature is simulated
+     */
+    public SequentialEvaluator(final int lifespan) {
+        this(lifespan, Collections.<StopRule>emptyList(), new EvaluationStats());
+    }
+
+    /**
+     * @param lifespan Max number of physics steps a creature is simulated
+     * @param stopRules Rules that may end an evaluation early
+     * @param stats Collects the number of simulated and saved steps
+     */
+    public SequentialEvaluator(final int lifespan, final List<StopRule> stopRules,
+                               final EvaluationStats stats) {
+        this.arena = new Arena(lifespan, stopRules, stats);
+    }
+
+    public void evaluate(final List<Creature> population) {
+        int size = population.size();
+        if (complete.length < size) {
+            complete = new boolean[size];
+        }
+        for (int i = 0; i < size; i++) {
+            population.get(i).setFitness(arena.evaluate(population.get(i)));
+            complete[i] = arena.isComplete();
+        }
+    }
+
+    public boolean isComplete(final int index) {
+        return complete[index];
+    }
+
+    public void shutdown() {
+    }
+}
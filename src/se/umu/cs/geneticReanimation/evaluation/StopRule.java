@@ -0,0 +1,37 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * A rule that ends the evaluation of a creature that can't do well anyway.
+ * A rule is shared by every Arena, the state of a single evaluation is kept
+ * in the Check it starts.
+ */
+public interface StopRule {
+    /**
+     * @param creature A creature that was just connected to an Arena
+     * @return The check that follows this evaluation
+     */
+    public Check start(Creature creature);
+
+    /**
+     * Called when a whole population has been evaluated. Lets a rule adapt to
+     * the fitness of the current generation.
+     *
+     * @param population The evaluated population
+     */
+    public void generationEvaluated(List<Creature> population);
+
+    public interface Check {
+        /**
+         * Called after every frame.
+         *
+         * @param creature The creature being evaluated
+         * @param step Number of physics steps simulated so far
+         * @return True if the evaluation should end now
+         */
+        public boolean shouldStop(Creature creature, int step);
+    }
+}
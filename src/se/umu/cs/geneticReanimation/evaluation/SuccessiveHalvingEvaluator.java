@@ -0,0 +1,194 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+/**
+ * Evaluates a population in rungs of growing horizons. All creatures are
+ * simulated for a short horizon, then only the best keep fraction continue to
+ * the next horizon, and so on until the last rung reaches the full lifespan.
+ * Every creature has an Arena of its own, so a promoted creature continues
+ * from the state its world was left in.
+ *
+ * A creature that is not promoted gets the distance it moved since it was
+ * connected extrapolated to the full lifespan, times lifespan / steps
+ * simulated. A creature ended by a stop rule keeps the fitness it reached.
+ * Either way a creature always ranks below every creature that was simulated
+ * for longer, so an extrapolated guess never beats a measured fitness: its
+ * fitness is lowered to just below theirs when needed.
+ */
+public class SuccessiveHalvingEvaluator implements Evaluator {
+    private final WorkerPool pool;
+    private final int lifespan;
+    private final int rungs;
+    private final double keep;
+    private final List<StopRule> stopRules;
+    private final EvaluationStats stats;
+    private final List<Arena> arenas = new ArrayList<Arena>();
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param workers Number of worker threads, must be at least 1
+     * @param lifespan Number of physics steps of the last rung
+     * @param rungs Number of horizons, must be at least 1
+     * @param keep Fraction of the creatures promoted to the next rung
+     * @param stopRules Rules that may end an evaluation early
+     * @param stats Collects the number of simulated and saved steps
+     */
+    public SuccessiveHalvingEvaluator(final int workers, final int lifespan,
+                                      final int rungs, final double keep,
+                                      final List<StopRule> stopRules,
+                                      final EvaluationStats stats) {
+        if (rungs < 1) {
+            throw new IllegalArgumentException("Number of rungs must be at least 1");
+        }
+        if (keep <= 0 || keep > 1) {
+            throw new IllegalArgumentException("Keep fraction must be in (0, 1]");
+        }
+        this.pool = new WorkerPool(workers);
+        this.lifespan = lifespan;
+        this.rungs = rungs;
+        this.keep = keep;
+        this.stopRules = stopRules;
+        this.stats = stats;
+    }
+
+    /**
+     * @param rung Index of the rung, the last one is rungs - 1
+     * @param framesPerLife Frames in the full lifespan
+     * @return Number of frames simulated when the rung is done
+     */
+    int horizon(final int rung, final int framesPerLife) {
+        int frames = (int) (framesPerLife * Math.pow(keep, rungs - 1 - rung));
+        return Math.max(1, Math.min(framesPerLife, frames));
+    }
+
+    public void evaluate(final List<Creature> population) {
+        int size = population.size();
+        while (arenas.size() < size) {
+            arenas.add(new Arena(lifespan, stopRules, stats));
+        }
+
+        List<Arena> live = new ArrayList<Arena>(size);
+        double[] start = new double[size];
+        for (int i = 0; i < size; i++) {
+            Arena arena = arenas.get(i);
+            arena.connect(population.get(i));
+            start[i] = Arena.fitnessOf(population.get(i));
+            live.add(arena);
+        }
+
+        int framesPerLife = arenas.get(0).getFramesPerLife();
+        for (int rung = 0; rung < rungs && !live.isEmpty(); rung++) {
+            final int frames = horizon(rung, framesPerLife);
+            List<Callable<Arena>> tasks = new ArrayList<Callable<Arena>>(live.size());
+            for (final Arena arena : live) {
+                tasks.add(new Callable<Arena>() {
+                        public Arena call() {
+                            arena.simulateUntil(frames);
+                            return arena;
+                        }
+                    });
+            }
+            pool.invokeAll(tasks);
+            live = promote(live);
+        }
+
+        double[] fitness = new double[size];
+        int[] frames = new int[size];
+        if (complete.length < size) {
+            complete = new boolean[size];
+        }
+        for (int i = 0; i < size; i++) {
+            Arena arena = arenas.get(i);
+            fitness[i] = arena.finish();
+            frames[i] = arena.getFrame();
+            complete[i] = arena.isComplete();
+            if (!arena.isStopped() && frames[i] > 0 && frames[i] < framesPerLife) {
+                fitness[i] = start[i]
+                    + (fitness[i] - start[i]) * framesPerLife / frames[i];
+            }
+        }
+        rankByFrames(fitness, frames);
+        for (int i = 0; i < size; i++) {
+            population.get(i).setFitness(fitness[i]);
+        }
+    }
+
+    public boolean isComplete(final int index) {
+        return complete[index];
+    }
+
+    /**
+     * Lowers fitness values so that every creature ranks below all creatures
+     * that were simulated for more frames. NaN values are left as they are.
+     *
+     * @param fitness Fitness of each creature, changed in place
+     * @param frames Frames each creature was simulated
+     */
+    static void rankByFrames(final double[] fitness, final int[] frames) {
+        Integer[] order = new Integer[fitness.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return frames[b] - frames[a];
+                }
+            });
+
+        // Lowest fitness of the creatures simulated for longer
+        double floor = Double.POSITIVE_INFINITY;
+        for (int group = 0; group < order.length; ) {
+            int end = group;
+            while (end < order.length && frames[order[end]] == frames[order[group]]) {
+                end++;
+            }
+            double lowest = floor;
+            for (int k = group; k < end; k++) {
+                int i = order[k];
+                if (fitness[i] >= floor) {
+                    fitness[i] = Math.nextAfter(floor, Double.NEGATIVE_INFINITY);
+                }
+                if (fitness[i] < lowest) {
+                    lowest = fitness[i];
+                }
+            }
+            floor = lowest;
+            group = end;
+        }
+    }
+
+    /**
+     * @param live Arenas that were simulated in the last rung, in
+     * population order
+     * @return The best keep fraction of the arenas that aren't finished
+     */
+    private List<Arena> promote(final List<Arena> live) {
+        List<Arena> candidates = new ArrayList<Arena>(live.size());
+        for (Arena arena : live) {
+            if (!arena.isFinished()) {
+                candidates.add(arena);
+            }
+        }
+        // Stable sort, ties keep population order
+        Collections.sort(candidates, new Comparator<Arena>() {
+                public int compare(Arena a, Arena b) {
+                    return Double.compare(Arena.fitnessOf(b.getCreature()),
+                                          Arena.fitnessOf(a.getCreature()));
+                }
+            });
+        int promoted = (int) Math.ceil(live.size() * keep);
+        return candidates.subList(0, Math.min(promoted, candidates.size()));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
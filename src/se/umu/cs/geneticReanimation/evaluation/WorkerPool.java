@@ -0,0 +1,75 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A fixed number of daemon threads that run batches of tasks and hand back
+ * the results in task order.
+ */
+class WorkerPool {
+    private final int workers;
+    private final ExecutorService executor;
+
+    /**
+     * @param workers Number of worker threads, must be at least 1
+     */
+    WorkerPool(final int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be at least 1");
+        }
+        this.workers = workers;
+        this.executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+                private int count = 0;
+
+                public synchronized Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "evaluator-" + count++);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * Runs the tasks and waits for all of them.
+     *
+     * @param tasks The tasks to run
+     * @return The result of every task, in the order of the tasks
+     */
+    <T> List<T> invokeAll(final List<? extends Callable<T>> tasks) {
+        List<Future<T>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation interrupted", e);
+        }
+
+        List<T> results = new ArrayList<T>(futures.size());
+        for (int i = 0, size = futures.size(); i < size; i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Evaluation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Task " + i + " failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    int getWorkers() {
+        return this.workers;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,145 @@
+package se.umu.cs.geneticReanimation.island;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.GenerationListener;
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+/**
+ * Connects the population of a Simulation to the IslandCoordinator. After
+ * every generation the island reports its statistics, and every interval
+ * generations it sends its best creatures and replaces its worst ones with
+ * the creatures sent by the previous island in the ring.
+ */
+public class Island implements GenerationListener {
+    private static final Comparator<Creature> BY_FITNESS = new Comparator<Creature>() {
+        public int compare(Creature c1, Creature c2) {
+            return Double.compare(c1.getFitness(), c2.getFitness());
+        }
+    };
+
+    private final int interval;
+    private final int migrants;
+    private final WormConfig config;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * @param index The index of this island
+     * @param port The port the coordinator listens on, on the loopback
+     * interface
+     * @param interval Number of generations between migrations
+     * @param migrants Number of creatures sent at every migration
+     * @param config The brain and control settings of the immigrants
+     */
+    public Island(int index, int port, int interval, int migrants, WormConfig config)
+        throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Migration interval must be at least 1");
+        }
+        this.interval = interval;
+        this.migrants = migrants;
+        this.config = config;
+        this.socket = new Socket(InetAddress.getByName(null), port);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeInt(IslandProtocol.HELLO);
+        out.writeInt(index);
+        out.flush();
+    }
+
+    public void generationDone(int generation, List<Creature> population) {
+        try {
+            sendStats(generation, population);
+            if ((generation + 1) % interval == 0) {
+                migrate(generation, population);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Lost connection to coordinator", e);
+        }
+    }
+
+    private void sendStats(int generation, List<Creature> population)
+        throws IOException {
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+        double sum = 0;
+        int amount = 0;
+        for (Creature creature : population) {
+            double fitness = creature.getFitness();
+            if (!Double.isNaN(fitness)) {
+                sum += fitness;
+                amount++;
+                max = Math.max(max, fitness);
+                min = Math.min(min, fitness);
+            }
+        }
+        out.writeInt(IslandProtocol.STATS);
+        out.writeInt(generation);
+        out.writeDouble(sum / amount);
+        out.writeDouble(max);
+        out.writeDouble(min);
+    }
+
+    /**
+     * Sends the best creatures and waits for the immigrants, which replace
+     * the worst creatures. Immigrants keep the fitness they got on their
+     * own island.
+     */
+    private void migrate(int generation, List<Creature> population)
+        throws IOException {
+        List<Creature> sorted = new ArrayList<Creature>(population);
+        Collections.sort(sorted, Collections.reverseOrder(BY_FITNESS));
+        int count = Math.min(migrants, sorted.size());
+        double[][] emigrants = new double[count][];
+        for (int i = 0; i < count; i++) {
+            Creature creature = sorted.get(i);
+            double[] genotype = creature.getGenotype();
+            emigrants[i] = new double[genotype.length + 1];
+            emigrants[i][0] = creature.getFitness();
+            System.arraycopy(genotype, 0, emigrants[i], 1, genotype.length);
+        }
+
+        out.writeInt(IslandProtocol.MIGRATE);
+        out.writeInt(generation);
+        IslandProtocol.writeMigrants(out, emigrants);
+        out.flush();
+
+        double[][] immigrants = IslandProtocol.readMigrants(in);
+        for (int i = 0, length = Math.min(immigrants.length, sorted.size()); i < length; i++) {
+            double[] genotype = new double[immigrants[i].length - 1];
+            System.arraycopy(immigrants[i], 1, genotype, 0, genotype.length);
+            Creature immigrant = new WormCreature(genotype, config);
+            immigrant.setFitness(immigrants[i][0]);
+            int worst = population.indexOf(sorted.get(sorted.size() - 1 - i));
+            population.set(worst, immigrant);
+        }
+    }
+
+    /**
+     * Tells the coordinator that the island is done and closes the
+     * connection.
+     */
+    public void close() throws IOException {
+        try {
+            out.writeInt(IslandProtocol.DONE);
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package se.umu.cs.geneticReanimation.island;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import se.umu.cs.geneticReanimation.Parameters;
+
+/**
+ * Runs an island model GA. Every island is a Simulation with a population of
+ * its own, running in a JVM of its own, so the islands don't share heap or
+ * garbage collector. The islands connect to the coordinator over a loopback
+ * socket. The coordinator collects their statistics and passes migrants
+ * around the ring, island i sends to island i + 1.
+ */
+public class IslandCoordinator {
+    private static final int CONNECT_TIMEOUT = 60000;
+
+    private final int islands;
+    private final String[] parameters;
+    private final String logPath;
+    private final IslandStats[] stats;
+    private final List<BlockingQueue<double[][]>> inboxes;
+
+    /**
+     * @param islands Number of islands to start
+     * @param parameters Parameters given to every island, the same ones
+     * HeadlessRunner takes
+     * @param logPath Prefix of the files the output of the islands is
+     * written to
+     */
+    public IslandCoordinator(int islands, String[] parameters, String logPath) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("Number of islands must be at least 1");
+        }
+        this.islands = islands;
+        this.parameters = parameters;
+        this.logPath = logPath;
+        this.stats = new IslandStats[islands];
+        this.inboxes = new ArrayList<BlockingQueue<double[][]>>(islands);
+        for (int i = 0; i < islands; i++) {
+            stats[i] = new IslandStats(i);
+            inboxes.add(new LinkedBlockingQueue<double[][]>());
+        }
+    }
+
+    /**
+     * Starts the islands and waits until all of them have exited.
+     *
+     * @return Exit codes of the island processes
+     */
+    public int[] run() throws IOException, InterruptedException {
+        ServerSocket server = new ServerSocket(0, islands, InetAddress.getByName(null));
+        List<Process> processes = new ArrayList<Process>(islands);
+        List<Thread> links = new ArrayList<Thread>(islands);
+        try {
+            for (int i = 0; i < islands; i++) {
+                processes.add(launch(i, server.getLocalPort()));
+            }
+
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for (int i = 0; i < islands; i++) {
+                Socket socket = server.accept();
+                Thread link = new Thread(new Link(socket), "island-link-" + i);
+                link.setDaemon(true);
+                link.start();
+                links.add(link);
+            }
+            for (Thread link : links) {
+                link.join();
+            }
+        } finally {
+            server.close();
+        }
+
+        int[] exitCodes = new int[islands];
+        for (int i = 0; i < islands; i++) {
+            exitCodes[i] = processes.get(i).waitFor();
+        }
+        return exitCodes;
+    }
+
+    /**
+     * Starts island index in a new JVM with the same classpath as this one.
+     */
+    private Process launch(int index, int port) throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin"
+                    + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(IslandRunner.class.getName());
+        command.add(String.valueOf(index));
+        command.add(String.valueOf(port));
+        for (String parameter : parameters) {
+            command.add(parameter);
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        process.getOutputStream().close();
+        Thread drain = new Thread(new Drain(process.getInputStream(),
+                                            new File(logPath + "island" + index + ".log")),
+                                  "island-log-" + index);
+        drain.setDaemon(true);
+        drain.start();
+        return process;
+    }
+
+    /**
+     * @return Statistics of every island, by index
+     */
+    public IslandStats[] getStats() {
+        return this.stats.clone();
+    }
+
+    /**
+     * Waits for the migrants sent to island index. If the sending island is
+     * gone, no more migrants will come and none are returned.
+     */
+    private double[][] takeMigrants(int index) throws InterruptedException {
+        IslandStats sender = stats[(index + islands - 1) % islands];
+        BlockingQueue<double[][]> inbox = inboxes.get(index);
+        while (true) {
+            double[][] migrants = inbox.poll(1, TimeUnit.SECONDS);
+            if (migrants != null) {
+                return migrants;
+            }
+            if ((sender.isDone() || sender.isLost()) && inbox.isEmpty()) {
+                return new double[0][];
+            }
+        }
+    }
+
+    /**
+     * Reads the messages of one island.
+     */
+    private class Link implements Runnable {
+        private final Socket socket;
+        private IslandStats island;
+
+        public Link(Socket socket) {
+            this.socket = socket;
+        }
+
+        public void run() {
+            try {
+                DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+                if (in.readInt() != IslandProtocol.HELLO) {
+                    throw new IOException("Island did not say hello");
+                }
+                int index = in.readInt();
+                island = stats[index];
+
+                while (true) {
+                    int type = in.readInt();
+                    if (type == IslandProtocol.STATS) {
+                        island.generationDone(in.readInt(), in.readDouble(),
+                                              in.readDouble(), in.readDouble());
+                        System.out.println(island);
+                    } else if (type == IslandProtocol.MIGRATE) {
+                        in.readInt(); // Generation
+                        double[][] emigrants = IslandProtocol.readMigrants(in);
+                        inboxes.get((index + 1) % islands).put(emigrants);
+                        double[][] immigrants = takeMigrants(index);
+                        IslandProtocol.writeMigrants(out, immigrants);
+                        out.flush();
+                        island.migrated(emigrants.length, immigrants.length);
+                    } else if (type == IslandProtocol.DONE) {
+                        island.done();
+                        return;
+                    } else {
+                        throw new IOException("Unknown message type " + type);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Lost island: " + e);
+                if (island != null) {
+                    island.lost();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the output of an island process to its log file.
+     */
+    private static class Drain implements Runnable {
+        private final InputStream in;
+        private final File file;
+
+        public Drain(InputStream in, File file) {
+            this.in = in;
+            this.file = file;
+        }
+
+        public void run() {
+            try {
+                OutputStream out = new FileOutputStream(file);
+                try {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                } finally {
+                    out.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Island log " + file + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Takes the HeadlessRunner parameters plus -i for the number of islands,
+     * -g for generations between migrations and -M for the number of
+     * migrants. All of them are passed on to the islands.
+     */
+    public static void main(String args[]) throws IOException, InterruptedException {
+        Parameters.parse(args);
+        System.out.println("Seed: " + Parameters.SEED);
+        // Pass the seed on, so the whole run can be replayed from it
+        String[] parameters = new String[args.length + 1];
+        System.arraycopy(args, 0, parameters, 0, args.length);
+        parameters[args.length] = "-S" + Parameters.SEED;
+        IslandCoordinator coordinator =
+            new IslandCoordinator(Parameters.ISLANDS, parameters, Parameters.MOVIEPATH);
+        int[] exitCodes = coordinator.run();
+
+        System.out.println("Islands done");
+        IslandStats[] stats = coordinator.getStats();
+        for (int i = 0; i < stats.length; i++) {
+            System.out.println(stats[i] + " exit:" + exitCodes[i]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package se.umu.cs.geneticReanimation.island;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The messages between an Island and the IslandCoordinator. Every message
+ * starts with its type as an int. Migrants are sent as rows of fitness
+ * followed by the genotype.
+ */
+final class IslandProtocol {
+    /** Island to coordinator: int island */
+    static final int HELLO = 1;
+    /** Island to coordinator: int generation, double mean, max, min */
+    static final int STATS = 2;
+    /** Island to coordinator: int generation, migrants. Answered by migrants */
+    static final int MIGRATE = 3;
+    /** Island to coordinator: the island has run all its generations */
+    static final int DONE = 4;
+
+    private IslandProtocol() {
+    }
+
+    /**
+     * Writes int count, int genotype length and then count rows of fitness
+     * and genotype.
+     *
+     * @param out Stream to write to
+     * @param migrants Rows of fitness followed by genotype, all of the same
+     * length
+     */
+    static void writeMigrants(DataOutputStream out, double[][] migrants)
+        throws IOException {
+        out.writeInt(migrants.length);
+        out.writeInt(migrants.length == 0 ? 0 : migrants[0].length - 1);
+        for (double[] migrant : migrants) {
+            for (double val : migrant) {
+                out.writeDouble(val);
+            }
+        }
+    }
+
+    /**
+     * @param in Stream written by writeMigrants
+     * @return Rows of fitness followed by genotype
+     */
+    static double[][] readMigrants(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        int genotypeSize = in.readInt();
+        double[][] migrants = new double[count][genotypeSize + 1];
+        for (double[] migrant : migrants) {
+            for (int i = 0, length = migrant.length; i < length; i++) {
+                migrant[i] = in.readDouble();
+            }
+        }
+        return migrants;
+    }
+}
@@ -0,0 +1,40 @@
+package se.umu.cs.geneticReanimation.island;
+
+import java.io.IOException;
+
+import se.umu.cs.geneticReanimation.Parameters;
+import se.umu.cs.geneticReanimation.Simulation;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Runs one headless Simulation as an island, started by the
+ * IslandCoordinator in a JVM of its own.
+ *
+ * Usage: IslandRunner index port [parameters]
+ */
+public class IslandRunner {
+
+    public static void main(String args[]) throws IOException {
+        int index = Integer.parseInt(args[0]);
+        int port = Integer.parseInt(args[1]);
+        String[] parameters = new String[args.length - 2];
+        System.arraycopy(args, 2, parameters, 0, parameters.length);
+        Parameters.parse(parameters);
+        // Islands share the movie path, keep their population files apart
+        Parameters.MOVIEPATH += "island" + index + "-";
+        // and the seed of the coordinator, give every island a stream of its own
+        Parameters.SEED = new SplitRandom(Parameters.SEED).fork(index).nextLong();
+
+        Simulation simulation;
+        if (Parameters.GENERATIONFILE != null) {
+            simulation = new Simulation(null, Parameters.GENERATIONFILE);
+        } else {
+            simulation = new Simulation(null);
+        }
+        Island island = new Island(index, port, Parameters.MIGRATIONINTERVAL,
+                                   Parameters.MIGRANTS, simulation.getConfig());
+        simulation.addGenerationListener(island);
+        simulation.run();
+        island.close();
+    }
+}
@@ -0,0 +1,104 @@
+package se.umu.cs.geneticReanimation.island;
+
+/**
+ * What the IslandCoordinator knows about one island, updated as the island
+ * reports.
+ */
+public class IslandStats {
+    private final int index;
+    private int generation = -1;
+    private double mean = Double.NaN;
+    private double max = Double.NaN;
+    private double min = Double.NaN;
+    private double best = Double.NEGATIVE_INFINITY;
+    private int migrantsSent;
+    private int migrantsReceived;
+    private boolean done;
+    private boolean lost;
+
+    public IslandStats(int index) {
+        this.index = index;
+    }
+
+    synchronized void generationDone(int generation, double mean, double max, double min) {
+        this.generation = generation;
+        this.mean = mean;
+        this.max = max;
+        this.min = min;
+        this.best = Math.max(best, max);
+    }
+
+    synchronized void migrated(int sent, int received) {
+        this.migrantsSent += sent;
+        this.migrantsReceived += received;
+    }
+
+    synchronized void done() {
+        this.done = true;
+    }
+
+    synchronized void lost() {
+        this.lost = true;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return The last reported generation, -1 before the first one
+     */
+    public synchronized int getGeneration() {
+        return this.generation;
+    }
+
+    public synchronized double getMean() {
+        return this.mean;
+    }
+
+    public synchronized double getMax() {
+        return this.max;
+    }
+
+    public synchronized double getMin() {
+        return this.min;
+    }
+
+    /**
+     * @return The best fitness reported in any generation
+     */
+    public synchronized double getBest() {
+        return this.best;
+    }
+
+    public synchronized int getMigrantsSent() {
+        return this.migrantsSent;
+    }
+
+    public synchronized int getMigrantsReceived() {
+        return this.migrantsReceived;
+    }
+
+    /**
+     * @return True if the island ran all its generations
+     */
+    public synchronized boolean isDone() {
+        return this.done;
+    }
+
+    /**
+     * @return True if the connection to the island broke before it was done
+     */
+    public synchronized boolean isLost() {
+        return this.lost;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Island " + index + " generation:" + generation
+            + " Medel:" + mean + " Max:" + max + " Min:" + min
+            + " best:" + best + " sent:" + migrantsSent
+            + " received:" + migrantsReceived
+            + (lost ? " lost" : done ? " done" : "");
+    }
+}
@@ -0,0 +1,117 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Locale;
+
+/**
+ * The activation function of the neural nets, tanh or an approximation of
+ * it. The approximations trade a small error for speed. Every activation
+ * stays within [-1, 1], and getMaxError gives its largest absolute
+ * difference from Math.tanh.
+ *
+ * Fitness values are only reproducible with the same activation.
+ */
+public enum Activation {
+    /**
+     * 2 / (1 + e^(-2x)) - 1 computed with Math.pow, as HopfieldNeuralNet
+     * does. The default, it gives the fitness values of earlier runs.
+     */
+    POW(1e-15) {
+        public double apply(double x) {
+            return 2 / (1 + Math.pow(Math.E, (-2 * x))) - 1;
+        }
+    },
+
+    /**
+     * Math.tanh.
+     */
+    TANH(0.0) {
+        public double apply(double x) {
+            return Math.tanh(x);
+        }
+    },
+
+    /**
+     * The (7, 6) Pade approximant of tanh, clamped to [-1, 1]. It reaches 1
+     * at about 4.97, where tanh is 1 - 1e-4.
+     */
+    RATIONAL(1e-4) {
+        public double apply(double x) {
+            // Saturated already, and the terms overflow for huge x
+            if (x > 5.0) {
+                return 1.0;
+            } else if (x < -5.0) {
+                return -1.0;
+            }
+            double x2 = x * x;
+            double y = x * (135135 + x2 * (17325 + x2 * (378 + x2)))
+                / (135135 + x2 * (62370 + x2 * (3150 + 28 * x2)));
+            return Math.max(-1.0, Math.min(1.0, y));
+        }
+    },
+
+    /**
+     * Linear interpolation in a table of TABLE_SIZE intervals over
+     * [-TABLE_RANGE, TABLE_RANGE], saturated outside it.
+     */
+    TABLE(1e-5) {
+        public double apply(double x) {
+            double position = (x + TABLE_RANGE) * Table.SCALE;
+            if (!(position > 0.0)) {
+                // Also NaN, which a table index can't be
+                return (x != x) ? x : -1.0;
+            }
+            if (position >= TABLE_SIZE) {
+                return 1.0;
+            }
+            int i = (int) position;
+            double fraction = position - i;
+            return Table.VALUES[i] + (Table.VALUES[i + 1] - Table.VALUES[i]) * fraction;
+        }
+    };
+
+    /** Number of intervals in the table of TABLE */
+    public static final int TABLE_SIZE = 2048;
+    /** TABLE saturates outside [-TABLE_RANGE, TABLE_RANGE] */
+    public static final double TABLE_RANGE = 8.0;
+
+    private final double maxError;
+
+    private Activation(double maxError) {
+        this.maxError = maxError;
+    }
+
+    /**
+     * @param x Weighted sum of a node
+     * @return The activation of x
+     */
+    public abstract double apply(double x);
+
+    /**
+     * @return The largest absolute difference from Math.tanh
+     */
+    public double getMaxError() {
+        return this.maxError;
+    }
+
+    /**
+     * @param name Name of an activation, in any case
+     * @throws IllegalArgumentException If there is no such activation
+     */
+    public static Activation forName(String name) {
+        return valueOf(name.toUpperCase(Locale.US));
+    }
+
+    /**
+     * The tanh values of TABLE, made when TABLE is first used.
+     */
+    private static class Table {
+        static final double SCALE = TABLE_SIZE / (2 * TABLE_RANGE);
+        static final double[] VALUES = new double[TABLE_SIZE + 1];
+
+        static {
+            for (int i = 0; i <= TABLE_SIZE; i++) {
+                VALUES[i] = Math.tanh(i / SCALE - TABLE_RANGE);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * The Hopfield nets of a batch of creatures, stepped together. Weights and
+ * node values are stored creature index last: weight (i, j) of member b is
+ * weights[(i * size + j) * batch + b] and node i of member b is
+ * nodes[i * batch + b]. A step is then a loop over the batch innermost, over
+ * contiguous arrays, which the JIT compiles to SIMD instructions where the
+ * CPU has them.
+ *
+ * Every member is also a Brain of its own. Members stepped one at a time or
+ * all together give exactly the same values as a HopfieldNeuralNet with the
+ * same genotype and activation, since every sum is added up in the same
+ * order.
+ */
+public class BatchedHopfieldNet {
+    private final int batch;
+    private final int size;
+    private final double[] weights;
+    private final double[] inputs;
+    private double[] nodes;
+    private double[] next;
+    private final Member[] members;
+    private final Activation activation;
+
+    /**
+     * @param batch Number of members
+     * @param size Number of nodes of every member, the genotypes have length
+     * size * size
+     */
+    public BatchedHopfieldNet(int batch, int size) {
+        this(batch, size, Activation.POW);
+    }
+
+    /**
+     * @param batch Number of members
+     * @param size Number of nodes of every member, the genotypes have length
+     * size * size
+     * @param activation Applied to the inputs and the weighted sums
+     */
+    public BatchedHopfieldNet(int batch, int size, Activation activation) {
+        if (batch < 1 || size < 2) {
+            throw new IllegalArgumentException("Batch must be at least 1 and size at least 2");
+        }
+        this.batch = batch;
+        this.size = size;
+        this.activation = activation;
+        this.weights = new double[size * size * batch];
+        this.inputs = new double[size * batch];
+        this.nodes = new double[size * batch];
+        this.next = new double[size * batch];
+        this.members = new Member[batch];
+        for (int b = 0; b < batch; b++) {
+            members[b] = new Member(b);
+        }
+    }
+
+    public int getBatch() {
+        return this.batch;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public Activation getActivation() {
+        return this.activation;
+    }
+
+    /**
+     * @return The Brain of member b
+     */
+    public Brain getMember(int b) {
+        return members[b];
+    }
+
+    /**
+     * Steps every member once. Members without inputs are stepped as if
+     * their inputs were 0.
+     */
+    public void step() {
+        final int batch = this.batch;
+        final int size = this.size;
+        final double[] weights = this.weights;
+        final double[] nodes = this.nodes;
+        final double[] next = this.next;
+        final Activation activation = this.activation;
+        for (int i = 0; i < size; i++) {
+            final int row = i * batch;
+            for (int b = 0; b < batch; b++) {
+                next[row + b] = 0.0;
+            }
+            for (int b = 0; b < batch; b++) {
+                next[row + b] += inputs[row + b];
+            }
+            for (int j = 0; j < size; j++) {
+                final int column = j * batch;
+                final int weight = (i * size + j) * batch;
+                for (int b = 0; b < batch; b++) {
+                    next[row + b] += nodes[column + b] * weights[weight + b];
+                }
+            }
+        }
+        for (int k = 0, length = next.length; k < length; k++) {
+            next[k] = activation.apply(next[k]);
+        }
+        this.next = nodes;
+        this.nodes = next;
+    }
+
+    /**
+     * The Brain of one member, a view on the arrays of the batch.
+     */
+    private class Member implements Brain {
+        private final int b;
+        private final double[] outputs = new double[size];
+        private int inputLength = -1;
+
+        public Member(int b) {
+            this.b = b;
+        }
+
+        public double[] getGenotype() {
+            double[] genotype = new double[size * size];
+            for (int k = 0; k < genotype.length; k++) {
+                genotype[k] = weights[k * batch + b];
+            }
+            return genotype;
+        }
+
+        /**
+         * Replaces the weights and clears nodes and inputs, like a new
+         * HopfieldNeuralNet.
+         */
+        public void setGenotype(final double[] genotype) {
+            if (genotype.length != size * size) {
+                throw new IllegalArgumentException("Genotype length must be " + (size * size));
+            }
+            for (int k = 0; k < genotype.length; k++) {
+                weights[k * batch + b] = genotype[k];
+            }
+            for (int i = 0; i < size; i++) {
+                nodes[i * batch + b] = 0.0;
+                inputs[i * batch + b] = 0.0;
+            }
+            inputLength = -1;
+        }
+
+        public void setInputs(final double[] inputs) {
+            if (inputLength == -1) {
+                if (inputs.length > size) {
+                    throw new IllegalArgumentException("Input can't be longer than nodes.length");
+                }
+                inputLength = inputs.length;
+            }
+            if (inputLength != inputs.length) {
+                throw new IllegalArgumentException("Input must be same length as previous input");
+            }
+            for (int i = 0; i < inputs.length; i++) {
+                BatchedHopfieldNet.this.inputs[i * batch + b] = activation.apply(inputs[i]);
+            }
+        }
+
+        /**
+         * @return The node values, copied into an array owned by the member
+         */
+        public double[] getOutputs() {
+            for (int i = 0; i < size; i++) {
+                outputs[i] = nodes[i * batch + b];
+            }
+            return outputs;
+        }
+
+        /**
+         * Steps this member only. Use BatchedHopfieldNet.step to step all
+         * members together.
+         */
+        public void step() {
+            if (inputLength == -1) {
+                throw new IllegalStateException("Input is not set");
+            }
+            double[] values = outputs;
+            for (int i = 0; i < size; i++) {
+                double value = 0.0;
+                value += inputs[i * batch + b];
+                for (int j = 0; j < size; j++) {
+                    value += nodes[j * batch + b] * weights[(i * size + j) * batch + b];
+                }
+                values[i] = value;
+            }
+            for (int i = 0; i < size; i++) {
+                nodes[i * batch + b] = activation.apply(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.lang.management.ManagementFactory;
+
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Times the step of HopfieldNeuralNet against FlatHopfieldNeuralNet with the
+ * same genotype and inputs as a worm: 5 nodes, 4 inputs and two steps per
+ * set of inputs. The FlatHopfieldNeuralNet is timed with every Activation,
+ * against brains made by BrainCompiler and against SparseHopfieldNeuralNet.
+ * Every measurement is preceded by a warm up so that both nets are compiled,
+ * and the outputs are summed so that the JIT can't drop the work. Where the
+ * VM can count the bytes allocated by a thread they are printed too.
+ *
+ * Arguments: [nodes] [rounds]
+ */
+public class BrainBenchmark {
+    private static final int STEPS = 2000000;
+
+    public static void main(String args[]) {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        SplitRandom random = new SplitRandom(42);
+        double[] genotype = new double[size * size];
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = random.nextDouble() * 2 - 1;
+        }
+        double[][] inputs = new double[64][size - 1];
+        for (double[] input : inputs) {
+            for (int i = 0; i < input.length; i++) {
+                input[i] = random.nextDouble() * 20 - 10;
+            }
+        }
+
+        Brain jagged = new HopfieldNeuralNet(genotype);
+        Brain flat = new FlatHopfieldNeuralNet(genotype);
+        for (int round = 0; round < rounds; round++) {
+            long jaggedBytes = allocatedBytes();
+            double jaggedNs = time(jagged, inputs);
+            jaggedBytes = allocatedBytes() - jaggedBytes;
+            long flatBytes = allocatedBytes();
+            double flatNs = time(flat, inputs);
+            flatBytes = allocatedBytes() - flatBytes;
+            System.out.printf("%d nodes, round %d: jagged %.1f ns/step %.1f B/step,"
+                              + " flat %.1f ns/step %.1f B/step, speedup %.2f%n",
+                              size, round, jaggedNs, jaggedBytes / (2.0 * STEPS),
+                              flatNs, flatBytes / (2.0 * STEPS), jaggedNs / flatNs);
+        }
+        for (Activation activation : Activation.values()) {
+            double ns = 0.0;
+            for (int round = 0; round < rounds; round++) {
+                ns = time(new FlatHopfieldNeuralNet(genotype, activation), inputs);
+            }
+            System.out.printf("%d nodes, flat %s: %.1f ns/step, max error %.0e%n",
+                              size, activation, ns, activation.getMaxError());
+        }
+        // The activation is most of a step with POW, so compare with TABLE too
+        Activation[] activations = {Activation.POW, Activation.TABLE};
+        double[] epsilons = {0.0, 0.1};
+        for (Activation activation : activations) {
+            for (double epsilon : epsilons) {
+                BrainCompiler compiler = new BrainCompiler(activation, epsilon);
+                double flatNs = 0.0;
+                double compiledNs = 0.0;
+                for (int round = 0; round < rounds; round++) {
+                    flatNs = time(new FlatHopfieldNeuralNet(genotype, activation), inputs);
+                    compiledNs = time(compiler.compile(genotype), inputs);
+                }
+                System.out.printf("%d nodes, %s, prune %.2f (%d of %d weights kept):"
+                                  + " flat %.1f ns/step, compiled %.1f ns/step,"
+                                  + " speedup %.2f%n",
+                                  size, activation, epsilon, compiler.countKept(genotype),
+                                  genotype.length, flatNs, compiledNs, flatNs / compiledNs);
+            }
+        }
+        double[] sparseEpsilons = {0.25, 0.5, 0.75};
+        for (double epsilon : sparseEpsilons) {
+            SparseHopfieldNeuralNet sparse =
+                new SparseHopfieldNeuralNet(genotype, epsilon, Activation.TABLE);
+            double flatNs = 0.0;
+            double sparseNs = 0.0;
+            for (int round = 0; round < rounds; round++) {
+                flatNs = time(new FlatHopfieldNeuralNet(genotype, Activation.TABLE), inputs);
+                sparseNs = time(sparse, inputs);
+            }
+            System.out.printf("%d nodes, TABLE, sparsity %.2f: flat %.1f ns/step,"
+                              + " sparse %.1f ns/step, speedup %.2f%n",
+                              size, sparse.getSparsity(), flatNs, sparseNs, flatNs / sparseNs);
+        }
+    }
+
+    /**
+     * @return Nanoseconds per step, after a warm up of the same length
+     */
+    private static double time(Brain brain, double[][] inputs) {
+        run(brain, inputs);
+        long start = System.nanoTime();
+        double sink = run(brain, inputs);
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42.0) {
+            System.out.println();
+        }
+        return (double) elapsed / STEPS;
+    }
+
+    /**
+     * @return Bytes allocated by this thread so far, or 0 if the VM can't
+     * tell
+     */
+    private static long allocatedBytes() {
+        try {
+            com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        } catch (ClassCastException e) {
+            return 0;
+        }
+    }
+
+    private static double run(Brain brain, double[][] inputs) {
+        double sink = 0.0;
+        for (int k = 0; k < STEPS / 2; k++) {
+            brain.setInputs(inputs[k & (inputs.length - 1)]);
+            brain.step();
+            brain.step();
+            sink += brain.getOutputs()[0];
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,307 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles a genotype into a brain class of its own. The generated compute
+ * method is straight-line bytecode: for every node it loads the input and
+ * adds node value times weight for every weight, with the weight as a
+ * constant. Weights with an absolute value of at most the prune epsilon are
+ * left out. The JIT compiles such a method to a short run of multiply-adds
+ * with no loads of weights and no loop overhead.
+ *
+ * The sums are added up in the same order as in FlatHopfieldNeuralNet. With
+ * a prune epsilon of 0 only zero weights are left out, which doesn't change
+ * any sum of finite values, so the outputs are bit-identical.
+ *
+ * The class file is written by hand, version 49 so that no stack map frames
+ * are needed, and defined by a class loader of its own, so that the class
+ * is unloaded with the last brain that uses it. Genotypes whose code would
+ * be too long for one method get a FlatHopfieldNeuralNet.
+ */
+public class BrainCompiler {
+    /** Method code must stay below 64 kB, this leaves room for the rest */
+    private static final int MAX_CODE_LENGTH = 60000;
+    private static final String PACKAGE = "se/umu/cs/geneticReanimation/neuralnet/";
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    private final Activation activation;
+    private final double epsilon;
+
+    /**
+     * @param activation Activation of the compiled brains
+     * @param epsilon Weights with an absolute value of at most epsilon are
+     * pruned
+     */
+    public BrainCompiler(Activation activation, double epsilon) {
+        if (epsilon < 0.0) {
+            throw new IllegalArgumentException("Prune epsilon can't be negative");
+        }
+        this.activation = activation;
+        this.epsilon = epsilon;
+    }
+
+    public Activation getActivation() {
+        return this.activation;
+    }
+
+    public double getEpsilon() {
+        return this.epsilon;
+    }
+
+    /**
+     * @param genotype A square weight matrix, row by row
+     * @return A new brain with the weights compiled in
+     */
+    public Brain compile(double[] genotype) {
+        double sqrt = Math.sqrt(genotype.length);
+        if (sqrt % 1 != 0 || genotype.length < 4) {
+            String errorMsg = "Genotype length must be bigger than 3 and have "
+                + "an integer root. Example valid length: 4, 9, 16";
+            throw new IllegalArgumentException(errorMsg);
+        }
+        int size = (int) sqrt;
+
+        String name = PACKAGE + "CompiledBrain$" + classCount.incrementAndGet();
+        byte[] classFile = generate(name, genotype, size);
+        if (classFile == null) {
+            return new FlatHopfieldNeuralNet(genotype, activation);
+        }
+        try {
+            Class<?> type = new Loader().define(name.replace('/', '.'), classFile);
+            CompiledBrain brain =
+                (CompiledBrain) type.getDeclaredConstructor().newInstance();
+            brain.init(genotype, size, activation);
+            return brain;
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Can't create compiled brain", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't create compiled brain", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Can't create compiled brain", e);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Can't create compiled brain", e);
+        }
+    }
+
+    /**
+     * @return Number of weights that compile would keep
+     */
+    public int countKept(double[] genotype) {
+        int kept = 0;
+        for (double weight : genotype) {
+            if (Math.abs(weight) > epsilon) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return The class file, or null if the code would be too long
+     */
+    private byte[] generate(String name, double[] genotype, int size) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef(PACKAGE + "CompiledBrain");
+        int superInit = pool.methodRef(superClass, "<init>", "()V");
+        int codeName = pool.utf8("Code");
+        int initName = pool.utf8("<init>");
+        int initType = pool.utf8("()V");
+        int computeName = pool.utf8("compute");
+        int computeType = pool.utf8("([D[D[D)V");
+
+        // compute(double[] nodes, double[] inputs, double[] next), locals 1-3
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        for (int i = 0; i < size; i++) {
+            code.write(0x2d);                       // aload_3, next
+            pushInt(code, i);
+            code.write(0x0e);                       // dconst_0
+            code.write(0x2c);                       // aload_2, inputs
+            pushInt(code, i);
+            code.write(0x31);                       // daload
+            code.write(0x63);                       // dadd
+            for (int j = 0; j < size; j++) {
+                double weight = genotype[i * size + j];
+                if (Math.abs(weight) > epsilon) {
+                    code.write(0x2b);               // aload_1, nodes
+                    pushInt(code, j);
+                    code.write(0x31);               // daload
+                    int constant = pool.doubleConstant(weight);
+                    code.write(0x14);               // ldc2_w
+                    code.write(constant >> 8);
+                    code.write(constant);
+                    code.write(0x6b);               // dmul
+                    code.write(0x63);               // dadd
+                }
+            }
+            code.write(0x52);                       // dastore
+            if (code.size() > MAX_CODE_LENGTH) {
+                return null;
+            }
+        }
+        code.write(0xb1);                           // return
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xcafebabe);
+            out.writeShort(0);                      // minor version
+            out.writeShort(49);                     // major version, Java 5
+            pool.writeTo(out);
+            out.writeShort(0x0031);                 // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);                      // interfaces
+            out.writeShort(0);                      // fields
+            out.writeShort(2);                      // methods
+
+            // public <init>() { super(); }
+            out.writeShort(0x0001);
+            out.writeShort(initName);
+            out.writeShort(initType);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + 5);
+            out.writeShort(1);                      // max stack
+            out.writeShort(1);                      // max locals
+            out.writeInt(5);
+            out.writeByte(0x2a);                    // aload_0
+            out.writeByte(0xb7);                    // invokespecial
+            out.writeShort(superInit);
+            out.writeByte(0xb1);                    // return
+            out.writeShort(0);                      // exceptions
+            out.writeShort(0);                      // attributes
+
+            // protected void compute(double[], double[], double[])
+            out.writeShort(0x0004);
+            out.writeShort(computeName);
+            out.writeShort(computeType);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.size());
+            // next, index, sum, nodes, index, then the node value and
+            // weight, doubles take two slots
+            out.writeShort(10);                     // max stack
+            out.writeShort(4);                      // max locals
+            out.writeInt(code.size());
+            code.writeTo(out);
+            out.writeShort(0);                      // exceptions
+            out.writeShort(0);                      // attributes
+
+            out.writeShort(0);                      // class attributes
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't write class file", e);
+        }
+    }
+
+    private static void pushInt(ByteArrayOutputStream code, int value) {
+        if (value <= 5) {
+            code.write(0x03 + value);               // iconst_<value>
+        } else if (value <= Byte.MAX_VALUE) {
+            code.write(0x10);                       // bipush
+            code.write(value);
+        } else {
+            code.write(0x11);                       // sipush
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+
+    /**
+     * The constant pool of a class file, written as it is filled.
+     */
+    private static class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<Long, Integer> doubles = new HashMap<Long, Integer>();
+        private int count = 1;
+
+        int utf8(String value) {
+            try {
+                out.writeByte(1);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return count++;
+        }
+
+        int classRef(String name) {
+            int nameIndex = utf8(name);
+            try {
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return count++;
+        }
+
+        int methodRef(int classIndex, String name, String type) {
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(type);
+            try {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(typeIndex);
+                out.writeByte(10);
+                out.writeShort(classIndex);
+                out.writeShort(count);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            count += 2;
+            return count - 1;
+        }
+
+        /**
+         * @return Index of the double, shared by equal weights
+         */
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            Integer known = doubles.get(bits);
+            if (known != null) {
+                return known;
+            }
+            try {
+                out.writeByte(6);
+                out.writeLong(bits);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            doubles.put(bits, count);
+            // A double takes two entries
+            count += 2;
+            return count - 2;
+        }
+
+        void writeTo(DataOutputStream to) throws IOException {
+            to.writeShort(count);
+            out.flush();
+            bytes.writeTo(to);
+        }
+    }
+
+    /**
+     * Defines one generated class. A loader per class lets the class be
+     * unloaded as soon as its brains are garbage.
+     */
+    private static class Loader extends ClassLoader {
+        Loader() {
+            super(CompiledBrain.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+}
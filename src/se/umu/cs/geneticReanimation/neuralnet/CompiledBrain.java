@@ -0,0 +1,102 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * Base class of the brains generated by BrainCompiler. A subclass only
+ * implements compute, the weighted sums of one step with the weights as
+ * constants, and this class does the rest like FlatHopfieldNeuralNet.
+ *
+ * It is public and has a protected constructor because the subclasses are
+ * defined by a class loader of their own, which puts them in another runtime
+ * package.
+ */
+public abstract class CompiledBrain implements Brain {
+    private double[] genotype;
+    private Activation activation;
+    private double[] nodes;
+    private double[] next;
+    // Always one per node, nodes without input have 0
+    private double[] inputs;
+    private int inputLength = -1;
+
+    protected CompiledBrain() {
+    }
+
+    /**
+     * Called once by BrainCompiler after the brain is created.
+     */
+    final void init(double[] genotype, int size, Activation activation) {
+        this.genotype = genotype.clone();
+        this.activation = activation;
+        this.nodes = new double[size];
+        this.next = new double[size];
+        this.inputs = new double[size];
+    }
+
+    /**
+     * Puts the weighted sum of node i plus input i into next[i], for every
+     * node.
+     */
+    protected abstract void compute(double[] nodes, double[] inputs, double[] next);
+
+    /**
+     * @return The genotype the brain was compiled from, with the weights
+     * that were pruned
+     */
+    public double[] getGenotype() {
+        return genotype.clone();
+    }
+
+    /**
+     * The weights are compiled in, compile the genotype into a new brain
+     * instead.
+     */
+    public void setGenotype(final double[] genotype) {
+        throw new UnsupportedOperationException("A compiled brain can't change genotype");
+    }
+
+    public void setInputs(final double[] inputs) {
+        if (inputLength == -1) {
+            if (inputs.length > nodes.length) {
+                throw new IllegalArgumentException("Input can't be longer than nodes.length");
+            }
+            inputLength = inputs.length;
+        }
+
+        if (inputLength != inputs.length) {
+            throw new IllegalArgumentException("Input must be same length as previous input");
+        }
+
+        for (int i = 0, length = inputs.length; i < length; i++) {
+            this.inputs[i] = activation.apply(inputs[i]);
+        }
+    }
+
+    /**
+     * Update node values from current input and all neighbours.
+     */
+    public void step() {
+        if (inputLength == -1) {
+            throw new IllegalStateException("Input is not set");
+        }
+
+        final double[] next = this.next;
+        compute(nodes, inputs, next);
+        for (int i = 0, length = next.length; i < length; i++) {
+            next[i] = activation.apply(next[i]);
+        }
+        this.next = nodes;
+        this.nodes = next;
+    }
+
+    /**
+     * @return The node values. The array is reused, it is overwritten by the
+     * step after the next.
+     */
+    public double[] getOutputs() {
+        return nodes;
+    }
+
+    public Activation getActivation() {
+        return this.activation;
+    }
+}
@@ -0,0 +1,105 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * Same net as HopfieldNeuralNet, but the weights are one row-major array and
+ * the node values live in two preallocated buffers that swap roles every
+ * step, so step doesn't allocate. The sums are added up in the same order as
+ * in HopfieldNeuralNet, which makes the outputs bit-identical when the
+ * activation is Activation.POW.
+ */
+public class FlatHopfieldNeuralNet implements Brain {
+    private int size;
+    // Weight (i, j) is weights[i * size + j]
+    private double[] weights;
+    private double[] nodes;
+    private double[] next;
+    private double[] inputs;
+    private final Activation activation;
+
+    public FlatHopfieldNeuralNet(final double[] genotype) {
+        this(genotype, Activation.POW);
+    }
+
+    /**
+     * @param genotype The weights, row by row
+     * @param activation Applied to the inputs and the weighted sums
+     */
+    public FlatHopfieldNeuralNet(final double[] genotype, final Activation activation) {
+        this.activation = activation;
+        setGenotype(genotype);
+    }
+
+    public void setGenotype(final double[] genotype) {
+        double sqrt = Math.sqrt(genotype.length);
+        if (sqrt % 1 != 0 || genotype.length < 4) {
+            String errorMsg = "Genotype length must be bigger than 3 and have "
+                + "an integer root. Example valid length: 4, 9, 16";
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.size = (int) sqrt;
+        this.weights = genotype.clone();
+        this.nodes = new double[size];
+        this.next = new double[size];
+    }
+
+    public double[] getGenotype() {
+        return weights.clone();
+    }
+
+    public void setInputs(final double[] inputs) {
+        if (this.inputs == null) {
+            if (inputs.length > size) {
+                throw new IllegalArgumentException("Input can't be longer than nodes.length");
+            }
+            this.inputs = new double[inputs.length];
+        }
+
+        if (this.inputs.length != inputs.length) {
+            throw new IllegalArgumentException("Input must be same length as previous input");
+        }
+
+        for (int i = 0, length = inputs.length; i < length; i++) {
+            this.inputs[i] = activation.apply(inputs[i]);
+        }
+    }
+
+    /**
+     * Update node values from current input and all neighbours.
+     */
+    public void step() {
+        if (this.inputs == null) {
+            throw new IllegalStateException("Input is not set");
+        }
+
+        final int size = this.size;
+        final double[] weights = this.weights;
+        final double[] nodes = this.nodes;
+        final double[] next = this.next;
+        final double[] inputs = this.inputs;
+        final Activation activation = this.activation;
+        for (int i = 0, row = 0; i < size; i++, row += size) {
+            double sum = 0.0;
+            if (i < inputs.length) {
+                sum += inputs[i];
+            }
+            for (int j = 0; j < size; j++) {
+                sum += nodes[j] * weights[row + j];
+            }
+            next[i] = activation.apply(sum);
+        }
+        this.next = nodes;
+        this.nodes = next;
+    }
+
+    /**
+     * @return The node values. The array is reused, it is overwritten by the
+     * step after the next.
+     */
+    public double[] getOutputs() {
+        return nodes;
+    }
+
+    public Activation getActivation() {
+        return this.activation;
+    }
+}
@@ -0,0 +1,110 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * FlatHopfieldNeuralNet in single precision. Weights, nodes and sums are
+ * floats, which halves the memory of the weights. Only the activation is
+ * computed in double.
+ */
+public class FloatHopfieldNeuralNet implements Brain {
+    private int size;
+    // Weight (i, j) is weights[i * size + j]
+    private float[] weights;
+    private float[] nodes;
+    private float[] next;
+    private float[] inputs;
+    private double[] outputs;
+    private final Activation activation;
+
+    /**
+     * @param genotype The weights, row by row, they are rounded to floats
+     * @param activation Applied to the inputs and the weighted sums
+     */
+    public FloatHopfieldNeuralNet(final double[] genotype, final Activation activation) {
+        this.activation = activation;
+        setGenotype(genotype);
+    }
+
+    public void setGenotype(final double[] genotype) {
+        double sqrt = Math.sqrt(genotype.length);
+        if (sqrt % 1 != 0 || genotype.length < 4) {
+            String errorMsg = "Genotype length must be bigger than 3 and have "
+                + "an integer root. Example valid length: 4, 9, 16";
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.size = (int) sqrt;
+        this.weights = new float[genotype.length];
+        for (int k = 0; k < genotype.length; k++) {
+            weights[k] = (float) genotype[k];
+        }
+        this.nodes = new float[size];
+        this.next = new float[size];
+        this.outputs = new double[size];
+    }
+
+    public double[] getGenotype() {
+        double[] genotype = new double[weights.length];
+        for (int k = 0; k < weights.length; k++) {
+            genotype[k] = weights[k];
+        }
+        return genotype;
+    }
+
+    public void setInputs(final double[] inputs) {
+        if (this.inputs == null) {
+            if (inputs.length > size) {
+                throw new IllegalArgumentException("Input can't be longer than nodes.length");
+            }
+            this.inputs = new float[inputs.length];
+        }
+
+        if (this.inputs.length != inputs.length) {
+            throw new IllegalArgumentException("Input must be same length as previous input");
+        }
+
+        for (int i = 0, length = inputs.length; i < length; i++) {
+            this.inputs[i] = (float) activation.apply(inputs[i]);
+        }
+    }
+
+    /**
+     * Update node values from current input and all neighbours.
+     */
+    public void step() {
+        if (this.inputs == null) {
+            throw new IllegalStateException("Input is not set");
+        }
+
+        final int size = this.size;
+        final float[] weights = this.weights;
+        final float[] nodes = this.nodes;
+        final float[] next = this.next;
+        final float[] inputs = this.inputs;
+        final Activation activation = this.activation;
+        for (int i = 0, row = 0; i < size; i++, row += size) {
+            float sum = 0.0f;
+            if (i < inputs.length) {
+                sum += inputs[i];
+            }
+            for (int j = 0; j < size; j++) {
+                sum += nodes[j] * weights[row + j];
+            }
+            next[i] = (float) activation.apply(sum);
+        }
+        this.next = nodes;
+        this.nodes = next;
+    }
+
+    /**
+     * @return The node values, copied into an array owned by the net
+     */
+    public double[] getOutputs() {
+        for (int i = 0; i < size; i++) {
+            outputs[i] = nodes[i];
+        }
+        return outputs;
+    }
+
+    public Activation getActivation() {
+        return this.activation;
+    }
+}
@@ -0,0 +1,137 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Locale;
+
+/**
+ * How the weights of a brain are stored. DOUBLE is the genotype as it is,
+ * FLOAT rounds every weight to a float, and INT16 and INT8 store every
+ * weight as a signed integer times a scale shared by the whole genotype.
+ * The scale is the largest absolute weight divided by the largest integer,
+ * so no weight is clipped and the rounding error of a weight is at most
+ * half the scale.
+ *
+ * A genotype read back from a brain or a store is the rounded one.
+ */
+public enum Precision {
+    DOUBLE(64) {
+        public Brain createBrain(double[] genotype, Activation activation) {
+            return new FlatHopfieldNeuralNet(genotype, activation);
+        }
+
+        public double[] round(double[] genotype) {
+            return genotype.clone();
+        }
+    },
+
+    FLOAT(32) {
+        public Brain createBrain(double[] genotype, Activation activation) {
+            return new FloatHopfieldNeuralNet(genotype, activation);
+        }
+
+        public double[] round(double[] genotype) {
+            double[] rounded = new double[genotype.length];
+            for (int i = 0; i < genotype.length; i++) {
+                rounded[i] = (float) genotype[i];
+            }
+            return rounded;
+        }
+    },
+
+    INT16(16) {
+        public Brain createBrain(double[] genotype, Activation activation) {
+            return new QuantizedHopfieldNeuralNet(genotype, this, activation);
+        }
+    },
+
+    INT8(8) {
+        public Brain createBrain(double[] genotype, Activation activation) {
+            return new QuantizedHopfieldNeuralNet(genotype, this, activation);
+        }
+    };
+
+    private final int bits;
+
+    private Precision(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @return Bits per weight
+     */
+    public int getBits() {
+        return this.bits;
+    }
+
+    /**
+     * @return True if weights are stored as integers times a scale
+     */
+    public boolean isQuantized() {
+        return bits <= 16;
+    }
+
+    /**
+     * @param genotype The weights, row by row
+     * @param activation Applied to the inputs and the weighted sums
+     * @return A brain that stores its weights with this precision
+     */
+    public abstract Brain createBrain(double[] genotype, Activation activation);
+
+    /**
+     * @return The genotype as a brain of this precision would store it
+     */
+    public double[] round(double[] genotype) {
+        double scale = scaleOf(genotype);
+        double[] rounded = new double[genotype.length];
+        for (int i = 0; i < genotype.length; i++) {
+            rounded[i] = quantize(genotype[i], scale) * scale;
+        }
+        return rounded;
+    }
+
+    /**
+     * @return The largest integer of a quantized precision
+     */
+    public int getMaxInteger() {
+        return (1 << (bits - 1)) - 1;
+    }
+
+    /**
+     * @return The scale of the weights of a quantized precision, 1 if all
+     * weights are 0
+     */
+    public double scaleOf(double[] genotype) {
+        return scaleOf(genotype, 0, genotype.length);
+    }
+
+    /**
+     * @param genes An array with the genotype in it, like the genes of a
+     * PopulationStore
+     * @param from Index of the first weight of the genotype
+     * @param length Number of weights of the genotype
+     * @return The scale of the weights, 1 if all weights are 0
+     */
+    public double scaleOf(double[] genes, int from, int length) {
+        double max = 0.0;
+        for (int i = from; i < from + length; i++) {
+            max = Math.max(max, Math.abs(genes[i]));
+        }
+        return (max > 0.0) ? max / getMaxInteger() : 1.0;
+    }
+
+    /**
+     * @return The integer of a weight with the given scale
+     */
+    public int quantize(double weight, double scale) {
+        long q = Math.round(weight / scale);
+        int max = getMaxInteger();
+        return (int) Math.max(-max, Math.min(max, q));
+    }
+
+    /**
+     * @param name Name of a precision, in any case
+     * @throws IllegalArgumentException If there is no such precision
+     */
+    public static Precision forName(String name) {
+        return valueOf(name.toUpperCase(Locale.US));
+    }
+}
@@ -0,0 +1,145 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * FlatHopfieldNeuralNet with weights quantized to 8 or 16 bit integers and
+ * one scale for the whole genotype, see Precision. A weighted sum is the dot
+ * product of the float nodes with the integer weights of a row, multiplied
+ * by the scale once.
+ */
+public class QuantizedHopfieldNeuralNet implements Brain {
+    private final Precision precision;
+    private int size;
+    private double scale;
+    // Weight (i, j) is the integer at i * size + j, only the array of the
+    // precision is used
+    private byte[] bytes;
+    private short[] shorts;
+    private float[] nodes;
+    private float[] next;
+    private float[] inputs;
+    private double[] outputs;
+    private final Activation activation;
+
+    /**
+     * @param genotype The weights, row by row
+     * @param precision INT8 or INT16
+     * @param activation Applied to the inputs and the weighted sums
+     */
+    public QuantizedHopfieldNeuralNet(final double[] genotype, final Precision precision,
+                                      final Activation activation) {
+        if (!precision.isQuantized()) {
+            throw new IllegalArgumentException(precision + " is not a quantized precision");
+        }
+        this.precision = precision;
+        this.activation = activation;
+        setGenotype(genotype);
+    }
+
+    public void setGenotype(final double[] genotype) {
+        double sqrt = Math.sqrt(genotype.length);
+        if (sqrt % 1 != 0 || genotype.length < 4) {
+            String errorMsg = "Genotype length must be bigger than 3 and have "
+                + "an integer root. Example valid length: 4, 9, 16";
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.size = (int) sqrt;
+        this.scale = precision.scaleOf(genotype);
+        if (precision == Precision.INT8) {
+            this.bytes = new byte[genotype.length];
+            for (int k = 0; k < genotype.length; k++) {
+                bytes[k] = (byte) precision.quantize(genotype[k], scale);
+            }
+        } else {
+            this.shorts = new short[genotype.length];
+            for (int k = 0; k < genotype.length; k++) {
+                shorts[k] = (short) precision.quantize(genotype[k], scale);
+            }
+        }
+        this.nodes = new float[size];
+        this.next = new float[size];
+        this.outputs = new double[size];
+    }
+
+    /**
+     * @return The weights as stored, every integer times the scale
+     */
+    public double[] getGenotype() {
+        double[] genotype = new double[size * size];
+        for (int k = 0; k < genotype.length; k++) {
+            genotype[k] = ((bytes != null) ? bytes[k] : shorts[k]) * scale;
+        }
+        return genotype;
+    }
+
+    public void setInputs(final double[] inputs) {
+        if (this.inputs == null) {
+            if (inputs.length > size) {
+                throw new IllegalArgumentException("Input can't be longer than nodes.length");
+            }
+            this.inputs = new float[inputs.length];
+        }
+
+        if (this.inputs.length != inputs.length) {
+            throw new IllegalArgumentException("Input must be same length as previous input");
+        }
+
+        for (int i = 0, length = inputs.length; i < length; i++) {
+            this.inputs[i] = (float) activation.apply(inputs[i]);
+        }
+    }
+
+    /**
+     * Update node values from current input and all neighbours.
+     */
+    public void step() {
+        if (this.inputs == null) {
+            throw new IllegalStateException("Input is not set");
+        }
+
+        final int size = this.size;
+        final float scale = (float) this.scale;
+        final byte[] bytes = this.bytes;
+        final short[] shorts = this.shorts;
+        final float[] nodes = this.nodes;
+        final float[] next = this.next;
+        final float[] inputs = this.inputs;
+        final Activation activation = this.activation;
+        for (int i = 0, row = 0; i < size; i++, row += size) {
+            float dot = 0.0f;
+            if (bytes != null) {
+                for (int j = 0; j < size; j++) {
+                    dot += nodes[j] * bytes[row + j];
+                }
+            } else {
+                for (int j = 0; j < size; j++) {
+                    dot += nodes[j] * shorts[row + j];
+                }
+            }
+            float sum = dot * scale;
+            if (i < inputs.length) {
+                sum += inputs[i];
+            }
+            next[i] = (float) activation.apply(sum);
+        }
+        this.next = nodes;
+        this.nodes = next;
+    }
+
+    /**
+     * @return The node values, copied into an array owned by the net
+     */
+    public double[] getOutputs() {
+        for (int i = 0; i < size; i++) {
+            outputs[i] = nodes[i];
+        }
+        return outputs;
+    }
+
+    public Precision getPrecision() {
+        return this.precision;
+    }
+
+    public double getScale() {
+        return this.scale;
+    }
+}
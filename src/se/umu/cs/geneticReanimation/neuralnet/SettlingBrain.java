@@ -0,0 +1,113 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * Lets a recurrent brain settle: a step of this brain steps the wrapped
+ * brain until no node value changes by more than the tolerance, but at
+ * most maxSteps times. A net that has settled stops after one step, one
+ * that oscillates or drifts is cut off at the cap. The number of steps is
+ * counted until it is drained into SettlingStats.
+ */
+public class SettlingBrain implements Brain {
+    private final Brain brain;
+    private final double tolerance;
+    private final int maxSteps;
+    private double[] previous = new double[0];
+    // Counted since the last drain
+    private long settles;
+    private long steps;
+    private long capped;
+
+    /**
+     * @param brain The brain to settle
+     * @param tolerance Largest change of a node value that counts as settled
+     * @param maxSteps Max number of steps of the brain per step, at least 1
+     */
+    public SettlingBrain(Brain brain, double tolerance, int maxSteps) {
+        if (tolerance < 0.0) {
+            throw new IllegalArgumentException("Tolerance can't be negative");
+        }
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("Max steps must be at least 1");
+        }
+        this.brain = brain;
+        this.tolerance = tolerance;
+        this.maxSteps = maxSteps;
+    }
+
+    public double[] getGenotype() {
+        return brain.getGenotype();
+    }
+
+    public void setGenotype(final double[] genotype) {
+        brain.setGenotype(genotype);
+    }
+
+    public void setInputs(final double[] inputs) {
+        brain.setInputs(inputs);
+    }
+
+    public double[] getOutputs() {
+        return brain.getOutputs();
+    }
+
+    /**
+     * Steps the wrapped brain until it has settled or been stepped maxSteps
+     * times.
+     */
+    public void step() {
+        int step = 0;
+        boolean settled;
+        do {
+            double[] outputs = brain.getOutputs();
+            if (previous.length != outputs.length) {
+                previous = new double[outputs.length];
+            }
+            System.arraycopy(outputs, 0, previous, 0, outputs.length);
+            brain.step();
+            step++;
+            settled = hasSettled(brain.getOutputs());
+        } while (!settled && step < maxSteps);
+
+        settles++;
+        steps += step;
+        if (!settled) {
+            capped++;
+        }
+    }
+
+    private boolean hasSettled(double[] outputs) {
+        for (int i = 0, length = outputs.length; i < length; i++) {
+            // Written so that NaN never counts as settled
+            if (!(Math.abs(outputs[i] - previous[i]) <= tolerance)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The brain that is settled
+     */
+    public Brain getBrain() {
+        return this.brain;
+    }
+
+    public double getTolerance() {
+        return this.tolerance;
+    }
+
+    public int getMaxSteps() {
+        return this.maxSteps;
+    }
+
+    /**
+     * Adds the steps counted since the last drain to stats and starts
+     * counting from zero.
+     */
+    public void drainSteps(SettlingStats stats) {
+        stats.add(settles, steps, capped);
+        settles = 0;
+        steps = 0;
+        capped = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * Counts how many steps SettlingBrains needed to settle, and how often they
+ * were cut off at their max number of steps instead.
+ */
+public class SettlingStats {
+    private long settles;
+    private long steps;
+    private long capped;
+
+    /**
+     * @param settles Number of times brains were settled
+     * @param steps Number of brain steps it took
+     * @param capped Number of times a brain hadn't settled at the cap
+     */
+    public synchronized void add(long settles, long steps, long capped) {
+        this.settles += settles;
+        this.steps += steps;
+        this.capped += capped;
+    }
+
+    public synchronized long getSettles() {
+        return this.settles;
+    }
+
+    public synchronized long getSteps() {
+        return this.steps;
+    }
+
+    public synchronized long getCapped() {
+        return this.capped;
+    }
+
+    /**
+     * @return Mean number of brain steps per settle, 0 if nothing was
+     * counted
+     */
+    public synchronized double getMeanSteps() {
+        return (settles > 0) ? (double) steps / settles : 0.0;
+    }
+
+    /**
+     * @return Fraction of the settles that were cut off at the cap, 0 if
+     * nothing was counted
+     */
+    public synchronized double getCappedFraction() {
+        return (settles > 0) ? (double) capped / settles : 0.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Settling brains:%d settles, %.2f steps per settle"
+                             + " (%.1f%% cut off at the cap)",
+                             settles, getMeanSteps(), 100 * getCappedFraction());
+    }
+}
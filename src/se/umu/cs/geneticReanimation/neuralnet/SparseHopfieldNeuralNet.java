@@ -0,0 +1,182 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * FlatHopfieldNeuralNet without the weights near zero. The kept weights are
+ * stored in compressed sparse row (CSR) form: the weights of row i are
+ * values[rowStart[i]] to values[rowStart[i + 1] - 1], and columns holds the
+ * node index of every weight. A step only multiplies kept weights, in the
+ * same order as FlatHopfieldNeuralNet, so the outputs are bit-identical to
+ * a FlatHopfieldNeuralNet whose pruned weights are 0.
+ *
+ * The net counts the multiply-adds it did and skipped, see drainWork.
+ */
+public class SparseHopfieldNeuralNet implements Brain {
+    private final double epsilon;
+    private final Activation activation;
+    private double[] genotype;
+    private int size;
+    private int[] rowStart;
+    private int[] columns;
+    private double[] values;
+    private double[] nodes;
+    private double[] next;
+    private double[] inputs;
+    private long steps;
+
+    /**
+     * @param genotype The weights, row by row
+     * @param epsilon Weights with an absolute value of at most epsilon are
+     * pruned
+     * @param activation Applied to the inputs and the weighted sums
+     */
+    public SparseHopfieldNeuralNet(final double[] genotype, final double epsilon,
+                                   final Activation activation) {
+        if (epsilon < 0.0) {
+            throw new IllegalArgumentException("Prune epsilon can't be negative");
+        }
+        this.epsilon = epsilon;
+        this.activation = activation;
+        setGenotype(genotype);
+    }
+
+    /**
+     * @return The fraction of the weights that a net with the epsilon would
+     * prune
+     */
+    public static double sparsityOf(final double[] genotype, final double epsilon) {
+        int pruned = 0;
+        for (double weight : genotype) {
+            if (Math.abs(weight) <= epsilon) {
+                pruned++;
+            }
+        }
+        return (double) pruned / genotype.length;
+    }
+
+    public void setGenotype(final double[] genotype) {
+        double sqrt = Math.sqrt(genotype.length);
+        if (sqrt % 1 != 0 || genotype.length < 4) {
+            String errorMsg = "Genotype length must be bigger than 3 and have "
+                + "an integer root. Example valid length: 4, 9, 16";
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.size = (int) sqrt;
+        this.genotype = genotype.clone();
+
+        int kept = 0;
+        for (double weight : genotype) {
+            if (Math.abs(weight) > epsilon) {
+                kept++;
+            }
+        }
+        this.rowStart = new int[size + 1];
+        this.columns = new int[kept];
+        this.values = new double[kept];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            rowStart[i] = k;
+            for (int j = 0; j < size; j++) {
+                double weight = genotype[i * size + j];
+                if (Math.abs(weight) > epsilon) {
+                    columns[k] = j;
+                    values[k] = weight;
+                    k++;
+                }
+            }
+        }
+        rowStart[size] = k;
+        this.nodes = new double[size];
+        this.next = new double[size];
+    }
+
+    /**
+     * @return The genotype the net was made from, with the pruned weights
+     */
+    public double[] getGenotype() {
+        return genotype.clone();
+    }
+
+    public void setInputs(final double[] inputs) {
+        if (this.inputs == null) {
+            if (inputs.length > size) {
+                throw new IllegalArgumentException("Input can't be longer than nodes.length");
+            }
+            this.inputs = new double[inputs.length];
+        }
+
+        if (this.inputs.length != inputs.length) {
+            throw new IllegalArgumentException("Input must be same length as previous input");
+        }
+
+        for (int i = 0, length = inputs.length; i < length; i++) {
+            this.inputs[i] = activation.apply(inputs[i]);
+        }
+    }
+
+    /**
+     * Update node values from current input and the neighbours with kept
+     * weights.
+     */
+    public void step() {
+        if (this.inputs == null) {
+            throw new IllegalStateException("Input is not set");
+        }
+
+        final int size = this.size;
+        final int[] rowStart = this.rowStart;
+        final int[] columns = this.columns;
+        final double[] values = this.values;
+        final double[] nodes = this.nodes;
+        final double[] next = this.next;
+        final double[] inputs = this.inputs;
+        final Activation activation = this.activation;
+        for (int i = 0; i < size; i++) {
+            double sum = 0.0;
+            if (i < inputs.length) {
+                sum += inputs[i];
+            }
+            for (int k = rowStart[i], end = rowStart[i + 1]; k < end; k++) {
+                sum += nodes[columns[k]] * values[k];
+            }
+            next[i] = activation.apply(sum);
+        }
+        this.next = nodes;
+        this.nodes = next;
+        steps++;
+    }
+
+    /**
+     * @return The node values. The array is reused, it is overwritten by the
+     * step after the next.
+     */
+    public double[] getOutputs() {
+        return nodes;
+    }
+
+    /**
+     * @return Number of kept weights
+     */
+    public int getNonZeros() {
+        return values.length;
+    }
+
+    /**
+     * @return The fraction of the weights that is pruned
+     */
+    public double getSparsity() {
+        return 1.0 - (double) values.length / genotype.length;
+    }
+
+    public double getEpsilon() {
+        return this.epsilon;
+    }
+
+    /**
+     * Adds the multiply-adds done and skipped since the last call to the
+     * stats and starts counting from zero.
+     */
+    public void drainWork(SparseStats stats) {
+        stats.add(steps * values.length, steps * (genotype.length - values.length));
+        steps = 0;
+    }
+}
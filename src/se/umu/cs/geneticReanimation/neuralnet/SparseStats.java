@@ -0,0 +1,55 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+/**
+ * Counts the multiply-adds of SparseHopfieldNeuralNets, both the ones done
+ * and the ones a dense net would have done for the pruned weights. The
+ * skipped fraction is the share of brain time that pruning saved, as the
+ * other work of a step is the same for both nets.
+ */
+public class SparseStats {
+    private long done;
+    private long skipped;
+    private int brains;
+
+    /**
+     * @param done Multiply-adds of kept weights
+     * @param skipped Multiply-adds of pruned weights
+     */
+    public synchronized void add(long done, long skipped) {
+        this.done += done;
+        this.skipped += skipped;
+        if (done + skipped > 0) {
+            brains++;
+        }
+    }
+
+    public synchronized long getDone() {
+        return this.done;
+    }
+
+    public synchronized long getSkipped() {
+        return this.skipped;
+    }
+
+    /**
+     * @return Number of sparse brains that were stepped
+     */
+    public synchronized int getBrains() {
+        return this.brains;
+    }
+
+    /**
+     * @return The fraction of the multiply-adds of dense nets that was
+     * skipped, 0 if nothing was counted
+     */
+    public synchronized double getSavedFraction() {
+        long total = done + skipped;
+        return (total > 0) ? (double) skipped / total : 0.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Sparse brains:%d multiply-adds done:%d skipped:%d (%.1f%% saved)",
+                             brains, done, skipped, 100 * getSavedFraction());
+    }
+}
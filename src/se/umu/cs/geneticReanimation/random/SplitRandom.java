@@ -0,0 +1,116 @@
+package se.umu.cs.geneticReanimation.random;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small, fast generator that can be split into independent streams, the
+ * SplitMix64 algorithm of java.util.SplittableRandom. Every thread or
+ * creature gets a stream of its own, so nothing is shared between threads,
+ * and a run started from the same seed draws the same numbers.
+ *
+ * Unlike SplittableRandom the state can be read and restored, which is what
+ * checkpoints need. A SplitRandom is not thread safe.
+ */
+public class SplitRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    private static final AtomicLong SEEDER =
+        new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+    private long seed;
+    private final long gamma;
+
+    /**
+     * @param seed The run level seed
+     */
+    public SplitRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * A generator seeded from the clock, for when a run needs not be
+     * repeatable.
+     */
+    public SplitRandom() {
+        this(SEEDER.getAndAdd(2 * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Restores a generator from getSeed and getGamma.
+     *
+     * @param seed The state
+     * @param gamma The odd increment of the stream
+     */
+    public SplitRandom(long seed, long gamma) {
+        if ((gamma & 1) == 0) {
+            throw new IllegalArgumentException("Gamma must be odd");
+        }
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public long getGamma() {
+        return this.gamma;
+    }
+
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * @return A value in [0, 1), like Math.random()
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @param bound Positive upper bound
+     * @return A value in [0, bound)
+     */
+    public int nextInt(int bound) {
+        return (int) (nextDouble() * bound);
+    }
+
+    /**
+     * Creates a new, independent stream and advances this one.
+     */
+    public SplitRandom split() {
+        return new SplitRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Creates the stream with the given index without advancing this one.
+     * The same generator forks the same stream for the same index, ex: one
+     * stream per island or per worker.
+     *
+     * @param index Any number identifying the stream
+     */
+    public SplitRandom fork(long index) {
+        long base = seed + (index + 1) * gamma;
+        return new SplitRandom(mix64(base), mixGamma(base + GOLDEN_GAMMA));
+    }
+
+    private long nextSeed() {
+        return (seed += gamma);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,192 @@
+package se.umu.cs.geneticReanimation.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import se.umu.cs.geneticReanimation.creature.ControlMode;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+import se.umu.cs.geneticReanimation.neuralnet.BrainCompiler;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+
+/**
+ * Serves RemoteEvaluators. Every connection is handled by a thread of its
+ * own with an Arena of its own, so a master that wants to use several cores
+ * of a worker opens several connections to it. The genotypes are evaluated
+ * as WormCreatures for the full lifespan, stop rules are not used.
+ *
+ * Usage: EvaluationWorker [port] [-o] [-Aname] [-Qname] [-jepsilon]
+ *                         [-Tthreshold,epsilon] [-Kinterval,mode]
+ *                         [-NmaxSteps,tolerance]
+ *
+ * Port 0, the default, picks a free port. The port is printed on the first
+ * line of output. With -o the worker exits when its first connection is
+ * closed, which is what LoopbackWorkers uses. -A picks the Activation and
+ * -Q the Precision of the brains, and -j compiles them with the given prune
+ * epsilon. -T makes brains sparse from the given pruned fraction, and -K
+ * runs them every interval physics steps with the ControlMode in between.
+ * -N lets them settle with the given max steps and tolerance. A master with
+ * another brain configuration is rejected in the handshake, since the
+ * fitness values would not agree.
+ */
+public class EvaluationWorker {
+    static final String LISTENING = "EvaluationWorker listening on port ";
+
+    private final ServerSocket server;
+    private final WormConfig config;
+
+    /**
+     * @param port Port to listen on, 0 for any free port
+     * @param config The brain and control settings of the worms, a master
+     * must have the same
+     */
+    public EvaluationWorker(int port, WormConfig config) throws IOException {
+        this.server = new ServerSocket(port);
+        this.config = config;
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the worker is closed, every connection is
+     * served on a new thread.
+     */
+    public void serve() throws IOException {
+        while (true) {
+            final Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        serve(socket);
+                    }
+                }, "worker-" + socket.getRemoteSocketAddress());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Serves a single connection on the calling thread until the master
+     * says bye or disconnects.
+     */
+    public void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+            RemoteProtocol.readHeader(in);
+            Arena arena = new Arena(in.readInt());
+            String rejection =
+                RemoteProtocol.compareBrainConfig(RemoteProtocol.readBrainConfig(in),
+                                                  config.describe());
+            RemoteProtocol.writeHeader(out);
+            out.writeUTF(rejection);
+            out.flush();
+            if (rejection.length() > 0) {
+                System.err.println("Rejected " + socket.getRemoteSocketAddress() + ": "
+                                   + rejection);
+                return;
+            }
+
+            while (true) {
+                int type = in.readInt();
+                if (type == RemoteProtocol.BYE) {
+                    return;
+                } else if (type != RemoteProtocol.BATCH) {
+                    throw new IOException("Unknown message type " + type);
+                }
+                int id = in.readInt();
+                double[][] genotypes = RemoteProtocol.readGenotypes(in);
+                double[] fitness = new double[genotypes.length];
+                for (int i = 0; i < genotypes.length; i++) {
+                    fitness[i] = arena.evaluate(new WormCreature(genotypes[i], config));
+                }
+                RemoteProtocol.writeResult(out, id, fitness);
+                // Only flush when no other batch is waiting
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            // Master went away
+        } catch (IOException e) {
+            System.err.println("Connection " + socket.getRemoteSocketAddress() + ": " + e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        server.close();
+    }
+
+    public static void main(String args[]) throws IOException {
+        int port = 0;
+        boolean once = false;
+        double compileEpsilon = -1.0;
+        WormConfig config = WormConfig.DEFAULT;
+        for (String arg : args) {
+            if (arg.equals("-o")) {
+                once = true;
+            } else if (arg.startsWith("-A")) {
+                config = config.withActivation(Activation.forName(arg.substring(2)));
+            } else if (arg.startsWith("-Q")) {
+                config = config.withPrecision(Precision.forName(arg.substring(2)));
+            } else if (arg.startsWith("-T")) {
+                String[] sparse = arg.substring(2).split(",");
+                config = config.withSparse(Double.parseDouble(sparse[0]),
+                                           Double.parseDouble(sparse[1]));
+            } else if (arg.startsWith("-K")) {
+                String[] control = arg.substring(2).split(",");
+                config = config.withControl(Integer.parseInt(control[0]),
+                                            ControlMode.forName(control[1]));
+            } else if (arg.startsWith("-N")) {
+                String[] settle = arg.substring(2).split(",");
+                config = config.withSettling(Integer.parseInt(settle[0]),
+                                             Double.parseDouble(settle[1]));
+            } else if (arg.startsWith("-j")) {
+                compileEpsilon = Double.parseDouble(arg.substring(2));
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+
+        if (compileEpsilon >= 0.0) {
+            config = config.withCompiler(new BrainCompiler(config.getActivation(),
+                                                           compileEpsilon));
+        }
+
+        EvaluationWorker worker = new EvaluationWorker(port, config);
+        System.out.println(LISTENING + worker.getPort());
+        System.out.flush();
+        if (once) {
+            Socket socket = worker.server.accept();
+            worker.close();
+            worker.serve(socket);
+        } else {
+            worker.serve();
+        }
+    }
+}
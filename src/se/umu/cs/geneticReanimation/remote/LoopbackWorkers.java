@@ -0,0 +1,126 @@
+package se.umu.cs.geneticReanimation.remote;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+
+/**
+ * Starts EvaluationWorkers as JVMs on this machine, to run a
+ * RemoteEvaluator without any other machines. Every worker serves a single
+ * connection and exits when it is closed.
+ */
+public class LoopbackWorkers {
+    private final List<Process> processes = new ArrayList<Process>();
+    private final List<InetSocketAddress> addresses = new ArrayList<InetSocketAddress>();
+    private final WormConfig config;
+
+    /**
+     * Starts the workers and waits until all of them listen.
+     *
+     * @param workers Number of worker JVMs
+     * @param config The brain and control settings the workers are started
+     * with
+     */
+    public LoopbackWorkers(int workers, WormConfig config) throws IOException {
+        this.config = config;
+        try {
+            for (int i = 0; i < workers; i++) {
+                launch(i);
+            }
+        } catch (IOException e) {
+            shutdown();
+            throw e;
+        }
+    }
+
+    private void launch(int index) throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin"
+                    + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(EvaluationWorker.class.getName());
+        command.add("-o");
+        command.add("-A" + config.getActivation());
+        command.add("-Q" + config.getPrecision());
+        if (config.getSparseThreshold() > 0) {
+            command.add("-T" + config.getSparseThreshold()
+                        + "," + config.getPruneEpsilon());
+        }
+        if (config.getControlInterval() > 1) {
+            command.add("-K" + config.getControlInterval()
+                        + "," + config.getControlMode());
+        }
+        if (config.getSettleMaxSteps() > 0) {
+            command.add("-N" + config.getSettleMaxSteps()
+                        + "," + config.getSettleTolerance());
+        }
+        if (config.getCompiler() != null) {
+            command.add("-j" + config.getCompiler().getEpsilon());
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        processes.add(process);
+        process.getOutputStream().close();
+
+        final BufferedReader reader =
+            new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line = reader.readLine();
+        if (line == null || !line.startsWith(EvaluationWorker.LISTENING)) {
+            throw new IOException("Worker " + index + " did not start: " + line);
+        }
+        int port = Integer.parseInt(line.substring(EvaluationWorker.LISTENING.length()));
+        addresses.add(new InetSocketAddress(InetAddress.getByName(null), port));
+
+        // Pass on anything else the worker says
+        Thread drain = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            System.err.println(line);
+                        }
+                    } catch (IOException e) {
+                    }
+                }
+            }, "loopback-worker-" + index);
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    /**
+     * @return The address of every worker, by index
+     */
+    public List<InetSocketAddress> getAddresses() {
+        return new ArrayList<InetSocketAddress>(addresses);
+    }
+
+    /**
+     * Kills a worker, as if its machine went down.
+     *
+     * @param index Index of the worker
+     */
+    void kill(int index) throws InterruptedException {
+        Process process = processes.get(index);
+        process.destroy();
+        process.waitFor();
+    }
+
+    /**
+     * Kills the workers that are still running.
+     */
+    public void shutdown() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package se.umu.cs.geneticReanimation.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.evaluation.Evaluator;
+
+/**
+ * Evaluates a population on EvaluationWorkers over RemoteProtocol. The
+ * population is split into batches that the connections take from a shared
+ * queue, so fast workers get more batches. Every connection has at most a
+ * given number of batches in flight. When a connection breaks its unanswered
+ * batches go back to the queue and are retried on the remaining
+ * connections.
+ *
+ * Fitness is written back in population order, so the result is the same as
+ * evaluating the creatures one after another in an Arena without stop rules.
+ */
+public class RemoteEvaluator implements Evaluator {
+    /** Number of times a batch is sent before the evaluation fails */
+    static final int MAX_ATTEMPTS = 3;
+    private static final long POLL_MILLIS = 100;
+
+    private final int batchSize;
+    private final BlockingQueue<Batch> pending = new LinkedBlockingQueue<Batch>();
+    private final List<Connection> connections = new ArrayList<Connection>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Connects to every worker. Workers that can't be reached, or that
+     * reject the brain configuration, are skipped.
+     *
+     * @param workers Addresses of EvaluationWorkers, an address may be given
+     * more than once to open several connections to it
+     * @param lifespan Number of physics steps every creature is simulated
+     * @param batchSize Max number of genotypes in a batch
+     * @param inFlight Max number of unanswered batches per connection
+     * @param config The brain and control settings of the evaluated worms,
+     * the workers must have the same
+     * @throws IOException If no worker could be reached
+     */
+    public RemoteEvaluator(List<InetSocketAddress> workers, int lifespan,
+                           int batchSize, int inFlight, WormConfig config)
+        throws IOException {
+        if (batchSize < 1 || inFlight < 1) {
+            throw new IllegalArgumentException(
+                "Batch size and batches in flight must be at least 1");
+        }
+        this.batchSize = batchSize;
+        IOException lastFailure = null;
+        for (InetSocketAddress worker : workers) {
+            try {
+                connections.add(new Connection(worker, lifespan, inFlight, config));
+            } catch (IOException e) {
+                System.err.println("Could not connect to worker " + worker + ": " + e);
+                lastFailure = e;
+            }
+        }
+        if (connections.isEmpty()) {
+            throw new IOException("No worker could be reached", lastFailure);
+        }
+        for (Connection connection : connections) {
+            connection.start();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException If every connection is lost or a batch
+     * failed MAX_ATTEMPTS times
+     */
+    public void evaluate(final List<Creature> population) {
+        int size = population.size();
+        Evaluation evaluation = new Evaluation((size + batchSize - 1) / batchSize);
+        List<Batch> batches = new ArrayList<Batch>();
+        for (int start = 0; start < size; start += batchSize) {
+            int end = Math.min(size, start + batchSize);
+            double[][] genotypes = new double[end - start][];
+            for (int i = start; i < end; i++) {
+                genotypes[i - start] = population.get(i).getGenotype();
+            }
+            batches.add(new Batch(nextId.getAndIncrement(), start, genotypes, evaluation));
+        }
+        pending.addAll(batches);
+
+        try {
+            while (!evaluation.done.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (evaluation.failure != null) {
+                    break;
+                }
+                if (getLiveConnections() == 0) {
+                    evaluation.fail("All workers lost");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            evaluation.fail("Evaluation interrupted");
+        }
+        if (evaluation.failure != null) {
+            pending.clear();
+            throw new IllegalStateException(evaluation.failure);
+        }
+
+        for (Batch batch : batches) {
+            for (int i = 0; i < batch.fitness.length; i++) {
+                population.get(batch.start + i).setFitness(batch.fitness[i]);
+            }
+        }
+    }
+
+    /**
+     * Workers have no stop rules, every creature lives its whole lifespan.
+     */
+    public boolean isComplete(final int index) {
+        return true;
+    }
+
+    /**
+     * @return Number of connections that are still usable
+     */
+    public int getLiveConnections() {
+        int live = 0;
+        for (Connection connection : connections) {
+            if (connection.isAlive()) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * @param addresses Comma separated host:port pairs
+     * @return The addresses, in the given order
+     */
+    public static List<InetSocketAddress> parseAddresses(String addresses) {
+        List<InetSocketAddress> result = new ArrayList<InetSocketAddress>();
+        for (String address : addresses.split(",")) {
+            address = address.trim();
+            if (address.length() == 0) {
+                continue;
+            }
+            int colon = address.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Worker address without port: " + address);
+            }
+            result.add(new InetSocketAddress(address.substring(0, colon),
+                                             Integer.parseInt(address.substring(colon + 1))));
+        }
+        return result;
+    }
+
+    /**
+     * Says bye to every worker and closes the connections.
+     */
+    public void shutdown() {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Puts a batch of a broken connection back in the queue, or fails its
+     * evaluation when it has been tried too many times.
+     */
+    private void retry(Batch batch) {
+        if (batch.attempts >= MAX_ATTEMPTS) {
+            batch.evaluation.fail("Batch " + batch.id + " failed " + batch.attempts + " times");
+        } else {
+            pending.add(batch);
+        }
+    }
+
+    /**
+     * The batches of one call to evaluate.
+     */
+    private static class Evaluation {
+        private final CountDownLatch done;
+        private volatile String failure;
+
+        public Evaluation(int batches) {
+            this.done = new CountDownLatch(batches);
+        }
+
+        public void fail(String failure) {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+        }
+    }
+
+    private static class Batch {
+        private final int id;
+        private final int start;
+        private final double[][] genotypes;
+        private final Evaluation evaluation;
+        private double[] fitness;
+        private int attempts;
+
+        public Batch(int id, int start, double[][] genotypes, Evaluation evaluation) {
+            this.id = id;
+            this.start = start;
+            this.genotypes = genotypes;
+            this.evaluation = evaluation;
+        }
+    }
+
+    /**
+     * A connection to a worker with a sending and a receiving thread. The
+     * worker answers in order, so the receiver takes the in flight batches
+     * in the order the sender sent them. The receiver always waits for the
+     * next result, so a worker that dies is noticed even when it is idle.
+     */
+    private class Connection {
+        private final InetSocketAddress address;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final Semaphore permits;
+        private final BlockingQueue<Batch> inFlight = new LinkedBlockingQueue<Batch>();
+        private boolean alive = true;
+
+        public Connection(InetSocketAddress address, int lifespan, int maxInFlight,
+                          WormConfig config) throws IOException {
+            this.address = address;
+            this.socket = new Socket(address.getAddress(), address.getPort());
+            this.permits = new Semaphore(maxInFlight);
+            try {
+                socket.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                RemoteProtocol.writeHeader(out);
+                out.writeInt(lifespan);
+                RemoteProtocol.writeBrainConfig(out, config.describe());
+                out.flush();
+                RemoteProtocol.readHeader(in);
+                String rejection = in.readUTF();
+                if (rejection.length() > 0) {
+                    throw new IOException("Worker rejected the brain configuration, "
+                                          + rejection);
+                }
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        public void start() {
+            Thread sender = new Thread(new Runnable() {
+                    public void run() {
+                        send();
+                    }
+                }, "remote-send-" + address);
+            Thread receiver = new Thread(new Runnable() {
+                    public void run() {
+                        receive();
+                    }
+                }, "remote-receive-" + address);
+            sender.setDaemon(true);
+            receiver.setDaemon(true);
+            sender.start();
+            receiver.start();
+        }
+
+        public synchronized boolean isAlive() {
+            return alive;
+        }
+
+        private void send() {
+            try {
+                while (isAlive()) {
+                    if (!permits.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    Batch batch = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        permits.release();
+                        continue;
+                    }
+                    synchronized (this) {
+                        if (!alive) {
+                            pending.add(batch);
+                            return;
+                        }
+                        batch.attempts++;
+                        inFlight.add(batch);
+                    }
+                    synchronized (out) {
+                        RemoteProtocol.writeBatch(out, batch.id, batch.genotypes);
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                lost(e);
+            } catch (InterruptedException e) {
+                lost(e);
+            }
+        }
+
+        private void receive() {
+            try {
+                while (isAlive()) {
+                    int id = in.readInt();
+                    // Added before it was sent, so it is there
+                    Batch batch = inFlight.poll();
+                    if (batch == null || batch.id != id) {
+                        if (batch != null) {
+                            retry(batch);
+                        }
+                        throw new IOException("Unexpected result " + id);
+                    }
+                    try {
+                        batch.fitness = RemoteProtocol.readFitness(in, batch.genotypes.length);
+                    } catch (IOException e) {
+                        retry(batch);
+                        throw e;
+                    }
+                    batch.evaluation.done.countDown();
+                    permits.release();
+                }
+            } catch (IOException e) {
+                lost(e);
+            }
+        }
+
+        /**
+         * Marks the connection as broken and retries its unanswered batches.
+         */
+        private void lost(Exception e) {
+            synchronized (this) {
+                if (!alive) {
+                    return;
+                }
+                alive = false;
+                System.err.println("Lost worker " + address + ": " + e);
+                Batch batch;
+                while ((batch = inFlight.poll()) != null) {
+                    retry(batch);
+                }
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        public void close() {
+            synchronized (this) {
+                if (!alive) {
+                    return;
+                }
+                alive = false;
+            }
+            try {
+                synchronized (out) {
+                    out.writeInt(RemoteProtocol.BYE);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package se.umu.cs.geneticReanimation.remote;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binary protocol between a RemoteEvaluator, the master, and an
+ * EvaluationWorker. All numbers are big endian as written by
+ * DataOutputStream.
+ *
+ * The master opens with MAGIC, VERSION, the lifespan and the configuration
+ * of its brains, the worker answers with MAGIC, VERSION and why it rejects
+ * the configuration, or an empty string when it is the worker's too. A
+ * worker that rejects closes the connection. After that the master sends
+ * any number of batches and the worker answers every batch with a result,
+ * in the order the batches were sent:
+ *
+ * <pre>
+ * hello:  int MAGIC, int VERSION, int lifespan, int count,
+ *         count UTF pairs of WormConfig.describe()
+ * answer: int MAGIC, int VERSION, UTF rejection
+ * batch:  int BATCH, int id, int count, int genotypeSize,
+ *         count * genotypeSize doubles
+ * result: int id, int count, count doubles of fitness
+ * bye:    int BYE
+ * </pre>
+ */
+final class RemoteProtocol {
+    /** "GREW" */
+    static final int MAGIC = 0x47524557;
+    static final int VERSION = 2;
+
+    static final int BATCH = 1;
+    static final int BYE = 2;
+
+    private RemoteProtocol() {
+    }
+
+    /**
+     * Reads and checks MAGIC and VERSION.
+     */
+    static void readHeader(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not an evaluation peer, magic " + Integer.toHexString(magic));
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported protocol version " + version);
+        }
+    }
+
+    static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    static void writeBrainConfig(DataOutputStream out, List<String> config)
+        throws IOException {
+        out.writeInt(config.size());
+        for (String pair : config) {
+            out.writeUTF(pair);
+        }
+    }
+
+    static List<String> readBrainConfig(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> config = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            config.add(in.readUTF());
+        }
+        return config;
+    }
+
+    /**
+     * @param master The brain configuration of the master
+     * @param worker The brain configuration of the worker
+     * @return Why the worker rejects the master's configuration, or an
+     * empty string if they are the same
+     */
+    static String compareBrainConfig(List<String> master, List<String> worker) {
+        if (master.size() != worker.size()) {
+            return "master sent " + master.size() + " brain settings, worker has "
+                + worker.size();
+        }
+        for (int i = 0; i < master.size(); i++) {
+            if (!master.get(i).equals(worker.get(i))) {
+                return "master has " + master.get(i) + ", worker has " + worker.get(i);
+            }
+        }
+        return "";
+    }
+
+    static void writeBatch(DataOutputStream out, int id, double[][] genotypes)
+        throws IOException {
+        out.writeInt(BATCH);
+        out.writeInt(id);
+        out.writeInt(genotypes.length);
+        out.writeInt(genotypes.length == 0 ? 0 : genotypes[0].length);
+        for (double[] genotype : genotypes) {
+            for (double val : genotype) {
+                out.writeDouble(val);
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of a batch, after its type.
+     *
+     * @return The genotypes of the batch
+     */
+    static double[][] readGenotypes(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        int genotypeSize = in.readInt();
+        double[][] genotypes = new double[count][genotypeSize];
+        for (double[] genotype : genotypes) {
+            for (int i = 0; i < genotypeSize; i++) {
+                genotype[i] = in.readDouble();
+            }
+        }
+        return genotypes;
+    }
+
+    static void writeResult(DataOutputStream out, int id, double[] fitness)
+        throws IOException {
+        out.writeInt(id);
+        out.writeInt(fitness.length);
+        for (double val : fitness) {
+            out.writeDouble(val);
+        }
+    }
+
+    /**
+     * Reads the rest of a result, after its id, and checks its length.
+     */
+    static double[] readFitness(DataInputStream in, int count) throws IOException {
+        int resultCount = in.readInt();
+        if (resultCount != count) {
+            throw new IOException("Expected " + count + " results, got " + resultCount);
+        }
+        double[] fitness = new double[count];
+        for (int i = 0; i < count; i++) {
+            fitness[i] = in.readDouble();
+        }
+        return fitness;
+    }
+}
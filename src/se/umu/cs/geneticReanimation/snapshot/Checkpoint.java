@@ -0,0 +1,215 @@
+package se.umu.cs.geneticReanimation.snapshot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+/**
+ * Everything needed to continue a generational run after a generation has
+ * been evaluated, as if it was never stopped: the evaluated population, the
+ * index of the generation, the GeneticAlgoritm rates, the state of its
+ * random generator and the fitness cache.
+ *
+ * The file is an int MAGIC, an int VERSION, the generation as an int, the
+ * crossover and mutation rates as doubles, the seed and gamma of the
+ * random generator as longs, then the population and the cache, both as
+ * PopulationSnapshots in the binary format. A checkpoint is written to a
+ * temporary file that is forced to disk and then renamed, so a crash never
+ * leaves a half written checkpoint behind.
+ */
+public class Checkpoint {
+    /** "GRCK" */
+    public static final int MAGIC = 0x4752434b;
+    public static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int generation;
+    private final double crossoverRate;
+    private final double mutationRate;
+    private final long randomSeed;
+    private final long randomGamma;
+    private final PopulationSnapshot population;
+    private final PopulationSnapshot cache;
+
+    private Checkpoint(int generation, double crossoverRate, double mutationRate,
+                       long randomSeed, long randomGamma, PopulationSnapshot population,
+                       PopulationSnapshot cache) {
+        this.generation = generation;
+        this.crossoverRate = crossoverRate;
+        this.mutationRate = mutationRate;
+        this.randomSeed = randomSeed;
+        this.randomGamma = randomGamma;
+        this.population = population;
+        this.cache = cache;
+    }
+
+    /**
+     * @param generation Index of the evaluated generation
+     * @param crossoverRate Crossover rate of the GeneticAlgoritm
+     * @param mutationRate Mutation rate of the GeneticAlgoritm
+     * @param random The generator of the GeneticAlgoritm, before it breeds
+     * the next generation
+     * @param population The evaluated population
+     * @param cacheEntries Entries of the fitness cache, least recently used
+     * first, may be empty
+     */
+    public Checkpoint(int generation, double crossoverRate, double mutationRate,
+                      SplitRandom random, List<Creature> population,
+                      Map<double[], Double> cacheEntries) throws IOException {
+        this(generation, crossoverRate, mutationRate, random.getSeed(), random.getGamma(),
+             PopulationSnapshot.of(population), snapshotOf(cacheEntries));
+    }
+
+    private static PopulationSnapshot snapshotOf(Map<double[], Double> entries) {
+        int genotypeSize = entries.isEmpty() ? 0 : entries.keySet().iterator().next().length;
+        DoubleBuffer rows = DoubleBuffer.allocate(entries.size() * (genotypeSize + 1));
+        for (Map.Entry<double[], Double> entry : entries.entrySet()) {
+            rows.put(entry.getValue());
+            rows.put(entry.getKey());
+        }
+        rows.flip();
+        return new PopulationSnapshot(entries.size(), genotypeSize, rows);
+    }
+
+    /**
+     * @return Index of the evaluated generation
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    public double getCrossoverRate() {
+        return this.crossoverRate;
+    }
+
+    public double getMutationRate() {
+        return this.mutationRate;
+    }
+
+    /**
+     * @return A new generator in the saved state
+     */
+    public SplitRandom getRandom() {
+        return new SplitRandom(randomSeed, randomGamma);
+    }
+
+    public PopulationSnapshot getPopulation() {
+        return this.population;
+    }
+
+    /**
+     * @return Genotypes and fitness of the cache, least recently used first
+     */
+    public Map<double[], Double> getCacheEntries() {
+        Map<double[], Double> entries = new LinkedHashMap<double[], Double>();
+        for (int i = 0, size = cache.getPopulationSize(); i < size; i++) {
+            entries.put(cache.getGenotype(i), cache.getFitness(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the checkpoint to file.tmp, forces it to disk and renames it to
+     * file, then forces the directory. The old checkpoint stays in place
+     * until the rename.
+     */
+    public void write(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        RandomAccessFile out = new RandomAccessFile(temp, "rw");
+        try {
+            FileChannel channel = out.getChannel();
+            channel.truncate(0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(generation);
+            buffer.putDouble(crossoverRate);
+            buffer.putDouble(mutationRate);
+            buffer.putLong(randomSeed);
+            buffer.putLong(randomGamma);
+            population.writeTo(channel, buffer);
+            cache.writeTo(channel, buffer);
+            PopulationSnapshot.drain(channel, buffer);
+            channel.force(true);
+        } finally {
+            out.close();
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Still replaces the old checkpoint in one step on most platforms,
+            // it is never deleted before the new one is in place
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(file.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * Forces the entry of a renamed file in its directory to disk, so the
+     * rename survives a crash. Not every platform can open a directory, the
+     * rename is then left to the file system.
+     */
+    private static void forceDirectory(File directory) {
+        try {
+            FileChannel channel = FileChannel.open(directory.toPath(),
+                                                   StandardOpenOption.READ);
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // The checkpoint itself is already on disk
+        }
+    }
+
+    /**
+     * Maps and reads a checkpoint written by write.
+     */
+    public static Checkpoint read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported checkpoint version " + version);
+            }
+            int generation = buffer.getInt();
+            double crossoverRate = buffer.getDouble();
+            double mutationRate = buffer.getDouble();
+            long randomSeed = buffer.getLong();
+            long randomGamma = buffer.getLong();
+            PopulationSnapshot population = PopulationSnapshot.readFrom(buffer);
+            PopulationSnapshot cache = PopulationSnapshot.readFrom(buffer);
+            return new Checkpoint(generation, crossoverRate, mutationRate,
+                                  randomSeed, randomGamma,
+                                  population, cache);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(file + " is truncated");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package se.umu.cs.geneticReanimation.snapshot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+/**
+ * A saved population. The binary format is a header of four ints, MAGIC,
+ * VERSION, population size and genotype size, followed by one row per
+ * creature of packed doubles, the fitness and then the genotype. Everything
+ * is big endian.
+ *
+ * Binary snapshots are written through a FileChannel and read through a
+ * MappedByteBuffer, so a snapshot is not copied when it is opened. The text
+ * format written by earlier versions can still be read, and converted with
+ * main.
+ */
+public class PopulationSnapshot {
+    /** "GRPS" */
+    public static final int MAGIC = 0x47525053;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 4 * 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int populationSize;
+    private final int genotypeSize;
+    private final DoubleBuffer rows;
+
+    /**
+     * @param populationSize Number of creatures
+     * @param genotypeSize Length of every genotype
+     * @param rows populationSize rows of fitness followed by genotype
+     */
+    PopulationSnapshot(int populationSize, int genotypeSize, DoubleBuffer rows) {
+        if (rows.remaining() != (long) populationSize * (genotypeSize + 1)) {
+            throw new IllegalArgumentException("Expected " + populationSize + " rows of "
+                                               + (genotypeSize + 1) + " values, got "
+                                               + rows.remaining() + " values");
+        }
+        this.populationSize = populationSize;
+        this.genotypeSize = genotypeSize;
+        this.rows = rows;
+    }
+
+    /**
+     * @param population Creatures with a fitness, all with genotypes of the
+     * same length
+     */
+    public static PopulationSnapshot of(List<Creature> population) {
+        int genotypeSize = population.isEmpty() ? 0 : population.get(0).getGenotype().length;
+        DoubleBuffer rows = DoubleBuffer.allocate(population.size() * (genotypeSize + 1));
+        for (Creature creature : population) {
+            double[] genotype = creature.getGenotype();
+            if (genotype.length != genotypeSize) {
+                throw new IllegalArgumentException("Genotypes of different length");
+            }
+            rows.put(creature.getFitness());
+            rows.put(genotype);
+        }
+        rows.flip();
+        return new PopulationSnapshot(population.size(), genotypeSize, rows);
+    }
+
+    public int getPopulationSize() {
+        return this.populationSize;
+    }
+
+    public int getGenotypeSize() {
+        return this.genotypeSize;
+    }
+
+    public double getFitness(int index) {
+        return rows.get(index * (genotypeSize + 1));
+    }
+
+    /**
+     * @return A copy of the genotype of a creature
+     */
+    public double[] getGenotype(int index) {
+        double[] genotype = new double[genotypeSize];
+        DoubleBuffer row = rows.duplicate();
+        row.position(index * (genotypeSize + 1) + 1);
+        row.get(genotype);
+        return genotype;
+    }
+
+    /**
+     * @param config The brain and control settings of the creatures
+     * @return WormCreatures with the saved genotypes and fitness
+     */
+    public List<Creature> toCreatures(WormConfig config) {
+        List<Creature> population = new ArrayList<Creature>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            Creature creature = new WormCreature(getGenotype(i), config);
+            creature.setFitness(getFitness(i));
+            population.add(creature);
+        }
+        return population;
+    }
+
+    /**
+     * Writes the snapshot in the binary format, replacing the file.
+     */
+    public void write(File file) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = out.getChannel();
+            channel.truncate(0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            writeTo(channel, buffer);
+            drain(channel, buffer);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Puts the header and rows into the buffer, writing it to the channel
+     * whenever it is full. The buffer is left with what did not fill it.
+     *
+     * @param channel Channel to write to
+     * @param buffer An empty buffer with room for at least the header
+     */
+    void writeTo(FileChannel channel, ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            drain(channel, buffer);
+        }
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(populationSize);
+        buffer.putInt(genotypeSize);
+
+        DoubleBuffer values = rows.duplicate();
+        while (values.hasRemaining()) {
+            DoubleBuffer chunk = buffer.asDoubleBuffer();
+            int count = Math.min(chunk.remaining(), values.remaining());
+            DoubleBuffer slice = values.slice();
+            slice.limit(count);
+            chunk.put(slice);
+            values.position(values.position() + count);
+            buffer.position(buffer.position() + count * 8);
+            if (values.hasRemaining()) {
+                drain(channel, buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes what has been put into the buffer and clears it.
+     */
+    static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes a population in the binary format, replacing the file.
+     */
+    public static void write(File file, List<Creature> population) throws IOException {
+        of(population).write(file);
+    }
+
+    /**
+     * Writes the snapshot in the text format of earlier versions.
+     */
+    public void writeText(File file) throws FileNotFoundException {
+        PrintStream p = new PrintStream(file);
+        try {
+            p.println("#   populationeSize");
+            p.println("#   genotypeSize");
+            p.println("# * fitness genotype");
+            p.println(populationSize);
+            p.println(genotypeSize);
+            for (int i = 0; i < populationSize; i++) {
+                p.print(getFitness(i) + " ");
+                for (double val : getGenotype(i)) {
+                    p.print(val + " ");
+                }
+                p.println();
+            }
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * Opens a snapshot in either format. Binary snapshots are mapped, not
+     * read.
+     *
+     * @param file A binary or text snapshot
+     */
+    public static PopulationSnapshot read(File file) throws IOException {
+        if (isBinary(file)) {
+            return readBinary(file);
+        }
+        return readText(file);
+    }
+
+    private static boolean isBinary(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            in.getChannel().read(magic, 0);
+            return magic.position() == 4 && magic.getInt(0) == MAGIC;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Maps a binary snapshot. The mapping stays valid after the file is
+     * closed.
+     */
+    public static PopulationSnapshot readBinary(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                                  channel.size());
+            PopulationSnapshot snapshot = readFrom(buffer);
+            if (buffer.hasRemaining()) {
+                throw new IOException(file + " has " + buffer.remaining()
+                                      + " bytes after the population");
+            }
+            return snapshot;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a header and its rows from the position of the buffer, the rows
+     * are not copied. The position is moved past the rows.
+     */
+    static PopulationSnapshot readFrom(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a population snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int populationSize = buffer.getInt();
+        int genotypeSize = buffer.getInt();
+        long bytes = (long) populationSize * (genotypeSize + 1) * 8;
+        if (populationSize < 0 || genotypeSize < 0 || bytes > buffer.remaining()) {
+            throw new IOException("Snapshot of " + populationSize + " creatures is truncated");
+        }
+        ByteBuffer slice = buffer.slice();
+        slice.limit((int) bytes);
+        buffer.position(buffer.position() + (int) bytes);
+        return new PopulationSnapshot(populationSize, genotypeSize, slice.asDoubleBuffer());
+    }
+
+    /**
+     * Reads a snapshot in the text format of earlier versions.
+     */
+    public static PopulationSnapshot readText(File file) throws FileNotFoundException {
+        Scanner s = new Scanner(file);
+        s.useLocale(Locale.US);
+        try {
+            s.nextLine(); // Comments
+            s.nextLine(); // Comments
+            s.nextLine(); // Comments
+            int populationSize = s.nextInt();
+            int genotypeSize = s.nextInt();
+
+            DoubleBuffer rows = DoubleBuffer.allocate(populationSize * (genotypeSize + 1));
+            while (s.hasNextDouble() && rows.hasRemaining()) {
+                rows.put(s.nextDouble());
+            }
+            rows.flip();
+            return new PopulationSnapshot(populationSize, genotypeSize, rows);
+        } finally {
+            s.close();
+        }
+    }
+
+    /**
+     * Converts text snapshots to binary ones.
+     *
+     * Usage: PopulationSnapshot in.txt out.pop
+     */
+    public static void main(String args[]) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PopulationSnapshot in.txt out.pop");
+            System.exit(1);
+        }
+        PopulationSnapshot snapshot = readText(new File(args[0]));
+        snapshot.write(new File(args[1]));
+        System.out.println("Converted " + snapshot.getPopulationSize() + " creatures");
+    }
+}
@@ -0,0 +1,94 @@
+package net.phys2d.raw;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.phys2d.raw.shapes.Box;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArbiterListTest {
+
+    @Test
+    public void testLookupInEitherOrder() {
+        Body a = body();
+        Body b = body();
+        Body c = body();
+        ArbiterList list = new ArbiterList();
+        Arbiter ab = new Arbiter(a, b);
+        list.add(ab);
+
+        assertSame(ab, list.get(a, b));
+        assertSame(ab, list.get(b, a));
+        assertNull(list.get(a, c));
+        assertTrue(list.contains(new Arbiter(b, a)));
+        assertEquals(0, list.indexOf(new Arbiter(b, a)));
+        assertEquals(-1, list.indexOf(new Arbiter(a, c)));
+    }
+
+    @Test
+    public void testSwapRemove() {
+        Body[] bodies = {body(), body(), body(), body()};
+        ArbiterList list = new ArbiterList();
+        Arbiter first = new Arbiter(bodies[0], bodies[1]);
+        Arbiter second = new Arbiter(bodies[1], bodies[2]);
+        Arbiter third = new Arbiter(bodies[2], bodies[3]);
+        list.add(first);
+        list.add(second);
+        list.add(third);
+
+        assertSame(first, list.remove(bodies[1], bodies[0]));
+        assertNull(list.remove(bodies[1], bodies[0]));
+        assertEquals(2, list.size());
+        assertSame(third, list.get(0));
+        assertSame(second, list.get(1));
+        assertEquals(0, list.indexOf(third));
+        assertSame(third, list.get(bodies[3], bodies[2]));
+    }
+
+    @Test
+    public void testSameAsLinearList() {
+        Random r = new Random(42);
+        Body[] bodies = new Body[40];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = body();
+        }
+        ArbiterList list = new ArbiterList();
+        List<Arbiter> expected = new ArrayList<Arbiter>();
+        for (int t = 0; t < 20000; t++) {
+            Body b1 = bodies[r.nextInt(bodies.length)];
+            Body b2 = bodies[r.nextInt(bodies.length)];
+            if (b1 == b2) {
+                continue;
+            }
+            Arbiter arbiter = new Arbiter(b1, b2);
+            int index = expected.indexOf(arbiter);
+            if (r.nextBoolean()) {
+                if (index < 0) {
+                    list.add(arbiter);
+                    expected.add(arbiter);
+                }
+            } else if (index >= 0) {
+                list.remove(arbiter);
+                expected.set(index, expected.get(expected.size() - 1));
+                expected.remove(expected.size() - 1);
+            }
+            assertEquals(expected.indexOf(arbiter), list.indexOf(arbiter));
+        }
+        assertEquals(expected.size(), list.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), list.get(i));
+            assertEquals(i, list.indexOf(expected.get(i)));
+        }
+
+        list.clear();
+        assertEquals(0, list.size());
+        assertNull(list.get(bodies[0], bodies[1]));
+    }
+
+    private Body body() {
+        return new Body(new Box(10f, 10f), 1f);
+    }
+}
@@ -0,0 +1,146 @@
+package net.phys2d.raw;
+
+import java.lang.management.ManagementFactory;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.shapes.Box;
+import net.phys2d.raw.strategies.BruteCollisionStrategy;
+import net.phys2d.raw.strategies.QuadSpaceStrategy;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArbiterPoolTest {
+
+    @Test
+    public void testSteadyStateCreatesNoArbiters() {
+        World world = restingWorld();
+        int created = world.arbiterPool.getCreated();
+        for (int i = 0; i < 500; i++) {
+            world.step();
+        }
+        assertTrue(world.getArbiters().size() > 0);
+        assertEquals(created, world.arbiterPool.getCreated());
+    }
+
+    @Test
+    public void testSeparatedPairsAreRecycled() {
+        World world = restingWorld();
+        int touching = world.getArbiters().size();
+        assertTrue(touching > 0);
+        int created = world.arbiterPool.getCreated();
+
+        BodyList bodies = world.getBodies();
+        float[] y = new float[bodies.size()];
+        for (int i = 0; i < bodies.size(); i++) {
+            y[i] = bodies.get(i).getPosition().getY();
+            if (bodies.get(i).isMoveable()) {
+                bodies.get(i).setPosition(bodies.get(i).getPosition().getX(), y[i] - 1000);
+            }
+        }
+        world.step();
+        assertEquals(0, world.getArbiters().size());
+        assertTrue(world.arbiterPool.getFree() >= touching);
+
+        for (int i = 0; i < bodies.size(); i++) {
+            if (bodies.get(i).isMoveable()) {
+                bodies.get(i).setPosition(bodies.get(i).getPosition().getX(), y[i]);
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            world.step();
+        }
+        assertTrue(world.getArbiters().size() > 0);
+        assertEquals(created, world.arbiterPool.getCreated());
+    }
+
+    @Test
+    public void testClearFreesArbiters() {
+        World world = restingWorld();
+        int touching = world.getArbiters().size();
+        int free = world.arbiterPool.getFree();
+        world.clear();
+        assertEquals(0, world.getArbiters().size());
+        assertEquals(free + touching, world.arbiterPool.getFree());
+    }
+
+    @Test
+    public void testStepAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads;
+        try {
+            threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        } catch (ClassCastException e) {
+            return; // Allocation can't be measured on this VM
+        }
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        // Boxes and a chain of boxes held by the joints of a worm, in the
+        // broad phase of an Arena
+        World world = new World(new Vector2f(0.0f, 10.0f), 20,
+                                new QuadSpaceStrategy(20, 5));
+        Body ground = new StaticBody("Ground", new Box(1000, 100));
+        ground.setPosition(0, 100);
+        world.add(ground);
+        Body previous = null;
+        for (int i = 0; i < 6; i++) {
+            Body box = new Body("Box", new Box(20, 10), 1);
+            box.setPosition(-100 + 30 * i, 40);
+            world.add(box);
+            if (i > 2) {
+                Vector2f anchor1 = new Vector2f(10, 0);
+                Vector2f anchor2 = new Vector2f(-10, 0);
+                world.add(new DistanceJoint(previous, box, anchor1, anchor2, 10));
+                world.add(new SpringyAngleJoint(previous, box, anchor1, anchor2, 500f, 0f));
+            }
+            previous = box;
+        }
+        for (int i = 0; i < 1000; i++) {
+            world.step();
+        }
+        assertTrue(world.getArbiters().size() > 0);
+
+        long start = threads.getThreadAllocatedBytes(thread);
+        long overhead = threads.getThreadAllocatedBytes(thread) - start;
+        start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 1000; i++) {
+            world.step();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - start - overhead;
+        assertEquals("Allocated bytes", 0, allocated);
+
+        // A recycled arbiter is not garbage either
+        int iterations = 20000;
+        Arbiter arbiter = world.getArbiters().get(0);
+        start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            world.arbiterPool.free(world.arbiterPool.obtain(arbiter.getBody1(),
+                                                            arbiter.getBody2()));
+        }
+        allocated = threads.getThreadAllocatedBytes(thread) - start - overhead;
+        assertEquals("Allocated bytes", 0, allocated);
+    }
+
+    /**
+     * @return A world with boxes that have come to rest on the ground
+     */
+    private World restingWorld() {
+        World world = new World(new Vector2f(0.0f, 10.0f), 20,
+                                new BruteCollisionStrategy());
+        Body ground = new StaticBody("Ground", new Box(1000, 100));
+        ground.setPosition(0, 100);
+        world.add(ground);
+        for (int i = 0; i < 4; i++) {
+            Body box = new Body("Box", new Box(20, 10), 1);
+            box.setPosition(-100 + 50 * i, 40);
+            world.add(box);
+        }
+        for (int i = 0; i < 300; i++) {
+            world.step();
+        }
+        return world;
+    }
+}
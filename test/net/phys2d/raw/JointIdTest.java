@@ -0,0 +1,60 @@
+package net.phys2d.raw;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.shapes.Box;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JointIdTest {
+    private static final int THREADS = 4;
+    private static final int PER_THREAD = 20000;
+
+    @Test
+    public void testUniqueIdsAcrossThreads() throws InterruptedException {
+        final Body b1 = new Body(new Box(10f, 10f), 1f);
+        final Body b2 = new Body(new Box(10f, 10f), 1f);
+        // The ids of the joints made by each thread, per joint class
+        final int[][][] ids = new int[THREADS][4][PER_THREAD];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int[][] own = ids[t];
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        own[0][i] = new BasicJoint(b1, b2, new Vector2f()).hashCode();
+                        own[1][i] = new FixedJoint(b1, b2).hashCode();
+                        own[2][i] = new ElasticJoint(b1, b2).hashCode();
+                        own[3][i] = new SpringJoint(b1, b2, new Vector2f(),
+                                                    new Vector2f()).hashCode();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int type = 0; type < 4; type++) {
+            Set<Integer> unique = new HashSet<Integer>();
+            for (int t = 0; t < THREADS; t++) {
+                for (int id : ids[t][type]) {
+                    unique.add(id);
+                }
+            }
+            assertEquals(THREADS * PER_THREAD, unique.size());
+        }
+    }
+}
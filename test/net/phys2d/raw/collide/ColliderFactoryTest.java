@@ -0,0 +1,80 @@
+package net.phys2d.raw.collide;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.Body;
+import net.phys2d.raw.Contact;
+import net.phys2d.raw.StaticBody;
+import net.phys2d.raw.shapes.AABox;
+import net.phys2d.raw.shapes.Box;
+import net.phys2d.raw.shapes.Circle;
+import net.phys2d.raw.shapes.Line;
+import net.phys2d.raw.shapes.Shape;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColliderFactoryTest {
+
+    @Test
+    public void testCollidersAreShared() throws ColliderUnavailableException {
+        ColliderFactory factory = new ColliderFactory();
+        Body box1 = new Body(new Box(10, 10), 1);
+        Body box2 = new Body(new Box(20, 5), 1);
+        Body circle = new Body(new Circle(5), 1);
+        Body line = new StaticBody(new Line(100, 0));
+
+        Collider boxBox = factory.createCollider(box1, box2);
+        assertTrue(boxBox instanceof BoxBoxCollider);
+        assertSame(boxBox, factory.createCollider(box2, box1));
+        assertSame(factory.createCollider(circle, box1),
+                   factory.createCollider(circle, box2));
+        assertTrue(factory.createCollider(circle, box1) instanceof SwapCollider);
+        assertTrue(factory.createCollider(box1, circle) instanceof BoxCircleCollider);
+        assertTrue(factory.createCollider(line, box1) instanceof LineBoxCollider);
+        assertNotSame(boxBox, new ColliderFactory().createCollider(box1, box2));
+    }
+
+    @Test
+    public void testSwappedNormals() throws ColliderUnavailableException {
+        ColliderFactory factory = new ColliderFactory();
+        Body box = new Body(new Box(10, 10), 1);
+        Body circle = new Body(new Circle(5), 1);
+        box.setPosition(0, 0);
+        circle.setPosition(8, 1);
+
+        Contact[] boxFirst = contacts();
+        Contact[] circleFirst = contacts();
+        int count = factory.createCollider(box, circle).collide(boxFirst, box, circle);
+        assertTrue(count > 0);
+        assertEquals(count, factory.createCollider(circle, box).collide(circleFirst, circle, box));
+        for (int i = 0; i < count; i++) {
+            assertEquals(-boxFirst[i].getNormal().getX(), circleFirst[i].getNormal().getX(), 0f);
+            assertEquals(-boxFirst[i].getNormal().getY(), circleFirst[i].getNormal().getY(), 0f);
+        }
+    }
+
+    @Test(expected=ColliderUnavailableException.class)
+    public void testUnknownShape() throws ColliderUnavailableException {
+        Body box = new Body(new Box(10, 10), 1);
+        Body other = new StaticBody(new UnknownShape());
+        new ColliderFactory().createCollider(box, other);
+    }
+
+    private Contact[] contacts() {
+        Contact[] contacts = new Contact[10];
+        for (int i = 0; i < contacts.length; i++) {
+            contacts[i] = new Contact();
+        }
+        return contacts;
+    }
+
+    private static class UnknownShape implements Shape {
+        public AABox getBounds() {
+            return new AABox(1, 1);
+        }
+
+        public float getSurfaceFactor() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package net.phys2d.raw.strategies;
+
+import java.util.Random;
+
+import net.phys2d.math.Vector2f;
+import net.phys2d.raw.Body;
+import net.phys2d.raw.BodyList;
+import net.phys2d.raw.StaticBody;
+import net.phys2d.raw.World;
+import net.phys2d.raw.shapes.Box;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DynamicTreeStrategyTest {
+
+    @Test
+    public void testReportsEveryTouchingPairOnce() {
+        Random r = new Random(42);
+        DynamicTreeStrategy strategy = new DynamicTreeStrategy(2.0f);
+        BodyList bodies = new BodyList();
+        for (int i = 0; i < 60; i++) {
+            bodies.add(randomBody(r));
+        }
+
+        for (int t = 0; t < 300; t++) {
+            for (int i = 0; i < bodies.size(); i++) {
+                Body body = bodies.get(i);
+                body.setPosition(body.getPosition().getX() + r.nextFloat() * 6 - 3,
+                                 body.getPosition().getY() + r.nextFloat() * 6 - 3);
+            }
+            if (r.nextInt(10) == 0) {
+                bodies.remove(bodies.get(r.nextInt(bodies.size())));
+                bodies.add(randomBody(r));
+            }
+
+            PairRecorder recorder = new PairRecorder();
+            strategy.collideBodies(recorder, bodies, 1 / 60.0f);
+            recorder.assertTouchingReported(bodies);
+        }
+        assertTrue(strategy.getHeight() < 20);
+    }
+
+    @Test
+    public void testOnlyEscapedBodiesAreMoved() {
+        DynamicTreeStrategy strategy = new DynamicTreeStrategy(5.0f);
+        BodyList bodies = new BodyList();
+        for (int i = 0; i < 10; i++) {
+            Body body = new Body(new Box(10, 10), 1);
+            body.setPosition(20 * i, 0);
+            bodies.add(body);
+        }
+        strategy.collideBodies(new PairRecorder(), bodies, 1 / 60.0f);
+        assertEquals(10, strategy.getMoved());
+
+        strategy.collideBodies(new PairRecorder(), bodies, 1 / 60.0f);
+        assertEquals(0, strategy.getMoved());
+
+        bodies.get(3).setPosition(63, 4);
+        strategy.collideBodies(new PairRecorder(), bodies, 1 / 60.0f);
+        assertEquals(0, strategy.getMoved());
+
+        bodies.get(3).setPosition(70, 0);
+        strategy.collideBodies(new PairRecorder(), bodies, 1 / 60.0f);
+        assertEquals(1, strategy.getMoved());
+    }
+
+    @Test
+    public void testSeparatedPairIsReportedOnceMore() {
+        DynamicTreeStrategy strategy = new DynamicTreeStrategy(1.0f);
+        BodyList bodies = new BodyList();
+        Body a = new Body(new Box(10, 10), 1);
+        Body b = new Body(new Box(10, 10), 1);
+        a.setPosition(0, 0);
+        b.setPosition(9, 0);
+        bodies.add(a);
+        bodies.add(b);
+
+        PairRecorder recorder = new PairRecorder();
+        strategy.collideBodies(recorder, bodies, 1 / 60.0f);
+        assertEquals(1, recorder.count);
+        assertEquals(1, strategy.getPairCount());
+
+        b.setPosition(100, 0);
+        recorder = new PairRecorder();
+        strategy.collideBodies(recorder, bodies, 1 / 60.0f);
+        assertEquals(1, recorder.count);
+        assertEquals(0, strategy.getPairCount());
+
+        recorder = new PairRecorder();
+        strategy.collideBodies(recorder, bodies, 1 / 60.0f);
+        assertEquals(0, recorder.count);
+    }
+
+    @Test
+    public void testWorldDropsSeparatedArbiters() {
+        World world = new World(new Vector2f(0.0f, 10.0f), 20, new DynamicTreeStrategy());
+        Body ground = new StaticBody("Ground", new Box(1000, 100));
+        ground.setPosition(0, 100);
+        world.add(ground);
+        Body[] boxes = new Body[4];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new Body("Box", new Box(20, 10), 1);
+            boxes[i].setPosition(-100 + 50 * i, 40);
+            world.add(boxes[i]);
+        }
+        for (int i = 0; i < 300; i++) {
+            world.step();
+        }
+        assertTrue(world.getArbiters().size() >= boxes.length);
+        for (int i = 0; i < boxes.length; i++) {
+            assertTrue(boxes[i].getPosition().getY() < 50.1f);
+        }
+
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i].setPosition(boxes[i].getPosition().getX(), -1000);
+        }
+        world.step();
+        assertEquals(0, world.getArbiters().size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeMargin() {
+        new DynamicTreeStrategy(-1.0f);
+    }
+
+    @Test
+    public void testBlownUpBodyLeavesOthersAlone() {
+        DynamicTreeStrategy strategy = new DynamicTreeStrategy();
+        BodyList bodies = new BodyList();
+        Body ground = new StaticBody(new Box(1000, 10));
+        ground.setPosition(0, 0);
+        bodies.add(ground);
+        for (int i = 0; i < 10; i++) {
+            Body body = new Body(new Box(10, 10), 1);
+            body.setPosition(-450 + 100 * i, -9);
+            bodies.add(body);
+        }
+
+        for (int t = 0; t < 3; t++) {
+            bodies.get(5).setPosition(Float.NaN, Float.POSITIVE_INFINITY);
+            PairRecorder recorder = new PairRecorder();
+            strategy.collideBodies(recorder, bodies, 1 / 60.0f);
+            recorder.assertTouchingReported(bodies);
+            assertTrue(recorder.count >= 9);
+        }
+    }
+
+    private Body randomBody(Random r) {
+        Body body = new Body(new Box(2 + r.nextFloat() * 20, 2 + r.nextFloat() * 20), 1);
+        body.setPosition(r.nextFloat() * 200, r.nextFloat() * 200);
+        return body;
+    }
+}
@@ -0,0 +1,51 @@
+package net.phys2d.raw.strategies;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.phys2d.raw.Body;
+import net.phys2d.raw.BodyList;
+import net.phys2d.raw.CollisionContext;
+import net.phys2d.raw.shapes.AABox;
+
+import static org.junit.Assert.*;
+
+/**
+ * Records the pairs reported by a strategy, failing on any reported twice
+ */
+class PairRecorder implements CollisionContext {
+    Set<String> pairs = new HashSet<String>();
+    int count;
+
+    public void resolve(BodyList bodies, float dt) {
+        fail("Bodies not reported in pairs");
+    }
+
+    public void resolve(Body bodyA, Body bodyB, float dt) {
+        assertNotSame(bodyA, bodyB);
+        assertTrue("Reported twice", pairs.add(key(bodyA, bodyB)));
+        count++;
+    }
+
+    /**
+     * Fails unless every pair of bodies whose bounds touch was reported
+     */
+    void assertTouchingReported(BodyList bodies) {
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                Body a = bodies.get(i);
+                Body b = bodies.get(j);
+                AABox bounds = a.getShape().getBounds();
+                if (bounds.touches(a.getPosition().getX(), a.getPosition().getY(),
+                                   b.getShape().getBounds(),
+                                   b.getPosition().getX(), b.getPosition().getY())) {
+                    assertTrue(pairs.contains(key(a, b)));
+                }
+            }
+        }
+    }
+
+    private static String key(Body a, Body b) {
+        return Math.min(a.getID(), b.getID()) + "," + Math.max(a.getID(), b.getID());
+    }
+}
@@ -0,0 +1,85 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+import static org.junit.Assert.*;
+
+public class CompactPopulationStoreTest {
+
+    @Test
+    public void testRoundTrip() {
+        List<Creature> population =
+            new GeneticAlgoritm(0.7, 0.01, new SplitRandom(42)).createPopulation(6);
+        for (int i = 0; i < population.size(); i++) {
+            population.get(i).setFitness(i * 1.5);
+        }
+
+        for (Precision precision : Precision.values()) {
+            CompactPopulationStore store = CompactPopulationStore.of(population, precision);
+            assertEquals(6, store.size());
+            PopulationStore wide = store.toPopulationStore();
+            List<Creature> creatures = store.toCreatures(WormConfig.DEFAULT);
+            for (int i = 0; i < store.size(); i++) {
+                double[] rounded = precision.round(population.get(i).getGenotype());
+                assertTrue(precision.toString(), Arrays.equals(rounded, store.getGenotype(i)));
+                assertTrue(Arrays.equals(rounded, wide.getGenotype(i)));
+                assertTrue(Arrays.equals(rounded, creatures.get(i).getGenotype()));
+                assertEquals(i * 1.5, store.getFitness(i), 0.0);
+                assertEquals(i * 1.5, creatures.get(i).getFitness(), 0.0);
+            }
+
+            // Storing a rounded genotype again changes nothing
+            CompactPopulationStore again = CompactPopulationStore.of(wide, precision);
+            for (int i = 0; i < store.size(); i++) {
+                assertTrue(Arrays.equals(store.getGenotype(i), again.getGenotype(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundMatchesBrains() {
+        List<Creature> population =
+            new GeneticAlgoritm(0.7, 0.01, new SplitRandom(7)).createPopulation(5);
+        for (Precision precision : Precision.values()) {
+            WormConfig config = WormConfig.DEFAULT.withPrecision(precision);
+            PopulationStore store = PopulationStore.of(population);
+            new CompactPopulationStore(6, store.getGenotypeSize(), precision).round(store);
+            List<Creature> creatures = store.toCreatures(config);
+            for (int i = 0; i < store.size(); i++) {
+                double[] brain =
+                    new WormCreature(population.get(i).getGenotype(), config).getGenotype();
+                assertTrue(precision.toString(), Arrays.equals(brain, store.getGenotype(i)));
+                assertTrue(Arrays.equals(brain, creatures.get(i).getGenotype()));
+            }
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRoundTooLargePopulation() {
+        List<Creature> population =
+            new GeneticAlgoritm(0.7, 0.01, new SplitRandom(7)).createPopulation(5);
+        new CompactPopulationStore(4, 25, Precision.INT8).round(PopulationStore.of(population));
+    }
+
+    @Test
+    public void testGeneBytes() {
+        assertEquals(10 * 25 * 8, new CompactPopulationStore(10, 25, Precision.DOUBLE).getGeneBytes());
+        assertEquals(10 * 25 * 4, new CompactPopulationStore(10, 25, Precision.FLOAT).getGeneBytes());
+        assertEquals(10 * 25 + 10 * 8,
+                     new CompactPopulationStore(10, 25, Precision.INT8).getGeneBytes());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWrongGenotypeLength() {
+        new CompactPopulationStore(2, 25, Precision.INT16).setGenotype(0, new double[16]);
+    }
+}
@@ -0,0 +1,87 @@
+package se.umu.cs.geneticReanimation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+import static org.junit.Assert.*;
+
+public class PopulationStoreTest {
+
+    @Test
+    public void testSameAsCreatureList() {
+        List<Creature> population = createPopulation(20);
+
+        GeneticAlgoritm listGa = new GeneticAlgoritm(0.7, 0.1, new SplitRandom(3));
+        List<Creature> listChildren = listGa.createNextGeneration(population);
+
+        GeneticAlgoritm storeGa = new GeneticAlgoritm(0.7, 0.1, new SplitRandom(3));
+        PopulationStore parents = PopulationStore.of(population);
+        PopulationStore children = new PopulationStore(21, parents.getGenotypeSize());
+        storeGa.createNextGeneration(parents, children);
+
+        assertEquals(listChildren.size(), children.size());
+        for (int i = 0; i < children.size(); i++) {
+            assertTrue(Arrays.equals(listChildren.get(i).getGenotype(),
+                                     children.getGenotype(i)));
+        }
+    }
+
+    @Test
+    public void testBreedingAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads;
+        try {
+            threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        } catch (ClassCastException e) {
+            return; // Allocation can't be measured on this VM
+        }
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        GeneticAlgoritm ga = new GeneticAlgoritm(0.7, 0.1, new SplitRandom(3));
+        PopulationStore parents = PopulationStore.of(createPopulation(1000));
+        PopulationStore children = new PopulationStore(1001, parents.getGenotypeSize());
+        // Warm up, so no class loading or compilation is counted
+        for (int i = 0; i < 20; i++) {
+            ga.createNextGeneration(parents, children);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10; i++) {
+            ga.createNextGeneration(parents, children);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // Far less than one genotype per child
+        assertTrue("Allocated " + allocated + " bytes", allocated < 1000);
+    }
+
+    @Test
+    public void testGrowKeepsRows() {
+        PopulationStore store = new PopulationStore(1, 4);
+        store.setSize(1);
+        store.setGenotype(0, new double[] { 1, 2, 3, 4 });
+        store.setFitness(0, 5);
+        store.setSize(3);
+        assertEquals(3, store.getCapacity());
+        assertTrue(Arrays.equals(new double[] { 1, 2, 3, 4 }, store.getGenotype(0)));
+        assertEquals(5, store.getFitness(0), 0.0);
+    }
+
+    private List<Creature> createPopulation(int size) {
+        GeneticAlgoritm ga = new GeneticAlgoritm(0.7, 0.1, new SplitRandom(1));
+        List<Creature> population = ga.createPopulation(size);
+        SplitRandom random = new SplitRandom(2);
+        for (Creature creature : population) {
+            creature.setFitness(random.nextDouble() * 100);
+        }
+        return population;
+    }
+}
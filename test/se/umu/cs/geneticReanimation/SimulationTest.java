@@ -0,0 +1,135 @@
+package se.umu.cs.geneticReanimation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+import se.umu.cs.geneticReanimation.snapshot.Checkpoint;
+
+import static org.junit.Assert.*;
+
+public class SimulationTest {
+    private int generations;
+    private int populationSize;
+    private int lifespan;
+    private long seed;
+    private int cacheSize;
+    private int checkpointInterval;
+    private boolean savePopulation;
+    private String moviePath;
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        this.generations = Parameters.NROFGENERATIONS;
+        this.populationSize = Parameters.POPULATIONSIZE;
+        this.lifespan = Parameters.LIFESPAN;
+        this.seed = Parameters.SEED;
+        this.cacheSize = Parameters.CACHESIZE;
+        this.checkpointInterval = Parameters.CHECKPOINTINTERVAL;
+        this.savePopulation = Parameters.SAVE_POP_TO_FILE;
+        this.moviePath = Parameters.MOVIEPATH;
+
+        this.directory = File.createTempFile("simulation", "");
+        directory.delete();
+        directory.mkdir();
+        Parameters.POPULATIONSIZE = 10;
+        Parameters.LIFESPAN = 400;
+        Parameters.SEED = 123;
+        Parameters.CACHESIZE = 0;
+        Parameters.SAVE_POP_TO_FILE = false;
+        Parameters.MOVIEPATH = directory.getPath() + File.separator;
+    }
+
+    @After
+    public void tearDown() {
+        Parameters.NROFGENERATIONS = generations;
+        Parameters.POPULATIONSIZE = populationSize;
+        Parameters.LIFESPAN = lifespan;
+        Parameters.SEED = seed;
+        Parameters.CACHESIZE = cacheSize;
+        Parameters.CHECKPOINTINTERVAL = checkpointInterval;
+        Parameters.SAVE_POP_TO_FILE = savePopulation;
+        Parameters.MOVIEPATH = moviePath;
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testResumeMatchesUninterruptedRun() throws IOException {
+        Parameters.NROFGENERATIONS = 6;
+        Parameters.CHECKPOINTINTERVAL = 0;
+        List<PopulationStore> straight = run(new Simulation(null));
+        assertEquals(6, straight.size());
+
+        Parameters.NROFGENERATIONS = 3;
+        Parameters.CHECKPOINTINTERVAL = 3;
+        run(new Simulation(null));
+
+        Parameters.NROFGENERATIONS = 6;
+        Parameters.CHECKPOINTINTERVAL = 0;
+        Checkpoint checkpoint = Checkpoint.read(new File(directory, "checkpoint.bin"));
+        List<PopulationStore> resumed = run(new Simulation(null, checkpoint));
+        assertEquals(3, resumed.size());
+
+        for (int generation = 3; generation < 6; generation++) {
+            PopulationStore expected = straight.get(generation);
+            PopulationStore actual = resumed.get(generation - 3);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                String row = "Generation " + generation + " row " + i;
+                assertTrue(row, Arrays.equals(expected.getGenotype(i), actual.getGenotype(i)));
+                assertEquals(row, expected.getFitness(i), actual.getFitness(i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testReplacedCreatureIsBred() {
+        Parameters.NROFGENERATIONS = 3;
+        Parameters.CHECKPOINTINTERVAL = 0;
+        final Creature immigrant = new GeneticAlgoritm(0.7, 0.01, new SplitRandom(99))
+            .createPopulation(1).get(0);
+        immigrant.setFitness(1e9);
+
+        Simulation simulation = new Simulation(null);
+        simulation.addGenerationListener(new GenerationListener() {
+                public void generationDone(int generation, List<Creature> population) {
+                    if (generation == 1) {
+                        population.set(population.size() - 1, immigrant);
+                    }
+                }
+            });
+        List<PopulationStore> populations = run(simulation);
+
+        // Replaced after the first breeding, when the run already keeps its
+        // stores. The immigrant is the best of generation 1, so it is the
+        // elite of generation 2.
+        assertTrue(Arrays.equals(immigrant.getGenotype(), populations.get(2).getGenotype(0)));
+    }
+
+    /**
+     * @return A copy of every generation the simulation evaluated
+     */
+    private List<PopulationStore> run(Simulation simulation) {
+        final List<PopulationStore> populations = new ArrayList<PopulationStore>();
+        simulation.addGenerationListener(new GenerationListener() {
+                public void generationDone(int generation, List<Creature> population) {
+                    populations.add(PopulationStore.of(population));
+                }
+            });
+        simulation.run();
+        return populations;
+    }
+}
@@ -0,0 +1,94 @@
+package se.umu.cs.geneticReanimation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.evaluation.EvaluationStats;
+import se.umu.cs.geneticReanimation.evaluation.StopRule;
+
+import static org.junit.Assert.*;
+
+public class SteadyStateGeneticAlgoritmTest {
+    private static final int LIFESPAN = 200;
+
+    @Test
+    public void testBudgetAndElitism() {
+        GeneticAlgoritm ga = new GeneticAlgoritm(0.7, 0.05);
+        List<Creature> population = ga.createPopulation(6);
+        Arena arena = new Arena(LIFESPAN);
+        double best = Double.NEGATIVE_INFINITY;
+        for (Creature creature : population) {
+            creature.setFitness(arena.evaluate(creature));
+            best = Math.max(best, creature.getFitness());
+        }
+
+        EvaluationStats stats = new EvaluationStats();
+        SteadyStateGeneticAlgoritm steadyState =
+            new SteadyStateGeneticAlgoritm(ga, 3, LIFESPAN,
+                                           Collections.<StopRule>emptyList(),
+                                           stats, null);
+        final List<Double> bests = new ArrayList<Double>();
+        steadyState.run(population, 3, new GenerationListener() {
+                public void generationDone(int generation, List<Creature> population) {
+                    assertEquals(bests.size(), generation);
+                    double best = Double.NEGATIVE_INFINITY;
+                    for (Creature creature : population) {
+                        best = Math.max(best, creature.getFitness());
+                    }
+                    bests.add(best);
+                }
+            });
+
+        assertEquals(18, stats.getEvaluations());
+        assertEquals(3, bests.size());
+        assertEquals(6, population.size());
+        for (double generationBest : bests) {
+            assertTrue(generationBest >= best);
+            best = generationBest;
+        }
+    }
+
+    @Test
+    public void testListenerReplacementsKept() {
+        GeneticAlgoritm ga = new GeneticAlgoritm(0.7, 0.05);
+        List<Creature> population = ga.createPopulation(6);
+        Arena arena = new Arena(LIFESPAN);
+        for (Creature creature : population) {
+            creature.setFitness(arena.evaluate(creature));
+        }
+
+        final Creature immigrant = ga.createPopulation(1).get(0);
+        immigrant.setFitness(1e9);
+        SteadyStateGeneticAlgoritm steadyState =
+            new SteadyStateGeneticAlgoritm(ga, 3, LIFESPAN,
+                                           Collections.<StopRule>emptyList(),
+                                           new EvaluationStats(), null);
+        final List<Boolean> present = new ArrayList<Boolean>();
+        steadyState.run(population, 3, new GenerationListener() {
+                public void generationDone(int generation, List<Creature> population) {
+                    present.add(population.contains(immigrant));
+                    if (generation == 0) {
+                        population.set(2, immigrant);
+                    }
+                }
+            });
+
+        assertEquals(3, present.size());
+        assertFalse(present.get(0));
+        assertTrue(present.get(1));
+        assertTrue(present.get(2));
+        assertTrue(population.contains(immigrant));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoWorkers() {
+        new SteadyStateGeneticAlgoritm(new GeneticAlgoritm(0.7, 0.01), 0, LIFESPAN,
+                                       Collections.<StopRule>emptyList(),
+                                       new EvaluationStats(), null);
+    }
+}
@@ -0,0 +1,117 @@
+package se.umu.cs.geneticReanimation.creature;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.evaluation.Arena;
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+import se.umu.cs.geneticReanimation.neuralnet.Brain;
+import se.umu.cs.geneticReanimation.neuralnet.BrainCompiler;
+import se.umu.cs.geneticReanimation.neuralnet.CompiledBrain;
+import se.umu.cs.geneticReanimation.neuralnet.FlatHopfieldNeuralNet;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+import se.umu.cs.geneticReanimation.neuralnet.QuantizedHopfieldNeuralNet;
+
+import static org.junit.Assert.*;
+
+public class WormCreatureTest {
+    private static final int LIFESPAN = 400;
+
+    @Test
+    public void testBrainRunsEveryInterval() {
+        WormConfig config = WormConfig.DEFAULT.withControl(3, ControlMode.INTERPOLATE);
+        CountingBrain brain = new CountingBrain(randomGenotype(1));
+        WormCreature worm = new WormCreature(brain.getGenotype(), brain, config);
+        assertEquals(3, worm.getInterval());
+        assertEquals(ControlMode.INTERPOLATE, worm.getMode());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 3 == 0, worm.isControlStep());
+            worm.act();
+        }
+        // Acts 0, 3, 6 and 9 run the brain
+        assertEquals(4 * WormCreature.BRAIN_STEPS_PER_ACT, brain.steps);
+        assertEquals(4, brain.inputs);
+    }
+
+    @Test
+    public void testIntervalOfOneIsDefault() {
+        double[] genotype = randomGenotype(2);
+        Arena arena = new Arena(LIFESPAN);
+        double expected = arena.evaluate(new WormCreature(genotype));
+        WormConfig config = WormConfig.DEFAULT.withControl(1, ControlMode.INTERPOLATE);
+        assertEquals(expected, arena.evaluate(new WormCreature(genotype, config)), 0.0);
+    }
+
+    @Test
+    public void testModesDiffer() {
+        double[] genotype = randomGenotype(3);
+        Arena arena = new Arena(LIFESPAN);
+        WormConfig holdConfig = WormConfig.DEFAULT.withControl(4, ControlMode.HOLD);
+        double hold = arena.evaluate(new WormCreature(genotype, holdConfig));
+        WormConfig interpolateConfig = holdConfig.withControl(4, ControlMode.INTERPOLATE);
+        double interpolate = arena.evaluate(new WormCreature(genotype, interpolateConfig));
+        assertTrue(hold != interpolate);
+        // Changing a config makes a copy, the worm keeps its own
+        assertEquals(ControlMode.HOLD, holdConfig.getControlMode());
+        WormCreature held = new WormCreature(genotype, holdConfig);
+        held.setGenotype(genotype);
+        assertEquals(hold, arena.evaluate(held), 0.0);
+    }
+
+    @Test
+    public void testCompilerOnlyForDouble() {
+        double[] genotype = randomGenotype(4);
+        WormConfig config = WormConfig.DEFAULT
+            .withCompiler(new BrainCompiler(Activation.POW, 0.0));
+        assertTrue(config.createBrain(genotype) instanceof CompiledBrain);
+        assertTrue(config.withPrecision(Precision.INT8).createBrain(genotype)
+                   instanceof QuantizedHopfieldNeuralNet);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIntervalTooSmall() {
+        WormConfig.DEFAULT.withControl(0, ControlMode.HOLD);
+    }
+
+    private double[] randomGenotype(long seed) {
+        Random r = new Random(seed);
+        double[] genotype = new double[25];
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+        return genotype;
+    }
+
+    private static class CountingBrain implements Brain {
+        private final FlatHopfieldNeuralNet net;
+        int steps;
+        int inputs;
+
+        CountingBrain(double[] genotype) {
+            this.net = new FlatHopfieldNeuralNet(genotype);
+        }
+
+        public double[] getGenotype() {
+            return net.getGenotype();
+        }
+
+        public void setGenotype(double[] genotype) {
+            net.setGenotype(genotype);
+        }
+
+        public void setInputs(double[] inputs) {
+            this.inputs++;
+            net.setInputs(inputs);
+        }
+
+        public double[] getOutputs() {
+            return net.getOutputs();
+        }
+
+        public void step() {
+            steps++;
+            net.step();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.ControlMode;
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.BatchedHopfieldNet;
+import se.umu.cs.geneticReanimation.neuralnet.Brain;
+import se.umu.cs.geneticReanimation.neuralnet.HopfieldNeuralNet;
+
+import static org.junit.Assert.*;
+
+public class BatchEvaluatorTest {
+    private static final int LIFESPAN = 400;
+    private List<double[]> genotypes;
+
+    @Before
+    public void setUp() {
+        Random r = new Random(42);
+        this.genotypes = new ArrayList<double[]>();
+        for (int i = 0; i < 11; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            genotypes.add(genotype);
+        }
+    }
+
+    @Test
+    public void testSameFitnessAsSequential() {
+        Arena arena = new Arena(LIFESPAN);
+        List<Creature> sequential = createPopulation();
+        for (Creature creature : sequential) {
+            creature.setFitness(arena.evaluate(creature));
+        }
+
+        // 11 creatures in batches of 4 leaves a partial last batch
+        BatchEvaluator evaluator = new BatchEvaluator(4, 2, LIFESPAN);
+        List<Creature> batched = createPopulation();
+        evaluator.evaluate(batched);
+        evaluator.shutdown();
+
+        for (int i = 0, length = sequential.size(); i < length; i++) {
+            assertEquals(sequential.get(i).getFitness(),
+                         batched.get(i).getFitness(), 0.0);
+        }
+    }
+
+    @Test
+    public void testSameFitnessWithControlInterval() {
+        WormConfig config = WormConfig.DEFAULT.withControl(3, ControlMode.INTERPOLATE);
+        Arena arena = new Arena(LIFESPAN);
+        List<Creature> sequential = createPopulation(config);
+        for (Creature creature : sequential) {
+            creature.setFitness(arena.evaluate(creature));
+        }
+
+        BatchEvaluator evaluator = new BatchEvaluator(4, 1, LIFESPAN);
+        List<Creature> batched = createPopulation(config);
+        evaluator.evaluate(batched);
+        evaluator.shutdown();
+
+        for (int i = 0, length = sequential.size(); i < length; i++) {
+            assertEquals(sequential.get(i).getFitness(),
+                         batched.get(i).getFitness(), 0.0);
+        }
+    }
+
+    @Test
+    public void testMembersMatchHopfieldNeuralNet() {
+        BatchedHopfieldNet net = new BatchedHopfieldNet(3, 5);
+        HopfieldNeuralNet[] nets = new HopfieldNeuralNet[3];
+        for (int b = 0; b < 3; b++) {
+            net.getMember(b).setGenotype(genotypes.get(b));
+            nets[b] = new HopfieldNeuralNet(genotypes.get(b));
+        }
+
+        Random r = new Random(7);
+        for (int t = 0; t < 20; t++) {
+            for (int b = 0; b < 3; b++) {
+                double[] inputs = new double[4];
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = r.nextDouble() * 20 - 10;
+                }
+                net.getMember(b).setInputs(inputs);
+                nets[b].setInputs(inputs);
+                nets[b].step();
+            }
+            // Every other step the members are stepped one at a time
+            if (t % 2 == 0) {
+                net.step();
+            } else {
+                for (int b = 0; b < 3; b++) {
+                    net.getMember(b).step();
+                }
+            }
+            for (int b = 0; b < 3; b++) {
+                assertTrue(Arrays.equals(nets[b].getOutputs(),
+                                         net.getMember(b).getOutputs()));
+            }
+        }
+        assertTrue(Arrays.equals(genotypes.get(1), net.getMember(1).getGenotype()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWrongGenotypeLength() {
+        Brain member = new BatchedHopfieldNet(2, 5).getMember(0);
+        member.setGenotype(new double[16]);
+    }
+
+    private List<Creature> createPopulation() {
+        return createPopulation(WormConfig.DEFAULT);
+    }
+
+    private List<Creature> createPopulation(WormConfig config) {
+        List<Creature> population = new ArrayList<Creature>();
+        for (double[] genotype : genotypes) {
+            population.add(new WormCreature(genotype, config));
+        }
+        return population;
+    }
+}
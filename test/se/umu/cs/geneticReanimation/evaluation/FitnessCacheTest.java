@@ -0,0 +1,132 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+import static org.junit.Assert.*;
+
+public class FitnessCacheTest {
+    private FitnessCache cache;
+
+    @Before
+    public void setUp() {
+        this.cache = new FitnessCache(2);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        assertNull(cache.get(new double[] {1.0, 2.0}));
+        cache.put(new double[] {1.0, 2.0}, 3.0);
+        assertEquals(3.0, cache.get(new double[] {1.0, 2.0}), 0.0);
+        assertNull(cache.get(new double[] {1.0, -2.0}));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testExactBytes() {
+        cache.put(new double[] {0.0}, 1.0);
+        assertNull(cache.get(new double[] {-0.0}));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        cache.put(new double[] {1.0}, 1.0);
+        cache.put(new double[] {2.0}, 2.0);
+        cache.get(new double[] {1.0});
+        cache.put(new double[] {3.0}, 3.0);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(new double[] {1.0}));
+        assertNull(cache.get(new double[] {2.0}));
+        assertNotNull(cache.get(new double[] {3.0}));
+    }
+
+    @Test
+    public void testClonesSimulatedOnce() {
+        final List<Creature> simulated = new ArrayList<Creature>();
+        Evaluator counting = new Evaluator() {
+                public void evaluate(List<Creature> population) {
+                    for (Creature creature : population) {
+                        simulated.add(creature);
+                        creature.setFitness(creature.getGenotype()[0]);
+                    }
+                }
+
+                public boolean isComplete(int index) {
+                    return true;
+                }
+
+                public void shutdown() {
+                }
+            };
+        CachingEvaluator evaluator = new CachingEvaluator(counting, new FitnessCache(10));
+
+        List<Creature> population = new ArrayList<Creature>();
+        population.add(new WormCreature(genotype(0.5)));
+        population.add(new WormCreature(genotype(0.5)));
+        population.add(new WormCreature(genotype(0.25)));
+        evaluator.evaluate(population);
+        assertEquals(2, simulated.size());
+        assertEquals(0.5, population.get(1).getFitness(), 0.0);
+
+        population = new ArrayList<Creature>();
+        population.add(new WormCreature(genotype(0.25)));
+        evaluator.evaluate(population);
+        assertEquals(2, simulated.size());
+        assertEquals(0.25, population.get(0).getFitness(), 0.0);
+        assertEquals(2, evaluator.getCache().getHits());
+        assertEquals(2, evaluator.getCache().getMisses());
+    }
+
+    @Test
+    public void testStoppedEvaluationsNotCached() {
+        final List<Creature> simulated = new ArrayList<Creature>();
+        Evaluator stopping = new Evaluator() {
+                private List<Creature> last;
+
+                public void evaluate(List<Creature> population) {
+                    for (Creature creature : population) {
+                        simulated.add(creature);
+                        creature.setFitness(creature.getGenotype()[0]);
+                    }
+                    last = population;
+                }
+
+                // Genotypes starting below 0 are stopped early
+                public boolean isComplete(int index) {
+                    return last.get(index).getGenotype()[0] >= 0;
+                }
+
+                public void shutdown() {
+                }
+            };
+        CachingEvaluator evaluator = new CachingEvaluator(stopping, new FitnessCache(10));
+
+        for (int i = 0; i < 2; i++) {
+            List<Creature> population = new ArrayList<Creature>();
+            population.add(new WormCreature(genotype(-0.5)));
+            population.add(new WormCreature(genotype(0.5)));
+            population.add(new WormCreature(genotype(-0.5)));
+            evaluator.evaluate(population);
+            assertEquals(-0.5, population.get(2).getFitness(), 0.0);
+            assertFalse(evaluator.isComplete(0));
+            assertTrue(evaluator.isComplete(1));
+            assertFalse(evaluator.isComplete(2));
+        }
+        assertEquals(3, simulated.size());
+        assertEquals(1, evaluator.getCache().size());
+    }
+
+    private double[] genotype(double value) {
+        double[] genotype = new double[25];
+        genotype[0] = value;
+        return genotype;
+    }
+}
@@ -0,0 +1,84 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.ControlMode;
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.neuralnet.Precision;
+
+import static org.junit.Assert.*;
+
+public class FitnessDriftTest {
+    private static final int LIFESPAN = 400;
+
+    @Test
+    public void testDrift() {
+        Random r = new Random(42);
+        List<Creature> population = new ArrayList<Creature>();
+        for (int i = 0; i < 4; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            Creature creature = new WormCreature(genotype);
+            creature.setFitness(i);
+            population.add(creature);
+        }
+
+        FitnessDrift none = new FitnessDrift(LIFESPAN, Precision.DOUBLE, WormConfig.DEFAULT);
+        none.measure(population);
+        assertEquals(0.0, none.getMaxDrift(), 0.0);
+        assertTrue(none.isSameBest());
+
+        FitnessDrift int8 = new FitnessDrift(LIFESPAN, Precision.INT8, WormConfig.DEFAULT);
+        int8.measure(population);
+        assertTrue(int8.getMeanDrift() <= int8.getMaxDrift());
+        assertFalse(Double.isNaN(int8.getMaxDrift()));
+        // The physics of the last creature blows up with an INT8 brain
+        assertEquals(1, int8.getNanCount());
+
+        // The fitness of the creatures is left alone
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, population.get(i).getFitness(), 0.0);
+        }
+    }
+
+    @Test
+    public void testDriftUsesBrainsOfConfig() {
+        Random r = new Random(7);
+        List<Creature> population = new ArrayList<Creature>();
+        for (int i = 0; i < 3; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            population.add(new WormCreature(genotype));
+        }
+        WormConfig config = WormConfig.DEFAULT.withSettling(8, 0.001)
+            .withControl(2, ControlMode.INTERPOLATE);
+
+        Arena arena = new Arena(LIFESPAN);
+        double sum = 0.0;
+        int count = 0;
+        for (Creature creature : population) {
+            double[] genotype = creature.getGenotype();
+            double fitness = arena.evaluate(new WormCreature(genotype, config));
+            double rounded =
+                arena.evaluate(new WormCreature(genotype, config.withPrecision(Precision.FLOAT)));
+            if (!Double.isNaN(fitness) && !Double.isNaN(rounded)) {
+                sum += Math.abs(rounded - fitness);
+                count++;
+            }
+        }
+
+        FitnessDrift drift = new FitnessDrift(LIFESPAN, Precision.FLOAT, config);
+        drift.measure(population);
+        assertEquals(sum / count, drift.getMeanDrift(), 0.0);
+    }
+}
@@ -0,0 +1,63 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+import static org.junit.Assert.*;
+
+public class ParallelEvaluatorTest {
+    private static final int LIFESPAN = 400;
+    private List<double[]> genotypes;
+
+    @Before
+    public void setUp() {
+        Random r = new Random(42);
+        this.genotypes = new ArrayList<double[]>();
+        for (int i = 0; i < 12; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            genotypes.add(genotype);
+        }
+    }
+
+    @Test
+    public void testSameFitnessAsSequential() {
+        Arena arena = new Arena(LIFESPAN);
+        List<Creature> sequential = createPopulation();
+        for (Creature creature : sequential) {
+            creature.setFitness(arena.evaluate(creature));
+        }
+
+        ParallelEvaluator evaluator = new ParallelEvaluator(4, LIFESPAN);
+        List<Creature> parallel = createPopulation();
+        evaluator.evaluate(parallel);
+        evaluator.shutdown();
+
+        for (int i = 0, length = sequential.size(); i < length; i++) {
+            assertEquals(sequential.get(i).getFitness(),
+                         parallel.get(i).getFitness(), 0.0);
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoWorkers() {
+        new ParallelEvaluator(0, LIFESPAN);
+    }
+
+    private List<Creature> createPopulation() {
+        List<Creature> population = new ArrayList<Creature>();
+        for (double[] genotype : genotypes) {
+            population.add(new WormCreature(genotype));
+        }
+        return population;
+    }
+}
@@ -0,0 +1,61 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.phys2d.raw.World;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+import static org.junit.Assert.*;
+
+public class StopRuleTest {
+
+    @Test
+    public void testNoProgress() {
+        FakeCreature creature = new FakeCreature();
+        StopRule.Check check = new NoProgressRule(100, 1.0).start(creature);
+
+        creature.x = 5;
+        assertFalse(check.shouldStop(creature, 50));
+        creature.x = 5.5;
+        assertFalse(check.shouldStop(creature, 100));
+        assertFalse(check.shouldStop(creature, 149));
+        assertTrue(check.shouldStop(creature, 150));
+    }
+
+    @Test
+    public void testFitnessBound() {
+        FitnessBoundRule rule = new FitnessBoundRule(1000, 0.1, 0.5);
+        FakeCreature creature = new FakeCreature();
+        creature.x = -240;  // Fitness 0
+        assertFalse(rule.start(creature).shouldStop(creature, 900));
+
+        List<Creature> population = new ArrayList<Creature>();
+        for (int i = 0; i < 5; i++) {
+            FakeCreature evaluated = new FakeCreature();
+            evaluated.setFitness(i * 10);
+            population.add(evaluated);
+        }
+        rule.generationEvaluated(population);
+        assertEquals(20, rule.getThreshold(), 0.0);
+
+        StopRule.Check check = rule.start(creature);
+        assertFalse(check.shouldStop(creature, 800));
+        assertTrue(check.shouldStop(creature, 801));
+    }
+
+    private static class FakeCreature implements Creature {
+        double x = -240;
+        double fitness;
+
+        public void connectToWorld(World world) {}
+        public void act() {}
+        public double getFitness() { return fitness; }
+        public void setFitness(double fitness) { this.fitness = fitness; }
+        public double getXPosition() { return x; }
+        public double[] getGenotype() { return new double[0]; }
+        public void setGenotype(double[] genotype) {}
+    }
+}
@@ -0,0 +1,149 @@
+package se.umu.cs.geneticReanimation.evaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.phys2d.raw.World;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+import static org.junit.Assert.*;
+
+public class SuccessiveHalvingEvaluatorTest {
+    private static final int LIFESPAN = 800;
+    private List<double[]> genotypes;
+
+    @Before
+    public void setUp() {
+        Random r = new Random(7);
+        this.genotypes = new ArrayList<double[]>();
+        for (int i = 0; i < 8; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            genotypes.add(genotype);
+        }
+    }
+
+    @Test
+    public void testPromotedSameAsFlat() {
+        Arena arena = new Arena(LIFESPAN);
+        List<Creature> flat = createPopulation();
+        for (Creature creature : flat) {
+            creature.setFitness(arena.evaluate(creature));
+        }
+
+        EvaluationStats stats = new EvaluationStats();
+        SuccessiveHalvingEvaluator evaluator =
+            new SuccessiveHalvingEvaluator(2, LIFESPAN, 3, 0.5,
+                                           Collections.<StopRule>emptyList(), stats);
+        List<Creature> halved = createPopulation();
+        evaluator.evaluate(halved);
+        evaluator.shutdown();
+
+        // 8 creatures for 200 steps, 4 for 400 and 2 for 800
+        assertEquals(8 * 200 + 4 * 200 + 2 * 400, stats.getStepsSimulated());
+        assertEquals(8 * LIFESPAN - stats.getStepsSimulated(), stats.getStepsSaved());
+        assertEquals(6, stats.getStopped());
+
+        int full = 0;
+        for (int i = 0, size = flat.size(); i < size; i++) {
+            if (flat.get(i).getFitness() == halved.get(i).getFitness()) {
+                full++;
+            }
+        }
+        assertTrue(full >= 2);
+    }
+
+    @Test
+    public void testHorizons() {
+        SuccessiveHalvingEvaluator evaluator =
+            new SuccessiveHalvingEvaluator(1, LIFESPAN, 3, 0.5,
+                                           Collections.<StopRule>emptyList(),
+                                           new EvaluationStats());
+        assertEquals(25, evaluator.horizon(0, 100));
+        assertEquals(50, evaluator.horizon(1, 100));
+        assertEquals(100, evaluator.horizon(2, 100));
+        evaluator.shutdown();
+    }
+
+    @Test
+    public void testCulledRankBelowPromoted() {
+        // Two movers that stop after 200 steps and end at 40, a worm that
+        // never moves but starts 30 ahead, and one that moves slowly
+        List<Creature> population = new ArrayList<Creature>();
+        population.add(new ScriptedCreature(0, 0.2, 200));
+        population.add(new ScriptedCreature(30, 0, 0));
+        population.add(new ScriptedCreature(0, 0.2, 200));
+        population.add(new ScriptedCreature(0, 0.1, LIFESPAN));
+
+        SuccessiveHalvingEvaluator evaluator =
+            new SuccessiveHalvingEvaluator(1, LIFESPAN, 3, 0.5,
+                                           Collections.<StopRule>emptyList(),
+                                           new EvaluationStats());
+        evaluator.evaluate(population);
+        evaluator.shutdown();
+
+        assertEquals(40, population.get(0).getFitness(), 1e-9);
+        assertEquals(40, population.get(2).getFitness(), 1e-9);
+        // Culled at the first rung, having moved 0 and 20. Extrapolating 20
+        // would give 80, more than the movers reached in a full run
+        assertEquals(30, population.get(1).getFitness(), 0.0);
+        assertTrue(population.get(3).getFitness() < 40);
+        assertTrue(population.get(3).getFitness() > 39.99);
+    }
+
+    @Test
+    public void testRankByFrames() {
+        double[] fitness = {5, 50, 7, Double.NaN, 60};
+        int[] frames = {100, 25, 100, 25, 50};
+        SuccessiveHalvingEvaluator.rankByFrames(fitness, frames);
+        assertEquals(5, fitness[0], 0.0);
+        assertEquals(7, fitness[2], 0.0);
+        assertEquals(Math.nextAfter(5.0, 0.0), fitness[4], 0.0);
+        assertEquals(Math.nextAfter(fitness[4], 0.0), fitness[1], 0.0);
+        assertTrue(Double.isNaN(fitness[3]));
+    }
+
+    private List<Creature> createPopulation() {
+        List<Creature> population = new ArrayList<Creature>();
+        for (double[] genotype : genotypes) {
+            population.add(new WormCreature(genotype));
+        }
+        return population;
+    }
+
+    /**
+     * Moves at a fixed speed for a number of steps from a start fitness
+     */
+    private static class ScriptedCreature implements Creature {
+        private final double start;
+        private final double speed;
+        private final int moves;
+        private int acts;
+        private double fitness;
+
+        ScriptedCreature(double start, double speed, int moves) {
+            this.start = start;
+            this.speed = speed;
+            this.moves = moves;
+        }
+
+        public void connectToWorld(World world) {}
+        public void act() { acts++; }
+        public double getFitness() { return fitness; }
+        public void setFitness(double fitness) { this.fitness = fitness; }
+        public double getXPosition() {
+            // Arena.fitnessOf is 0 at x -240
+            return -240 + start + speed * Math.min(acts, moves);
+        }
+        public double[] getGenotype() { return new double[0]; }
+        public void setGenotype(double[] genotype) {}
+    }
+}
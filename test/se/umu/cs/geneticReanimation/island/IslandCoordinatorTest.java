@@ -0,0 +1,54 @@
+package se.umu.cs.geneticReanimation.island;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IslandCoordinatorTest {
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("islands", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testTwoIslandsMigrate() throws Exception {
+        String path = dir.getPath() + File.separator;
+        String[] parameters = { "-n4", "-p4", "-l200", "-g2", "-M1", "-v" + path };
+        IslandCoordinator coordinator = new IslandCoordinator(2, parameters, path);
+        int[] exitCodes = coordinator.run();
+
+        IslandStats[] stats = coordinator.getStats();
+        assertEquals(2, stats.length);
+        for (int i = 0; i < stats.length; i++) {
+            assertEquals(0, exitCodes[i]);
+            assertTrue(stats[i].isDone());
+            assertFalse(stats[i].isLost());
+            assertEquals(3, stats[i].getGeneration());
+            // Migrations after generation 1 and 3
+            assertEquals(2, stats[i].getMigrantsSent());
+            assertEquals(2, stats[i].getMigrantsReceived());
+        }
+        assertTrue(new File(path + "island1-generation-3.txt").exists());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoIslands() {
+        new IslandCoordinator(0, new String[0], "");
+    }
+}
@@ -0,0 +1,79 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ActivationTest {
+
+    @Test
+    public void testMaxError() {
+        for (Activation activation : Activation.values()) {
+            double maxError = 0.0;
+            for (int i = -200000; i <= 200000; i++) {
+                double x = i / 10000.0;
+                double y = activation.apply(x);
+                assertTrue(activation + "(" + x + ") = " + y, Math.abs(y) <= 1.0);
+                maxError = Math.max(maxError, Math.abs(y - Math.tanh(x)));
+            }
+            assertTrue(activation + " error " + maxError,
+                       maxError <= activation.getMaxError());
+        }
+    }
+
+    @Test
+    public void testSaturation() {
+        for (Activation activation : Activation.values()) {
+            assertEquals(1.0, activation.apply(1000.0), 0.0);
+            assertEquals(-1.0, activation.apply(-1000.0), 0.0);
+            assertEquals(1.0, activation.apply(Double.POSITIVE_INFINITY), 0.0);
+            assertEquals(0.0, activation.apply(0.0), activation.getMaxError());
+        }
+    }
+
+    @Test
+    public void testPowIsHopfieldNeuralNetSigmoid() {
+        HopfieldNeuralNet nn = new HopfieldNeuralNet(new double[4]);
+        Random r = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double x = r.nextDouble() * 20 - 10;
+            assertEquals(nn.sigmoid(x), Activation.POW.apply(x), 0.0);
+        }
+    }
+
+    @Test
+    public void testNetsUseActivation() {
+        double[] genotype = new double[25];
+        Random r = new Random(42);
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+        FlatHopfieldNeuralNet flat = new FlatHopfieldNeuralNet(genotype, Activation.TABLE);
+        BatchedHopfieldNet batched = new BatchedHopfieldNet(2, 5, Activation.TABLE);
+        batched.getMember(1).setGenotype(genotype);
+        double[] inputs = {0.5, -3.0, 2.0, 7.0};
+        flat.setInputs(inputs);
+        batched.getMember(1).setInputs(inputs);
+        batched.getMember(0).setGenotype(genotype);
+        batched.getMember(0).setInputs(inputs);
+        for (int i = 0; i < 10; i++) {
+            flat.step();
+            batched.step();
+            assertTrue(Arrays.equals(flat.getOutputs(), batched.getMember(1).getOutputs()));
+        }
+    }
+
+    @Test
+    public void testForName() {
+        assertEquals(Activation.TABLE, Activation.forName("table"));
+        assertEquals(Activation.RATIONAL, Activation.forName("Rational"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownName() {
+        Activation.forName("relu");
+    }
+}
@@ -0,0 +1,84 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BrainCompilerTest {
+    private Random r = new Random(42);
+
+    @Test
+    public void testSameOutputsAsFlat() {
+        BrainCompiler compiler = new BrainCompiler(Activation.POW, 0.0);
+        for (int size = 2; size <= 12; size++) {
+            double[] genotype = randomGenotype(size);
+            genotype[1] = 0.0;
+            Brain compiled = compiler.compile(genotype);
+            assertTrue(compiled instanceof CompiledBrain);
+            assertSameOutputs(new FlatHopfieldNeuralNet(genotype), compiled, size);
+            assertTrue(Arrays.equals(genotype, compiled.getGenotype()));
+        }
+    }
+
+    @Test
+    public void testPruning() {
+        double[] genotype = randomGenotype(5);
+        BrainCompiler compiler = new BrainCompiler(Activation.TABLE, 0.3);
+        double[] pruned = genotype.clone();
+        int kept = 0;
+        for (int i = 0; i < pruned.length; i++) {
+            if (Math.abs(pruned[i]) <= 0.3) {
+                pruned[i] = 0.0;
+            } else {
+                kept++;
+            }
+        }
+        assertEquals(kept, compiler.countKept(genotype));
+        assertSameOutputs(new FlatHopfieldNeuralNet(pruned, Activation.TABLE),
+                          compiler.compile(genotype), 5);
+        // The genotype keeps the pruned weights
+        assertTrue(Arrays.equals(genotype, compiler.compile(genotype).getGenotype()));
+    }
+
+    @Test
+    public void testTooBigForOneMethod() {
+        Brain brain = new BrainCompiler(Activation.POW, 0.0).compile(randomGenotype(100));
+        assertTrue(brain instanceof FlatHopfieldNeuralNet);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetGenotype() {
+        Brain brain = new BrainCompiler(Activation.POW, 0.0).compile(randomGenotype(3));
+        brain.setGenotype(randomGenotype(3));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIllegalGenotype() {
+        new BrainCompiler(Activation.POW, 0.0).compile(new double[5]);
+    }
+
+    private void assertSameOutputs(Brain expected, Brain actual, int size) {
+        double[] inputs = new double[size - 1];
+        for (int t = 0; t < 50; t++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = r.nextDouble() * 20 - 10;
+            }
+            expected.setInputs(inputs);
+            actual.setInputs(inputs);
+            expected.step();
+            actual.step();
+            assertTrue(Arrays.equals(expected.getOutputs(), actual.getOutputs()));
+        }
+    }
+
+    private double[] randomGenotype(int size) {
+        double[] genotype = new double[size * size];
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+        return genotype;
+    }
+}
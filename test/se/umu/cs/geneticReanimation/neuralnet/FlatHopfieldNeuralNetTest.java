@@ -0,0 +1,56 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlatHopfieldNeuralNetTest {
+
+    @Test
+    public void testSameOutputsAsHopfieldNeuralNet() {
+        Random r = new Random(42);
+        for (int size = 2; size <= 7; size++) {
+            double[] genotype = new double[size * size];
+            for (int i = 0, length = genotype.length; i < length; i++) {
+                genotype[i] = r.nextDouble() * 2 - 1;
+            }
+            HopfieldNeuralNet jagged = new HopfieldNeuralNet(genotype);
+            FlatHopfieldNeuralNet flat = new FlatHopfieldNeuralNet(genotype);
+            assertTrue(Arrays.equals(jagged.getGenotype(), flat.getGenotype()));
+
+            double[] inputs = new double[size - 1];
+            for (int t = 0; t < 50; t++) {
+                for (int i = 0, length = inputs.length; i < length; i++) {
+                    inputs[i] = r.nextDouble() * 20 - 10;
+                }
+                jagged.setInputs(inputs);
+                flat.setInputs(inputs);
+                jagged.step();
+                flat.step();
+                assertTrue(Arrays.equals(jagged.getOutputs(), flat.getOutputs()));
+            }
+        }
+    }
+
+    @Test
+    public void testGenotypeIsCopied() {
+        double[] genotype = {1.0, 2.0, 3.0, 4.0};
+        FlatHopfieldNeuralNet nn = new FlatHopfieldNeuralNet(genotype);
+        genotype[0] = 5.0;
+        nn.getGenotype()[1] = 5.0;
+        assertTrue(Arrays.equals(new double[] {1.0, 2.0, 3.0, 4.0}, nn.getGenotype()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIllegalGenotype() {
+        new FlatHopfieldNeuralNet(new double[5]);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testStepWithoutInput() {
+        new FlatHopfieldNeuralNet(new double[4]).step();
+    }
+}
@@ -0,0 +1,83 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PrecisionTest {
+    private double[] genotype;
+
+    @Before
+    public void setUp() {
+        Random r = new Random(42);
+        this.genotype = new double[25];
+        for (int i = 0, length = genotype.length; i < length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+    }
+
+    @Test
+    public void testRoundingError() {
+        for (Precision precision : Precision.values()) {
+            double[] rounded = precision.round(genotype);
+            double maxError = 0.0;
+            for (int i = 0; i < genotype.length; i++) {
+                maxError = Math.max(maxError, Math.abs(rounded[i] - genotype[i]));
+            }
+            if (precision == Precision.DOUBLE) {
+                assertEquals(0.0, maxError, 0.0);
+            } else if (precision == Precision.FLOAT) {
+                assertTrue(maxError <= Math.ulp(1.0f));
+            } else {
+                assertTrue(precision + " error " + maxError,
+                           maxError <= precision.scaleOf(genotype) / 2 * (1 + 1e-9));
+            }
+        }
+    }
+
+    @Test
+    public void testBrainStoresRoundedGenotype() {
+        for (Precision precision : Precision.values()) {
+            Brain brain = precision.createBrain(genotype, Activation.POW);
+            assertTrue(precision.toString(),
+                       Arrays.equals(precision.round(genotype), brain.getGenotype()));
+        }
+    }
+
+    @Test
+    public void testOutputsCloseToDouble() {
+        double[] tolerance = {0.0, 1e-5, 1e-3, 0.05};
+        for (Precision precision : Precision.values()) {
+            Brain reference = new FlatHopfieldNeuralNet(genotype);
+            Brain brain = precision.createBrain(genotype, Activation.POW);
+            double[] inputs = {0.5, -0.25, 1.0, 0.0};
+            for (int t = 0; t < 20; t++) {
+                reference.setInputs(inputs);
+                brain.setInputs(inputs);
+                reference.step();
+                brain.step();
+                double[] expected = reference.getOutputs();
+                double[] actual = brain.getOutputs();
+                for (int i = 0; i < expected.length; i++) {
+                    assertEquals(precision.toString(), expected[i], actual[i],
+                                 tolerance[precision.ordinal()]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testZeroGenotype() {
+        Brain brain = Precision.INT8.createBrain(new double[9], Activation.POW);
+        assertTrue(Arrays.equals(new double[9], brain.getGenotype()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testQuantizedNetNeedsQuantizedPrecision() {
+        new QuantizedHopfieldNeuralNet(genotype, Precision.FLOAT, Activation.POW);
+    }
+}
@@ -0,0 +1,87 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SettlingBrainTest {
+
+    @Test
+    public void testSettledNetStopsEarly() {
+        // Without weights the nodes only follow the inputs, so the second
+        // step changes nothing
+        SettlingBrain brain = new SettlingBrain(new FlatHopfieldNeuralNet(new double[9]),
+                                                1e-9, 10);
+        brain.setInputs(new double[] {1.0, -1.0});
+        brain.step();
+        brain.step();
+
+        SettlingStats stats = new SettlingStats();
+        brain.drainSteps(stats);
+        assertEquals(2, stats.getSettles());
+        assertEquals(3, stats.getSteps());
+        assertEquals(0, stats.getCapped());
+        assertEquals(1.5, stats.getMeanSteps(), 0.0);
+    }
+
+    @Test
+    public void testSameOutputsAsSteppingTheNet() {
+        Random r = new Random(42);
+        double[] genotype = new double[25];
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+        FlatHopfieldNeuralNet flat = new FlatHopfieldNeuralNet(genotype);
+        SettlingBrain brain = new SettlingBrain(new FlatHopfieldNeuralNet(genotype),
+                                                1e-3, 5);
+        SettlingStats stats = new SettlingStats();
+        double[] inputs = new double[4];
+        for (int t = 0; t < 50; t++) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = r.nextDouble() * 20 - 10;
+            }
+            flat.setInputs(inputs);
+            brain.setInputs(inputs);
+            brain.step();
+            long before = stats.getSteps();
+            brain.drainSteps(stats);
+            long steps = stats.getSteps() - before;
+            assertTrue(steps >= 1 && steps <= 5);
+            for (int i = 0; i < steps; i++) {
+                flat.step();
+            }
+            assertTrue(Arrays.equals(flat.getOutputs(), brain.getOutputs()));
+        }
+        assertEquals(50, stats.getSettles());
+    }
+
+    @Test
+    public void testUnsettledNetIsCapped() {
+        // A tolerance of 0 is never met by a net whose nodes keep changing
+        SettlingBrain brain = new SettlingBrain(new FlatHopfieldNeuralNet(new double[9]),
+                                                0.0, 1);
+        brain.setInputs(new double[] {1.0, -1.0});
+        brain.step();
+
+        SettlingStats stats = new SettlingStats();
+        brain.drainSteps(stats);
+        brain.drainSteps(stats);
+        assertEquals(1, stats.getSettles());
+        assertEquals(1, stats.getSteps());
+        assertEquals(1, stats.getCapped());
+        assertEquals(1.0, stats.getCappedFraction(), 0.0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoSteps() {
+        new SettlingBrain(new FlatHopfieldNeuralNet(new double[4]), 1e-3, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeTolerance() {
+        new SettlingBrain(new FlatHopfieldNeuralNet(new double[4]), -1.0, 5);
+    }
+}
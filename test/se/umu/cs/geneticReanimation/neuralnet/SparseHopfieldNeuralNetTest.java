@@ -0,0 +1,76 @@
+package se.umu.cs.geneticReanimation.neuralnet;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SparseHopfieldNeuralNetTest {
+    private Random r = new Random(42);
+
+    @Test
+    public void testSameOutputsAsPrunedFlat() {
+        double[] epsilons = {0.0, 0.3, 0.9, 1.0};
+        for (double epsilon : epsilons) {
+            double[] genotype = randomGenotype(6);
+            double[] pruned = genotype.clone();
+            for (int i = 0; i < pruned.length; i++) {
+                if (Math.abs(pruned[i]) <= epsilon) {
+                    pruned[i] = 0.0;
+                }
+            }
+            SparseHopfieldNeuralNet sparse =
+                new SparseHopfieldNeuralNet(genotype, epsilon, Activation.POW);
+            FlatHopfieldNeuralNet flat = new FlatHopfieldNeuralNet(pruned);
+            double[] inputs = new double[5];
+            for (int t = 0; t < 50; t++) {
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = r.nextDouble() * 20 - 10;
+                }
+                sparse.setInputs(inputs);
+                flat.setInputs(inputs);
+                sparse.step();
+                flat.step();
+                assertTrue(Arrays.equals(flat.getOutputs(), sparse.getOutputs()));
+            }
+            assertTrue(Arrays.equals(genotype, sparse.getGenotype()));
+            assertEquals(SparseHopfieldNeuralNet.sparsityOf(genotype, epsilon),
+                         sparse.getSparsity(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testDrainWork() {
+        double[] genotype = {0.5, 0.0, 0.0, -0.5};
+        SparseHopfieldNeuralNet sparse =
+            new SparseHopfieldNeuralNet(genotype, 0.1, Activation.POW);
+        assertEquals(2, sparse.getNonZeros());
+        sparse.setInputs(new double[] {1.0});
+        for (int i = 0; i < 10; i++) {
+            sparse.step();
+        }
+
+        SparseStats stats = new SparseStats();
+        sparse.drainWork(stats);
+        sparse.drainWork(stats);
+        assertEquals(20, stats.getDone());
+        assertEquals(20, stats.getSkipped());
+        assertEquals(1, stats.getBrains());
+        assertEquals(0.5, stats.getSavedFraction(), 0.0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeEpsilon() {
+        new SparseHopfieldNeuralNet(randomGenotype(3), -1.0, Activation.POW);
+    }
+
+    private double[] randomGenotype(int size) {
+        double[] genotype = new double[size * size];
+        for (int i = 0; i < genotype.length; i++) {
+            genotype[i] = r.nextDouble() * 2 - 1;
+        }
+        return genotype;
+    }
+}
@@ -0,0 +1,94 @@
+package se.umu.cs.geneticReanimation.random;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.GeneticAlgoritm;
+import se.umu.cs.geneticReanimation.creature.Creature;
+
+import static org.junit.Assert.*;
+
+public class SplitRandomTest {
+
+    @Test
+    public void testSameSeedSameStream() {
+        SplitRandom r1 = new SplitRandom(42);
+        SplitRandom r2 = new SplitRandom(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(r1.nextLong(), r2.nextLong());
+        }
+        assertFalse(new SplitRandom(42).nextLong() == new SplitRandom(43).nextLong());
+    }
+
+    @Test
+    public void testRestoreState() {
+        SplitRandom random = new SplitRandom(42).split();
+        random.nextLong();
+        SplitRandom restored = new SplitRandom(random.getSeed(), random.getGamma());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextLong(), restored.nextLong());
+        }
+    }
+
+    @Test
+    public void testSplitStreamsDiffer() {
+        SplitRandom random = new SplitRandom(42);
+        SplitRandom s1 = random.split();
+        SplitRandom s2 = random.split();
+        int same = 0;
+        for (int i = 0; i < 100; i++) {
+            if (s1.nextLong() == s2.nextLong()) {
+                same++;
+            }
+        }
+        assertEquals(0, same);
+    }
+
+    @Test
+    public void testForkDoesNotAdvance() {
+        SplitRandom random = new SplitRandom(42);
+        long f1 = random.fork(3).nextLong();
+        long f2 = random.fork(3).nextLong();
+        assertEquals(f1, f2);
+        assertFalse(f1 == random.fork(4).nextLong());
+        assertEquals(new SplitRandom(42).nextLong(), random.nextLong());
+    }
+
+    @Test
+    public void testDoubleRange() {
+        SplitRandom random = new SplitRandom(42);
+        double sum = 0;
+        for (int i = 0; i < 10000; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0.0 && value < 1.0);
+            sum += value;
+            int index = random.nextInt(7);
+            assertTrue(index >= 0 && index < 7);
+        }
+        assertEquals(0.5, sum / 10000, 0.02);
+    }
+
+    @Test
+    public void testReplayGeneticAlgoritm() {
+        List<Creature> p1 = breed(7);
+        List<Creature> p2 = breed(7);
+        for (int i = 0; i < p1.size(); i++) {
+            assertTrue(Arrays.equals(p1.get(i).getGenotype(),
+                                     p2.get(i).getGenotype()));
+        }
+    }
+
+    private List<Creature> breed(long seed) {
+        GeneticAlgoritm ga = new GeneticAlgoritm(0.7, 0.1, new SplitRandom(seed));
+        List<Creature> population = ga.createPopulation(10);
+        for (int generation = 0; generation < 3; generation++) {
+            for (int i = 0; i < population.size(); i++) {
+                population.get(i).setFitness(population.get(i).getGenotype()[i]);
+            }
+            population = ga.createNextGeneration(population);
+        }
+        return population;
+    }
+}
@@ -0,0 +1,122 @@
+package se.umu.cs.geneticReanimation.remote;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.evaluation.SequentialEvaluator;
+import se.umu.cs.geneticReanimation.neuralnet.Activation;
+
+import static org.junit.Assert.*;
+
+public class RemoteEvaluatorTest {
+    private static final int LIFESPAN = 400;
+    private List<double[]> genotypes;
+    private LoopbackWorkers workers;
+    private RemoteEvaluator evaluator;
+
+    @Before
+    public void setUp() throws Exception {
+        Random r = new Random(42);
+        this.genotypes = new ArrayList<double[]>();
+        for (int i = 0; i < 11; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            genotypes.add(genotype);
+        }
+        this.workers = new LoopbackWorkers(2, WormConfig.DEFAULT);
+        this.evaluator = new RemoteEvaluator(workers.getAddresses(), LIFESPAN, 3, 2,
+                                             WormConfig.DEFAULT);
+    }
+
+    @After
+    public void tearDown() {
+        evaluator.shutdown();
+        workers.shutdown();
+    }
+
+    @Test
+    public void testSameFitnessAsSequential() {
+        assertSameFitnessAsSequential();
+        // The connections can be used again
+        assertSameFitnessAsSequential();
+    }
+
+    @Test
+    public void testRetryOnWorkerDeath() throws Exception {
+        workers.kill(0);
+        assertSameFitnessAsSequential();
+        assertEquals(1, evaluator.getLiveConnections());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testAllWorkersDead() throws Exception {
+        workers.kill(0);
+        workers.kill(1);
+        evaluator.evaluate(createPopulation());
+    }
+
+    @Test
+    public void testOtherBrainConfigRejected() throws Exception {
+        LoopbackWorkers other = new LoopbackWorkers(1, WormConfig.DEFAULT);
+        try {
+            new RemoteEvaluator(other.getAddresses(), LIFESPAN, 3, 2,
+                                WormConfig.DEFAULT.withActivation(Activation.TANH));
+            fail("Worker accepted another activation");
+        } catch (IOException e) {
+            assertTrue(e.getCause().getMessage().contains("activation"));
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnusedSettingsIgnored() throws Exception {
+        // Started without -N, so with a settle tolerance of 0
+        LoopbackWorkers other = new LoopbackWorkers(1, WormConfig.DEFAULT);
+        try {
+            new RemoteEvaluator(other.getAddresses(), LIFESPAN, 3, 2,
+                                WormConfig.DEFAULT.withSettling(0, 0.001)).shutdown();
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseAddresses() {
+        assertEquals(2, RemoteEvaluator.parseAddresses("localhost:4000, localhost:4001").size());
+        assertEquals(4001, RemoteEvaluator.parseAddresses("localhost:4001").get(0).getPort());
+        assertTrue(RemoteEvaluator.parseAddresses("").isEmpty());
+    }
+
+    private void assertSameFitnessAsSequential() {
+        List<Creature> sequential = createPopulation();
+        new SequentialEvaluator(LIFESPAN).evaluate(sequential);
+
+        List<Creature> remote = createPopulation();
+        evaluator.evaluate(remote);
+
+        for (int i = 0, length = sequential.size(); i < length; i++) {
+            assertEquals(sequential.get(i).getFitness(),
+                         remote.get(i).getFitness(), 0.0);
+        }
+    }
+
+    private List<Creature> createPopulation() {
+        List<Creature> population = new ArrayList<Creature>();
+        for (double[] genotype : genotypes) {
+            population.add(new WormCreature(genotype));
+        }
+        return population;
+    }
+}
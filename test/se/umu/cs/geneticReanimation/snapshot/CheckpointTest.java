@@ -0,0 +1,106 @@
+package se.umu.cs.geneticReanimation.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+import se.umu.cs.geneticReanimation.random.SplitRandom;
+
+import static org.junit.Assert.*;
+
+public class CheckpointTest {
+    private List<Creature> population;
+    private Map<double[], Double> cacheEntries;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        Random r = new Random(42);
+        this.population = new ArrayList<Creature>();
+        this.cacheEntries = new LinkedHashMap<double[], Double>();
+        for (int i = 0; i < 5; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            Creature creature = new WormCreature(genotype);
+            creature.setFitness(r.nextGaussian() * 100);
+            population.add(creature);
+            cacheEntries.put(genotype, creature.getFitness());
+        }
+        this.file = File.createTempFile("checkpoint", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        SplitRandom random = new SplitRandom(7);
+        random.nextDouble();
+        new Checkpoint(41, 0.7, 0.01, random, population, cacheEntries).write(file);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(41, checkpoint.getGeneration());
+        assertEquals(0.7, checkpoint.getCrossoverRate(), 0.0);
+        assertEquals(0.01, checkpoint.getMutationRate(), 0.0);
+
+        // The restored generator continues where the saved one was
+        SplitRandom restored = checkpoint.getRandom();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(random.nextDouble(), restored.nextDouble(), 0.0);
+        }
+
+        PopulationSnapshot snapshot = checkpoint.getPopulation();
+        assertEquals(population.size(), snapshot.getPopulationSize());
+        for (int i = 0; i < population.size(); i++) {
+            assertEquals(population.get(i).getFitness(), snapshot.getFitness(i), 0.0);
+            assertTrue(Arrays.equals(population.get(i).getGenotype(),
+                                     snapshot.getGenotype(i)));
+        }
+
+        List<double[]> genotypes = new ArrayList<double[]>(cacheEntries.keySet());
+        int i = 0;
+        for (Map.Entry<double[], Double> entry : checkpoint.getCacheEntries().entrySet()) {
+            assertTrue(Arrays.equals(genotypes.get(i), entry.getKey()));
+            assertEquals(cacheEntries.get(genotypes.get(i)), entry.getValue());
+            i++;
+        }
+        assertEquals(cacheEntries.size(), i);
+    }
+
+    @Test
+    public void testReplacesOldCheckpoint() throws IOException {
+        new Checkpoint(1, 0.7, 0.01, new SplitRandom(), population, cacheEntries).write(file);
+        new Checkpoint(2, 0.7, 0.01, new SplitRandom(), population,
+                       new LinkedHashMap<double[], Double>()).write(file);
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(2, checkpoint.getGeneration());
+        assertTrue(checkpoint.getCacheEntries().isEmpty());
+    }
+
+    @Test(expected=IOException.class)
+    public void testTruncated() throws IOException {
+        new Checkpoint(1, 0.7, 0.01, new SplitRandom(), population, cacheEntries).write(file);
+        long length = file.length();
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        out.setLength(length - 8);
+        out.close();
+        Checkpoint.read(file);
+    }
+}
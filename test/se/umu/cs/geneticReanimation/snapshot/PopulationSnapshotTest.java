@@ -0,0 +1,93 @@
+package se.umu.cs.geneticReanimation.snapshot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import se.umu.cs.geneticReanimation.creature.Creature;
+import se.umu.cs.geneticReanimation.creature.WormConfig;
+import se.umu.cs.geneticReanimation.creature.WormCreature;
+
+import static org.junit.Assert.*;
+
+public class PopulationSnapshotTest {
+    private List<Creature> population;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        Random r = new Random(42);
+        this.population = new ArrayList<Creature>();
+        for (int i = 0; i < 7; i++) {
+            double[] genotype = new double[25];
+            for (int j = 0, length = genotype.length; j < length; j++) {
+                genotype[j] = r.nextDouble() * 2 - 1;
+            }
+            Creature creature = new WormCreature(genotype);
+            creature.setFitness(r.nextGaussian() * 100);
+            population.add(creature);
+        }
+        population.get(3).setFitness(Double.NaN);
+        population.get(4).setFitness(-0.0);
+        this.file = File.createTempFile("population", ".pop");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        PopulationSnapshot.write(file, population);
+        assertEquals(PopulationSnapshot.HEADER_SIZE + 7 * 26 * 8, file.length());
+        assertSame(PopulationSnapshot.read(file));
+    }
+
+    @Test
+    public void testTextRoundTrip() throws IOException {
+        PopulationSnapshot.of(population).writeText(file);
+        assertSame(PopulationSnapshot.read(file));
+    }
+
+    @Test
+    public void testConvertText() throws IOException {
+        File text = File.createTempFile("population", ".txt");
+        try {
+            PopulationSnapshot.of(population).writeText(text);
+            PopulationSnapshot.main(new String[] { text.getPath(), file.getPath() });
+            assertSame(PopulationSnapshot.readBinary(file));
+        } finally {
+            text.delete();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testWrongVersion() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 0x47, 0x52, 0x50, 0x53, 0, 0, 0, 99,
+                               0, 0, 0, 0, 0, 0, 0, 0 });
+        out.close();
+        PopulationSnapshot.readBinary(file);
+    }
+
+    private void assertSame(PopulationSnapshot snapshot) {
+        assertEquals(population.size(), snapshot.getPopulationSize());
+        assertEquals(25, snapshot.getGenotypeSize());
+        List<Creature> creatures = snapshot.toCreatures(WormConfig.DEFAULT);
+        for (int i = 0; i < population.size(); i++) {
+            assertEquals(Double.doubleToLongBits(population.get(i).getFitness()),
+                         Double.doubleToLongBits(creatures.get(i).getFitness()));
+            assertTrue(Arrays.equals(population.get(i).getGenotype(),
+                                     creatures.get(i).getGenotype()));
+        }
+    }
+}